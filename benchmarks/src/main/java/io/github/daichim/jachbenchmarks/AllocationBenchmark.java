@@ -0,0 +1,68 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.Channel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single threaded write-then-read round trips over a channel with {@link Copiers#REF}, to check
+ * the allocation rate ({@code gc.alloc.rate.norm}) of the steady state write and read paths. With
+ * no other thread around, the channel never parks, so any allocation reported here is overhead of
+ * the channel itself, which should be 0 B/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AllocationBenchmark {
+
+    @Param({Channels.BUFFERED, Channels.RING})
+    private String impl;
+
+    private Channel<Message> channel;
+    private Message message;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.channel = Channels.of(impl, 1024, Message.class, Copiers.REF);
+        this.message = Message.sample();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.channel.close();
+    }
+
+    @Benchmark
+    public Message writeRead() {
+        channel.write(message);
+        return channel.read();
+    }
+
+    @Benchmark
+    public Message timedWriteRead() throws Exception {
+        channel.write(message, 1, TimeUnit.SECONDS);
+        return channel.read(1, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public Message tryWriteRead() {
+        channel.tryWrite(message);
+        return channel.tryRead();
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.daichim.jachbenchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.results.format.ResultFormatType;
+
+/**
+ * Entry point of the benchmark uber jar. It accepts the regular JMH command line, and always adds
+ * the GC profiler so that the allocation rate ({@code gc.alloc.rate.norm}, in bytes per operation)
+ * is reported next to the throughput and the latency percentiles. Results are also written to
+ * {@code jach-benchmarks.json} so that two runs can be compared for regressions.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cmdOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+            .parent(cmdOptions)
+            .addProfiler(GCProfiler.class);
+        if (!cmdOptions.getResult().hasValue()) {
+            builder.result("jach-benchmarks.json");
+        }
+        if (!cmdOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(builder.build()).run();
+    }
+}
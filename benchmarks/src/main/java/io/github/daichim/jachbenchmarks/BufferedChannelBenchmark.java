@@ -0,0 +1,213 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.BufferedChannel;
+import io.github.daichim.jach.channel.Channel;
+import io.github.daichim.jach.channel.RingBufferChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the blocking ({@code write/read}) and non-blocking ({@code tryWrite/tryRead}) paths
+ * of {@link BufferedChannel} and {@link RingBufferChannel} under the four producer/consumer
+ * topologies:
+ * <ul>
+ *     <li>spsc - 1 writer, 1 reader</li>
+ *     <li>mpsc - 4 writers, 1 reader</li>
+ *     <li>spmc - 1 writer, 4 readers</li>
+ *     <li>mpmc - 4 writers, 4 readers</li>
+ * </ul>
+ * The groups with a {@code _try} suffix spin on {@code tryWrite/tryRead} instead of blocking.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class BufferedChannelBenchmark {
+
+    @Param({Channels.BUFFERED, Channels.RING})
+    private String impl;
+
+    @Param({"1", "64", "1024"})
+    private int capacity;
+
+    @Param({Copiers.REF, Copiers.KRYO})
+    private String copier;
+
+    private Channel<Message> channel;
+    private Message message;
+    private Unblocker unblocker;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.channel = Channels.of(impl, capacity, Message.class, copier);
+        this.message = Message.sample();
+        this.unblocker = new Unblocker(message, channel);
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        this.unblocker.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopIteration() throws InterruptedException {
+        this.unblocker.stop();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.channel.close();
+    }
+
+    private void write(Control ctl) {
+        unblocker.watch(ctl);
+        channel.write(message);
+    }
+
+    private Message read(Control ctl) {
+        unblocker.watch(ctl);
+        return channel.read();
+    }
+
+    private boolean tryWrite() {
+        return channel.tryWrite(message);
+    }
+
+    private Message tryRead() {
+        return channel.tryRead();
+    }
+
+    // ------- Blocking read/write --------- //
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void spscWrite(Control ctl) {
+        write(ctl);
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public Message spscRead(Control ctl) {
+        return read(ctl);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(4)
+    public void mpscWrite(Control ctl) {
+        write(ctl);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(1)
+    public Message mpscRead(Control ctl) {
+        return read(ctl);
+    }
+
+    @Benchmark
+    @Group("spmc")
+    @GroupThreads(1)
+    public void spmcWrite(Control ctl) {
+        write(ctl);
+    }
+
+    @Benchmark
+    @Group("spmc")
+    @GroupThreads(4)
+    public Message spmcRead(Control ctl) {
+        return read(ctl);
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(4)
+    public void mpmcWrite(Control ctl) {
+        write(ctl);
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(4)
+    public Message mpmcRead(Control ctl) {
+        return read(ctl);
+    }
+
+    // ------- Non-blocking tryRead/tryWrite --------- //
+
+    @Benchmark
+    @Group("spsc_try")
+    @GroupThreads(1)
+    public boolean spscTryWrite() {
+        return tryWrite();
+    }
+
+    @Benchmark
+    @Group("spsc_try")
+    @GroupThreads(1)
+    public Message spscTryRead() {
+        return tryRead();
+    }
+
+    @Benchmark
+    @Group("mpsc_try")
+    @GroupThreads(4)
+    public boolean mpscTryWrite() {
+        return tryWrite();
+    }
+
+    @Benchmark
+    @Group("mpsc_try")
+    @GroupThreads(1)
+    public Message mpscTryRead() {
+        return tryRead();
+    }
+
+    @Benchmark
+    @Group("spmc_try")
+    @GroupThreads(1)
+    public boolean spmcTryWrite() {
+        return tryWrite();
+    }
+
+    @Benchmark
+    @Group("spmc_try")
+    @GroupThreads(4)
+    public Message spmcTryRead() {
+        return tryRead();
+    }
+
+    @Benchmark
+    @Group("mpmc_try")
+    @GroupThreads(4)
+    public boolean mpmcTryWrite() {
+        return tryWrite();
+    }
+
+    @Benchmark
+    @Group("mpmc_try")
+    @GroupThreads(4)
+    public Message mpmcTryRead() {
+        return tryRead();
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.Cardinality;
+import io.github.daichim.jach.channel.Channel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Benchmarks the channels created for a narrower {@link Cardinality} against the general purpose
+ * channels, over the topology each of them is made for:
+ * <ul>
+ *     <li>spsc - 1 writer, 1 reader</li>
+ *     <li>mpsc - 4 writers, 1 reader</li>
+ *     <li>spmc - 1 writer, 4 readers</li>
+ * </ul>
+ * The {@code buffered} and {@code ring} implementations are the MPMC {@code BufferedChannel} and
+ * {@code RingBufferChannel}, while {@code specialized} is a {@code RingBufferChannel} created for
+ * the cardinality of the group.
+ * <p>
+ * The {@link Unblocker} would break the single producer (or consumer) promise of the specialized
+ * channels, so the blocking groups use a short timeout instead to leave the measurement loop.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class CardinalityBenchmark {
+
+    private static final int TIMEOUT_MILLIS = 10;
+
+    @Param({Channels.BUFFERED, Channels.RING, Channels.SPECIALIZED})
+    private String impl;
+
+    @Param({"64", "1024"})
+    private int capacity;
+
+    @Param({Copiers.REF})
+    private String copier;
+
+    private Channel<Message> spsc;
+    private Channel<Message> mpsc;
+    private Channel<Message> spmc;
+    private Message message;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.spsc = Channels.of(impl, capacity, Message.class, copier, Cardinality.SPSC);
+        this.mpsc = Channels.of(impl, capacity, Message.class, copier, Cardinality.MPSC);
+        this.spmc = Channels.of(impl, capacity, Message.class, copier, Cardinality.SPMC);
+        this.message = Message.sample();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.spsc.close();
+        this.mpsc.close();
+        this.spmc.close();
+    }
+
+    private boolean write(Channel<Message> channel) {
+        try {
+            channel.write(message, TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | io.github.daichim.jach.exception.TimeoutException ex) {
+            return false;
+        }
+    }
+
+    private Message read(Channel<Message> channel) {
+        try {
+            return channel.read(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | io.github.daichim.jach.exception.TimeoutException ex) {
+            return null;
+        }
+    }
+
+    // ------- Blocking read/write --------- //
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public boolean spscWrite() {
+        return write(spsc);
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public Message spscRead() {
+        return read(spsc);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(4)
+    public boolean mpscWrite() {
+        return write(mpsc);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(1)
+    public Message mpscRead() {
+        return read(mpsc);
+    }
+
+    @Benchmark
+    @Group("spmc")
+    @GroupThreads(1)
+    public boolean spmcWrite() {
+        return write(spmc);
+    }
+
+    @Benchmark
+    @Group("spmc")
+    @GroupThreads(4)
+    public Message spmcRead() {
+        return read(spmc);
+    }
+
+    // ------- Non-blocking tryRead/tryWrite --------- //
+
+    @Benchmark
+    @Group("spsc_try")
+    @GroupThreads(1)
+    public boolean spscTryWrite() {
+        return spsc.tryWrite(message);
+    }
+
+    @Benchmark
+    @Group("spsc_try")
+    @GroupThreads(1)
+    public Message spscTryRead() {
+        return spsc.tryRead();
+    }
+
+    @Benchmark
+    @Group("mpsc_try")
+    @GroupThreads(4)
+    public boolean mpscTryWrite() {
+        return mpsc.tryWrite(message);
+    }
+
+    @Benchmark
+    @Group("mpsc_try")
+    @GroupThreads(1)
+    public Message mpscTryRead() {
+        return mpsc.tryRead();
+    }
+
+    @Benchmark
+    @Group("spmc_try")
+    @GroupThreads(1)
+    public boolean spmcTryWrite() {
+        return spmc.tryWrite(message);
+    }
+
+    @Benchmark
+    @Group("spmc_try")
+    @GroupThreads(4)
+    public Message spmcTryRead() {
+        return spmc.tryRead();
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.BufferedChannel;
+import io.github.daichim.jach.channel.Cardinality;
+import io.github.daichim.jach.channel.Channel;
+import io.github.daichim.jach.channel.RingBufferChannel;
+
+/**
+ * Maps the {@code impl} benchmark parameter to a buffered {@link Channel} implementation.
+ */
+public class Channels {
+
+    public static final String BUFFERED = "buffered";
+    public static final String RING = "ring";
+    public static final String SPECIALIZED = "specialized";
+
+    public static <T> Channel<T> of(String impl, int capacity, Class<T> clazz, String copier) {
+        return of(impl, capacity, clazz, copier, Cardinality.MPMC);
+    }
+
+    /**
+     * Same as {@link #of(String, int, Class, String)}, except that the {@code specialized}
+     * implementation is a {@link RingBufferChannel} created for the given {@link Cardinality}. The
+     * other implementations ignore the cardinality.
+     */
+    public static <T> Channel<T> of(String impl, int capacity, Class<T> clazz, String copier,
+                                    Cardinality cardinality) {
+        switch (impl) {
+            case BUFFERED:
+                return new BufferedChannel<>(capacity, clazz, Copiers.of(copier, clazz));
+            case RING:
+                return new RingBufferChannel<>(capacity, clazz, Copiers.of(copier, clazz));
+            case SPECIALIZED:
+                return new RingBufferChannel<>(capacity, clazz, Copiers.of(copier, clazz),
+                    cardinality);
+            default:
+                throw new IllegalArgumentException("Unknown channel implementation: " + impl);
+        }
+    }
+}
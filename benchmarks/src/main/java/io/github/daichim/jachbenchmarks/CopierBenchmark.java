@@ -0,0 +1,74 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.copier.Copier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copy throughput of a single {@link Copier} shared by 1 to 32 writer threads, as the writers of
+ * a channel do. {@code kryo} copies with a single, lock protected Kryo instance and {@code pooled}
+ * borrows an instance from the shared pool for every copy.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CopierBenchmark {
+
+    @Param({Copiers.KRYO, Copiers.POOLED})
+    private String copier;
+
+    private Copier<Message> messageCopier;
+    private Message message;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.messageCopier = Copiers.of(copier, Message.class);
+        this.message = Message.sample();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Message threads01() {
+        return messageCopier.copyOf(message);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Message threads04() {
+        return messageCopier.copyOf(message);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Message threads08() {
+        return messageCopier.copyOf(message);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Message threads16() {
+        return messageCopier.copyOf(message);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Message threads32() {
+        return messageCopier.copyOf(message);
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.copier.Copier;
+import io.github.daichim.jach.channel.copier.KryoCopier;
+import io.github.daichim.jach.channel.copier.MethodHandleCopier;
+import io.github.daichim.jach.channel.copier.PooledKryoCopier;
+import io.github.daichim.jach.channel.copier.RefCopier;
+
+/**
+ * Maps the {@code copier} benchmark parameter to a {@link Copier} instance.
+ */
+public class Copiers {
+
+    public static final String REF = "ref";
+    public static final String KRYO = "kryo";
+    public static final String POOLED = "pooled";
+    public static final String METHOD_HANDLE = "methodHandle";
+
+    public static <T> Copier<T> of(String name, Class<T> clazz) {
+        switch (name) {
+            case REF:
+                return new RefCopier<>();
+            case KRYO:
+                return new KryoCopier<>(clazz);
+            case POOLED:
+                return new PooledKryoCopier<>(clazz);
+            case METHOD_HANDLE:
+                return new MethodHandleCopier<>(clazz);
+            default:
+                throw new IllegalArgumentException("Unknown copier: " + name);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.copier.Copier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single threaded deep copy of a flat {@link Message} and of a {@link NestedMessage}, with the
+ * Kryo based copiers ({@code kryo} and {@code pooled}) against the field by field copy of a
+ * {@link io.github.daichim.jach.channel.copier.MethodHandleCopier} ({@code methodHandle}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeneratedCopierBenchmark {
+
+    @Param({Copiers.KRYO, Copiers.POOLED, Copiers.METHOD_HANDLE})
+    private String copier;
+
+    private Copier<Message> messageCopier;
+    private Copier<NestedMessage> nestedCopier;
+    private Message message;
+    private NestedMessage nested;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.messageCopier = Copiers.of(copier, Message.class);
+        this.nestedCopier = Copiers.of(copier, NestedMessage.class);
+        this.message = Message.sample();
+        this.nested = NestedMessage.sample();
+    }
+
+    @Benchmark
+    public Message flat() {
+        return messageCopier.copyOf(message);
+    }
+
+    @Benchmark
+    public NestedMessage nested() {
+        return nestedCopier.copyOf(nested);
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.daichim.jachbenchmarks;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A small POJO that is passed around on the benchmarked channels. It has a nullary constructor so
+ * that it can be deep copied by {@link io.github.daichim.jach.channel.copier.KryoCopier}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Message {
+    private long id;
+    private String payload;
+    private int[] values;
+
+    public static Message sample() {
+        return new Message(42L, "Hello, World", new int[]{1, 2, 3, 4, 5, 6, 7, 8});
+    }
+}
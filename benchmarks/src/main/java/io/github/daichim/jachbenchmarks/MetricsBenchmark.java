@@ -0,0 +1,68 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.JachChannels;
+import io.github.daichim.jach.channel.Channel;
+import io.github.daichim.jach.channel.InstrumentedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single threaded write-then-read round trips over a {@link
+ * io.github.daichim.jach.channel.BufferedChannel}, like {@link AllocationBenchmark}, without
+ * instrumentation ({@code disabled}) and wrapped in an {@link InstrumentedChannel} which counts
+ * into {@link io.github.daichim.jach.metrics.ChannelStats} registered over JMX ({@code enabled}).
+ * The {@code disabled} numbers should match the ones of {@link AllocationBenchmark}, and neither
+ * should allocate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+
+    @Param({"disabled", "enabled"})
+    private String impl;
+
+    private Channel<Message> channel;
+    private Message message;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Channel<Message> buffered = Channels.of(Channels.BUFFERED, 1024, Message.class,
+            Copiers.REF);
+        this.channel = "enabled".equals(impl) ? JachChannels.instrument(buffered) : buffered;
+        this.message = Message.sample();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.channel.close();
+    }
+
+    @Benchmark
+    public Message writeRead() {
+        channel.write(message);
+        return channel.read();
+    }
+
+    @Benchmark
+    public Message tryWriteRead() {
+        channel.tryWrite(message);
+        return channel.tryRead();
+    }
+}
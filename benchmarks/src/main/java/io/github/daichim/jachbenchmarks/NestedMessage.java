@@ -0,0 +1,22 @@
+package io.github.daichim.jachbenchmarks;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A {@link Message} wrapped in an envelope with a second level of nesting, to benchmark the deep
+ * copy of an object graph rather than of a single object.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NestedMessage {
+    private long sequence;
+    private Message header;
+    private Message body;
+
+    public static NestedMessage sample() {
+        return new NestedMessage(7L, Message.sample(), Message.sample());
+    }
+}
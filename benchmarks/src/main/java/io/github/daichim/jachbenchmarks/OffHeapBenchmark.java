@@ -0,0 +1,95 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.JachChannels;
+import io.github.daichim.jach.channel.Channel;
+import io.github.daichim.jach.channel.OffHeapChannel;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap footprint of a backlog of 100000 {@link Message}s, buffered in a {@link
+ * io.github.daichim.jach.channel.BufferedChannel} made by {@link JachChannels#make(Class, int)}
+ * ({@code buffered}) against an {@link OffHeapChannel} ({@code offHeap}). Every invocation fills
+ * the channel, and the {@code heapBytes} counter reports how much more heap is in use after a GC
+ * than with the empty channel. The time is the time to fill the channel.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Thread)
+public class OffHeapBenchmark {
+
+    private static final int BACKLOG = 100_000;
+    // Comfortably above the ~40 bytes that a serialized Message takes in the ring.
+    private static final int BYTE_CAPACITY = 64 * BACKLOG;
+
+    @Param({"buffered", "offHeap"})
+    private String impl;
+
+    private Channel<Message> channel;
+    private Message message;
+    private long baseline;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long heapBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.channel = "offHeap".equals(impl)
+            ? JachChannels.makeOffHeap(Message.class, BACKLOG, BYTE_CAPACITY)
+            : JachChannels.make(Message.class, BACKLOG);
+        this.message = Message.sample();
+    }
+
+    @Setup(Level.Invocation)
+    public void measureBaseline() {
+        this.baseline = usedHeap();
+    }
+
+    @TearDown(Level.Invocation)
+    public void drain() {
+        while (channel.tryRead() != null) {
+            // Empty the channel for the next invocation.
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.channel.close();
+    }
+
+    @Benchmark
+    public void backlog(Footprint footprint) {
+        for (int i = 0; i < BACKLOG; i++) {
+            channel.write(message);
+        }
+        footprint.heapBytes = usedHeap() - baseline;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
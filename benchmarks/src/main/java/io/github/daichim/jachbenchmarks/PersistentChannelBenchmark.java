@@ -0,0 +1,94 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.PersistentChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append and read throughput of a {@link PersistentChannel}, with one writer and one reader, when
+ * the segments are only forced to the disk on close ({@code syncInterval} of 0) and every 100 and
+ * 1000 writes. The channel lives in a new temporary directory for every trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class PersistentChannelBenchmark {
+
+    @Param({"0", "100", "1000"})
+    private int syncInterval;
+
+    private Path directory;
+    private PersistentChannel<Message> channel;
+    private Message message;
+    private Unblocker unblocker;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("jach-benchmark");
+        this.channel = new PersistentChannel<>(directory, Message.class, 1024,
+            PersistentChannel.DEFAULT_SEGMENT_SIZE, syncInterval);
+        this.message = Message.sample();
+        this.unblocker = new Unblocker(message, channel);
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        this.unblocker.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopIteration() throws InterruptedException {
+        this.unblocker.stop();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.channel.close();
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+
+    @Benchmark
+    @Group("appendRead")
+    @GroupThreads(1)
+    public void append(Control ctl) {
+        unblocker.watch(ctl);
+        channel.write(message);
+    }
+
+    @Benchmark
+    @Group("appendRead")
+    @GroupThreads(1)
+    public Message read(Control ctl) {
+        unblocker.watch(ctl);
+        return channel.read();
+    }
+}
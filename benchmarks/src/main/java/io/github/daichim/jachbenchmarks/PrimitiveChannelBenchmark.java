@@ -0,0 +1,69 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.IntChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single threaded write-then-read round trips over an {@link IntChannel}, like {@link
+ * AllocationBenchmark}, with values outside of the {@link Integer} cache. The primitive paths
+ * should neither box nor allocate, i.e. report 0 B/op for {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrimitiveChannelBenchmark {
+
+    private static final int BATCH = 64;
+
+    private IntChannel channel;
+    private int[] batch;
+    private int value;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.channel = new IntChannel(1024);
+        this.batch = new int[BATCH];
+        this.value = 1_000_000;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.channel.close();
+    }
+
+    @Benchmark
+    public int writeRead() {
+        channel.writeInt(value++);
+        return channel.readInt();
+    }
+
+    @Benchmark
+    public int tryWriteDrain() {
+        channel.tryWriteInt(value++);
+        return channel.drainTo(batch, 0, 1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int batchWriteRead() {
+        channel.writeAll(batch, 0, BATCH);
+        return channel.read(batch, 0, BATCH);
+    }
+}
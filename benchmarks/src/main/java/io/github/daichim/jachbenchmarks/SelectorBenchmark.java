@@ -0,0 +1,134 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.BufferedChannel;
+import io.github.daichim.jach.channel.Channel;
+import io.github.daichim.jach.channel.copier.RefCopier;
+import io.github.daichim.jach.channel.selector.ChannelAction;
+import io.github.daichim.jach.channel.selector.SelectionPolicy;
+import io.github.daichim.jach.channel.selector.Selector;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.daichim.jach.JachChannels.selectCase;
+
+/**
+ * Benchmarks the fan-in of a {@link Selector} over 2, 8 and 25 channels. Two writer threads write
+ * to randomly picked channels while a single thread runs {@link Selector#select()} in a loop, which
+ * is what {@link Selector#untilDone()} does between two BREAK_ACTIONs.
+ * <p>
+ * Every {@link SelectionPolicy} is measured, with the weight of a case growing with its index for
+ * the weighted policy. The {@code first} and {@code last} counters of the selecting thread count
+ * the selects of the first and the last case, which are even for a fair policy.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class SelectorBenchmark {
+
+    private static final int CAPACITY = 64;
+
+    @Param({"2", "8", "25"})
+    private int channelCount;
+
+    @Param({"RANDOM", "PRIORITY", "WEIGHTED"})
+    private SelectionPolicy policy;
+
+    private Channel<Message>[] channels;
+    private Selector selector;
+    private Message message;
+    private Unblocker unblocker;
+    // Only accessed by the selecting thread.
+    private int lastCase;
+
+    /**
+     * Counts the selects of the first and the last case.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Cases {
+        public long first;
+        public long last;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.first = 0;
+            this.last = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setup() {
+        this.message = Message.sample();
+        this.channels = new Channel[channelCount];
+        ChannelAction[] actions = new ChannelAction[channelCount];
+        for (int i = 0; i < channelCount; i++) {
+            channels[i] = new BufferedChannel<>(CAPACITY, Message.class, new RefCopier<>());
+            final int idx = i;
+            actions[i] = selectCase(channels[i], msg -> lastCase = idx).withWeight(i + 1);
+        }
+        this.selector = Selector.of(policy, actions);
+        this.unblocker = new Unblocker(message, channels);
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        this.unblocker.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopIteration() throws InterruptedException {
+        this.unblocker.stop();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.selector.close();
+        for (Channel<Message> channel : channels) {
+            channel.close();
+        }
+    }
+
+    @Benchmark
+    @Group("fanIn")
+    @GroupThreads(2)
+    public void write(Control ctl) {
+        unblocker.watch(ctl);
+        int idx = ThreadLocalRandom.current().nextInt(channelCount);
+        channels[idx].write(message);
+    }
+
+    @Benchmark
+    @Group("fanIn")
+    @GroupThreads(1)
+    public void select(Control ctl, Cases cases) {
+        unblocker.watch(ctl);
+        selector.select();
+        if (lastCase == 0) {
+            cases.first++;
+        } else if (lastCase == channelCount - 1) {
+            cases.last++;
+        }
+    }
+}
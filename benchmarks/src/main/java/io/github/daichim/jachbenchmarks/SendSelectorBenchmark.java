@@ -0,0 +1,171 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.Channel;
+import io.github.daichim.jach.channel.selector.Selector;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.github.daichim.jach.JachChannels.selectCase;
+
+/**
+ * Benchmarks a {@link Selector} over a send case and a receive case, i.e. a stage which forwards
+ * work to {@code out} while it also accepts work from {@code in}. One thread writes to {@code in},
+ * one reads from {@code out} and one selects over both, either with a {@link Selector} ({@code
+ * mixed}) or by spinning over {@code tryWrite} and {@code tryRead} ({@code spin}), which is what a
+ * backpressured producer has to do without send cases.
+ * <p>
+ * The {@code sends} and {@code receives} counters of the selecting thread show how fairly the two
+ * cases are served.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class SendSelectorBenchmark {
+
+    private static final int CAPACITY = 64;
+    private static final int SEND = 0;
+    private static final int RECEIVE = 1;
+
+    @Param({Channels.BUFFERED, Channels.RING})
+    private String impl;
+
+    private Channel<Message> in;
+    private Channel<Message> out;
+    private Selector selector;
+    private Message message;
+    private Unblocker unblocker;
+    // Only accessed by the selecting thread.
+    private int lastCase;
+
+    /**
+     * Counts the completed cases of the selecting thread.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Cases {
+        public long sends;
+        public long receives;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.sends = 0;
+            this.receives = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.message = Message.sample();
+        this.in = Channels.of(impl, CAPACITY, Message.class, Copiers.REF);
+        this.out = Channels.of(impl, CAPACITY, Message.class, Copiers.REF);
+        this.selector = Selector.of(
+            selectCase(out, message, msg -> lastCase = SEND),
+            selectCase(in, msg -> lastCase = RECEIVE));
+        this.unblocker = new Unblocker(message, in, out);
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        this.unblocker.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopIteration() throws InterruptedException {
+        this.unblocker.stop();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.selector.close();
+        this.in.close();
+        this.out.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedProducer(Control ctl) {
+        unblocker.watch(ctl);
+        in.write(message);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Message mixedConsumer(Control ctl) {
+        unblocker.watch(ctl);
+        return out.read();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedSelect(Control ctl, Cases cases) {
+        unblocker.watch(ctl);
+        selector.select();
+        count(cases);
+    }
+
+    @Benchmark
+    @Group("spin")
+    @GroupThreads(1)
+    public void spinProducer(Control ctl) {
+        unblocker.watch(ctl);
+        in.write(message);
+    }
+
+    @Benchmark
+    @Group("spin")
+    @GroupThreads(1)
+    public Message spinConsumer(Control ctl) {
+        unblocker.watch(ctl);
+        return out.read();
+    }
+
+    @Benchmark
+    @Group("spin")
+    @GroupThreads(1)
+    public void spinSelect(Control ctl, Cases cases) {
+        unblocker.watch(ctl);
+        while (!ctl.stopMeasurement) {
+            if (out.tryWrite(message)) {
+                lastCase = SEND;
+                break;
+            }
+            if (in.tryRead() != null) {
+                lastCase = RECEIVE;
+                break;
+            }
+            Thread.yield();
+        }
+        count(cases);
+    }
+
+    private void count(Cases cases) {
+        if (lastCase == SEND) {
+            cases.sends++;
+        } else {
+            cases.receives++;
+        }
+    }
+}
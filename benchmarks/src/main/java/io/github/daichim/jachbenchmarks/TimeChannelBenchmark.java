@@ -0,0 +1,63 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.JachChannels;
+import io.github.daichim.jach.channel.Channel;
+import io.github.daichim.jach.time.Timer;
+import io.github.daichim.jach.time.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of a timeout, i.e. a {@link Timer} as created by {@link
+ * io.github.daichim.jach.JachTime#after(long, TimeUnit)}, which is cancelled before it fires. Look
+ * at {@code gc.alloc.rate.norm}: {@code timer} is the whole timeout on a {@link TimingWheel}, and
+ * {@code bufferedChannel} is the {@link JachChannels#make(Class, int)} channel that timers used
+ * to be created with, on its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimeChannelBenchmark {
+
+    private TimingWheel wheel;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.wheel = new TimingWheel();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.wheel.shutdownNow();
+    }
+
+    @Benchmark
+    public Timer timer() {
+        Timer timer = new Timer(30, TimeUnit.SECONDS, wheel);
+        timer.close();
+        return timer;
+    }
+
+    @Benchmark
+    public Channel<Instant> bufferedChannel() {
+        Channel<Instant> channel = JachChannels.make(Instant.class, 1);
+        channel.close();
+        return channel;
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.time.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules and cancels a timeout, like a request deadline that is cancelled once the response
+ * arrives, on the executors that can drive {@link io.github.daichim.jach.JachTime}: the default
+ * {@link ScheduledThreadPoolExecutor} ({@code pool}) and the {@link TimingWheel} ({@code wheel}).
+ * The {@code outstanding} timers are scheduled up front and never expire during the run, which
+ * shows the cost of a large heap for the pool.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimerBenchmark {
+
+    private static final String POOL = "pool";
+    private static final String WHEEL = "wheel";
+    private static final Runnable NOOP = () -> {};
+
+    @Param({POOL, WHEEL})
+    private String executor;
+
+    @Param({"0", "100000"})
+    private int outstanding;
+
+    private ScheduledExecutorService scheduler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if (POOL.equals(executor)) {
+            this.scheduler = new ScheduledThreadPoolExecutor(10);
+        } else {
+            this.scheduler = new TimingWheel();
+        }
+        for (int i = 0; i < outstanding; i++) {
+            scheduler.schedule(NOOP, 1, TimeUnit.HOURS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean scheduleCancel() {
+        ScheduledFuture<?> timeout = scheduler.schedule(NOOP, 30, TimeUnit.SECONDS);
+        return timeout.cancel(false);
+    }
+}
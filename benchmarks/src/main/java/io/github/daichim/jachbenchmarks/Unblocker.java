@@ -0,0 +1,70 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.Channel;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link Unblocker} keeps asymmetric benchmarks from stalling at the end of an iteration.
+ * <p>
+ * When JMH stops the measurement, a benchmark thread might be parked in a blocking {@code read},
+ * {@code write} or {@code select} call whose counterpart thread has already left the measurement
+ * loop. JMH waits for every thread to return before running the iteration tear down, so such a
+ * thread would hang the run forever. Once {@link Control#stopMeasurement} is observed, the
+ * {@link Unblocker} keeps draining and filling the watched channels until the tear down stops it,
+ * which releases any parked reader or writer.
+ */
+public class Unblocker {
+
+    private static final long POKE_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Channel<Object>[] channels;
+    private final Object message;
+    private volatile Control control;
+    private volatile boolean running;
+    private Thread thread;
+
+    @SuppressWarnings("unchecked")
+    public Unblocker(Object message, Channel<?>... channels) {
+        this.channels = (Channel<Object>[]) channels;
+        this.message = message;
+    }
+
+    /**
+     * Records the JMH {@link Control} of the running iteration. Called from the benchmark methods,
+     * so it only does a volatile read once the control has been captured.
+     */
+    public void watch(Control control) {
+        if (this.control == null) {
+            this.control = control;
+        }
+    }
+
+    public void start() {
+        this.control = null;
+        this.running = true;
+        this.thread = new Thread(this::run, "jach-bench-unblocker");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public void stop() throws InterruptedException {
+        this.running = false;
+        this.thread.join();
+    }
+
+    private void run() {
+        while (running) {
+            Control ctl = this.control;
+            if (ctl != null && ctl.stopMeasurement) {
+                for (Channel<Object> channel : channels) {
+                    channel.tryRead();
+                    channel.tryWrite(message);
+                }
+            }
+            LockSupport.parkNanos(POKE_INTERVAL_NANOS);
+        }
+    }
+}
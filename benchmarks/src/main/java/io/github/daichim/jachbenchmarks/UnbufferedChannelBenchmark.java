@@ -0,0 +1,94 @@
+package io.github.daichim.jachbenchmarks;
+
+import io.github.daichim.jach.channel.UnbufferedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the hand-off between a writer and a reader over an {@link UnbufferedChannel}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class UnbufferedChannelBenchmark {
+
+    @Param({Copiers.REF, Copiers.KRYO})
+    private String copier;
+
+    private UnbufferedChannel<Message> channel;
+    private Message message;
+    private Unblocker unblocker;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.channel = new UnbufferedChannel<>(Message.class, Copiers.of(copier, Message.class));
+        this.message = Message.sample();
+        this.unblocker = new Unblocker(message, channel);
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        this.unblocker.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopIteration() throws InterruptedException {
+        this.unblocker.stop();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.channel.close();
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public void handoffWrite(Control ctl) {
+        unblocker.watch(ctl);
+        channel.write(message);
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public Message handoffRead(Control ctl) {
+        unblocker.watch(ctl);
+        return channel.read();
+    }
+
+    @Benchmark
+    @Group("handoff_mpmc")
+    @GroupThreads(4)
+    public void handoffMpmcWrite(Control ctl) {
+        unblocker.watch(ctl);
+        channel.write(message);
+    }
+
+    @Benchmark
+    @Group("handoff_mpmc")
+    @GroupThreads(4)
+    public Message handoffMpmcRead(Control ctl) {
+        unblocker.watch(ctl);
+        return channel.read();
+    }
+}
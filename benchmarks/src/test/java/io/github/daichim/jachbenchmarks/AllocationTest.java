@@ -0,0 +1,63 @@
+package io.github.daichim.jachbenchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Runs {@link AllocationBenchmark}, {@link PrimitiveChannelBenchmark} and {@link
+ * MetricsBenchmark} with the GC profiler and checks that the steady state write and read paths of
+ * the channels, instrumented or not, do not allocate.
+ */
+public class AllocationTest {
+
+    // JMH's own bookkeeping shows up as a fraction of a byte per operation.
+    private static final double MAX_BYTES_PER_OP = 1.0;
+
+    @Test(description = "Steady state write/read with RefCopier allocates 0 B/op")
+    public void steadyStateDoesNotAllocate() throws Exception {
+        Options options = new OptionsBuilder()
+            .include(AllocationBenchmark.class.getName())
+            .include(PrimitiveChannelBenchmark.class.getName())
+            .include(MetricsBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(3)
+            .measurementTime(TimeValue.seconds(1))
+            .forks(1)
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+        Assert.assertFalse(results.isEmpty());
+        for (RunResult result : results) {
+            Result alloc = allocRateNorm(result);
+            Assert.assertNotNull(alloc, "GC profiler did not report the allocation rate");
+            String label = result.getParams().getBenchmark() + " "
+                + result.getParams().getParam("impl");
+            Assert.assertTrue(alloc.getScore() < MAX_BYTES_PER_OP,
+                label + " allocates " + alloc.getScore() + " B/op");
+        }
+    }
+
+    /**
+     * JMH prefixes the labels of the profiler results (with a "·" in recent versions), so the
+     * allocation rate is looked up by its suffix.
+     */
+    private static Result allocRateNorm(RunResult result) {
+        for (Map.Entry<String, Result> entry : result.getSecondaryResults().entrySet()) {
+            if (entry.getKey().endsWith("gc.alloc.rate.norm")) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -1,29 +1,56 @@
 package io.github.daichim.jach;
 
+import com.google.common.base.Preconditions;
 import io.github.daichim.jach.channel.BufferedChannel;
+import io.github.daichim.jach.channel.Cardinality;
 import io.github.daichim.jach.channel.Channel;
+import io.github.daichim.jach.channel.CopyMode;
+import io.github.daichim.jach.channel.DoubleChannel;
+import io.github.daichim.jach.channel.InstrumentedChannel;
+import io.github.daichim.jach.channel.IntChannel;
+import io.github.daichim.jach.channel.LongChannel;
+import io.github.daichim.jach.channel.OffHeapChannel;
+import io.github.daichim.jach.channel.PersistentChannel;
+import io.github.daichim.jach.channel.RingBufferChannel;
+import io.github.daichim.jach.channel.SharedMemoryChannel;
 import io.github.daichim.jach.channel.UnbufferedChannel;
-import io.github.daichim.jach.channel.copier.KryoCopier;
+import io.github.daichim.jach.channel.copier.Copier;
+import io.github.daichim.jach.channel.copier.Immutables;
+import io.github.daichim.jach.channel.copier.PooledKryoCopier;
 import io.github.daichim.jach.channel.copier.RefCopier;
 import io.github.daichim.jach.channel.selector.ChannelAction;
+import io.github.daichim.jach.channel.selector.SelectionPolicy;
 import io.github.daichim.jach.channel.selector.Selector;
-import io.github.daichim.jach.exception.TooManySelectorException;
+import io.github.daichim.jach.internal.VirtualThreads;
+import io.github.daichim.jach.metrics.ChannelMetrics;
+import io.github.daichim.jach.metrics.ChannelStats;
+import io.github.daichim.jach.routines.JachScheduler;
 import io.github.daichim.jach.routines.Routines;
 
+import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 /**
  * {@link JachChannels} is a utility class to access most of the common features without the
  * explicit need for calling complex constructors or methods.
+ * <p>
+ * The routines started with {@code go(...)} run on a new virtual thread each when the runtime
+ * supports them (JDK 21+), so that any number of routines can block on channels at the same time.
+ * On older runtimes, or with the {@code jach.virtualThreads} system property set to {@literal
+ * false}, they run on a {@link JachScheduler}, which starts spare threads in place of the blocked
+ * routines.
  */
 public class JachChannels {
 
     private static ExecutorService executor;
 
     static {
-        executor = ForkJoinPool.commonPool();
+        if (VirtualThreads.ENABLED && VirtualThreads.isAvailable()) {
+            executor = VirtualThreads.executor();
+        } else {
+            executor = new JachScheduler();
+        }
     }
 
     /**
@@ -71,8 +98,45 @@ public class JachChannels {
     }
 
     /**
-     * Create a generic {@link BufferedChannel} of the given capacity. It uses {@link KryoCopier} to
-     * copy the messages to the channel.
+     * Create an {@link IntChannel} with the given capacity, which passes {@code int} values
+     * without boxing them.
+     *
+     * @param capacity The buffer capacity of the channel.
+     *
+     * @return An {@link IntChannel} of the given capacity.
+     */
+    public static IntChannel makeIntChannel(int capacity) {
+        return new IntChannel(capacity);
+    }
+
+    /**
+     * Create a {@link LongChannel} with the given capacity, which passes {@code long} values
+     * without boxing them.
+     *
+     * @param capacity The buffer capacity of the channel.
+     *
+     * @return A {@link LongChannel} of the given capacity.
+     */
+    public static LongChannel makeLongChannel(int capacity) {
+        return new LongChannel(capacity);
+    }
+
+    /**
+     * Create a {@link DoubleChannel} with the given capacity, which passes {@code double} values
+     * without boxing them.
+     *
+     * @param capacity The buffer capacity of the channel.
+     *
+     * @return A {@link DoubleChannel} of the given capacity.
+     */
+    public static DoubleChannel makeDoubleChannel(int capacity) {
+        return new DoubleChannel(capacity);
+    }
+
+    /**
+     * Create a generic {@link BufferedChannel} of the given capacity. It uses {@link
+     * PooledKryoCopier} to copy the messages to the channel, or {@link RefCopier} if the type is
+     * immutable (see {@link Immutables#isImmutable(Class)}).
      *
      * @param type     The class type of the messages that the channel will pass.
      * @param capacity The buffer capacity of the channel.
@@ -80,12 +144,27 @@ public class JachChannels {
      * @return A {@link BufferedChannel} of the given capacity to pass messages of given type.
      */
     public static <T> BufferedChannel<T> make(Class<T> type, int capacity) {
-        return new BufferedChannel<>(capacity, type, new KryoCopier<>(type));
+        return make(type, capacity, CopyMode.ON_WRITE);
+    }
+
+    /**
+     * Create a generic {@link BufferedChannel} of the given capacity, which copies the messages
+     * as given by the {@link CopyMode}. With {@link CopyMode#ON_READ}, the messages which are
+     * never read are never copied.
+     *
+     * @param type     The class type of the messages that the channel will pass.
+     * @param capacity The buffer capacity of the channel.
+     * @param copyMode Whether the writers or the readers copy the messages.
+     *
+     * @return A {@link BufferedChannel} of the given capacity to pass messages of given type.
+     */
+    public static <T> BufferedChannel<T> make(Class<T> type, int capacity, CopyMode copyMode) {
+        return new BufferedChannel<>(capacity, type, Copier.forType(type), copyMode);
     }
 
     /**
-     * Create a generic {@link UnbufferedChannel}. It uses {@link KryoCopier} to copy the messages
-     * to the channel.
+     * Create a generic {@link UnbufferedChannel}. It uses {@link PooledKryoCopier} to copy the
+     * messages to the channel, or {@link RefCopier} if the type is immutable.
      *
      * @param type The class type of the messages that the channel will pass.
      *
@@ -95,6 +174,154 @@ public class JachChannels {
         return new UnbufferedChannel<>(type);
     }
 
+    /**
+     * Create a generic {@link RingBufferChannel} of the given capacity for the given number of
+     * concurrent writers and readers. The channel uses the ring buffer with the least
+     * synchronization for the {@link Cardinality}, e.g. a {@link Cardinality#SPSC} channel never
+     * CASes on its indexes. It uses {@link PooledKryoCopier} to copy the messages to the
+     * channel, or {@link RefCopier} if the type is immutable.
+     * <p>
+     * Writing or reading concurrently from more threads than declared is not detected, unless the
+     * {@code jach.debug} system property is set to {@literal true}.
+     *
+     * @param type        The class type of the messages that the channel will pass.
+     * @param capacity    The buffer capacity of the channel.
+     * @param cardinality The number of concurrent writers and readers of the channel.
+     *
+     * @return A {@link RingBufferChannel} of the given capacity to pass messages of given type.
+     */
+    public static <T> RingBufferChannel<T> make(Class<T> type, int capacity,
+                                                Cardinality cardinality) {
+        return make(type, capacity, cardinality, CopyMode.ON_WRITE);
+    }
+
+    /**
+     * Create a generic {@link RingBufferChannel} of the given capacity for the given number of
+     * concurrent writers and readers, which copies the messages as given by the {@link CopyMode}.
+     *
+     * @param type        The class type of the messages that the channel will pass.
+     * @param capacity    The buffer capacity of the channel.
+     * @param cardinality The number of concurrent writers and readers of the channel.
+     * @param copyMode    Whether the writers or the readers copy the messages.
+     *
+     * @return A {@link RingBufferChannel} of the given capacity to pass messages of given type.
+     */
+    public static <T> RingBufferChannel<T> make(Class<T> type, int capacity,
+                                                Cardinality cardinality, CopyMode copyMode) {
+        return new RingBufferChannel<>(capacity, type, Copier.forType(type), cardinality,
+            copyMode);
+    }
+
+    /**
+     * Create a generic {@link RingBufferChannel} of the given capacity. The channel is backed by a
+     * lock-free ring buffer, which scales better than a {@link BufferedChannel} with multiple
+     * writers and readers. It uses {@link PooledKryoCopier} to copy the messages to the
+     * channel, or {@link RefCopier} if the type is immutable.
+     *
+     * @param type     The class type of the messages that the channel will pass.
+     * @param capacity The buffer capacity of the channel.
+     *
+     * @return A {@link RingBufferChannel} of the given capacity to pass messages of given type.
+     */
+    public static <T> RingBufferChannel<T> makeRingBuffer(Class<T> type, int capacity) {
+        return new RingBufferChannel<>(capacity, type, Copier.forType(type));
+    }
+
+    /**
+     * Create an {@link OffHeapChannel}, which keeps the messages serialized in an off-heap ring of
+     * the given size rather than as copies on the heap. Prefer it for large messages or for deep
+     * backlogs of messages.
+     *
+     * @param type         The class type of the messages that the channel will pass.
+     * @param capacity     The maximum number of messages in the channel.
+     * @param byteCapacity The size of the off-heap ring in bytes.
+     *
+     * @return An {@link OffHeapChannel} to pass messages of given type.
+     */
+    public static <T> OffHeapChannel<T> makeOffHeap(Class<T> type, int capacity,
+                                                    int byteCapacity) {
+        return new OffHeapChannel<>(capacity, byteCapacity, type);
+    }
+
+    /**
+     * Open a {@link PersistentChannel} on the given directory, which keeps the messages in
+     * memory-mapped files so that they survive a restart of the process. The messages left in the
+     * directory by a previous channel are recovered.
+     *
+     * @param type      The class type of the messages that the channel will pass.
+     * @param directory The directory of the channel, created if it does not exist.
+     * @param capacity  The maximum number of messages in the channel.
+     *
+     * @return A {@link PersistentChannel} to pass messages of given type.
+     */
+    public static <T> PersistentChannel<T> makePersistent(Class<T> type, Path directory,
+                                                          int capacity) {
+        return new PersistentChannel<>(directory, type, capacity);
+    }
+
+    /**
+     * Open a {@link SharedMemoryChannel} with the given name, through which the JVMs on the same
+     * host pass messages. The channel lives in a file under {@code /dev/shm}, and every process
+     * that opens the same name with the same capacity and message length shares it. Any number of
+     * processes can write to the channel, but only one of them reads from it.
+     *
+     * @param type             The class type of the messages that the channel will pass.
+     * @param name             The name of the channel, shared by the processes.
+     * @param capacity         The maximum number of messages in the channel.
+     * @param maxMessageLength The maximum length of a serialized message in bytes.
+     *
+     * @return A {@link SharedMemoryChannel} to pass messages of given type.
+     */
+    public static <T> SharedMemoryChannel<T> makeShared(Class<T> type, String name, int capacity,
+                                                        int maxMessageLength) {
+        return new SharedMemoryChannel<>(SharedMemoryChannel.defaultPath(name), type, capacity,
+            maxMessageLength);
+    }
+
+    /**
+     * Instrument a channel with {@link ChannelStats} registered over JMX, named after the id of the
+     * channel. See {@link #instrument(Channel, String)}.
+     *
+     * @param channel The channel to instrument.
+     *
+     * @return An {@link InstrumentedChannel} wrapping the given channel.
+     */
+    public static <T> InstrumentedChannel<T> instrument(Channel<T> channel) {
+        return instrument(channel, channel.getId());
+    }
+
+    /**
+     * Instrument a channel with {@link ChannelStats}, which count the writes, the reads, the
+     * failed non-blocking writes and the timeouts, and record the time the writers and readers
+     * are blocked. The stats are registered over JMX as {@code
+     * io.github.daichim.jach:type=Channel,name=<name>} until the channel is closed. The channel
+     * has to be written and read through the returned {@link InstrumentedChannel} to be counted.
+     *
+     * @param channel The channel to instrument.
+     * @param name    The name of the channel in JMX.
+     *
+     * @return An {@link InstrumentedChannel} wrapping the given channel.
+     *
+     * @throws IllegalArgumentException If another channel is registered with the same name.
+     */
+    public static <T> InstrumentedChannel<T> instrument(Channel<T> channel, String name) {
+        return new InstrumentedChannel<>(channel, new ChannelStats(name).register());
+    }
+
+    /**
+     * Instrument a channel with the given {@link ChannelMetrics}, e.g. to report to the metrics
+     * library of the application.
+     *
+     * @param channel The channel to instrument.
+     * @param metrics The metrics to report to.
+     *
+     * @return An {@link InstrumentedChannel} wrapping the given channel.
+     */
+    public static <T> InstrumentedChannel<T> instrument(Channel<T> channel,
+                                                        ChannelMetrics metrics) {
+        return new InstrumentedChannel<>(channel, metrics);
+    }
+
     /**
      * Create a {@link ChannelAction} for the given {@link Channel} with a given {@link Consumer}
      * action that is going to be executed for each message in the {@link Channel}.
@@ -111,6 +338,24 @@ public class JachChannels {
         return new ChannelAction<>(channel, action);
     }
 
+    /**
+     * Create a send case {@link ChannelAction} for the given {@link Channel}, which writes the given
+     * message to the {@link Channel} and then executes the {@link Consumer} action on it. This is
+     * the equivalent of {@code case channel <- message:} in a golang select.
+     *
+     * @param channel The {@link Channel} to which the message is written.
+     * @param message The non-null message to write whenever the case is selected.
+     * @param action  The {@link Consumer} that will be executed on the message once it is written.
+     * @param <T>     The type of the data that is stored in the {@link Channel}.
+     *
+     * @return The new send case {@link ChannelAction} object.
+     */
+    public static <T> ChannelAction<T> selectCase(Channel<T> channel, T message,
+                                                  Consumer<T> action) {
+        Preconditions.checkNotNull(message);
+        return new ChannelAction<>(channel, action, message);
+    }
+
     /**
      * Convenience method to create a new {@link Selector} from the given set of {@link
      * ChannelAction}s.
@@ -121,10 +366,27 @@ public class JachChannels {
      * @return A new {@link Selector} object.
      */
     public static Selector selector(ChannelAction... actions)
-        throws TooManySelectorException, NullPointerException {
+        throws NullPointerException {
         return Selector.of(actions);
     }
 
+    /**
+     * Convenience method to create a new {@link Selector} from the given set of {@link
+     * ChannelAction}s, which selects among the ready cases according to the given {@link
+     * SelectionPolicy}.
+     *
+     * @param policy  The {@link SelectionPolicy} that decides the order in which the cases are
+     *                polled.
+     * @param actions The list of {@link ChannelAction}s that this {@link Selector} would select
+     *                from.
+     *
+     * @return A new {@link Selector} object.
+     */
+    public static Selector selector(SelectionPolicy policy, ChannelAction... actions)
+        throws NullPointerException {
+        return Selector.of(policy, actions);
+    }
+
     /**
      * Set the {@link ExecutorService} which will be used to run routines for JaCh
      *
@@ -134,6 +396,21 @@ public class JachChannels {
         JachChannels.executor = executor;
     }
 
+    /**
+     * Run the routines on a new virtual thread each from now on, if the runtime supports virtual
+     * threads.
+     *
+     * @return {@literal true} if the routines now run on virtual threads, {@literal false} if the
+     *     runtime does not support them and the executor was left unchanged.
+     */
+    public static boolean useVirtualThreads() {
+        if (!VirtualThreads.isAvailable()) {
+            return false;
+        }
+        JachChannels.executor = VirtualThreads.executor();
+        return true;
+    }
+
     /**
      * Run a routine on JaCh's executor.
      */
@@ -6,6 +6,7 @@ import io.github.daichim.jach.channel.Channel;
 import io.github.daichim.jach.exception.NoSuchChannelElementException;
 import io.github.daichim.jach.time.Ticker;
 import io.github.daichim.jach.time.Timer;
+import io.github.daichim.jach.time.TimingWheel;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Instant;
@@ -104,9 +105,29 @@ public class JachTime {
         return timer;
     }
 
+    /**
+     * Set the {@link ScheduledExecutorService} which drives the timers and tickers created from
+     * now on. The current executor is shut down, which lets the timers already created on it fire,
+     * but stops their tickers.
+     *
+     * @param executor The {@link ScheduledExecutorService} to use for the timers and tickers.
+     */
     public static void setExecutor(ScheduledExecutorService executor) {
         JachTime.executor.shutdown();
         JachTime.executor = executor;
     }
 
+    /**
+     * Drive the timers and tickers created from now on with a {@link TimingWheel} of the given
+     * resolution, which schedules and cancels them in constant time. This suits a large number of
+     * short lived timers, e.g. timeouts created with {@link #after(long, TimeUnit)}, at the cost of
+     * firing up to one tick late.
+     *
+     * @param tick The resolution of the timers.
+     * @param unit The unit corresponding to the resolution.
+     */
+    public static void useTimingWheel(long tick, TimeUnit unit) {
+        setExecutor(new TimingWheel(tick, unit));
+    }
+
 }
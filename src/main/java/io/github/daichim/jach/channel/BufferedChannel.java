@@ -6,22 +6,20 @@ import io.github.daichim.jach.exception.ClosedChannelException;
 import io.github.daichim.jach.exception.CopyException;
 import io.github.daichim.jach.exception.NoSuchChannelElementException;
 import io.github.daichim.jach.exception.TimeoutException;
-import io.github.daichim.jach.exception.TooManySelectorException;
 import io.github.daichim.jach.internal.AfterWriteAction;
+import io.github.daichim.jach.internal.AfterWriteActions;
 import io.github.daichim.jach.internal.ChannelIterator;
+import io.github.daichim.jach.internal.FlightEvents;
+import io.github.daichim.jach.internal.WaitQueue;
+import io.github.daichim.jach.internal.Waiter;
+import io.github.daichim.jach.internal.ring.LockedRingBuffer;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -53,6 +51,14 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
  * channel closures gracefully. This method does not propagate the {@link
  * NoSuchChannelElementException} to the caller and the method only returns to the caller when the
  * channel is closed.
+ * <p>
+ * Messages can also be written and read in batches, using {@link #writeAll(Collection)}, {@link
+ * #tryWriteAll(Collection)}, {@link #drainTo(Collection, int)} and {@link #readBatch(int, int, long,
+ * TimeUnit)}. A batch takes the lock of the buffer once, wakes up the waiting threads with a single
+ * signal and notifies the selectors once, instead of once for every message.
+ * <p>
+ * The messages are copied by the writers, unless the channel is created with {@link
+ * CopyMode#ON_READ}, in which case the readers copy the messages they take out of the channel.
  *
  * @param <T> The type of the message which the {@link BufferedChannel} holds.
  */
@@ -60,31 +66,35 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 @Slf4j
 public class BufferedChannel<T> implements Channel<T> {
 
-    private final BlockingQueue<T> internalQueue;
+    private final LockedRingBuffer<T> internalQueue;
     private final int capacity;
     private final Class<T> clazz;
     private final Copier<T> copier;
+    private final CopyMode copyMode;
     private final String channelId;
-    private final Map<Long, Thread> blockedWriters;
-    private final Map<Long, Thread> blockedReaders;
-    private final List<AfterWriteAction> afterWriteActionList;
+    private final WaitQueue readers;
+    private final WaitQueue writers;
+    private final AfterWriteActions afterWriteActions;
     private final ChannelIterator<T> iterator;
-    // This is a empirical figure.
-    private final int MAX_AFTER_WRITE_ACTIONS = 25;
     private volatile boolean open;
 
 
     public BufferedChannel(int capacity, Class<T> clazz, Copier<T> copier) {
+        this(capacity, clazz, copier, CopyMode.ON_WRITE);
+    }
+
+    public BufferedChannel(int capacity, Class<T> clazz, Copier<T> copier, CopyMode copyMode) {
         this.clazz = clazz;
         this.capacity = capacity;
         this.copier = copier;
-        this.internalQueue = new ArrayBlockingQueue<>(capacity, true);
+        this.copyMode = Preconditions.checkNotNull(copyMode);
+        this.internalQueue = new LockedRingBuffer<>(capacity);
         this.channelId = UUID.randomUUID().toString();
         this.open = true;
 
-        this.blockedReaders = Collections.synchronizedMap(new HashMap<>());
-        this.blockedWriters = Collections.synchronizedMap(new HashMap<>());
-        this.afterWriteActionList = Collections.synchronizedList(new ArrayList<>());
+        this.readers = new WaitQueue();
+        this.writers = new WaitQueue();
+        this.afterWriteActions = new AfterWriteActions();
         this.iterator = new ChannelIterator<>(this);
 
     }
@@ -95,17 +105,13 @@ public class BufferedChannel<T> implements Channel<T> {
      *
      * @throws ClosedChannelException In case the channel has already been closed, or got closed
      *                                before write could succeed.
-     * @throws IllegalStateException  In case of an unexpected error in writing the message to the
-     *                                channel.
+     * @throws IllegalStateException  In case the thread is interrupted while waiting for space.
      * @throws NullPointerException   If the msg is {@literal null}.
      * @see Channel#write(Object)
      */
     @Override
     public void write(T message) throws ClosedChannelException, IllegalStateException {
-        try {
-            blockedWrite(message, Optional.empty(), Optional.empty());
-        } catch (TimeoutException ignored) {
-        }
+        blockedWrite(message, false, 0L);
     }
 
     /**
@@ -122,7 +128,8 @@ public class BufferedChannel<T> implements Channel<T> {
      */
     @Override
     public void write(T message, int timeout, TimeUnit unit) throws TimeoutException {
-        blockedWrite(message, Optional.of(timeout), Optional.ofNullable(unit));
+        long timeoutNanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        blockedWrite(message, true, timeoutNanos);
     }
 
     /**
@@ -142,47 +149,193 @@ public class BufferedChannel<T> implements Channel<T> {
         if (!open) {
             throw new ClosedChannelException("Channel is already closed for writing");
         }
-        T messageCopy = this.copier.copyOf(message);
+        // Don't pay for the copy if there is no room for it.
+        if (copyMode == CopyMode.ON_WRITE && internalQueue.size() >= capacity) {
+            return false;
+        }
+        T messageCopy = copyOnWrite(message);
         boolean success = internalQueue.offer(messageCopy);
         if (success) {
-            runAfterWriteActions();
+            afterWrite();
         }
         return success;
     }
 
 
-    private void blockedWrite(T message, Optional<Integer> timeout, Optional<TimeUnit> unit)
+    /**
+     * Writes the message, parking while the channel is full. The untimed and the timed writes share
+     * this path, which does not allocate unless the {@link Copier} does. The deadline is only read
+     * from the clock once the thread actually has to park.
+     */
+    private void blockedWrite(T message, boolean timed, long timeoutNanos)
         throws TimeoutException, CopyException {
         Preconditions.checkNotNull(message);
         if (!open) {
             throw new ClosedChannelException("Channel is already closed for writing");
         }
-        T messageCopy = this.copier.copyOf(message);
+        T messageCopy = copyOnWrite(message);
+        if (internalQueue.offer(messageCopy)) {
+            afterWrite();
+            return;
+        }
+        long deadline = timed ? System.nanoTime() + timeoutNanos : 0L;
 
-        Thread currThread = Thread.currentThread();
+        Object event = FlightEvents.INSTANCE.beginBlocked();
         try {
-            if (internalQueue.offer(message)) {
-                runAfterWriteActions();
-                return;
-            }
-            this.blockedWriters.put(currThread.getId(), currThread);
-            if (timeout.isPresent()) {
-                boolean success =
-                    internalQueue.offer(message, timeout.get(), unit.orElse(MILLISECONDS));
-                if (!success) {
+            while (true) {
+                Waiter waiter = Waiter.current();
+                writers.enqueue(waiter);
+                // Re-check after enqueueing, so that a read or close in between is not missed.
+                if (!open) {
+                    waiter.cancel();
+                    throw new ClosedChannelException(
+                        "Channel got closed before write could complete");
+                }
+                if (internalQueue.offer(messageCopy)) {
+                    if (!waiter.cancel()) {
+                        // Pass on the wake-up this waiter got in the meantime.
+                        writers.signal();
+                    }
+                    afterWrite();
+                    return;
+                }
+                if (!waiter.await(timed, deadline)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IllegalStateException("Interrupted while writing to the channel");
+                    }
+                    if (internalQueue.offer(messageCopy)) {
+                        afterWrite();
+                        return;
+                    }
                     throw new TimeoutException();
                 }
-            } else {
-                internalQueue.put(message);
+                if (!open) {
+                    throw new ClosedChannelException(
+                        "Channel got closed before write could complete");
+                }
+                if (internalQueue.offer(messageCopy)) {
+                    afterWrite();
+                    return;
+                }
             }
-            runAfterWriteActions();
-        } catch (InterruptedException ex) {
+        } finally {
+            FlightEvents.INSTANCE.endBlocked(event, this, true);
+        }
+    }
+
+    /**
+     * Writes all the given messages to the channel, in order. As many messages as there is space
+     * for are written at once, and if the channel is full, the thread is parked until space is
+     * available for the rest.
+     *
+     * @param messages The non-null messages to write to the channel.
+     *
+     * @throws ClosedChannelException In case the channel has already been closed, or got closed
+     *                                before all the messages could be written. The messages
+     *                                written until then stay in the channel.
+     * @throws IllegalStateException  In case the thread is interrupted while waiting for space.
+     * @throws NullPointerException   If any of the messages is {@literal null}.
+     * @throws CopyException          If the {@link Copier} associated with the channel fails.
+     */
+    @Override
+    public void writeAll(Collection<? extends T> messages)
+        throws ClosedChannelException, IllegalStateException, CopyException {
+        if (!open) {
+            throw new ClosedChannelException("Channel is already closed for writing");
+        }
+        Object[] copies = copyAll(messages);
+        int written = internalQueue.offerAll(copies, 0, copies.length);
+        afterWrite(written);
+
+        while (written < copies.length) {
+            Waiter waiter = Waiter.current();
+            writers.enqueue(waiter);
+            // Re-check after enqueueing, so that a read or close in between is not missed.
             if (!open) {
+                waiter.cancel();
                 throw new ClosedChannelException("Channel got closed before write could complete");
             }
-            throw new IllegalStateException();
-        } finally {
-            this.blockedWriters.remove(currThread.getId());
+            int n = internalQueue.offerAll(copies, written, copies.length);
+            if (n > 0) {
+                if (!waiter.cancel()) {
+                    // Pass on the wake-up this waiter got in the meantime.
+                    writers.signal();
+                }
+                written += n;
+                afterWrite(n);
+                continue;
+            }
+            if (!waiter.await(false, 0L)) {
+                throw new IllegalStateException("Interrupted while writing to the channel");
+            }
+            if (!open) {
+                throw new ClosedChannelException("Channel got closed before write could complete");
+            }
+            n = internalQueue.offerAll(copies, written, copies.length);
+            written += n;
+            afterWrite(n);
+        }
+    }
+
+    /**
+     * Tries writing the given messages to the channel, in order, as many as there is free space
+     * for. The messages are written at once, without blocking.
+     *
+     * @param messages The non-null messages to write to the channel.
+     *
+     * @return The number of messages written, which are the first ones in iteration order.
+     *
+     * @throws ClosedChannelException If the channel has already been closed for writing.
+     * @throws NullPointerException   If any of the messages is {@literal null}.
+     * @throws CopyException          If the {@link Copier} associated with the channel fails.
+     */
+    @Override
+    public int tryWriteAll(Collection<? extends T> messages)
+        throws ClosedChannelException, CopyException {
+        if (!open) {
+            throw new ClosedChannelException("Channel is already closed for writing");
+        }
+        Object[] copies = copyAll(messages);
+        int written = internalQueue.offerAll(copies, 0, copies.length);
+        afterWrite(written);
+        return written;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object[] copyAll(Collection<? extends T> messages) throws CopyException {
+        Preconditions.checkNotNull(messages);
+        Object[] copies = messages.toArray();
+        for (int i = 0; i < copies.length; i++) {
+            Preconditions.checkNotNull(copies[i]);
+            copies[i] = copyOnWrite((T) copies[i]);
+        }
+        return copies;
+    }
+
+    private T copyOnWrite(T message) throws CopyException {
+        return copyMode == CopyMode.ON_WRITE ? copy(message) : message;
+    }
+
+    private T copyOnRead(T message) throws CopyException {
+        return copyMode == CopyMode.ON_READ ? copy(message) : message;
+    }
+
+    private T copy(T message) throws CopyException {
+        Object event = FlightEvents.INSTANCE.beginCopy();
+        T copy = this.copier.copyOf(message);
+        FlightEvents.INSTANCE.endCopy(event, this);
+        return copy;
+    }
+
+    private void afterWrite() {
+        readers.signal();
+        afterWriteActions.onWrite();
+    }
+
+    private void afterWrite(int count) {
+        if (count > 0) {
+            readers.signal(count);
+            afterWriteActions.onWrite(count);
         }
     }
 
@@ -196,25 +349,19 @@ public class BufferedChannel<T> implements Channel<T> {
         return isOpen();
     }
 
-    private void runAfterWriteActions() {
-        for (AfterWriteAction afw : afterWriteActionList) {
-            afw.onWrite();
-        }
-    }
-
     /**
      * Reads the next message from the channel. If the channel is currently empty, the thread blocks
      * until a message is available for reading.
      *
      * @throws NoSuchChannelElementException If there are no further element that can be available
      *                                       (because the {@link Channel} got closed).
-     * @throws IllegalStateException         If there was an unexpected error in reading the
-     *                                       channel.
+     * @throws IllegalStateException         If the thread is interrupted while waiting for a
+     *                                       message.
      * @see Channel#read()
      */
     @Override
     public T read() throws NoSuchChannelElementException, IllegalStateException {
-        return blockedRead(Optional.empty(), Optional.empty());
+        return blockedRead(false, 0L);
     }
 
     /**
@@ -230,13 +377,13 @@ public class BufferedChannel<T> implements Channel<T> {
      *                                       period.
      * @throws NoSuchChannelElementException If there are no further element that can be available
      *                                       (because the {@link Channel} got closed).
-     * @throws IllegalStateException         If there was an unexpected error in reading the
-     *                                       channel.
-     * @throws NullPointerException          If the read message was {@literal null}.
+     * @throws IllegalStateException         If the thread is interrupted while waiting for a
+     *                                       message.
      */
     @Override
     public T read(int timeout, TimeUnit unit) throws TimeoutException {
-        return blockedRead(Optional.of(timeout), Optional.ofNullable(unit));
+        long timeoutNanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        return blockedRead(true, timeoutNanos);
     }
 
     /**
@@ -250,10 +397,135 @@ public class BufferedChannel<T> implements Channel<T> {
      */
     @Override
     public T tryRead() {
+        T msg = internalQueue.poll();
+        if (msg != null) {
+            writers.signal();
+            return copyOnRead(msg);
+        }
+        if (!open && internalQueue.isEmpty()) {
+            throw new NoSuchChannelElementException();
+        }
+        return null;
+    }
+
+    /**
+     * Removes up to {@code max} of the messages that are in the channel right now and adds them to
+     * the given collection, in order. The messages are removed at once, without blocking.
+     *
+     * @param collection The collection to add the messages to.
+     * @param max        The maximum number of messages to remove.
+     *
+     * @return The number of messages added to the collection, {@literal 0} if the channel is
+     *     empty.
+     *
+     * @throws NoSuchChannelElementException If there are no further element that can be read from
+     *                                       the channel (because the channel has been closed).
+     */
+    @Override
+    public int drainTo(Collection<? super T> collection, int max)
+        throws NoSuchChannelElementException {
+        Preconditions.checkNotNull(collection);
+        int n;
+        if (copyMode == CopyMode.ON_READ) {
+            List<T> drained = new ArrayList<>(Math.max(0, Math.min(max, capacity)));
+            n = internalQueue.drainTo(drained, max);
+            for (T msg : drained) {
+                collection.add(copy(msg));
+            }
+        } else {
+            n = internalQueue.drainTo(collection, max);
+        }
+        if (n > 0) {
+            writers.signal(n);
+            return n;
+        }
         if (!open && internalQueue.isEmpty()) {
             throw new NoSuchChannelElementException();
         }
-        return internalQueue.poll();
+        return 0;
+    }
+
+    /**
+     * Reads a batch of at least {@code min} and at most {@code max} messages. All the messages
+     * that are in the channel (up to {@code max}) are taken at once, and if there are fewer than
+     * {@code min}, the thread parks until more messages are written, the timeout period is over or
+     * the channel is closed. In the latter two cases, the messages read so far are returned.
+     *
+     * @param min     The minimum number of messages to wait for, at least 1.
+     * @param max     The maximum number of messages to read, at least {@code min}.
+     * @param timeout The timeout value after which the read stops waiting for more messages.
+     * @param unit    The unit corresponding to the timeout value.
+     *
+     * @return The messages read, in order.
+     *
+     * @throws TimeoutException              If no message could be read within the timeout
+     *                                       period.
+     * @throws NoSuchChannelElementException If the channel got closed before any message could be
+     *                                       read.
+     * @throws IllegalStateException         If the thread is interrupted while waiting for
+     *                                       messages.
+     */
+    @Override
+    public List<T> readBatch(int min, int max, long timeout, TimeUnit unit)
+        throws TimeoutException, NoSuchChannelElementException, IllegalStateException {
+        Preconditions.checkArgument(min > 0 && min <= max, "Expected 0 < min <= max");
+        List<T> batch = new ArrayList<>(Math.min(max, capacity));
+        if (drainBatch(batch, max) >= min) {
+            return batch;
+        }
+        long deadline = System.nanoTime() + (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+
+        while (true) {
+            if (!open && internalQueue.isEmpty()) {
+                if (batch.isEmpty()) {
+                    throw new NoSuchChannelElementException();
+                }
+                return batch;
+            }
+            Waiter waiter = Waiter.current();
+            readers.enqueue(waiter);
+            // Re-check after enqueueing, so that a write or close in between is not missed.
+            int before = batch.size();
+            if (drainBatch(batch, max) > before || !open) {
+                if (!waiter.cancel()) {
+                    // Pass on the wake-up this waiter got in the meantime.
+                    readers.signal();
+                }
+                if (batch.size() >= min) {
+                    return batch;
+                }
+                continue;
+            }
+            if (!waiter.await(true, deadline)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Interrupted while reading from the channel");
+                }
+                if (drainBatch(batch, max) == 0) {
+                    throw new TimeoutException();
+                }
+                return batch;
+            }
+            if (drainBatch(batch, max) >= min) {
+                return batch;
+            }
+        }
+    }
+
+    /**
+     * Moves as many messages as available into the batch, up to a batch size of {@code max}.
+     *
+     * @return The size of the batch.
+     */
+    private int drainBatch(List<T> batch, int max) {
+        int before = batch.size();
+        int n = internalQueue.drainTo(batch, max - before);
+        if (n > 0) {
+            writers.signal(n);
+            for (int i = before; i < batch.size(); i++) {
+                batch.set(i, copyOnRead(batch.get(i)));
+            }
+        }
+        return batch.size();
     }
 
     /**
@@ -266,78 +538,85 @@ public class BufferedChannel<T> implements Channel<T> {
         return isOpen() || !internalQueue.isEmpty();
     }
 
-    private T blockedRead(Optional<Integer> timeout, Optional<TimeUnit> unit)
+    /**
+     * Reads a message, parking while the channel is empty. Like {@link #blockedWrite(Object,
+     * boolean, long)}, the untimed and the timed reads share this allocation free path, and the
+     * clock is only read once the thread has to park.
+     */
+    private T blockedRead(boolean timed, long timeoutNanos)
         throws NoSuchChannelElementException, IllegalStateException {
-        if (!open && internalQueue.isEmpty()) {
-            throw new NoSuchChannelElementException();
+        T msg = internalQueue.poll();
+        if (msg != null) {
+            writers.signal();
+            return copyOnRead(msg);
         }
-        Thread currThread = Thread.currentThread();
-
+        long deadline = timed ? System.nanoTime() + timeoutNanos : 0L;
 
+        Object event = FlightEvents.INSTANCE.beginBlocked();
         try {
-            T msg = internalQueue.poll();
-            if (msg != null) {
-                return msg;
-            }
-            this.blockedReaders.put(currThread.getId(), currThread);
-            log.debug("Added thread {} as reader", currThread.getName());
-
-            if (timeout.isPresent()) {
-                msg = internalQueue.poll(timeout.get(), unit.orElse(MILLISECONDS));
-                if (msg == null) {
+            while (true) {
+                if (!open && internalQueue.isEmpty()) {
+                    throw new NoSuchChannelElementException();
+                }
+                Waiter waiter = Waiter.current();
+                readers.enqueue(waiter);
+                // Re-check after enqueueing, so that a write or close in between is not missed.
+                msg = internalQueue.poll();
+                if (msg != null || !open) {
+                    if (!waiter.cancel()) {
+                        // Pass on the wake-up this waiter got in the meantime.
+                        readers.signal();
+                    }
+                    if (msg != null) {
+                        writers.signal();
+                        return copyOnRead(msg);
+                    }
+                    continue;
+                }
+                if (!waiter.await(timed, deadline)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IllegalStateException(
+                            "Interrupted while reading from the channel");
+                    }
+                    msg = internalQueue.poll();
+                    if (msg != null) {
+                        writers.signal();
+                        return copyOnRead(msg);
+                    }
                     throw new TimeoutException();
                 }
-            } else {
-                msg = internalQueue.take();
-            }
-            return msg;
-        } catch (InterruptedException ex) {
-            if (!open && internalQueue.isEmpty()) {
-                throw new NoSuchChannelElementException();
+                msg = internalQueue.poll();
+                if (msg != null) {
+                    writers.signal();
+                    return copyOnRead(msg);
+                }
             }
-            throw new IllegalStateException();
         } finally {
-            this.blockedReaders.remove(Thread.currentThread().getId());
+            FlightEvents.INSTANCE.endBlocked(event, this, false);
         }
     }
 
     /**
-     * Closes this channel. On closure of this channel, all the threads that are stuck in {@link
-     * #read()} or {@link #write(Object)} are interrupted. The iterator associated with this channel
-     * is also closed along with the channel.
+     * Closes this channel. On closure of this channel, all the threads that are parked in {@link
+     * #read()} or {@link #write(Object)} are woken up, without interrupting them. Readers continue
+     * to read the messages that are left in the channel, and writers fail with a {@link
+     * ClosedChannelException}. The iterator associated with this channel is also closed along with
+     * the channel.
      *
      * @see Channel#close()
      */
     @Override
     public void close() {
+        boolean wasOpen = this.open;
         this.open = false;
+        this.readers.signalAll();
+        this.writers.signalAll();
 
-        Set<Map.Entry<Long, Thread>> readers = this.blockedReaders.entrySet();
-        synchronized (this.blockedReaders) {
-            readers.forEach(ent -> {
-                Thread thr = ent.getValue();
-                log.debug("Read thread interrupted: {}", thr.getName());
-                thr.interrupt();
-            });
-        }
-
-        Set<Map.Entry<Long, Thread>> writers = this.blockedWriters.entrySet();
-        synchronized (this.blockedWriters) {
-            writers.forEach(ent -> {
-                Thread thr = ent.getValue();
-                log.debug("Write thread interrupted: {}", thr.getName());
-                thr.interrupt();
-            });
-        }
-
-        this.afterWriteActionList.forEach(afw -> {
-            try {
-                afw.close();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+        this.afterWriteActions.close();
         this.iterator.markDone();
+        if (wasOpen) {
+            FlightEvents.INSTANCE.channelClosed(this);
+        }
     }
 
     /**
@@ -370,11 +649,22 @@ public class BufferedChannel<T> implements Channel<T> {
 
     @Override
     public void registerAfterWriteAction(AfterWriteAction afw) {
-        if (this.afterWriteActionList.size() >= MAX_AFTER_WRITE_ACTIONS) {
-            throw new TooManySelectorException(
-                "Maximum number of AfterWriteActions registered on this channel");
-        }
-        this.afterWriteActionList.add(afw);
+        this.afterWriteActions.add(afw);
+    }
+
+    @Override
+    public void deregisterAfterWriteAction(AfterWriteAction afw) {
+        this.afterWriteActions.remove(afw);
+    }
+
+    @Override
+    public void enqueueReadWaiter(Waiter waiter) {
+        readers.enqueue(waiter);
+    }
+
+    @Override
+    public void enqueueWriteWaiter(Waiter waiter) {
+        writers.enqueue(waiter);
     }
 
     /**
@@ -427,7 +717,8 @@ public class BufferedChannel<T> implements Channel<T> {
                 T msg = this.read();
                 action.accept(msg);
             }
-        } catch (ClosedChannelException | IllegalStateException ex) {
+        } catch (NoSuchChannelElementException | ClosedChannelException
+            | IllegalStateException ex) {
             // Done iterating. Do nothing
         } catch (NullPointerException ex) {
             // Should not happen
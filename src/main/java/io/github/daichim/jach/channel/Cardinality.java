@@ -0,0 +1,63 @@
+package io.github.daichim.jach.channel;
+
+/**
+ * {@link Cardinality} declares how many threads write to and read from a {@link Channel}
+ * concurrently. A channel created for a narrower cardinality uses a ring buffer with less
+ * synchronization: a single producer (or consumer) side advances its index with a plain ordered
+ * store instead of a CAS, and only reads the other side's index when its cached copy says the
+ * channel is full (or empty).
+ * <p>
+ * The cardinality is a promise made by the caller, it is not enforced unless the {@code jach.debug}
+ * system property is set to {@literal true}. In debug mode, concurrent use of a single producer (or
+ * single consumer) side from more than one thread fails with an {@link IllegalStateException}.
+ * Handing a side over from one thread to another is fine, as long as the two never use it at the
+ * same time.
+ */
+public enum Cardinality {
+
+    /**
+     * Single producer, single consumer.
+     */
+    SPSC(true, true),
+
+    /**
+     * Multiple producers, single consumer.
+     */
+    MPSC(false, true),
+
+    /**
+     * Single producer, multiple consumers.
+     */
+    SPMC(true, false),
+
+    /**
+     * Multiple producers, multiple consumers.
+     */
+    MPMC(false, false);
+
+    private final boolean singleProducer;
+    private final boolean singleConsumer;
+
+    Cardinality(boolean singleProducer, boolean singleConsumer) {
+        this.singleProducer = singleProducer;
+        this.singleConsumer = singleConsumer;
+    }
+
+    /**
+     * Returns {@literal true} if at most one thread writes to the channel at a time.
+     *
+     * @return {@literal true} if at most one thread writes to the channel at a time.
+     */
+    public boolean isSingleProducer() {
+        return singleProducer;
+    }
+
+    /**
+     * Returns {@literal true} if at most one thread reads from the channel at a time.
+     *
+     * @return {@literal true} if at most one thread reads from the channel at a time.
+     */
+    public boolean isSingleConsumer() {
+        return singleConsumer;
+    }
+}
@@ -3,6 +3,7 @@ package io.github.daichim.jach.channel;
 import io.github.daichim.jach.exception.ClosedChannelException;
 import io.github.daichim.jach.internal.AfterWriteAction;
 import io.github.daichim.jach.internal.Readable;
+import io.github.daichim.jach.internal.Waiter;
 import io.github.daichim.jach.internal.Writable;
 
 import java.util.Spliterator;
@@ -64,6 +65,26 @@ public interface Channel<T> extends Writable<T>, Readable<T>, Iterable<T> {
      */
     void registerAfterWriteAction(AfterWriteAction afw);
 
+    /**
+     * ** For internal uses only **. Deregister an {@link AfterWriteAction} from this {@link
+     * Channel}, so that it is no longer invoked after the writes.
+     */
+    void deregisterAfterWriteAction(AfterWriteAction afw);
+
+    /**
+     * ** For internal uses only **. Enqueues a {@link Waiter} which gets signalled once a message
+     * might be available to read from this {@link Channel}, or once the {@link Channel} gets closed.
+     * The caller has to re-check the {@link Channel} after enqueueing, before it parks.
+     */
+    void enqueueReadWaiter(Waiter waiter);
+
+    /**
+     * ** For internal uses only **. Enqueues a {@link Waiter} which gets signalled once a message
+     * might be writable to this {@link Channel}, or once the {@link Channel} gets closed. The caller
+     * has to re-check the {@link Channel} after enqueueing, before it parks.
+     */
+    void enqueueWriteWaiter(Waiter waiter);
+
     /**
      * {@link Spliterator} is not supported for a {@link Channel}. It will throw a {@link
      * UnsupportedOperationException}.
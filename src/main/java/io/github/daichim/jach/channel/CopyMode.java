@@ -0,0 +1,27 @@
+package io.github.daichim.jach.channel;
+
+import io.github.daichim.jach.channel.copier.Copier;
+
+/**
+ * {@link CopyMode} declares when a buffered {@link Channel} copies a message with its {@link
+ * Copier}. By default, the message is copied as it is written, so that the writer is free to
+ * modify its instance right after. Copying on read instead defers the cost to the reader, and
+ * saves it altogether for the messages which are never read, e.g. the ones left in a channel that
+ * gets abandoned or in the fan-out of a selector which only picks one of the channels.
+ * <p>
+ * The mode has no effect on an {@link UnbufferedChannel}, where every message written is read.
+ */
+public enum CopyMode {
+
+    /**
+     * The message is copied by the writer, before it is put in the channel.
+     */
+    ON_WRITE,
+
+    /**
+     * The message is put in the channel by reference and copied by the reader that takes it out.
+     * The writer must not modify the message once it is written, since the changes show up in the
+     * copy. If the copy fails, the message is lost.
+     */
+    ON_READ
+}
@@ -0,0 +1,421 @@
+package io.github.daichim.jach.channel;
+
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import io.github.daichim.jach.exception.TimeoutException;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleConsumer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * {@link DoubleChannel} is a fixed capacity {@link Channel} of {@code double} values, backed by a
+ * {@code double[]} ring buffer. Unlike a {@link BufferedChannel} of {@link Double}, the values
+ * are neither boxed nor copied: {@link #writeDouble(double)}, {@link #readDouble()}, the batch
+ * operations over {@code double[]} and the {@link PrimitiveIterator.OfDouble} of the channel do
+ * not allocate in the steady state.
+ * <p>
+ * The channel is also a {@code Channel<Double>}, so it can be used in a {@link
+ * io.github.daichim.jach.channel.selector.Selector} or wherever a {@link Channel} is expected,
+ * at the cost of boxing the values on that path.
+ */
+public class DoubleChannel extends PrimitiveBufferChannel<Double> {
+
+    private final double[] items;
+    private final DoubleIterator iterator;
+
+    public DoubleChannel(int capacity) {
+        super(capacity);
+        this.items = new double[capacity];
+        this.iterator = new DoubleIterator();
+    }
+
+    /**
+     * Writes a value to the channel. If the channel is full, the thread is parked until space is
+     * available.
+     *
+     * @param value The value to write.
+     *
+     * @throws ClosedChannelException In case the channel has already been closed, or got closed
+     *                                before write could succeed.
+     * @throws IllegalStateException  In case the thread is interrupted while waiting for space.
+     */
+    public void writeDouble(double value) throws ClosedChannelException, IllegalStateException {
+        blockedWrite(value, false, 0L);
+    }
+
+    /**
+     * Writes a value to the channel, parking if space is not available for a maximum of the
+     * timeout period.
+     *
+     * @param value   The value to write.
+     * @param timeout The timeout value after which the write times out.
+     * @param unit    The unit of the timeout value.
+     *
+     * @throws TimeoutException       If the write times out after the timeout period.
+     * @throws ClosedChannelException If the channel has already been closed for writing.
+     */
+    public void writeDouble(double value, int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        blockedWrite(value, true, System.nanoTime() + nanos);
+    }
+
+    /**
+     * Tries writing a value to the channel without blocking.
+     *
+     * @param value The value to write.
+     *
+     * @return {@literal true} if the write succeeds, {@literal false} if the channel is full.
+     *
+     * @throws ClosedChannelException If the channel has already been closed for writing.
+     */
+    public boolean tryWriteDouble(double value) throws ClosedChannelException {
+        checkWritable();
+        if (offer(value)) {
+            afterWrite(1);
+            return true;
+        }
+        return false;
+    }
+
+    private void blockedWrite(double value, boolean timed, long deadline) throws TimeoutException {
+        checkWritable();
+        while (!offer(value)) {
+            awaitSpace(timed, deadline);
+        }
+        afterWrite(1);
+    }
+
+    private boolean offer(double value) {
+        lock.lock();
+        try {
+            int slot = reservePut();
+            if (slot < 0) {
+                return false;
+            }
+            items[slot] = value;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int offerAll(double[] values, int from, int to) {
+        lock.lock();
+        try {
+            int n = 0;
+            int slot;
+            while (from + n < to && (slot = reservePut()) >= 0) {
+                items[slot] = values[from + n];
+                n++;
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the values {@code values[from, to)} to the channel, in order. As many values as there
+     * is space for are written at once, and if the channel is full, the thread is parked until
+     * space is available for the rest.
+     *
+     * @param values The array holding the values to write.
+     * @param from   The index of the first value to write.
+     * @param to     The index after the last value to write.
+     *
+     * @throws ClosedChannelException In case the channel has already been closed, or got closed
+     *                                before all the values could be written. The values written
+     *                                until then stay in the channel.
+     * @throws IllegalStateException  In case the thread is interrupted while waiting for space.
+     */
+    public void writeAll(double[] values, int from, int to)
+        throws ClosedChannelException, IllegalStateException {
+        Preconditions.checkPositionIndexes(from, to, values.length);
+        checkWritable();
+        while (true) {
+            int n = offerAll(values, from, to);
+            afterWrite(n);
+            from += n;
+            if (from == to) {
+                return;
+            }
+            awaitSpace(false, 0L);
+        }
+    }
+
+    /**
+     * Tries writing the values {@code values[from, to)} to the channel, in order, as many as there
+     * is free space for. The values are written at once, without blocking.
+     *
+     * @param values The array holding the values to write.
+     * @param from   The index of the first value to write.
+     * @param to     The index after the last value to write.
+     *
+     * @return The number of values written, starting from {@code values[from]}.
+     *
+     * @throws ClosedChannelException If the channel has already been closed for writing.
+     */
+    public int tryWriteAll(double[] values, int from, int to) throws ClosedChannelException {
+        Preconditions.checkPositionIndexes(from, to, values.length);
+        checkWritable();
+        int n = offerAll(values, from, to);
+        afterWrite(n);
+        return n;
+    }
+
+    /**
+     * Reads the next value from the channel. If the channel is empty, the thread is parked until
+     * a value is available.
+     *
+     * @return The next value.
+     *
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     * @throws IllegalStateException         If the thread is interrupted while waiting for a
+     *                                       value.
+     */
+    public double readDouble() throws NoSuchChannelElementException, IllegalStateException {
+        return blockedRead(false, 0L);
+    }
+
+    /**
+     * Reads the next value from the channel, parking if the channel is empty for a maximum of the
+     * timeout period.
+     *
+     * @param timeout The timeout value after which the read times out.
+     * @param unit    The unit of the timeout value.
+     *
+     * @return The next value.
+     *
+     * @throws TimeoutException              If no value can be read within the timeout period.
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     */
+    public double readDouble(int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        return blockedRead(true, System.nanoTime() + nanos);
+    }
+
+    private double blockedRead(boolean timed, long deadline) throws TimeoutException {
+        while (true) {
+            lock.lock();
+            int slot;
+            double value = 0;
+            try {
+                slot = reserveTake();
+                if (slot >= 0) {
+                    value = items[slot];
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (slot >= 0) {
+                afterRead(1);
+                return value;
+            }
+            awaitMessage(timed, deadline);
+        }
+    }
+
+    private int pollAll(double[] values, int from, int to) {
+        lock.lock();
+        try {
+            int n = 0;
+            int slot;
+            while (from + n < to && (slot = reserveTake()) >= 0) {
+                values[from + n] = items[slot];
+                n++;
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the values that are in the channel into {@code values[from, to)}, in order. If the
+     * channel is empty, the thread is parked until at least one value is available, after which
+     * as many values as available (up to {@code to - from}) are read at once.
+     *
+     * @param values The array to read the values into.
+     * @param from   The index to read the first value into.
+     * @param to     The index after the last value that can be read.
+     *
+     * @return The number of values read, at least 1 unless {@code from == to}.
+     *
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     * @throws IllegalStateException         If the thread is interrupted while waiting for a
+     *                                       value.
+     */
+    public int read(double[] values, int from, int to)
+        throws NoSuchChannelElementException, IllegalStateException {
+        Preconditions.checkPositionIndexes(from, to, values.length);
+        if (from == to) {
+            return 0;
+        }
+        while (true) {
+            int n = pollAll(values, from, to);
+            if (n > 0) {
+                afterRead(n);
+                return n;
+            }
+            awaitMessage(false, 0L);
+        }
+    }
+
+    /**
+     * Removes the values that are in the channel right now into {@code values[from, to)}, in
+     * order, without blocking.
+     *
+     * @param values The array to read the values into.
+     * @param from   The index to read the first value into.
+     * @param to     The index after the last value that can be read.
+     *
+     * @return The number of values read, {@literal 0} if the channel is empty.
+     *
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     */
+    public int drainTo(double[] values, int from, int to) throws NoSuchChannelElementException {
+        Preconditions.checkPositionIndexes(from, to, values.length);
+        int n = pollAll(values, from, to);
+        if (n > 0) {
+            afterRead(n);
+            return n;
+        }
+        checkReadable();
+        return 0;
+    }
+
+    /**
+     * Boxed variant of {@link #writeDouble(double)}.
+     *
+     * @throws NullPointerException If the value is {@literal null}.
+     */
+    @Override
+    public void write(Double message) throws ClosedChannelException, IllegalStateException {
+        writeDouble(message);
+    }
+
+    /**
+     * Boxed variant of {@link #writeDouble(double, int, TimeUnit)}.
+     *
+     * @throws NullPointerException If the value is {@literal null}.
+     */
+    @Override
+    public void write(Double message, int timeout, TimeUnit unit) throws TimeoutException {
+        writeDouble(message, timeout, unit);
+    }
+
+    /**
+     * Boxed variant of {@link #tryWriteDouble(double)}.
+     *
+     * @throws NullPointerException If the value is {@literal null}.
+     */
+    @Override
+    public boolean tryWrite(Double message) throws ClosedChannelException {
+        return tryWriteDouble(message);
+    }
+
+    /**
+     * Boxed variant of {@link #readDouble()}.
+     */
+    @Override
+    public Double read() throws NoSuchChannelElementException, IllegalStateException {
+        return readDouble();
+    }
+
+    /**
+     * Boxed variant of {@link #readDouble(int, TimeUnit)}.
+     */
+    @Override
+    public Double read(int timeout, TimeUnit unit) throws TimeoutException {
+        return readDouble(timeout, unit);
+    }
+
+    /**
+     * Tries to read the next value from the channel. Use {@link #drainTo(double[], int, int)} to
+     * read without boxing.
+     *
+     * @return The next value, or {@literal null} if the channel is empty.
+     *
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     */
+    @Override
+    public Double tryRead() {
+        lock.lock();
+        int slot;
+        double value = 0;
+        try {
+            slot = reserveTake();
+            if (slot >= 0) {
+                value = items[slot];
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (slot >= 0) {
+            afterRead(1);
+            return value;
+        }
+        checkReadable();
+        return null;
+    }
+
+    @Override
+    public Class<Double> getDataType() {
+        return Double.class;
+    }
+
+    /**
+     * Returns a blocking {@link PrimitiveIterator.OfDouble} over the channel. {@link
+     * PrimitiveIterator.OfDouble#nextDouble()} parks until a value is available, and throws a
+     * {@link NoSuchChannelElementException} once the channel is closed and drained.
+     *
+     * @return A {@link PrimitiveIterator.OfDouble} to iterate over the channel.
+     */
+    @Override
+    public PrimitiveIterator.OfDouble iterator() {
+        return iterator;
+    }
+
+    /**
+     * Perform an action over the values as received in the current thread from the channel,
+     * until the channel is closed and drained.
+     *
+     * @param action The action to perform for each value received on this thread.
+     */
+    public void forEachDouble(DoubleConsumer action) {
+        iterator.forEachRemaining(action);
+    }
+
+    private final class DoubleIterator implements PrimitiveIterator.OfDouble {
+
+        @Override
+        public boolean hasNext() {
+            return canRead();
+        }
+
+        @Override
+        public double nextDouble() throws NoSuchChannelElementException {
+            try {
+                return readDouble();
+            } catch (ClosedChannelException | IllegalStateException ex) {
+                throw new NoSuchChannelElementException();
+            }
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            try {
+                while (hasNext()) {
+                    action.accept(nextDouble());
+                }
+            } catch (NoSuchElementException ex) {
+                // Done iterating. Do nothing
+            }
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package io.github.daichim.jach.channel;
+
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import io.github.daichim.jach.exception.TimeoutException;
+import io.github.daichim.jach.internal.AfterWriteAction;
+import io.github.daichim.jach.internal.ChannelIterator;
+import io.github.daichim.jach.internal.Waiter;
+import io.github.daichim.jach.metrics.ChannelMetrics;
+import io.github.daichim.jach.metrics.ChannelStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * {@link InstrumentedChannel} wraps a {@link Channel} and reports the writes, the reads, the
+ * failed non-blocking writes, the timeouts and the time the writers and readers spend blocked to
+ * a {@link ChannelMetrics}, e.g. a {@link ChannelStats} exported over JMX. Instrumentation is opt
+ * in: a channel which is not wrapped runs exactly the same code as before, so that it costs
+ * nothing when it is disabled.
+ * <p>
+ * Every blocking operation first tries the non-blocking one of the wrapped channel, and only if
+ * that fails, reads the clock and blocks, so that the clock is only read by the threads which
+ * actually block. A write which blocks on a channel that copies the messages on write copies the
+ * message twice, once for the failed attempt. The messages written or read through the wrapped
+ * channel directly are not counted, and neither is the time a {@link
+ * io.github.daichim.jach.channel.selector.Selector} waits on the channel, although its writes and
+ * reads are.
+ *
+ * @param <T> The type of the messages.
+ */
+public class InstrumentedChannel<T> implements Channel<T> {
+
+    private final Channel<T> channel;
+    private final ChannelMetrics metrics;
+    private final ChannelIterator<T> iterator;
+
+    /**
+     * Wraps a channel.
+     *
+     * @param channel The channel to instrument.
+     * @param metrics The metrics to report to.
+     */
+    public InstrumentedChannel(Channel<T> channel, ChannelMetrics metrics) {
+        this.channel = Preconditions.checkNotNull(channel);
+        this.metrics = Preconditions.checkNotNull(metrics);
+        this.iterator = new ChannelIterator<>(this);
+    }
+
+    /**
+     * @see Channel#write(Object)
+     */
+    @Override
+    public void write(T message) throws ClosedChannelException, IllegalStateException {
+        if (channel.tryWrite(message)) {
+            metrics.onWrite(1);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            channel.write(message);
+        } finally {
+            metrics.onWriterBlocked(System.nanoTime() - start);
+        }
+        metrics.onWrite(1);
+    }
+
+    /**
+     * @see Channel#write(Object, int, TimeUnit)
+     */
+    @Override
+    public void write(T message, int timeout, TimeUnit unit) throws TimeoutException {
+        if (channel.tryWrite(message)) {
+            metrics.onWrite(1);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            channel.write(message, timeout, unit);
+        } catch (TimeoutException | java.util.concurrent.TimeoutException ex) {
+            metrics.onTimeout();
+            throw ex instanceof TimeoutException ? (TimeoutException) ex : new TimeoutException();
+        } finally {
+            metrics.onWriterBlocked(System.nanoTime() - start);
+        }
+        metrics.onWrite(1);
+    }
+
+    @Override
+    public boolean tryWrite(T message) {
+        if (channel.tryWrite(message)) {
+            metrics.onWrite(1);
+            return true;
+        }
+        metrics.onTryWriteFailure();
+        return false;
+    }
+
+    /**
+     * Writes the messages that there is space for at once, and blocks only for the rest.
+     *
+     * @see Channel#writeAll(Collection)
+     */
+    @Override
+    public void writeAll(Collection<? extends T> messages) throws IllegalStateException {
+        int written = channel.tryWriteAll(messages);
+        if (written > 0) {
+            metrics.onWrite(written);
+        }
+        if (written == messages.size()) {
+            return;
+        }
+        List<? extends T> rest = new ArrayList<>(messages).subList(written, messages.size());
+        long start = System.nanoTime();
+        try {
+            channel.writeAll(rest);
+        } finally {
+            metrics.onWriterBlocked(System.nanoTime() - start);
+        }
+        metrics.onWrite(rest.size());
+    }
+
+    @Override
+    public int tryWriteAll(Collection<? extends T> messages) {
+        int written = channel.tryWriteAll(messages);
+        if (written > 0) {
+            metrics.onWrite(written);
+        }
+        if (written < messages.size()) {
+            metrics.onTryWriteFailure();
+        }
+        return written;
+    }
+
+    @Override
+    public boolean canWrite() {
+        return channel.canWrite();
+    }
+
+    /**
+     * @see Channel#read()
+     */
+    @Override
+    public T read() throws NoSuchChannelElementException, IllegalStateException {
+        T msg = channel.tryRead();
+        if (msg == null) {
+            long start = System.nanoTime();
+            try {
+                msg = channel.read();
+            } finally {
+                metrics.onReaderBlocked(System.nanoTime() - start);
+            }
+        }
+        metrics.onRead(1);
+        return msg;
+    }
+
+    /**
+     * @see Channel#read(int, TimeUnit)
+     */
+    @Override
+    public T read(int timeout, TimeUnit unit) throws TimeoutException {
+        T msg = channel.tryRead();
+        if (msg == null) {
+            long start = System.nanoTime();
+            try {
+                msg = channel.read(timeout, unit);
+            } catch (TimeoutException | java.util.concurrent.TimeoutException ex) {
+                metrics.onTimeout();
+                throw ex instanceof TimeoutException ? (TimeoutException) ex : new TimeoutException();
+            } finally {
+                metrics.onReaderBlocked(System.nanoTime() - start);
+            }
+        }
+        metrics.onRead(1);
+        return msg;
+    }
+
+    @Override
+    public T tryRead() {
+        T msg = channel.tryRead();
+        if (msg != null) {
+            metrics.onRead(1);
+        }
+        return msg;
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> collection, int max)
+        throws NoSuchChannelElementException {
+        int n = channel.drainTo(collection, max);
+        if (n > 0) {
+            metrics.onRead(n);
+        }
+        return n;
+    }
+
+    /**
+     * Takes the messages that are in the channel at once, and blocks only if there are fewer than
+     * {@code min} of them.
+     *
+     * @see Channel#readBatch(int, int, long, TimeUnit)
+     */
+    @Override
+    public List<T> readBatch(int min, int max, long timeout, TimeUnit unit)
+        throws TimeoutException, NoSuchChannelElementException, IllegalStateException {
+        Preconditions.checkArgument(min > 0 && min <= max, "Expected 0 < min <= max");
+        List<T> batch = new ArrayList<>(Math.min(max, 1024));
+        channel.drainTo(batch, max);
+        if (batch.size() >= min) {
+            metrics.onRead(batch.size());
+            return batch;
+        }
+        long start = System.nanoTime();
+        try {
+            batch.addAll(channel.readBatch(min - batch.size(), max - batch.size(), timeout, unit));
+        } catch (TimeoutException ex) {
+            if (batch.isEmpty()) {
+                metrics.onTimeout();
+                throw ex;
+            }
+        } catch (NoSuchChannelElementException ex) {
+            if (batch.isEmpty()) {
+                throw ex;
+            }
+        } finally {
+            metrics.onReaderBlocked(System.nanoTime() - start);
+        }
+        metrics.onRead(batch.size());
+        return batch;
+    }
+
+    @Override
+    public boolean canRead() {
+        return channel.canRead();
+    }
+
+    /**
+     * Closes the wrapped channel, then tells the metrics that the channel is closed.
+     *
+     * @see Channel#close()
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } finally {
+            iterator.markDone();
+            metrics.onClose();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public String getId() {
+        return channel.getId();
+    }
+
+    @Override
+    public Class<T> getDataType() {
+        return channel.getDataType();
+    }
+
+    @Override
+    public void registerAfterWriteAction(AfterWriteAction afw) {
+        channel.registerAfterWriteAction(afw);
+    }
+
+    @Override
+    public void deregisterAfterWriteAction(AfterWriteAction afw) {
+        channel.deregisterAfterWriteAction(afw);
+    }
+
+    @Override
+    public void enqueueReadWaiter(Waiter waiter) {
+        channel.enqueueReadWaiter(waiter);
+    }
+
+    @Override
+    public void enqueueWriteWaiter(Waiter waiter) {
+        channel.enqueueWriteWaiter(waiter);
+    }
+
+    /**
+     * The wrapped channel.
+     *
+     * @return The wrapped channel.
+     */
+    public Channel<T> getChannel() {
+        return channel;
+    }
+
+    /**
+     * The metrics which the channel reports to.
+     *
+     * @return The metrics of the channel.
+     */
+    public ChannelMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns a blocking {@link Iterator} over the channel, whose reads are counted.
+     *
+     * @return An {@link Iterator} to iterate over the channel.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return iterator;
+    }
+
+    /**
+     * Performs the action on the messages read from the channel, until the channel is closed.
+     *
+     * @param action The action to perform for each message received on this thread.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        try {
+            while (this.canRead()) {
+                action.accept(this.read());
+            }
+        } catch (NoSuchChannelElementException | ClosedChannelException
+            | IllegalStateException ex) {
+            // Done iterating. Do nothing
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package io.github.daichim.jach.channel;
+
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import io.github.daichim.jach.exception.TimeoutException;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * {@link LongChannel} is a fixed capacity {@link Channel} of {@code long} values, backed by a
+ * {@code long[]} ring buffer. Unlike a {@link BufferedChannel} of {@link Long}, the values are
+ * neither boxed nor copied: {@link #writeLong(long)}, {@link #readLong()}, the batch operations
+ * over {@code long[]} and the {@link PrimitiveIterator.OfLong} of the channel do not allocate in
+ * the steady state.
+ * <p>
+ * The channel is also a {@code Channel<Long>}, so it can be used in a {@link
+ * io.github.daichim.jach.channel.selector.Selector} or wherever a {@link Channel} is expected,
+ * at the cost of boxing the values on that path.
+ */
+public class LongChannel extends PrimitiveBufferChannel<Long> {
+
+    private final long[] items;
+    private final LongIterator iterator;
+
+    public LongChannel(int capacity) {
+        super(capacity);
+        this.items = new long[capacity];
+        this.iterator = new LongIterator();
+    }
+
+    /**
+     * Writes a value to the channel. If the channel is full, the thread is parked until space is
+     * available.
+     *
+     * @param value The value to write.
+     *
+     * @throws ClosedChannelException In case the channel has already been closed, or got closed
+     *                                before write could succeed.
+     * @throws IllegalStateException  In case the thread is interrupted while waiting for space.
+     */
+    public void writeLong(long value) throws ClosedChannelException, IllegalStateException {
+        blockedWrite(value, false, 0L);
+    }
+
+    /**
+     * Writes a value to the channel, parking if space is not available for a maximum of the
+     * timeout period.
+     *
+     * @param value   The value to write.
+     * @param timeout The timeout value after which the write times out.
+     * @param unit    The unit of the timeout value.
+     *
+     * @throws TimeoutException       If the write times out after the timeout period.
+     * @throws ClosedChannelException If the channel has already been closed for writing.
+     */
+    public void writeLong(long value, int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        blockedWrite(value, true, System.nanoTime() + nanos);
+    }
+
+    /**
+     * Tries writing a value to the channel without blocking.
+     *
+     * @param value The value to write.
+     *
+     * @return {@literal true} if the write succeeds, {@literal false} if the channel is full.
+     *
+     * @throws ClosedChannelException If the channel has already been closed for writing.
+     */
+    public boolean tryWriteLong(long value) throws ClosedChannelException {
+        checkWritable();
+        if (offer(value)) {
+            afterWrite(1);
+            return true;
+        }
+        return false;
+    }
+
+    private void blockedWrite(long value, boolean timed, long deadline) throws TimeoutException {
+        checkWritable();
+        while (!offer(value)) {
+            awaitSpace(timed, deadline);
+        }
+        afterWrite(1);
+    }
+
+    private boolean offer(long value) {
+        lock.lock();
+        try {
+            int slot = reservePut();
+            if (slot < 0) {
+                return false;
+            }
+            items[slot] = value;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int offerAll(long[] values, int from, int to) {
+        lock.lock();
+        try {
+            int n = 0;
+            int slot;
+            while (from + n < to && (slot = reservePut()) >= 0) {
+                items[slot] = values[from + n];
+                n++;
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the values {@code values[from, to)} to the channel, in order. As many values as there
+     * is space for are written at once, and if the channel is full, the thread is parked until
+     * space is available for the rest.
+     *
+     * @param values The array holding the values to write.
+     * @param from   The index of the first value to write.
+     * @param to     The index after the last value to write.
+     *
+     * @throws ClosedChannelException In case the channel has already been closed, or got closed
+     *                                before all the values could be written. The values written
+     *                                until then stay in the channel.
+     * @throws IllegalStateException  In case the thread is interrupted while waiting for space.
+     */
+    public void writeAll(long[] values, int from, int to)
+        throws ClosedChannelException, IllegalStateException {
+        Preconditions.checkPositionIndexes(from, to, values.length);
+        checkWritable();
+        while (true) {
+            int n = offerAll(values, from, to);
+            afterWrite(n);
+            from += n;
+            if (from == to) {
+                return;
+            }
+            awaitSpace(false, 0L);
+        }
+    }
+
+    /**
+     * Tries writing the values {@code values[from, to)} to the channel, in order, as many as there
+     * is free space for. The values are written at once, without blocking.
+     *
+     * @param values The array holding the values to write.
+     * @param from   The index of the first value to write.
+     * @param to     The index after the last value to write.
+     *
+     * @return The number of values written, starting from {@code values[from]}.
+     *
+     * @throws ClosedChannelException If the channel has already been closed for writing.
+     */
+    public int tryWriteAll(long[] values, int from, int to) throws ClosedChannelException {
+        Preconditions.checkPositionIndexes(from, to, values.length);
+        checkWritable();
+        int n = offerAll(values, from, to);
+        afterWrite(n);
+        return n;
+    }
+
+    /**
+     * Reads the next value from the channel. If the channel is empty, the thread is parked until
+     * a value is available.
+     *
+     * @return The next value.
+     *
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     * @throws IllegalStateException         If the thread is interrupted while waiting for a
+     *                                       value.
+     */
+    public long readLong() throws NoSuchChannelElementException, IllegalStateException {
+        return blockedRead(false, 0L);
+    }
+
+    /**
+     * Reads the next value from the channel, parking if the channel is empty for a maximum of the
+     * timeout period.
+     *
+     * @param timeout The timeout value after which the read times out.
+     * @param unit    The unit of the timeout value.
+     *
+     * @return The next value.
+     *
+     * @throws TimeoutException              If no value can be read within the timeout period.
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     */
+    public long readLong(int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        return blockedRead(true, System.nanoTime() + nanos);
+    }
+
+    private long blockedRead(boolean timed, long deadline) throws TimeoutException {
+        while (true) {
+            lock.lock();
+            int slot;
+            long value = 0;
+            try {
+                slot = reserveTake();
+                if (slot >= 0) {
+                    value = items[slot];
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (slot >= 0) {
+                afterRead(1);
+                return value;
+            }
+            awaitMessage(timed, deadline);
+        }
+    }
+
+    private int pollAll(long[] values, int from, int to) {
+        lock.lock();
+        try {
+            int n = 0;
+            int slot;
+            while (from + n < to && (slot = reserveTake()) >= 0) {
+                values[from + n] = items[slot];
+                n++;
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the values that are in the channel into {@code values[from, to)}, in order. If the
+     * channel is empty, the thread is parked until at least one value is available, after which
+     * as many values as available (up to {@code to - from}) are read at once.
+     *
+     * @param values The array to read the values into.
+     * @param from   The index to read the first value into.
+     * @param to     The index after the last value that can be read.
+     *
+     * @return The number of values read, at least 1 unless {@code from == to}.
+     *
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     * @throws IllegalStateException         If the thread is interrupted while waiting for a
+     *                                       value.
+     */
+    public int read(long[] values, int from, int to)
+        throws NoSuchChannelElementException, IllegalStateException {
+        Preconditions.checkPositionIndexes(from, to, values.length);
+        if (from == to) {
+            return 0;
+        }
+        while (true) {
+            int n = pollAll(values, from, to);
+            if (n > 0) {
+                afterRead(n);
+                return n;
+            }
+            awaitMessage(false, 0L);
+        }
+    }
+
+    /**
+     * Removes the values that are in the channel right now into {@code values[from, to)}, in
+     * order, without blocking.
+     *
+     * @param values The array to read the values into.
+     * @param from   The index to read the first value into.
+     * @param to     The index after the last value that can be read.
+     *
+     * @return The number of values read, {@literal 0} if the channel is empty.
+     *
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     */
+    public int drainTo(long[] values, int from, int to) throws NoSuchChannelElementException {
+        Preconditions.checkPositionIndexes(from, to, values.length);
+        int n = pollAll(values, from, to);
+        if (n > 0) {
+            afterRead(n);
+            return n;
+        }
+        checkReadable();
+        return 0;
+    }
+
+    /**
+     * Boxed variant of {@link #writeLong(long)}.
+     *
+     * @throws NullPointerException If the value is {@literal null}.
+     */
+    @Override
+    public void write(Long message) throws ClosedChannelException, IllegalStateException {
+        writeLong(message);
+    }
+
+    /**
+     * Boxed variant of {@link #writeLong(long, int, TimeUnit)}.
+     *
+     * @throws NullPointerException If the value is {@literal null}.
+     */
+    @Override
+    public void write(Long message, int timeout, TimeUnit unit) throws TimeoutException {
+        writeLong(message, timeout, unit);
+    }
+
+    /**
+     * Boxed variant of {@link #tryWriteLong(long)}.
+     *
+     * @throws NullPointerException If the value is {@literal null}.
+     */
+    @Override
+    public boolean tryWrite(Long message) throws ClosedChannelException {
+        return tryWriteLong(message);
+    }
+
+    /**
+     * Boxed variant of {@link #readLong()}.
+     */
+    @Override
+    public Long read() throws NoSuchChannelElementException, IllegalStateException {
+        return readLong();
+    }
+
+    /**
+     * Boxed variant of {@link #readLong(int, TimeUnit)}.
+     */
+    @Override
+    public Long read(int timeout, TimeUnit unit) throws TimeoutException {
+        return readLong(timeout, unit);
+    }
+
+    /**
+     * Tries to read the next value from the channel. Use {@link #drainTo(long[], int, int)} to
+     * read without boxing.
+     *
+     * @return The next value, or {@literal null} if the channel is empty.
+     *
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     */
+    @Override
+    public Long tryRead() {
+        lock.lock();
+        int slot;
+        long value = 0;
+        try {
+            slot = reserveTake();
+            if (slot >= 0) {
+                value = items[slot];
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (slot >= 0) {
+            afterRead(1);
+            return value;
+        }
+        checkReadable();
+        return null;
+    }
+
+    @Override
+    public Class<Long> getDataType() {
+        return Long.class;
+    }
+
+    /**
+     * Returns a blocking {@link PrimitiveIterator.OfLong} over the channel. {@link
+     * PrimitiveIterator.OfLong#nextLong()} parks until a value is available, and throws a
+     * {@link NoSuchChannelElementException} once the channel is closed and drained.
+     *
+     * @return A {@link PrimitiveIterator.OfLong} to iterate over the channel.
+     */
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return iterator;
+    }
+
+    /**
+     * Perform an action over the values as received in the current thread from the channel,
+     * until the channel is closed and drained.
+     *
+     * @param action The action to perform for each value received on this thread.
+     */
+    public void forEachLong(LongConsumer action) {
+        iterator.forEachRemaining(action);
+    }
+
+    private final class LongIterator implements PrimitiveIterator.OfLong {
+
+        @Override
+        public boolean hasNext() {
+            return canRead();
+        }
+
+        @Override
+        public long nextLong() throws NoSuchChannelElementException {
+            try {
+                return readLong();
+            } catch (ClosedChannelException | IllegalStateException ex) {
+                throw new NoSuchChannelElementException();
+            }
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            try {
+                while (hasNext()) {
+                    action.accept(nextLong());
+                }
+            } catch (NoSuchElementException ex) {
+                // Done iterating. Do nothing
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package io.github.daichim.jach.channel;
+
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.io.Input;
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.channel.copier.KryoPool;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link OffHeapChannel} is a fixed capacity {@link Channel} which keeps the messages serialized
+ * in a direct (off-heap) ring of bytes, instead of keeping deep copies of them on the heap. A
+ * write serializes the message with a {@link Kryo} instance of the channel's {@link KryoPool}, and
+ * a read deserializes it into a new object, so the messages are copied just like with a {@link
+ * BufferedChannel}. The backlog of a channel whose readers lag behind costs almost no heap, and
+ * does not get promoted to the old generation.
+ * <p>
+ * Each message is stored as a record of its length followed by its bytes, padded to 4 bytes. The
+ * ring is allocated once, at the creation of the channel, and reused for the life of the channel.
+ * It is released along with the channel, once the channel is garbage collected.
+ * The channel is full when either the number of messages reaches the capacity, or the next record
+ * does not fit in the free bytes of the ring. A message which would not fit even in the empty
+ * ring is rejected with an {@link IllegalArgumentException}.
+ * <p>
+ * The serialization buffers are pooled as well, so the steady state only allocates the
+ * deserialized messages. Prefer this channel for large messages or deep backlogs, the
+ * serialization makes it slower than a {@link BufferedChannel} for small messages.
+ *
+ * @param <T> The type of the message which the {@link OffHeapChannel} holds.
+ */
+public class OffHeapChannel<T> extends SerializedChannel<T> {
+
+    private static final int RECORD_HEADER = Integer.BYTES;
+
+    private final ByteBuffer ring;
+    private final int byteCapacity;
+    private final int capacity;
+    private final ReentrantLock lock;
+    // Guarded by the lock, the counters are volatile to be read without it.
+    private int readPosition;
+    private int writePosition;
+    private volatile int count;
+    private volatile int usedBytes;
+
+    /**
+     * Creates an {@link OffHeapChannel} which serializes the messages with a {@link KryoPool} of
+     * its own.
+     *
+     * @param capacity     The maximum number of messages in the channel.
+     * @param byteCapacity The size of the off-heap ring in bytes, rounded up to a multiple of 4.
+     * @param clazz        The type of the messages.
+     */
+    public OffHeapChannel(int capacity, int byteCapacity, Class<T> clazz) {
+        this(capacity, byteCapacity, clazz, new KryoPool(POOL_SIZE));
+    }
+
+    /**
+     * Creates an {@link OffHeapChannel} which serializes the messages with the given {@link
+     * KryoPool}. A message is read with another {@link Kryo} instance than the one it was written
+     * with, so all the instances of the pool must have the same classes registered in the same
+     * order. {@link KryoPool} keeps them in step for the classes registered through {@link
+     * KryoPool#register(Class)}, but not for a class registered directly on a borrowed instance.
+     *
+     * @param capacity     The maximum number of messages in the channel.
+     * @param byteCapacity The size of the off-heap ring in bytes, rounded up to a multiple of 4.
+     * @param clazz        The type of the messages, which gets registered with the pool.
+     * @param kryoPool     The pool of {@link Kryo} instances to serialize the messages with.
+     */
+    public OffHeapChannel(int capacity, int byteCapacity, Class<T> clazz, KryoPool kryoPool) {
+        super(clazz, kryoPool);
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive");
+        Preconditions.checkArgument(byteCapacity > RECORD_HEADER,
+            "Byte capacity must be more than %s", RECORD_HEADER);
+        Preconditions.checkArgument(byteCapacity <= Integer.MAX_VALUE - 3,
+            "Byte capacity is too large");
+        this.capacity = capacity;
+        this.byteCapacity = (byteCapacity + 3) & ~3;
+        this.ring = ByteBuffer.allocateDirect(this.byteCapacity);
+        this.lock = new ReentrantLock();
+    }
+
+    private static int recordSize(int length) {
+        return RECORD_HEADER + ((length + 3) & ~3);
+    }
+
+    /**
+     * Appends the serialized message to the ring, if there is space for it. The records start at
+     * multiples of 4, so that the length header never wraps around the end of the ring. The ring
+     * is positioned through {@link Buffer}, whose methods are the only ones that exist on Java 8.
+     */
+    @Override
+    boolean offer(byte[] bytes, int length) {
+        int record = recordSize(length);
+        lock.lock();
+        try {
+            if (count == capacity || byteCapacity - usedBytes < record) {
+                return false;
+            }
+            int start = writePosition;
+            ring.putInt(start, length);
+            int position = start + RECORD_HEADER;
+            if (position == byteCapacity) {
+                position = 0;
+            }
+            int first = Math.min(length, byteCapacity - position);
+            ((Buffer) ring).position(position);
+            ring.put(bytes, 0, first);
+            if (first < length) {
+                ((Buffer) ring).position(0);
+                ring.put(bytes, first, length - first);
+            }
+            int next = start + record;
+            writePosition = next >= byteCapacity ? next - byteCapacity : next;
+            usedBytes = usedBytes + record;
+            count = count + 1;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    boolean poll(Input input) {
+        lock.lock();
+        try {
+            if (count == 0) {
+                return false;
+            }
+            int start = readPosition;
+            int length = ring.getInt(start);
+            byte[] buffer = bufferOf(input, length);
+            int position = start + RECORD_HEADER;
+            if (position == byteCapacity) {
+                position = 0;
+            }
+            int first = Math.min(length, byteCapacity - position);
+            ((Buffer) ring).position(position);
+            ring.get(buffer, 0, first);
+            if (first < length) {
+                ((Buffer) ring).position(0);
+                ring.get(buffer, first, length - first);
+            }
+            input.setBuffer(buffer, 0, length);
+            int record = recordSize(length);
+            int next = start + record;
+            readPosition = next >= byteCapacity ? next - byteCapacity : next;
+            usedBytes = usedBytes - record;
+            count = count - 1;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    int maxMessageLength() {
+        return byteCapacity - RECORD_HEADER;
+    }
+
+    /**
+     * The maximum number of messages in this {@link OffHeapChannel}.
+     *
+     * @return The capacity of this {@link OffHeapChannel}.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The size of the off-heap ring of this {@link OffHeapChannel}.
+     *
+     * @return The size of the ring in bytes.
+     */
+    public int getByteCapacity() {
+        return byteCapacity;
+    }
+
+    /**
+     * The number of bytes of the ring taken by the messages in the channel, including the length
+     * headers and the padding.
+     *
+     * @return The number of bytes in use.
+     */
+    public int getUsedBytes() {
+        return usedBytes;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+}
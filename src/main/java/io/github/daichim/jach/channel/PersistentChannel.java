@@ -0,0 +1,455 @@
+package io.github.daichim.jach.channel;
+
+import com.esotericsoftware.kryo.kryo5.io.Input;
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.channel.copier.KryoPool;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * {@link PersistentChannel} is a fixed capacity {@link Channel} whose messages are kept in
+ * memory-mapped segment files of a directory, so that the messages which are not read yet survive
+ * a restart of the process. Opening a channel on the directory of a previous one recovers its
+ * unread messages, in order. The messages are serialized with {@link
+ * com.esotericsoftware.kryo.kryo5.Kryo} like in an {@link OffHeapChannel}, with the type of the
+ * messages as the only registered class, so that the bytes can be read by the next process. A
+ * change of the message class between two runs has to stay compatible with the Kryo {@link
+ * com.esotericsoftware.kryo.kryo5.serializers.FieldSerializer}.
+ * <p>
+ * Each segment is a file of a fixed size, mapped once. A message is stored as its length followed
+ * by its serialized bytes. The length is written last, and marks the record complete. When a
+ * record does not fit in the rest of the segment, the writer moves on to a new segment. The read
+ * position is kept in a separate, mapped cursor file, and a segment is deleted as soon as it has
+ * been read through.
+ * <p>
+ * The mapped files are written back by the operating system, which is enough for the messages to
+ * survive the crash of the process. To survive the crash of the machine, set a sync interval: the
+ * segment and the cursor are forced to the disk every {@code syncInterval} writes and reads
+ * respectively, and when the channel is closed. A message counts as consumed as soon as it is
+ * read, so a crash of the reader after a read and before the message is processed loses it.
+ * <p>
+ * The directory is locked for the life of the channel, opening a second channel on it fails with
+ * an {@link IllegalStateException} until the first one is closed.
+ *
+ * @param <T> The type of the message which the {@link PersistentChannel} holds.
+ */
+@Slf4j
+public class PersistentChannel<T> extends SerializedChannel<T> {
+
+    /**
+     * The default size of the segment files, 16 MiB.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final int RECORD_HEADER = Integer.BYTES;
+    private static final int MIN_SEGMENT_SIZE = 64;
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final String CURSOR_FILE = "cursor.dat";
+
+    private final Path directory;
+    private final int capacity;
+    private final int segmentSize;
+    private final int syncInterval;
+    private final ReentrantLock lock;
+    private final FileChannel cursorFile;
+    private final FileLock directoryLock;
+    private final MappedByteBuffer cursor;
+    // Guarded by the lock. The first segment is read from, the last one is written to.
+    private final ArrayDeque<Segment> segments;
+    private int readPosition;
+    private int writePosition;
+    private int unsyncedWrites;
+    private int unsyncedReads;
+    private volatile int count;
+
+    /**
+     * Opens a {@link PersistentChannel} on the given directory with segments of {@link
+     * #DEFAULT_SEGMENT_SIZE}, which leaves writing the files back to the operating system.
+     *
+     * @param directory The directory of the channel, created if it does not exist.
+     * @param clazz     The type of the messages.
+     * @param capacity  The maximum number of messages in the channel.
+     *
+     * @throws UncheckedIOException  If the files of the channel cannot be opened.
+     * @throws IllegalStateException If another channel is open on the directory.
+     */
+    public PersistentChannel(Path directory, Class<T> clazz, int capacity) {
+        this(directory, clazz, capacity, DEFAULT_SEGMENT_SIZE, 0);
+    }
+
+    /**
+     * Opens a {@link PersistentChannel} on the given directory, recovering the messages that a
+     * previous channel left in it.
+     *
+     * @param directory    The directory of the channel, created if it does not exist.
+     * @param clazz        The type of the messages.
+     * @param capacity     The maximum number of messages in the channel.
+     * @param segmentSize  The size of the segment files in bytes, which bounds the size of a
+     *                     serialized message.
+     * @param syncInterval The number of writes (and reads) after which the segment (and the
+     *                     cursor) are forced to the disk, or {@literal 0} to only force them on
+     *                     close.
+     *
+     * @throws UncheckedIOException  If the files of the channel cannot be opened.
+     * @throws IllegalStateException If another channel is open on the directory.
+     */
+    public PersistentChannel(Path directory, Class<T> clazz, int capacity, int segmentSize,
+                             int syncInterval) {
+        super(clazz, new KryoPool(POOL_SIZE));
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive");
+        Preconditions.checkArgument(segmentSize >= MIN_SEGMENT_SIZE,
+            "Segment size must be at least %s", MIN_SEGMENT_SIZE);
+        Preconditions.checkArgument(syncInterval >= 0, "Sync interval must not be negative");
+        this.directory = Preconditions.checkNotNull(directory);
+        this.capacity = capacity;
+        this.segmentSize = segmentSize & ~3;
+        this.syncInterval = syncInterval;
+        this.lock = new ReentrantLock();
+        this.segments = new ArrayDeque<>();
+
+        FileChannel file = null;
+        try {
+            Files.createDirectories(directory);
+            file = FileChannel.open(directory.resolve(CURSOR_FILE), CREATE, READ, WRITE);
+            FileLock fileLock = file.tryLock();
+            if (fileLock == null) {
+                throw new OverlappingFileLockException();
+            }
+            this.cursorFile = file;
+            this.directoryLock = fileLock;
+            this.cursor = file.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+            recover();
+        } catch (IOException ex) {
+            closeQuietly(file);
+            throw new UncheckedIOException("Cannot open the channel in " + directory, ex);
+        } catch (OverlappingFileLockException ex) {
+            closeQuietly(file);
+            throw new IllegalStateException("Another channel is open in " + directory, ex);
+        } catch (RuntimeException ex) {
+            closeQuietly(file);
+            throw ex;
+        }
+    }
+
+    private static void closeQuietly(FileChannel file) {
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException ex) {
+                log.warn("Error in closing {}", file, ex);
+            }
+        }
+    }
+
+    private static int recordSize(int length) {
+        return RECORD_HEADER + ((length + 3) & ~3);
+    }
+
+    /**
+     * Deletes the segments which were read through, counts the messages from the cursor onwards,
+     * and starts a new segment to write to unless the last one is blank, so that the writes never
+     * land after (or over) the torn record that a crash might have left at the end of the last
+     * segment.
+     */
+    private void recover() throws IOException {
+        long position = cursor.getLong(0);
+        long readSequence = position >>> 32;
+        int read = (int) position;
+        List<Long> sequences = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+            SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                sequences.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                    name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        Collections.sort(sequences);
+        for (long sequence : sequences) {
+            if (sequence < readSequence) {
+                Files.deleteIfExists(segmentPath(sequence));
+            } else {
+                segments.addLast(Segment.open(segmentPath(sequence), sequence, segmentSize));
+            }
+        }
+        if (segments.isEmpty() || segments.peekFirst().sequence != readSequence) {
+            read = 0;
+        }
+
+        int messages = 0;
+        int end = read;
+        for (Segment segment : segments) {
+            end = segment == segments.peekFirst() ? read : 0;
+            int length;
+            while ((length = segment.lengthAt(end)) > 0) {
+                messages++;
+                end += recordSize(length);
+            }
+        }
+        this.readPosition = read;
+        this.count = messages;
+        Segment last = segments.peekLast();
+        if (last == null || end > 0 || !last.isBlankFrom(end)) {
+            if (last != null && end + RECORD_HEADER <= last.size) {
+                last.buffer.putInt(end, END_OF_SEGMENT);
+            }
+            long sequence = last == null ? readSequence : last.sequence + 1;
+            segments.addLast(Segment.open(segmentPath(sequence), sequence, segmentSize));
+            end = 0;
+        }
+        this.writePosition = end;
+        saveCursor();
+        log.debug("Recovered {} messages in {} segments from {}", messages, segments.size(),
+            directory);
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence,
+            SEGMENT_SUFFIX));
+    }
+
+    private void saveCursor() {
+        cursor.putLong(0, (segments.peekFirst().sequence << 32) | readPosition);
+    }
+
+    /**
+     * Appends the serialized message to the segment which is written to, after moving on to a new
+     * segment if the record does not fit in this one. The length of the record is written after
+     * its bytes, so that a record is only seen once it is complete.
+     */
+    @Override
+    boolean offer(byte[] bytes, int length) {
+        int record = recordSize(length);
+        lock.lock();
+        try {
+            if (count >= capacity) {
+                return false;
+            }
+            Segment segment = segments.peekLast();
+            if (writePosition + record > segment.size) {
+                segment = roll(segment);
+            }
+            // Positioned through Buffer, whose methods are the only ones that exist on Java 8.
+            ((Buffer) segment.buffer).position(writePosition + RECORD_HEADER);
+            segment.buffer.put(bytes, 0, length);
+            segment.buffer.putInt(writePosition, length);
+            writePosition += record;
+            count = count + 1;
+            if (syncInterval > 0 && ++unsyncedWrites >= syncInterval) {
+                segment.buffer.force();
+                unsyncedWrites = 0;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Segment roll(Segment segment) {
+        if (writePosition + RECORD_HEADER <= segment.size) {
+            segment.buffer.putInt(writePosition, END_OF_SEGMENT);
+        }
+        if (syncInterval > 0) {
+            segment.buffer.force();
+            unsyncedWrites = 0;
+        }
+        long sequence = segment.sequence + 1;
+        try {
+            Segment next = Segment.open(segmentPath(sequence), sequence, segmentSize);
+            segments.addLast(next);
+            writePosition = 0;
+            return next;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create a segment in " + directory, ex);
+        }
+    }
+
+    /**
+     * Loads the record at the cursor, after moving the cursor on to the next segment (and
+     * deleting the one read through) at the end of a segment.
+     */
+    @Override
+    boolean poll(Input input) {
+        lock.lock();
+        try {
+            if (count == 0) {
+                return false;
+            }
+            Segment segment = segments.peekFirst();
+            int length;
+            while ((length = segment.lengthAt(readPosition)) <= 0) {
+                segments.pollFirst();
+                readPosition = 0;
+                saveCursor();
+                if (syncInterval > 0) {
+                    cursor.force();
+                }
+                segment.delete();
+                segment = segments.peekFirst();
+            }
+            byte[] buffer = bufferOf(input, length);
+            ((Buffer) segment.buffer).position(readPosition + RECORD_HEADER);
+            segment.buffer.get(buffer, 0, length);
+            input.setBuffer(buffer, 0, length);
+            readPosition += recordSize(length);
+            count = count - 1;
+            saveCursor();
+            if (syncInterval > 0 && ++unsyncedReads >= syncInterval) {
+                cursor.force();
+                unsyncedReads = 0;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    int maxMessageLength() {
+        return segmentSize - RECORD_HEADER;
+    }
+
+    /**
+     * Closes this channel. The threads parked in {@link #read()} or {@link #write(Object)} are
+     * woken up. The segment and the cursor are forced to the disk and the directory is unlocked,
+     * so that the messages left in the channel can be read by a new {@link PersistentChannel} on
+     * the directory. Readers can still read them from this channel, but then they must not be
+     * read from a new one as well.
+     */
+    @Override
+    public void close() {
+        super.close();
+        lock.lock();
+        try {
+            if (!cursorFile.isOpen()) {
+                return;
+            }
+            segments.peekLast().buffer.force();
+            cursor.force();
+            directoryLock.release();
+            cursorFile.close();
+        } catch (IOException ex) {
+            log.warn("Error in closing the channel in {}", directory, ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The maximum number of messages in this {@link PersistentChannel}.
+     *
+     * @return The capacity of this {@link PersistentChannel}.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The directory of the segment files of this {@link PersistentChannel}.
+     *
+     * @return The directory of the channel.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * A segment file, mapped in full.
+     */
+    private static final class Segment {
+
+        private final long sequence;
+        private final Path path;
+        private final int size;
+        private final MappedByteBuffer buffer;
+
+        private Segment(long sequence, Path path, int size, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.size = size;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Maps the segment file, which is created with the given size if it does not exist. An
+         * existing file keeps its size, which might be another one if the channel was created
+         * with another segment size.
+         */
+        static Segment open(Path path, long sequence, int segmentSize) throws IOException {
+            try (FileChannel file = FileChannel.open(path, CREATE, READ, WRITE)) {
+                long existing = file.size();
+                int size = existing > 0 ? (int) Math.min(existing, Integer.MAX_VALUE) & ~3
+                    : segmentSize;
+                return new Segment(sequence, path, size,
+                    file.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        /**
+         * Returns the length of the record at the position, or a non-positive value if there is
+         * no record at the position, i.e. the rest of the segment is not written (yet).
+         */
+        int lengthAt(int position) {
+            if (position + RECORD_HEADER > size) {
+                return END_OF_SEGMENT;
+            }
+            int length = buffer.getInt(position);
+            if (length > size - position - RECORD_HEADER) {
+                log.warn("Skipping the rest of {}, which has a torn record at {}", path, position);
+                return END_OF_SEGMENT;
+            }
+            return length;
+        }
+
+        /**
+         * Returns {@literal true} if the segment holds nothing but zeros from the position on,
+         * i.e. not even the body of a record whose length never got written.
+         */
+        boolean isBlankFrom(int position) {
+            for (int i = position; i + Integer.BYTES <= size; i += Integer.BYTES) {
+                if (buffer.getInt(i) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Deletes the segment file. The mapping itself is released once the segment is garbage
+         * collected.
+         */
+        void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ex) {
+                log.warn("Cannot delete {}, it is deleted when the channel is reopened", path, ex);
+            }
+        }
+    }
+}
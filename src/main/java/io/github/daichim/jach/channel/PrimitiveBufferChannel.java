@@ -0,0 +1,301 @@
+package io.github.daichim.jach.channel;
+
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import io.github.daichim.jach.exception.TimeoutException;
+import io.github.daichim.jach.internal.AfterWriteAction;
+import io.github.daichim.jach.internal.AfterWriteActions;
+import io.github.daichim.jach.internal.FlightEvents;
+import io.github.daichim.jach.internal.WaitQueue;
+import io.github.daichim.jach.internal.Waiter;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * {@link PrimitiveBufferChannel} is the common part of the channels of primitives ({@link
+ * IntChannel}, {@link LongChannel} and {@link DoubleChannel}): the closure, the wait queues, the
+ * selector hooks and the indexes of the ring buffer. The subclasses hold the values in an array
+ * of their primitive type, which they access under the {@link #lock} at the slots handed out by
+ * {@link #reservePut()} and {@link #reserveTake()}.
+ * <p>
+ * The blocking operations of the subclasses retry their non-blocking counterpart and park in
+ * {@link #awaitSpace(boolean, long)} or {@link #awaitMessage(boolean, long)} in between, so that
+ * the wait protocol lives in one place.
+ *
+ * @param <T> The boxed type of the primitive values.
+ */
+abstract class PrimitiveBufferChannel<T> implements Channel<T> {
+
+    final ReentrantLock lock;
+    final int capacity;
+    private final String channelId;
+    private final WaitQueue readers;
+    private final WaitQueue writers;
+    private final AfterWriteActions afterWriteActions;
+    private volatile boolean open;
+    // Guarded by the lock. The count is volatile so that the wait protocol can re-check it
+    // without taking the lock.
+    private int takeIndex;
+    private int putIndex;
+    private volatile int count;
+
+    PrimitiveBufferChannel(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive");
+        this.capacity = capacity;
+        this.lock = new ReentrantLock();
+        this.channelId = UUID.randomUUID().toString();
+        this.open = true;
+
+        this.readers = new WaitQueue();
+        this.writers = new WaitQueue();
+        this.afterWriteActions = new AfterWriteActions();
+    }
+
+    /**
+     * Claims the next free slot of the buffer. Must be called with the {@link #lock} held.
+     *
+     * @return The index of the slot to store the value in, or {@literal -1} if the buffer is full.
+     */
+    final int reservePut() {
+        int n = count;
+        if (n == capacity) {
+            return -1;
+        }
+        int slot = putIndex;
+        putIndex = (slot + 1 == capacity) ? 0 : slot + 1;
+        count = n + 1;
+        return slot;
+    }
+
+    /**
+     * Claims the oldest value of the buffer. Must be called with the {@link #lock} held.
+     *
+     * @return The index of the slot to load the value from, or {@literal -1} if the buffer is
+     *     empty.
+     */
+    final int reserveTake() {
+        int n = count;
+        if (n == 0) {
+            return -1;
+        }
+        int slot = takeIndex;
+        takeIndex = (slot + 1 == capacity) ? 0 : slot + 1;
+        count = n - 1;
+        return slot;
+    }
+
+    final void checkWritable() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException("Channel is already closed for writing");
+        }
+    }
+
+    /**
+     * Throws a {@link NoSuchChannelElementException} if the channel is closed and drained.
+     */
+    final void checkReadable() throws NoSuchChannelElementException {
+        if (!open && count == 0) {
+            throw new NoSuchChannelElementException();
+        }
+    }
+
+    final void afterWrite(int n) {
+        if (n > 0) {
+            readers.signal(n);
+            afterWriteActions.onWrite(n);
+        }
+    }
+
+    final void afterRead(int n) {
+        if (n > 0) {
+            writers.signal(n);
+        }
+    }
+
+    /**
+     * Parks until there might be free space in the buffer. The caller retries its write after
+     * this returns, and calls it again if another writer took the space in the meantime.
+     *
+     * @throws ClosedChannelException If the channel got closed.
+     * @throws IllegalStateException  If the thread is interrupted.
+     * @throws TimeoutException       If the deadline passed without free space.
+     */
+    final void awaitSpace(boolean timed, long deadline) throws TimeoutException {
+        Object event = FlightEvents.INSTANCE.beginBlocked();
+        try {
+            Waiter waiter = Waiter.current();
+            writers.enqueue(waiter);
+            // Re-check after enqueueing, so that a read or close in between is not missed.
+            if (!open) {
+                waiter.cancel();
+                throw new ClosedChannelException("Channel got closed before write could complete");
+            }
+            if (count < capacity) {
+                if (!waiter.cancel()) {
+                    // Pass on the wake-up this waiter got in the meantime.
+                    writers.signal();
+                }
+                return;
+            }
+            if (!waiter.await(timed, deadline)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Interrupted while writing to the channel");
+                }
+                if (count < capacity) {
+                    return;
+                }
+                throw new TimeoutException();
+            }
+            if (!open) {
+                throw new ClosedChannelException("Channel got closed before write could complete");
+            }
+        } finally {
+            FlightEvents.INSTANCE.endBlocked(event, this, true);
+        }
+    }
+
+    /**
+     * Parks until there might be a value in the buffer. The caller retries its read after this
+     * returns, and calls it again if another reader took the value in the meantime.
+     *
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     * @throws IllegalStateException         If the thread is interrupted.
+     * @throws TimeoutException              If the deadline passed without a value.
+     */
+    final void awaitMessage(boolean timed, long deadline) throws TimeoutException {
+        Object event = FlightEvents.INSTANCE.beginBlocked();
+        try {
+            checkReadable();
+            Waiter waiter = Waiter.current();
+            readers.enqueue(waiter);
+            // Re-check after enqueueing, so that a write or close in between is not missed.
+            if (count > 0 || !open) {
+                if (!waiter.cancel()) {
+                    // Pass on the wake-up this waiter got in the meantime.
+                    readers.signal();
+                }
+                return;
+            }
+            if (!waiter.await(timed, deadline)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Interrupted while reading from the channel");
+                }
+                if (count > 0) {
+                    return;
+                }
+                throw new TimeoutException();
+            }
+        } finally {
+            FlightEvents.INSTANCE.endBlocked(event, this, false);
+        }
+    }
+
+    /**
+     * Returns {@literal true} if the channel can be written to.
+     *
+     * @return {@literal true} if the channel can be written to, else {@literal false}.
+     */
+    @Override
+    public boolean canWrite() {
+        return isOpen();
+    }
+
+    /**
+     * Returns {@literal true} if the channel can be read.
+     *
+     * @return {@literal true} if the channel can be read, else {@literal false}.
+     */
+    @Override
+    public boolean canRead() {
+        return isOpen() || count > 0;
+    }
+
+    /**
+     * Closes this channel. The threads parked in a read or a write are woken up. Readers continue
+     * to read the values that are left in the channel, and writers fail with a {@link
+     * ClosedChannelException}.
+     */
+    @Override
+    public void close() {
+        boolean wasOpen = this.open;
+        this.open = false;
+        this.readers.signalAll();
+        this.writers.signalAll();
+        this.afterWriteActions.close();
+        if (wasOpen) {
+            FlightEvents.INSTANCE.channelClosed(this);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public String getId() {
+        return channelId;
+    }
+
+    @Override
+    public void registerAfterWriteAction(AfterWriteAction afw) {
+        this.afterWriteActions.add(afw);
+    }
+
+    @Override
+    public void deregisterAfterWriteAction(AfterWriteAction afw) {
+        this.afterWriteActions.remove(afw);
+    }
+
+    @Override
+    public void enqueueReadWaiter(Waiter waiter) {
+        readers.enqueue(waiter);
+    }
+
+    @Override
+    public void enqueueWriteWaiter(Waiter waiter) {
+        writers.enqueue(waiter);
+    }
+
+    /**
+     * The capacity of this channel, i.e. the number of values that can be written without a read
+     * before the writes are blocked.
+     *
+     * @return The capacity of this channel.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Available slots in the channel. This is the difference between the capacity and the number
+     * of values already in the channel.
+     *
+     * @return The number of available slots in the channel.
+     */
+    public int getAvailable() {
+        return capacity - count;
+    }
+
+    /**
+     * Perform an action over the boxed values as received in the current thread from the channel,
+     * until the channel is closed and drained. The subclasses have a variant of this method which
+     * does not box.
+     *
+     * @param action The action to perform for each value received on this thread.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        try {
+            while (canRead()) {
+                action.accept(read());
+            }
+        } catch (NoSuchChannelElementException | ClosedChannelException
+            | IllegalStateException ex) {
+            // Done iterating. Do nothing
+        }
+    }
+}
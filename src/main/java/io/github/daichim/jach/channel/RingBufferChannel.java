@@ -0,0 +1,475 @@
+package io.github.daichim.jach.channel;
+
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.channel.copier.Copier;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.CopyException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import io.github.daichim.jach.exception.TimeoutException;
+import io.github.daichim.jach.internal.AfterWriteAction;
+import io.github.daichim.jach.internal.AfterWriteActions;
+import io.github.daichim.jach.internal.ChannelIterator;
+import io.github.daichim.jach.internal.FlightEvents;
+import io.github.daichim.jach.internal.WaitQueue;
+import io.github.daichim.jach.internal.Waiter;
+import io.github.daichim.jach.internal.ring.RingBuffer;
+import io.github.daichim.jach.internal.ring.RingBuffers;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * {@link RingBufferChannel} is a fixed capacity {@link Channel}, like the {@link BufferedChannel},
+ * which is backed by a lock-free ring buffer instead of a lock based queue. Readers and writers
+ * never take a lock on the fast path: a write that finds free space and a read that finds a message
+ * complete with a couple of CAS operations. Only when the channel is full (for writers) or empty
+ * (for readers), the thread parks until it is woken up by a read (or a write) or by the closure of
+ * the channel.
+ * <p>
+ * The ring buffer is sized to the capacity of the channel and is allocated upfront, so prefer this
+ * channel for moderate capacities under contention from multiple writers and readers.
+ * <p>
+ * The channel can be created for a {@link Cardinality} narrower than multiple producers and
+ * multiple consumers, in which case it is backed by a ring buffer which skips the CAS on the single
+ * side(s). Using such a channel from more threads than declared corrupts it, run with {@code
+ * -Djach.debug=true} to detect such misuse.
+ * <p>
+ * Just like {@link BufferedChannel}, it can be iterated using a for-each loop or {@link
+ * #forEach(Consumer)}, which returns once the channel is closed and drained, and it can defer the
+ * copy of the messages to the readers with {@link CopyMode#ON_READ}.
+ *
+ * @param <T> The type of the message which the {@link RingBufferChannel} holds.
+ */
+@Slf4j
+public class RingBufferChannel<T> implements Channel<T> {
+
+    private final RingBuffer<T> ringBuffer;
+    private final int capacity;
+    private final Class<T> clazz;
+    private final Copier<T> copier;
+    private final CopyMode copyMode;
+    private final String channelId;
+    private final WaitQueue readers;
+    private final WaitQueue writers;
+    private final AfterWriteActions afterWriteActions;
+    private final ChannelIterator<T> iterator;
+    private volatile boolean open;
+
+    public RingBufferChannel(int capacity, Class<T> clazz, Copier<T> copier) {
+        this(capacity, clazz, copier, Cardinality.MPMC);
+    }
+
+    public RingBufferChannel(int capacity, Class<T> clazz, Copier<T> copier,
+                             Cardinality cardinality) {
+        this(capacity, clazz, copier, cardinality, CopyMode.ON_WRITE);
+    }
+
+    public RingBufferChannel(int capacity, Class<T> clazz, Copier<T> copier,
+                             Cardinality cardinality, CopyMode copyMode) {
+        Preconditions.checkNotNull(cardinality);
+        this.clazz = clazz;
+        this.capacity = capacity;
+        this.copier = copier;
+        this.copyMode = Preconditions.checkNotNull(copyMode);
+        this.ringBuffer = RingBuffers.create(capacity, cardinality.isSingleProducer(),
+            cardinality.isSingleConsumer());
+        this.channelId = UUID.randomUUID().toString();
+        this.open = true;
+
+        this.readers = new WaitQueue();
+        this.writers = new WaitQueue();
+        this.afterWriteActions = new AfterWriteActions();
+        this.iterator = new ChannelIterator<>(this);
+    }
+
+    /**
+     * Writes a non-null message to the channel. If the channel is full, the thread is parked until
+     * space is available.
+     *
+     * @throws ClosedChannelException In case the channel has already been closed, or got closed
+     *                                before write could succeed.
+     * @throws IllegalStateException  In case the thread is interrupted while waiting for space.
+     * @throws NullPointerException   If the msg is {@literal null}.
+     * @see Channel#write(Object)
+     */
+    @Override
+    public void write(T message) throws ClosedChannelException, IllegalStateException {
+        blockedWrite(message, false, 0L);
+    }
+
+    /**
+     * Tries writing a message to the {@link RingBufferChannel}, parking if space is not available
+     * for a maximum of the timeout period.
+     *
+     * @param message The message to write to the {@link RingBufferChannel}.
+     * @param timeout The timeout value after which the write times out.
+     * @param unit    The unit of the timeout value.
+     *
+     * @throws TimeoutException       If the write times out after the timeout period.
+     * @throws ClosedChannelException If the {@link RingBufferChannel} has already been closed for
+     *                                writing.
+     */
+    @Override
+    public void write(T message, int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        blockedWrite(message, true, System.nanoTime() + nanos);
+    }
+
+    /**
+     * Tries writing a message to the {@link RingBufferChannel}. If the write is successful, returns
+     * {@literal true}, if the write fails due to lack of space, returns {@literal false}.
+     *
+     * @param message The message to write to the {@link RingBufferChannel}.
+     *
+     * @return {@literal true} if the write succeeds, {@literal false} otherwise.
+     *
+     * @throws ClosedChannelException If the channel has already been closed for writing.
+     * @throws CopyException          If the {@link Copier} associated with the channel fails.
+     */
+    @Override
+    public boolean tryWrite(T message) throws ClosedChannelException, CopyException {
+        Preconditions.checkNotNull(message);
+        if (!open) {
+            throw new ClosedChannelException("Channel is already closed for writing");
+        }
+        // Don't pay for the copy if there is no room for it.
+        if (copyMode == CopyMode.ON_WRITE && ringBuffer.size() >= capacity) {
+            return false;
+        }
+        T messageCopy = copyOnWrite(message);
+        if (ringBuffer.offer(messageCopy)) {
+            afterWrite();
+            return true;
+        }
+        return false;
+    }
+
+    private void blockedWrite(T message, boolean timed, long deadline)
+        throws TimeoutException, CopyException {
+        Preconditions.checkNotNull(message);
+        if (!open) {
+            throw new ClosedChannelException("Channel is already closed for writing");
+        }
+        T messageCopy = copyOnWrite(message);
+        Object event = null;
+        try {
+            while (true) {
+                if (ringBuffer.offer(messageCopy)) {
+                    afterWrite();
+                    return;
+                }
+                if (event == null) {
+                    event = FlightEvents.INSTANCE.beginBlocked();
+                }
+                Waiter waiter = Waiter.current();
+                writers.enqueue(waiter);
+                // Re-check after enqueueing, so that a read or close in between is not missed.
+                if (!open) {
+                    waiter.cancel();
+                    throw new ClosedChannelException(
+                        "Channel got closed before write could complete");
+                }
+                if (ringBuffer.offer(messageCopy)) {
+                    if (!waiter.cancel()) {
+                        writers.signal();
+                    }
+                    afterWrite();
+                    return;
+                }
+                if (!waiter.await(timed, deadline)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IllegalStateException("Interrupted while writing to the channel");
+                    }
+                    if (ringBuffer.offer(messageCopy)) {
+                        afterWrite();
+                        return;
+                    }
+                    throw new TimeoutException();
+                }
+                if (!open) {
+                    throw new ClosedChannelException(
+                        "Channel got closed before write could complete");
+                }
+            }
+        } finally {
+            FlightEvents.INSTANCE.endBlocked(event, this, true);
+        }
+    }
+
+    private void afterWrite() {
+        readers.signal();
+        afterWriteActions.onWrite();
+    }
+
+    private T copyOnWrite(T message) throws CopyException {
+        return copyMode == CopyMode.ON_WRITE ? copy(message) : message;
+    }
+
+    private T copyOnRead(T message) throws CopyException {
+        return copyMode == CopyMode.ON_READ ? copy(message) : message;
+    }
+
+    private T copy(T message) throws CopyException {
+        Object event = FlightEvents.INSTANCE.beginCopy();
+        T copy = this.copier.copyOf(message);
+        FlightEvents.INSTANCE.endCopy(event, this);
+        return copy;
+    }
+
+    /**
+     * Returns {@literal true} if the channel can be written to.
+     *
+     * @return {@literal true} if the channel can be written to, else {@literal false}.
+     */
+    @Override
+    public boolean canWrite() {
+        return isOpen();
+    }
+
+    /**
+     * Reads the next message from the channel. If the channel is currently empty, the thread is
+     * parked until a message is available for reading.
+     *
+     * @throws NoSuchChannelElementException If there are no further element that can be available
+     *                                       (because the {@link Channel} got closed).
+     * @throws IllegalStateException         If the thread is interrupted while waiting for a
+     *                                       message.
+     * @see Channel#read()
+     */
+    @Override
+    public T read() throws NoSuchChannelElementException, IllegalStateException {
+        return blockedRead(false, 0L);
+    }
+
+    /**
+     * Reads the next message from the channel. If the channel is currently empty, the read parks
+     * until a message is available or the timeout period is over.
+     *
+     * @param timeout The timeout value after which read times out.
+     * @param unit    The unit corresponding to the timeout value.
+     *
+     * @return The next element from the {@link Channel}.
+     *
+     * @throws TimeoutException              If no message can be read within the given timeout
+     *                                       period.
+     * @throws NoSuchChannelElementException If there are no further element that can be available
+     *                                       (because the {@link Channel} got closed).
+     * @throws IllegalStateException         If the thread is interrupted while waiting for a
+     *                                       message.
+     */
+    @Override
+    public T read(int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        return blockedRead(true, System.nanoTime() + nanos);
+    }
+
+    /**
+     * Tries to read the next message from the {@link Channel}. If the channel is empty, it returns
+     * {@literal null}.
+     *
+     * @return The next message from the {@link Channel} or {@literal null} of the channel is empty.
+     *
+     * @throws NoSuchChannelElementException If there are no further element that can be read from
+     *                                       the channel (because the channel has been closed).
+     */
+    @Override
+    public T tryRead() {
+        T msg = ringBuffer.poll();
+        if (msg != null) {
+            writers.signal();
+            return copyOnRead(msg);
+        }
+        if (!open && ringBuffer.isEmpty()) {
+            throw new NoSuchChannelElementException();
+        }
+        return null;
+    }
+
+    private T blockedRead(boolean timed, long deadline)
+        throws NoSuchChannelElementException, IllegalStateException {
+        Object event = null;
+        try {
+            while (true) {
+                T msg = ringBuffer.poll();
+                if (msg != null) {
+                    writers.signal();
+                    return copyOnRead(msg);
+                }
+                if (!open && ringBuffer.isEmpty()) {
+                    throw new NoSuchChannelElementException();
+                }
+                if (event == null) {
+                    event = FlightEvents.INSTANCE.beginBlocked();
+                }
+                Waiter waiter = Waiter.current();
+                readers.enqueue(waiter);
+                // Re-check after enqueueing, so that a write or close in between is not missed.
+                msg = ringBuffer.poll();
+                if (msg != null || !open) {
+                    if (!waiter.cancel()) {
+                        readers.signal();
+                    }
+                    if (msg != null) {
+                        writers.signal();
+                        return copyOnRead(msg);
+                    }
+                    continue;
+                }
+                if (!waiter.await(timed, deadline)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IllegalStateException(
+                            "Interrupted while reading from the channel");
+                    }
+                    msg = ringBuffer.poll();
+                    if (msg != null) {
+                        writers.signal();
+                        return copyOnRead(msg);
+                    }
+                    throw new TimeoutException();
+                }
+            }
+        } finally {
+            FlightEvents.INSTANCE.endBlocked(event, this, false);
+        }
+    }
+
+    /**
+     * Returns {@literal true} if the channel can be read.
+     *
+     * @return {@literal true} if the channel can be read, else {@literal false}.
+     */
+    @Override
+    public boolean canRead() {
+        return isOpen() || !ringBuffer.isEmpty();
+    }
+
+    /**
+     * Closes this channel. On closure of this channel, all the threads that are parked in {@link
+     * #read()} or {@link #write(Object)} are woken up. Readers continue to read the messages that
+     * are left in the channel, and writers fail with a {@link ClosedChannelException}. The iterator
+     * associated with this channel is also closed along with the channel.
+     *
+     * @see Channel#close()
+     */
+    @Override
+    public void close() {
+        boolean wasOpen = this.open;
+        this.open = false;
+        this.readers.signalAll();
+        this.writers.signalAll();
+
+        this.afterWriteActions.close();
+        this.iterator.markDone();
+        if (wasOpen) {
+            FlightEvents.INSTANCE.channelClosed(this);
+        }
+    }
+
+    /**
+     * Checks if the channel has been closed.
+     *
+     * @return {@literal true}, if the channel has been closed, {@literal false} otherwise.
+     */
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Returns a unique id for this {@link Channel}.
+     *
+     * @return A unique id for this {@link Channel}.
+     */
+    @Override
+    public String getId() {
+        return channelId;
+    }
+
+    /**
+     * @see Channel#getDataType()
+     */
+    @Override
+    public Class<T> getDataType() {
+        return clazz;
+    }
+
+    @Override
+    public void registerAfterWriteAction(AfterWriteAction afw) {
+        this.afterWriteActions.add(afw);
+    }
+
+    @Override
+    public void deregisterAfterWriteAction(AfterWriteAction afw) {
+        this.afterWriteActions.remove(afw);
+    }
+
+    @Override
+    public void enqueueReadWaiter(Waiter waiter) {
+        readers.enqueue(waiter);
+    }
+
+    @Override
+    public void enqueueWriteWaiter(Waiter waiter) {
+        writers.enqueue(waiter);
+    }
+
+    /**
+     * The capacity of this {@link RingBufferChannel}. Capacity is the number of messages that can
+     * be inserted into the channel without a read before the writes are blocked.
+     *
+     * @return The capacity of this {@link RingBufferChannel}
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Available slots in the channel. This is the difference between the capacity and the number of
+     * messages already in the channel.
+     *
+     * @return The number of available slots in the channel.
+     */
+    public int getAvailable() {
+        return capacity - ringBuffer.size();
+    }
+
+    /**
+     * Returns an {@link Iterator} to iterate over the channel. The iterator is a blocking iterator.
+     * If no elements are present in the channel the iterators {@link Iterator#next()} gets blocked.
+     * In case the channel is closed while iterating, a {@link NoSuchChannelElementException} is
+     * thrown from the {@link Iterator#next()} method.
+     *
+     * @return An {@link Iterator} to iterate over the channel.
+     *
+     * @see Iterable#iterator()
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return iterator;
+    }
+
+    /**
+     * Perform an action over the messages as received in the current thread from the channel. This
+     * method will not propagate the {@link NoSuchChannelElementException} that is thrown when the
+     * channel is closed. Returning from this method indicates the channel is closed, and the caller
+     * is free to perform any cleanup tasks.
+     *
+     * @param action The action to perform for each message received on this thread.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        try {
+            while (this.isOpen() || !this.ringBuffer.isEmpty()) {
+                T msg = this.read();
+                action.accept(msg);
+            }
+        } catch (NoSuchChannelElementException | ClosedChannelException ex) {
+            // Done iterating. Do nothing
+        }
+    }
+}
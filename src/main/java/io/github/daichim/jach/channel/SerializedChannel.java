@@ -0,0 +1,539 @@
+package io.github.daichim.jach.channel;
+
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.KryoException;
+import com.esotericsoftware.kryo.kryo5.io.Input;
+import com.esotericsoftware.kryo.kryo5.io.Output;
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.channel.copier.KryoPool;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.CopyException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import io.github.daichim.jach.exception.TimeoutException;
+import io.github.daichim.jach.internal.AfterWriteAction;
+import io.github.daichim.jach.internal.AfterWriteActions;
+import io.github.daichim.jach.internal.ChannelIterator;
+import io.github.daichim.jach.internal.FlightEvents;
+import io.github.daichim.jach.internal.SlotPool;
+import io.github.daichim.jach.internal.WaitQueue;
+import io.github.daichim.jach.internal.Waiter;
+
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * {@link SerializedChannel} is the common part of the channels which keep their messages as
+ * bytes ({@link OffHeapChannel}, {@link PersistentChannel} and {@link SharedMemoryChannel}): the
+ * serialization with {@link Kryo}, the pools of serialization buffers, the closure, the wait
+ * queues and the selector hooks.
+ * The subclasses store the serialized messages in {@link #offer(byte[], int)} and load them back
+ * in {@link #poll(Input)}, with the locking of their choice.
+ * <p>
+ * A write serializes the message before it is offered, and a read deserializes the message after
+ * it is polled, so that neither holds the lock of the subclass. A message is generally read with
+ * another {@link Kryo} instance than the one it was written with, so by default every channel
+ * has a {@link KryoPool} of its own, in which the type of the messages is the only registered
+ * class.
+ *
+ * @param <T> The type of the messages.
+ */
+abstract class SerializedChannel<T> implements Channel<T> {
+
+    static final int POOL_SIZE = 16;
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    // Buffers grown beyond this by a large message are not kept in the pools.
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+    private final Class<T> clazz;
+    private final KryoPool kryoPool;
+    private final SlotPool<Output> outputs;
+    private final SlotPool<Input> inputs;
+    private final String channelId;
+    private final WaitQueue readers;
+    private final WaitQueue writers;
+    private final AfterWriteActions afterWriteActions;
+    private final ChannelIterator<T> iterator;
+    private volatile boolean open;
+
+    SerializedChannel(Class<T> clazz, KryoPool kryoPool) {
+        this.clazz = Preconditions.checkNotNull(clazz);
+        this.kryoPool = Preconditions.checkNotNull(kryoPool);
+        this.kryoPool.register(clazz);
+        this.outputs = new SlotPool<>(POOL_SIZE);
+        this.inputs = new SlotPool<>(POOL_SIZE);
+        this.channelId = UUID.randomUUID().toString();
+        this.open = true;
+
+        this.readers = new WaitQueue();
+        this.writers = new WaitQueue();
+        this.afterWriteActions = new AfterWriteActions();
+        this.iterator = new ChannelIterator<>(this);
+    }
+
+    /**
+     * Stores a serialized message, if there is space for it.
+     *
+     * @param bytes  The buffer holding the serialized message.
+     * @param length The length of the serialized message.
+     *
+     * @return {@literal true} if the message is stored, {@literal false} if the channel is full.
+     */
+    abstract boolean offer(byte[] bytes, int length);
+
+    /**
+     * Removes the oldest serialized message, and sets it as the buffer of the given {@link
+     * Input}.
+     *
+     * @param input The {@link Input} to load the message into, see {@link #bufferOf(Input, int)}.
+     *
+     * @return {@literal true} if a message is loaded, {@literal false} if the channel is empty.
+     */
+    abstract boolean poll(Input input);
+
+    /**
+     * The length of the largest serialized message which fits in the empty channel.
+     *
+     * @return The maximum length of a serialized message.
+     */
+    abstract int maxMessageLength();
+
+    /**
+     * The number of messages in the channel.
+     *
+     * @return The number of messages in the channel.
+     */
+    public abstract int size();
+
+    /**
+     * Returns the buffer of the {@link Input}, or a larger one if it cannot hold the given length.
+     */
+    static byte[] bufferOf(Input input, int length) {
+        byte[] buffer = input.getBuffer();
+        return buffer.length >= length ? buffer : new byte[Math.max(length, 2 * buffer.length)];
+    }
+
+    /**
+     * Writes a non-null message to the channel. If the channel does not have enough space for the
+     * message, the thread is parked until space is available.
+     *
+     * @throws ClosedChannelException   In case the channel has already been closed, or got closed
+     *                                  before write could succeed.
+     * @throws IllegalStateException    In case the thread is interrupted while waiting for space.
+     * @throws IllegalArgumentException If the serialized message does not fit in the channel.
+     * @throws CopyException            If the message cannot be serialized.
+     * @throws NullPointerException     If the msg is {@literal null}.
+     */
+    @Override
+    public void write(T message) throws ClosedChannelException, IllegalStateException {
+        blockedWrite(message, false, 0L);
+    }
+
+    /**
+     * Tries writing a message to the channel, parking if space is not available for a maximum of
+     * the timeout period.
+     *
+     * @param message The message to write to the channel.
+     * @param timeout The timeout value after which the write times out.
+     * @param unit    The unit of the timeout value.
+     *
+     * @throws TimeoutException       If the write times out after the timeout period.
+     * @throws ClosedChannelException If the channel has already been closed for writing.
+     */
+    @Override
+    public void write(T message, int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        blockedWrite(message, true, System.nanoTime() + nanos);
+    }
+
+    /**
+     * Tries writing a message to the channel. If the write is successful, returns {@literal
+     * true}, if the write fails due to lack of space, returns {@literal false}.
+     *
+     * @param message The message to write to the channel.
+     *
+     * @return {@literal true} if the write succeeds, {@literal false} otherwise.
+     *
+     * @throws ClosedChannelException If the channel has already been closed for writing.
+     * @throws CopyException          If the message cannot be serialized.
+     */
+    @Override
+    public boolean tryWrite(T message) throws ClosedChannelException, CopyException {
+        Preconditions.checkNotNull(message);
+        if (!isOpen()) {
+            throw new ClosedChannelException("Channel is already closed for writing");
+        }
+        Output output = serialize(message);
+        try {
+            if (offer(output.getBuffer(), output.position())) {
+                afterWrite();
+                return true;
+            }
+            return false;
+        } finally {
+            release(output);
+        }
+    }
+
+    private void blockedWrite(T message, boolean timed, long deadline)
+        throws TimeoutException, CopyException {
+        Preconditions.checkNotNull(message);
+        if (!isOpen()) {
+            throw new ClosedChannelException("Channel is already closed for writing");
+        }
+        Output output = serialize(message);
+        byte[] bytes = output.getBuffer();
+        int length = output.position();
+        Object event = null;
+        try {
+            while (true) {
+                if (offer(bytes, length)) {
+                    afterWrite();
+                    return;
+                }
+                if (event == null) {
+                    event = FlightEvents.INSTANCE.beginBlocked();
+                }
+                Waiter waiter = Waiter.current();
+                writers.enqueue(waiter);
+                // Re-check after enqueueing, so that a read or close in between is not missed.
+                if (!isOpen()) {
+                    waiter.cancel();
+                    throw new ClosedChannelException(
+                        "Channel got closed before write could complete");
+                }
+                if (offer(bytes, length)) {
+                    if (!waiter.cancel()) {
+                        // Pass on the wake-up this waiter got in the meantime.
+                        writers.signal();
+                    }
+                    afterWrite();
+                    return;
+                }
+                if (!waiter.await(timed, deadline)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IllegalStateException("Interrupted while writing to the channel");
+                    }
+                    if (offer(bytes, length)) {
+                        afterWrite();
+                        return;
+                    }
+                    throw new TimeoutException();
+                }
+                if (!isOpen()) {
+                    throw new ClosedChannelException(
+                        "Channel got closed before write could complete");
+                }
+            }
+        } finally {
+            FlightEvents.INSTANCE.endBlocked(event, this, true);
+            release(output);
+        }
+    }
+
+    Output serialize(T message) throws CopyException {
+        Output output = outputs.poll();
+        if (output == null) {
+            output = new Output(INITIAL_BUFFER_SIZE, -1);
+        } else {
+            output.reset();
+        }
+        Kryo kryo = kryoPool.obtain();
+        try {
+            kryo.writeClassAndObject(output, message);
+        } catch (KryoException ex) {
+            throw new CopyException("Error in serializing object using Kryo", ex);
+        } finally {
+            kryoPool.free(kryo);
+        }
+        if (output.position() > maxMessageLength()) {
+            release(output);
+            throw new IllegalArgumentException(String.format(
+                "Message of %d bytes does not fit in the channel, which takes up to %d bytes",
+                output.position(), maxMessageLength()));
+        }
+        return output;
+    }
+
+    T deserialize(Input input) throws CopyException {
+        Kryo kryo = kryoPool.obtain();
+        try {
+            return clazz.cast(kryo.readClassAndObject(input));
+        } catch (KryoException ex) {
+            throw new CopyException("Error in deserializing object using Kryo", ex);
+        } finally {
+            kryoPool.free(kryo);
+            release(input);
+        }
+    }
+
+    void release(Output output) {
+        if (output.getBuffer().length <= MAX_POOLED_BUFFER_SIZE) {
+            outputs.offer(output);
+        }
+    }
+
+    private void release(Input input) {
+        if (input.getBuffer().length <= MAX_POOLED_BUFFER_SIZE) {
+            inputs.offer(input);
+        }
+    }
+
+    /**
+     * Polls the oldest message into a pooled {@link Input}.
+     *
+     * @return The {@link Input} to deserialize the message from, or {@literal null} if the
+     *     channel is empty.
+     */
+    Input take() {
+        if (size() == 0) {
+            return null;
+        }
+        Input input = inputs.poll();
+        if (input == null) {
+            input = new Input(INITIAL_BUFFER_SIZE);
+        }
+        if (!poll(input)) {
+            inputs.offer(input);
+            return null;
+        }
+        writers.signal();
+        return input;
+    }
+
+    void afterWrite() {
+        readers.signal();
+        afterWriteActions.onWrite();
+    }
+
+    /**
+     * Returns {@literal true} if the channel can be written to.
+     *
+     * @return {@literal true} if the channel can be written to, else {@literal false}.
+     */
+    @Override
+    public boolean canWrite() {
+        return isOpen();
+    }
+
+    /**
+     * Reads the next message from the channel. If the channel is currently empty, the thread
+     * blocks until a message is available for reading.
+     *
+     * @throws NoSuchChannelElementException If there are no further element that can be available
+     *                                       (because the {@link Channel} got closed).
+     * @throws IllegalStateException         If the thread is interrupted while waiting for a
+     *                                       message.
+     * @throws CopyException                 If the message cannot be deserialized.
+     */
+    @Override
+    public T read() throws NoSuchChannelElementException, IllegalStateException {
+        return blockedRead(false, 0L);
+    }
+
+    /**
+     * Reads the next message from the channel, blocking if the channel is empty for a maximum of
+     * the timeout period.
+     *
+     * @param timeout The timeout value after which the read times out.
+     * @param unit    The unit corresponding to the timeout value.
+     *
+     * @return The next message from the channel.
+     *
+     * @throws TimeoutException              If no message can be read within the given timeout
+     *                                       period.
+     * @throws NoSuchChannelElementException If there are no further element that can be available
+     *                                       (because the {@link Channel} got closed).
+     */
+    @Override
+    public T read(int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        return blockedRead(true, System.nanoTime() + nanos);
+    }
+
+    /**
+     * Tries to read the next message from the {@link Channel}. If the channel is empty, it returns
+     * {@literal null}.
+     *
+     * @return The next message from the {@link Channel} or {@literal null} of the channel is empty.
+     *
+     * @throws NoSuchChannelElementException If there are no further element that can be read from
+     *                                       the channel (because the channel has been closed).
+     */
+    @Override
+    public T tryRead() {
+        Input input = take();
+        if (input != null) {
+            return deserialize(input);
+        }
+        if (!isOpen() && size() == 0) {
+            throw new NoSuchChannelElementException();
+        }
+        return null;
+    }
+
+    private T blockedRead(boolean timed, long deadline)
+        throws NoSuchChannelElementException, IllegalStateException {
+        Object event = null;
+        try {
+            while (true) {
+                Input input = take();
+                if (input != null) {
+                    return deserialize(input);
+                }
+                if (!isOpen() && size() == 0) {
+                    throw new NoSuchChannelElementException();
+                }
+                if (event == null) {
+                    event = FlightEvents.INSTANCE.beginBlocked();
+                }
+                Waiter waiter = Waiter.current();
+                readers.enqueue(waiter);
+                // Re-check after enqueueing, so that a write or close in between is not missed.
+                input = take();
+                if (input != null || !isOpen()) {
+                    if (!waiter.cancel()) {
+                        // Pass on the wake-up this waiter got in the meantime.
+                        readers.signal();
+                    }
+                    if (input != null) {
+                        return deserialize(input);
+                    }
+                    continue;
+                }
+                if (!waiter.await(timed, deadline)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IllegalStateException(
+                            "Interrupted while reading from the channel");
+                    }
+                    input = take();
+                    if (input != null) {
+                        return deserialize(input);
+                    }
+                    throw new TimeoutException();
+                }
+            }
+        } finally {
+            FlightEvents.INSTANCE.endBlocked(event, this, false);
+        }
+    }
+
+    /**
+     * Returns {@literal true} if the channel can be read.
+     *
+     * @return {@literal true} if the channel can be read, else {@literal false}.
+     */
+    @Override
+    public boolean canRead() {
+        return isOpen() || size() > 0;
+    }
+
+    /**
+     * Closes this channel. The threads parked in {@link #read()} or {@link #write(Object)} are
+     * woken up. Readers continue to read the messages that are left in the channel, and writers
+     * fail with a {@link ClosedChannelException}.
+     */
+    @Override
+    public void close() {
+        boolean wasOpen = this.open;
+        this.open = false;
+        this.readers.signalAll();
+        this.writers.signalAll();
+
+        this.afterWriteActions.close();
+        this.iterator.markDone();
+        if (wasOpen) {
+            FlightEvents.INSTANCE.channelClosed(this);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Checks whether a reader or a writer waits on the channel.
+     */
+    boolean hasWaiters() {
+        return !readers.isEmpty() || !writers.isEmpty();
+    }
+
+    /**
+     * Wakes up the readers which wait on the channel, for the messages written by another
+     * process.
+     */
+    void signalReaders() {
+        readers.signalAll();
+    }
+
+    /**
+     * Wakes up the writers which wait on the channel, for the messages read by another process.
+     */
+    void signalWriters() {
+        writers.signalAll();
+    }
+
+    @Override
+    public String getId() {
+        return channelId;
+    }
+
+    @Override
+    public Class<T> getDataType() {
+        return clazz;
+    }
+
+    @Override
+    public void registerAfterWriteAction(AfterWriteAction afw) {
+        this.afterWriteActions.add(afw);
+    }
+
+    @Override
+    public void deregisterAfterWriteAction(AfterWriteAction afw) {
+        this.afterWriteActions.remove(afw);
+    }
+
+    @Override
+    public void enqueueReadWaiter(Waiter waiter) {
+        readers.enqueue(waiter);
+    }
+
+    @Override
+    public void enqueueWriteWaiter(Waiter waiter) {
+        writers.enqueue(waiter);
+    }
+
+    /**
+     * Returns a blocking {@link Iterator} over the channel, like the one of a {@link
+     * BufferedChannel}.
+     *
+     * @return An {@link Iterator} to iterate over the channel.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return iterator;
+    }
+
+    /**
+     * Perform an action over the messages as received in the current thread from the channel,
+     * until the channel is closed and drained.
+     *
+     * @param action The action to perform for each message received on this thread.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        try {
+            while (this.isOpen() || this.size() > 0) {
+                T msg = this.read();
+                action.accept(msg);
+            }
+        } catch (NoSuchChannelElementException | ClosedChannelException
+            | IllegalStateException ex) {
+            // Done iterating. Do nothing
+        }
+    }
+}
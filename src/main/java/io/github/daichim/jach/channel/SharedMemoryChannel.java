@@ -0,0 +1,566 @@
+package io.github.daichim.jach.channel;
+
+import com.esotericsoftware.kryo.kryo5.io.Input;
+import com.esotericsoftware.kryo.kryo5.io.Output;
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.channel.copier.KryoPool;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import io.github.daichim.jach.exception.TimeoutException;
+import io.github.daichim.jach.internal.FlightEvents;
+import io.github.daichim.jach.internal.MappedMemory;
+import io.github.daichim.jach.internal.Waiter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * {@link SharedMemoryChannel} is a fixed capacity {@link Channel} between the processes of a host,
+ * backed by a memory-mapped file that every process opens with its own {@link
+ * SharedMemoryChannel}. The file is best put on a memory file system, such as {@code /dev/shm}
+ * (see {@link #defaultPath(String)}), so that it is never written back to a disk. The messages
+ * are serialized with {@link com.esotericsoftware.kryo.kryo5.Kryo} like in an {@link
+ * OffHeapChannel}, with the type of the messages as the only registered class, so that the
+ * processes agree on the bytes.
+ * <p>
+ * The file holds a ring of fixed size slots, with a producer and a consumer sequence that are
+ * updated with atomic operations on the shared memory. Any number of processes can write to the
+ * channel, but only one process can read from it: the first one which reads, locks the file for
+ * reading until it closes the channel. With {@link Cardinality#SPSC}, a single thread in all the
+ * processes writes to the channel, which advances the producer sequence without a CAS. {@link
+ * Cardinality#MPSC} lets any thread of any process write to it.
+ * <p>
+ * A process cannot be signalled by another one, so the blocking reads and writes poll the shared
+ * memory, with the {@link WaitStrategy} of the channel between two polls. A {@link
+ * io.github.daichim.jach.channel.selector.Selector} over the channel is woken up by a watcher
+ * thread, which polls the sequences while a selector waits on the channel. Closing the channel in
+ * any process closes it for all of them: the writes fail and the reader drains the channel. The
+ * file of a closed channel has to be deleted before it can be used again.
+ * <p>
+ * A writer is not detected when it dies: a process which crashes between claiming a slot and
+ * publishing its message stalls the channel. The reader cannot tell the claimed slot from the one
+ * of a slow writer, so it keeps waiting on it, and the messages written after it are never read,
+ * even once the channel is closed. A timed read times out and an untimed one only returns when
+ * the thread is interrupted. Such a channel has to be closed in all the processes and its file
+ * deleted.
+ * <p>
+ * This channel needs {@link MappedMemory}, which is not available on every runtime.
+ *
+ * @param <T> The type of the message which the {@link SharedMemoryChannel} holds.
+ */
+@Slf4j
+public class SharedMemoryChannel<T> extends SerializedChannel<T> {
+
+    private static final int MAGIC = 0x4A614368;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int STRIDE_OFFSET = 8;
+    private static final int HEADER_LENGTH = 12;
+    // The sequences and the flag are on cache lines of their own, to not share them needlessly.
+    private static final long PRODUCER_OFFSET = 128;
+    private static final long CONSUMER_OFFSET = 256;
+    private static final long CLOSED_OFFSET = 384;
+    private static final long SLOTS_OFFSET = 512;
+    // A slot is the sequence it is published for (plus one), the length and the bytes.
+    private static final int SLOT_LENGTH = 8;
+    private static final int SLOT_HEADER = 16;
+    // The byte ranges of the file that are locked to initialize it and to read from it.
+    private static final long INIT_LOCK = 0;
+    private static final long READER_LOCK = 1;
+    // The watcher wakes every waiter after this many idle polls, to drop the cancelled ones.
+    private static final int WATCHER_FLUSH_INTERVAL = 1 << 12;
+
+    private final Path path;
+    private final int capacity;
+    private final int maxMessageLength;
+    private final long slotStride;
+    private final boolean singleProducer;
+    private final WaitStrategy waitStrategy;
+    private final FileChannel file;
+    private final MappedMemory memory;
+    private final ReentrantLock readLock;
+    private final AtomicReference<Thread> watcher;
+    // Guarded by the read lock.
+    private FileLock readerLock;
+
+    /**
+     * Opens a {@link Cardinality#MPSC} {@link SharedMemoryChannel} on the given file, which waits
+     * with {@link WaitStrategy#YIELD}.
+     *
+     * @param path             The file of the channel, created if it does not exist.
+     * @param clazz            The type of the messages.
+     * @param capacity         The maximum number of messages in the channel.
+     * @param maxMessageLength The size of a slot, i.e. the maximum length of a serialized message.
+     *
+     * @throws UncheckedIOException     If the file cannot be opened.
+     * @throws IllegalArgumentException If the file was created with another capacity or
+     *                                  maximum message length.
+     */
+    public SharedMemoryChannel(Path path, Class<T> clazz, int capacity, int maxMessageLength) {
+        this(path, clazz, capacity, maxMessageLength, Cardinality.MPSC, WaitStrategy.YIELD);
+    }
+
+    /**
+     * Opens a {@link SharedMemoryChannel} on the given file. The process which creates the file
+     * initializes it, the other ones must open it with the same capacity and maximum message
+     * length.
+     *
+     * @param path             The file of the channel, created if it does not exist.
+     * @param clazz            The type of the messages.
+     * @param capacity         The maximum number of messages in the channel.
+     * @param maxMessageLength The size of a slot, i.e. the maximum length of a serialized message.
+     * @param cardinality      Either {@link Cardinality#SPSC} or {@link Cardinality#MPSC}.
+     * @param waitStrategy     How to wait for the other processes in a blocking read or write.
+     *
+     * @throws UncheckedIOException          If the file cannot be opened.
+     * @throws IllegalArgumentException      If the file was created with another capacity or
+     *                                       maximum message length.
+     * @throws UnsupportedOperationException If the runtime does not support shared memory.
+     */
+    public SharedMemoryChannel(Path path, Class<T> clazz, int capacity, int maxMessageLength,
+                               Cardinality cardinality, WaitStrategy waitStrategy) {
+        super(clazz, new KryoPool(POOL_SIZE));
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive");
+        Preconditions.checkArgument(maxMessageLength > 0, "Max message length must be positive");
+        Preconditions.checkArgument(cardinality.isSingleConsumer(),
+            "A shared memory channel has a single consumer, %s is not supported", cardinality);
+        this.path = Preconditions.checkNotNull(path);
+        this.capacity = capacity;
+        this.maxMessageLength = maxMessageLength;
+        this.slotStride = SLOT_HEADER + ((maxMessageLength + 7L) & ~7L);
+        this.singleProducer = cardinality.isSingleProducer();
+        this.waitStrategy = Preconditions.checkNotNull(waitStrategy);
+        this.readLock = new ReentrantLock();
+        this.watcher = new AtomicReference<>();
+        long size = SLOTS_OFFSET + capacity * slotStride;
+        Preconditions.checkArgument(size <= Integer.MAX_VALUE,
+            "A channel of %s slots of %s bytes is too large to be mapped", capacity, slotStride);
+
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, CREATE, READ, WRITE);
+            this.file = channel;
+            this.memory = map(channel, size);
+        } catch (IOException ex) {
+            closeQuietly(channel);
+            throw new UncheckedIOException("Cannot open the channel in " + path, ex);
+        } catch (OverlappingFileLockException ex) {
+            closeQuietly(channel);
+            throw new IllegalStateException("The channel in " + path
+                + " is being opened by another thread", ex);
+        } catch (RuntimeException ex) {
+            closeQuietly(channel);
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the path of the file for a {@link SharedMemoryChannel} of the given name: a file in
+     * {@code /dev/shm} if it exists, else in the temporary directory.
+     *
+     * @param name The name of the channel.
+     *
+     * @return The path of the file of the channel.
+     */
+    public static Path defaultPath(String name) {
+        Path shm = Paths.get("/dev/shm");
+        Path directory = Files.isDirectory(shm)
+            ? shm : Paths.get(System.getProperty("java.io.tmpdir"));
+        return directory.resolve("jach-" + name);
+    }
+
+    /**
+     * Maps the file, after initializing it if it is new. The initialization is done under a lock
+     * on the file, so that two processes opening the file at once do not both initialize it.
+     */
+    private MappedMemory map(FileChannel channel, long size) throws IOException {
+        try (FileLock ignored = channel.lock(INIT_LOCK, 1, false)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.nativeOrder());
+            channel.read(header, 0);
+            boolean initialized = header.getInt(MAGIC_OFFSET) == MAGIC;
+            if (initialized) {
+                int existingCapacity = header.getInt(CAPACITY_OFFSET);
+                int existingStride = header.getInt(STRIDE_OFFSET);
+                Preconditions.checkArgument(existingCapacity == capacity
+                        && existingStride == slotStride,
+                    "The channel in %s has %s slots of %s bytes", path, existingCapacity,
+                    existingStride);
+            } else {
+                // Left over by a process which crashed while initializing it.
+                channel.truncate(0);
+            }
+            MappedMemory mapped =
+                new MappedMemory(channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            if (!initialized) {
+                mapped.putInt(CAPACITY_OFFSET, capacity);
+                mapped.putInt(STRIDE_OFFSET, (int) slotStride);
+                mapped.putIntVolatile(MAGIC_OFFSET, MAGIC);
+            }
+            return mapped;
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                log.warn("Error in closing {}", channel, ex);
+            }
+        }
+    }
+
+    private long slotOffset(long sequence) {
+        return SLOTS_OFFSET + (sequence % capacity) * slotStride;
+    }
+
+    /**
+     * Claims the next slot, copies the message into it and publishes the slot. A slot is claimed
+     * only once the reader is done with the message which was in it a lap earlier.
+     */
+    @Override
+    boolean offer(byte[] bytes, int length) {
+        long sequence;
+        if (singleProducer) {
+            sequence = memory.getLongVolatile(PRODUCER_OFFSET);
+            if (sequence - memory.getLongVolatile(CONSUMER_OFFSET) >= capacity) {
+                return false;
+            }
+        } else {
+            do {
+                sequence = memory.getLongVolatile(PRODUCER_OFFSET);
+                if (sequence - memory.getLongVolatile(CONSUMER_OFFSET) >= capacity) {
+                    return false;
+                }
+            } while (!memory.compareAndSetLong(PRODUCER_OFFSET, sequence, sequence + 1));
+        }
+        long slot = slotOffset(sequence);
+        memory.putInt(slot + SLOT_LENGTH, length);
+        memory.copyFrom(bytes, length, slot + SLOT_HEADER);
+        memory.putLongOrdered(slot, sequence + 1);
+        if (singleProducer) {
+            memory.putLongOrdered(PRODUCER_OFFSET, sequence + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Copies the message out of the next slot, if it is published. A slot that is claimed but not
+     * published yet reads as empty. The messages are read in order, so the reader waits on that
+     * slot until it is published, even if the messages after it are: a writer which died in the
+     * middle of a write stalls the channel for good (see the class documentation).
+     *
+     * @throws IllegalStateException If another process reads from the channel.
+     */
+    @Override
+    boolean poll(Input input) {
+        readLock.lock();
+        try {
+            lockForReading();
+            long sequence = memory.getLongVolatile(CONSUMER_OFFSET);
+            long slot = slotOffset(sequence);
+            if (memory.getLongVolatile(slot) != sequence + 1) {
+                return false;
+            }
+            int length = memory.getInt(slot + SLOT_LENGTH);
+            if (length < 0 || length > maxMessageLength) {
+                throw new IllegalStateException(String.format(
+                    "Corrupted message of %d bytes in %s", length, path));
+            }
+            byte[] buffer = bufferOf(input, length);
+            memory.copyTo(slot + SLOT_HEADER, buffer, length);
+            input.setBuffer(buffer, 0, length);
+            memory.putLongOrdered(CONSUMER_OFFSET, sequence + 1);
+            return true;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void lockForReading() {
+        if (readerLock != null || !file.isOpen()) {
+            // Locked already, or drained after close, which unlocks the file.
+            return;
+        }
+        FileLock lock;
+        try {
+            lock = file.tryLock(READER_LOCK, 1, false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot lock the channel in " + path, ex);
+        } catch (OverlappingFileLockException ex) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new IllegalStateException("Another reader reads from the channel in " + path);
+        }
+        readerLock = lock;
+    }
+
+    @Override
+    int maxMessageLength() {
+        return maxMessageLength;
+    }
+
+    @Override
+    public int size() {
+        long size = memory.getLongVolatile(PRODUCER_OFFSET)
+            - memory.getLongVolatile(CONSUMER_OFFSET);
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    /**
+     * Returns {@literal false} once the channel is closed by any of the processes.
+     */
+    @Override
+    public boolean isOpen() {
+        return super.isOpen() && memory.getIntVolatile(CLOSED_OFFSET) == 0;
+    }
+
+    /**
+     * Writes a non-null message to the channel. If the channel is full, the thread polls the
+     * channel with the {@link WaitStrategy} of the channel, until the reader makes space.
+     *
+     * @throws ClosedChannelException   In case the channel has already been closed, or got closed
+     *                                  before write could succeed.
+     * @throws IllegalStateException    In case the thread is interrupted while waiting for space.
+     * @throws IllegalArgumentException If the serialized message does not fit in a slot.
+     */
+    @Override
+    public void write(T message) throws ClosedChannelException, IllegalStateException {
+        pollingWrite(message, false, 0L);
+    }
+
+    /**
+     * Writes a message to the channel, polling the channel if it is full for a maximum of the
+     * timeout period.
+     *
+     * @param message The message to write to the channel.
+     * @param timeout The timeout value after which the write times out.
+     * @param unit    The unit of the timeout value.
+     *
+     * @throws TimeoutException       If the write times out after the timeout period.
+     * @throws ClosedChannelException If the channel has already been closed for writing.
+     */
+    @Override
+    public void write(T message, int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        pollingWrite(message, true, System.nanoTime() + nanos);
+    }
+
+    private void pollingWrite(T message, boolean timed, long deadline) throws TimeoutException {
+        Preconditions.checkNotNull(message);
+        if (!isOpen()) {
+            throw new ClosedChannelException("Channel is already closed for writing");
+        }
+        Output output = serialize(message);
+        Object event = null;
+        try {
+            for (int iteration = 0; ; iteration++) {
+                if (offer(output.getBuffer(), output.position())) {
+                    afterWrite();
+                    return;
+                }
+                if (!isOpen()) {
+                    throw new ClosedChannelException(
+                        "Channel got closed before write could complete");
+                }
+                if (event == null) {
+                    event = FlightEvents.INSTANCE.beginBlocked();
+                }
+                checkWait(timed, deadline, "Interrupted while writing to the channel");
+                waitStrategy.idle(iteration);
+            }
+        } finally {
+            FlightEvents.INSTANCE.endBlocked(event, this, true);
+            release(output);
+        }
+    }
+
+    /**
+     * Reads the next message from the channel. If the channel is empty, the thread polls the
+     * channel with the {@link WaitStrategy} of the channel, until a message is written.
+     *
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     * @throws IllegalStateException         If the thread is interrupted while waiting for a
+     *                                       message, or if another process reads from the
+     *                                       channel.
+     */
+    @Override
+    public T read() throws NoSuchChannelElementException, IllegalStateException {
+        return pollingRead(false, 0L);
+    }
+
+    /**
+     * Reads the next message from the channel, polling the channel if it is empty for a maximum
+     * of the timeout period.
+     *
+     * @param timeout The timeout value after which the read times out.
+     * @param unit    The unit corresponding to the timeout value.
+     *
+     * @return The next message from the channel.
+     *
+     * @throws TimeoutException              If no message can be read within the timeout period.
+     * @throws NoSuchChannelElementException If the channel is closed and drained.
+     */
+    @Override
+    public T read(int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        return pollingRead(true, System.nanoTime() + nanos);
+    }
+
+    private T pollingRead(boolean timed, long deadline) throws TimeoutException {
+        Object event = null;
+        try {
+            for (int iteration = 0; ; iteration++) {
+                Input input = take();
+                if (input != null) {
+                    return deserialize(input);
+                }
+                if (!isOpen() && size() == 0) {
+                    throw new NoSuchChannelElementException();
+                }
+                if (event == null) {
+                    event = FlightEvents.INSTANCE.beginBlocked();
+                }
+                checkWait(timed, deadline, "Interrupted while reading from the channel");
+                waitStrategy.idle(iteration);
+            }
+        } finally {
+            FlightEvents.INSTANCE.endBlocked(event, this, false);
+        }
+    }
+
+    private static void checkWait(boolean timed, long deadline, String interrupted)
+        throws TimeoutException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IllegalStateException(interrupted);
+        }
+        if (timed && System.nanoTime() - deadline >= 0) {
+            throw new TimeoutException();
+        }
+    }
+
+    @Override
+    public void enqueueReadWaiter(Waiter waiter) {
+        super.enqueueReadWaiter(waiter);
+        watch();
+    }
+
+    @Override
+    public void enqueueWriteWaiter(Waiter waiter) {
+        super.enqueueWriteWaiter(waiter);
+        watch();
+    }
+
+    /**
+     * Starts the watcher thread on the first waiter, and wakes it up on the next ones.
+     */
+    private void watch() {
+        Thread thread = watcher.get();
+        if (thread == null) {
+            thread = new Thread(this::runWatcher, "jach-shared-memory-" + getId());
+            thread.setDaemon(true);
+            if (watcher.compareAndSet(null, thread)) {
+                thread.start();
+                return;
+            }
+            thread = watcher.get();
+        }
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Polls the sequences while there are waiters, and wakes them up when the other processes
+     * write to or read from the channel. The thread parks while there are no waiters, and ends
+     * once the channel is closed.
+     */
+    private void runWatcher() {
+        long produced = -1L;
+        long consumed = -1L;
+        int iteration = 0;
+        while (true) {
+            if (!isOpen()) {
+                signalReaders();
+                signalWriters();
+                return;
+            }
+            if (!hasWaiters()) {
+                LockSupport.park(this);
+                iteration = 0;
+                continue;
+            }
+            long producer = memory.getLongVolatile(PRODUCER_OFFSET);
+            long consumer = memory.getLongVolatile(CONSUMER_OFFSET);
+            if (producer != produced || consumer != consumed
+                || ++iteration % WATCHER_FLUSH_INTERVAL == 0) {
+                produced = producer;
+                consumed = consumer;
+                iteration = 0;
+                signalReaders();
+                signalWriters();
+            }
+            waitStrategy.idle(iteration);
+        }
+    }
+
+    /**
+     * Closes this channel for all the processes. The writers fail with a {@link
+     * ClosedChannelException}, and the reader drains the messages left in the channel. The file
+     * is unlocked, so the reader must drain the channel before another process can.
+     */
+    @Override
+    public void close() {
+        memory.putIntVolatile(CLOSED_OFFSET, 1);
+        super.close();
+        Thread thread = watcher.get();
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        readLock.lock();
+        try {
+            if (file.isOpen()) {
+                file.close();
+            }
+        } catch (IOException ex) {
+            log.warn("Error in closing the channel in {}", path, ex);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * The maximum number of messages in this {@link SharedMemoryChannel}.
+     *
+     * @return The capacity of this {@link SharedMemoryChannel}.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The file of this {@link SharedMemoryChannel}.
+     *
+     * @return The path of the file.
+     */
+    public Path getPath() {
+        return path;
+    }
+}
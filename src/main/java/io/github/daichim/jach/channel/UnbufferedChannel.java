@@ -1,23 +1,379 @@
 package io.github.daichim.jach.channel;
 
+import com.google.common.base.Preconditions;
 import io.github.daichim.jach.channel.copier.Copier;
-import io.github.daichim.jach.channel.copier.KryoCopier;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.CopyException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import io.github.daichim.jach.exception.TimeoutException;
+import io.github.daichim.jach.internal.AfterWriteAction;
+import io.github.daichim.jach.internal.AfterWriteActions;
+import io.github.daichim.jach.internal.ChannelIterator;
+import io.github.daichim.jach.internal.DualQueue;
+import io.github.daichim.jach.internal.FlightEvents;
+import io.github.daichim.jach.internal.WaitQueue;
+import io.github.daichim.jach.internal.Waiter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
- * {@link UnbufferedChannel} is a special {@link Channel} where only one message can be written and
- * subsequent writes block until that message is read by another thread. It can be treated like a
- * {@link BufferedChannel} with capacity of 1 message.
+ * {@link UnbufferedChannel} is a {@link Channel} without any buffer, in which every write is a
+ * rendezvous with a read: {@link #write(Object)} only returns once a reader has taken the message,
+ * and {@link #read()} only returns once a writer has handed a message over. This is the semantics
+ * of an unbuffered Go channel.
+ * <p>
+ * The hand-off goes through a lock-free dual queue (like the fair mode of {@link
+ * java.util.concurrent.SynchronousQueue}), which holds either the waiting writers with their
+ * message or the waiting readers. A waiting thread spins for a short while before it parks, in case
+ * the counterpart is about to arrive. {@link #tryWrite(Object)} and {@link #tryRead()} only succeed
+ * if a counterpart is already waiting.
+ * <p>
+ * When the channel is closed, the waiting writers fail with a {@link ClosedChannelException} and
+ * the waiting readers with a {@link NoSuchChannelElementException}.
  *
  * @param <T> The type of the message which the {@link UnbufferedChannel} holds.
  */
-public class UnbufferedChannel<T> extends BufferedChannel<T> {
+@Slf4j
+public class UnbufferedChannel<T> implements Channel<T> {
+
+    private final DualQueue<T> queue;
+    // Threads which wait for a writer or a reader without taking part in the hand-off, i.e.
+    // selectors.
+    private final WaitQueue readers;
+    private final WaitQueue writers;
+    private final Class<T> clazz;
+    private final Copier<T> copier;
+    private final String channelId;
+    private final AfterWriteActions afterWriteActions;
+    private final ChannelIterator<T> iterator;
+    private volatile boolean open;
 
     public UnbufferedChannel(Class<T> clazz) {
-        super(1, clazz, new KryoCopier<>(clazz));
+        this(clazz, Copier.forType(clazz));
     }
 
     public UnbufferedChannel(Class<T> clazz, Copier<T> copier) {
-        super(1, clazz, copier);
+        this.clazz = clazz;
+        this.copier = copier;
+        this.channelId = UUID.randomUUID().toString();
+        this.open = true;
+
+        // A waiting writer is a message available to the selectors.
+        this.queue = new DualQueue<>(this::onWriterWaiting, this::onReaderWaiting);
+        this.readers = new WaitQueue();
+        this.writers = new WaitQueue();
+        this.afterWriteActions = new AfterWriteActions();
+        this.iterator = new ChannelIterator<>(this);
+    }
+
+    /**
+     * Writes a non-null message to the channel and waits until a reader has taken it.
+     *
+     * @throws ClosedChannelException In case the channel has already been closed, or got closed
+     *                                before a reader took the message.
+     * @throws IllegalStateException  In case the thread is interrupted while waiting for a reader.
+     * @throws NullPointerException   If the msg is {@literal null}.
+     * @see Channel#write(Object)
+     */
+    @Override
+    public void write(T message) throws ClosedChannelException, IllegalStateException {
+        if (handOff(message, false, 0L) == null) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Interrupted while writing to the channel");
+            }
+            throw new ClosedChannelException("Channel got closed before write could complete");
+        }
+    }
+
+    /**
+     * Writes a message to the {@link UnbufferedChannel}, waiting for a reader to take it for a
+     * maximum of the timeout period.
+     *
+     * @param message The message to write to the {@link UnbufferedChannel}.
+     * @param timeout The timeout value after which the write times out.
+     * @param unit    The unit of the timeout value.
+     *
+     * @throws TimeoutException       If no reader takes the message within the timeout period.
+     * @throws ClosedChannelException If the {@link UnbufferedChannel} has already been closed for
+     *                                writing, or got closed before a reader took the message.
+     */
+    @Override
+    public void write(T message, int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        if (handOff(message, true, nanos) == null) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Interrupted while writing to the channel");
+            }
+            if (!open) {
+                throw new ClosedChannelException("Channel got closed before write could complete");
+            }
+            throw new TimeoutException();
+        }
+    }
+
+    /**
+     * Tries handing a message over to a reader which is already waiting on the {@link
+     * UnbufferedChannel}. If no reader is waiting, returns {@literal false} right away.
+     *
+     * @param message The message to write to the {@link UnbufferedChannel}.
+     *
+     * @return {@literal true} if a reader took the message, {@literal false} otherwise.
+     *
+     * @throws ClosedChannelException If the channel has already been closed for writing.
+     * @throws CopyException          If the {@link Copier} associated with the channel fails.
+     */
+    @Override
+    public boolean tryWrite(T message) throws ClosedChannelException, CopyException {
+        Preconditions.checkNotNull(message);
+        if (!open) {
+            throw new ClosedChannelException("Channel is already closed for writing");
+        }
+        // Don't pay for the copy if there is no reader to hand it over to.
+        if (!queue.hasWaitingReader()) {
+            return false;
+        }
+        return queue.transfer(copy(message), true, 0L) != null;
+    }
+
+    private T handOff(T message, boolean timed, long nanos) throws CopyException {
+        Preconditions.checkNotNull(message);
+        if (!open) {
+            throw new ClosedChannelException("Channel is already closed for writing");
+        }
+        T messageCopy = copy(message);
+        Object event = FlightEvents.INSTANCE.beginBlocked();
+        try {
+            return queue.transfer(messageCopy, timed, nanos);
+        } finally {
+            FlightEvents.INSTANCE.endBlocked(event, this, true);
+        }
+    }
+
+    private T receive(boolean timed, long nanos) {
+        Object event = FlightEvents.INSTANCE.beginBlocked();
+        try {
+            return queue.transfer(null, timed, nanos);
+        } finally {
+            FlightEvents.INSTANCE.endBlocked(event, this, false);
+        }
+    }
+
+    private T copy(T message) throws CopyException {
+        Object event = FlightEvents.INSTANCE.beginCopy();
+        T copy = this.copier.copyOf(message);
+        FlightEvents.INSTANCE.endCopy(event, this);
+        return copy;
+    }
+
+    private void onWriterWaiting() {
+        readers.signal();
+        afterWriteActions.onWrite();
+    }
+
+    private void onReaderWaiting() {
+        writers.signal();
+    }
+
+    /**
+     * Returns {@literal true} if the channel can be written to.
+     *
+     * @return {@literal true} if the channel can be written to, else {@literal false}.
+     */
+    @Override
+    public boolean canWrite() {
+        return isOpen();
+    }
+
+    /**
+     * Reads the next message from the channel, waiting until a writer hands one over.
+     *
+     * @throws NoSuchChannelElementException If there are no further element that can be available
+     *                                       (because the {@link Channel} got closed).
+     * @throws IllegalStateException         If the thread is interrupted while waiting for a
+     *                                       message.
+     * @see Channel#read()
+     */
+    @Override
+    public T read() throws NoSuchChannelElementException, IllegalStateException {
+        T msg = receive(false, 0L);
+        if (msg == null) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Interrupted while reading from the channel");
+            }
+            throw new NoSuchChannelElementException();
+        }
+        return msg;
+    }
+
+    /**
+     * Reads the next message from the channel, waiting for a writer to hand one over for a maximum
+     * of the timeout period.
+     *
+     * @param timeout The timeout value after which read times out.
+     * @param unit    The unit corresponding to the timeout value.
+     *
+     * @return The next element from the {@link Channel}.
+     *
+     * @throws TimeoutException              If no message can be read within the given timeout
+     *                                       period.
+     * @throws NoSuchChannelElementException If there are no further element that can be available
+     *                                       (because the {@link Channel} got closed).
+     * @throws IllegalStateException         If the thread is interrupted while waiting for a
+     *                                       message.
+     */
+    @Override
+    public T read(int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        T msg = receive(true, nanos);
+        if (msg == null) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Interrupted while reading from the channel");
+            }
+            if (!open) {
+                throw new NoSuchChannelElementException();
+            }
+            throw new TimeoutException();
+        }
+        return msg;
+    }
+
+    /**
+     * Tries to take a message from a writer which is already waiting on the {@link Channel}. If no
+     * writer is waiting, it returns {@literal null}.
+     *
+     * @return The next message from the {@link Channel} or {@literal null} if no writer is waiting.
+     *
+     * @throws NoSuchChannelElementException If there are no further element that can be read from
+     *                                       the channel (because the channel has been closed).
+     */
+    @Override
+    public T tryRead() {
+        T msg = queue.transfer(null, true, 0L);
+        if (msg == null && !open) {
+            throw new NoSuchChannelElementException();
+        }
+        return msg;
     }
 
+    /**
+     * Returns {@literal true} if the channel can be read.
+     *
+     * @return {@literal true} if the channel can be read, else {@literal false}.
+     */
+    @Override
+    public boolean canRead() {
+        return isOpen();
+    }
+
+    /**
+     * Closes this channel. On closure of this channel, all the threads that are waiting in {@link
+     * #read()} or {@link #write(Object)} are woken up: writers fail with a {@link
+     * ClosedChannelException} and readers with a {@link NoSuchChannelElementException}. The iterator
+     * associated with this channel is also closed along with the channel.
+     *
+     * @see Channel#close()
+     */
+    @Override
+    public void close() {
+        boolean wasOpen = this.open;
+        this.open = false;
+        this.queue.close();
+        this.readers.signalAll();
+        this.writers.signalAll();
+
+        this.afterWriteActions.close();
+        this.iterator.markDone();
+        if (wasOpen) {
+            FlightEvents.INSTANCE.channelClosed(this);
+        }
+    }
+
+    /**
+     * Checks if the channel has been closed.
+     *
+     * @return {@literal true}, if the channel has been closed, {@literal false} otherwise.
+     */
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Returns a unique id for this {@link Channel}.
+     *
+     * @return A unique id for this {@link Channel}.
+     */
+    @Override
+    public String getId() {
+        return channelId;
+    }
+
+    /**
+     * @see Channel#getDataType()
+     */
+    @Override
+    public Class<T> getDataType() {
+        return clazz;
+    }
+
+    @Override
+    public void registerAfterWriteAction(AfterWriteAction afw) {
+        this.afterWriteActions.add(afw);
+    }
+
+    @Override
+    public void deregisterAfterWriteAction(AfterWriteAction afw) {
+        this.afterWriteActions.remove(afw);
+    }
+
+    @Override
+    public void enqueueReadWaiter(Waiter waiter) {
+        readers.enqueue(waiter);
+    }
+
+    @Override
+    public void enqueueWriteWaiter(Waiter waiter) {
+        writers.enqueue(waiter);
+    }
+
+    /**
+     * Returns an {@link Iterator} to iterate over the channel. The iterator is a blocking iterator.
+     * If no writer is waiting on the channel the iterators {@link Iterator#next()} gets blocked. In
+     * case the channel is closed while iterating, a {@link NoSuchChannelElementException} is thrown
+     * from the {@link Iterator#next()} method.
+     *
+     * @return An {@link Iterator} to iterate over the channel.
+     *
+     * @see Iterable#iterator()
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return iterator;
+    }
+
+    /**
+     * Perform an action over the messages as received in the current thread from the channel. This
+     * method will not propagate the {@link NoSuchChannelElementException} that is thrown when the
+     * channel is closed. Returning from this method indicates the channel is closed, and the caller
+     * is free to perform any cleanup tasks.
+     *
+     * @param action The action to perform for each message received on this thread.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        try {
+            while (this.isOpen()) {
+                T msg = this.read();
+                action.accept(msg);
+            }
+        } catch (NoSuchChannelElementException | ClosedChannelException ex) {
+            // Done iterating. Do nothing
+        }
+    }
 }
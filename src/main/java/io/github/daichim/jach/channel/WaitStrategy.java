@@ -0,0 +1,42 @@
+package io.github.daichim.jach.channel;
+
+/**
+ * {@link WaitStrategy} declares how a thread waits on a {@link SharedMemoryChannel}, whose
+ * messages can be written and read by other processes. Such a channel cannot be signalled across
+ * processes, so a blocked read or write polls the shared memory until it can complete, and idles
+ * between two polls the way the strategy says. Neither strategy parks the thread.
+ */
+public enum WaitStrategy {
+
+    /**
+     * Polls in a busy loop. The lowest latency, at the cost of a core per waiting thread.
+     */
+    SPIN {
+        @Override
+        void idle(int iteration) {
+            // Busy spin.
+        }
+    },
+
+    /**
+     * Spins for a while, then yields the processor between two polls. The latency stays low while
+     * the other side keeps up, and the waiting thread gives way to the other threads otherwise.
+     */
+    YIELD {
+        @Override
+        void idle(int iteration) {
+            if (iteration >= SPINS) {
+                Thread.yield();
+            }
+        }
+    };
+
+    private static final int SPINS = 100;
+
+    /**
+     * Idles between two polls.
+     *
+     * @param iteration The number of polls since the thread started to wait.
+     */
+    abstract void idle(int iteration);
+}
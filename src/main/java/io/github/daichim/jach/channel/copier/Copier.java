@@ -24,4 +24,20 @@ public interface Copier<T> {
      */
     T copyOf(T message) throws CopyException;
 
+    /**
+     * Returns the default {@link Copier} for messages of the given type: a {@link RefCopier} if
+     * the type is immutable (see {@link Immutables#isImmutable(Class)}), since there is nothing a
+     * copy would protect against, or else a {@link PooledKryoCopier}.
+     *
+     * @param type The type of the messages.
+     * @param <T>  The type of the messages.
+     *
+     * @return The default {@link Copier} for the type.
+     */
+    static <T> Copier<T> forType(Class<T> type) {
+        if (Immutables.isImmutable(type)) {
+            return new RefCopier<>();
+        }
+        return new PooledKryoCopier<>(type);
+    }
 }
@@ -0,0 +1,22 @@
+package io.github.daichim.jach.channel.copier;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a type whose instances cannot be modified once created, so that the channels created by
+ * {@link io.github.daichim.jach.JachChannels} pass them by reference instead of copying them. The
+ * annotation is trusted as is, the fields of the type are not checked.
+ * <p>
+ * Any other annotation named {@code Immutable} which is retained at runtime has the same effect.
+ *
+ * @see Immutables#isImmutable(Class)
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Immutable {
+}
@@ -0,0 +1,131 @@
+package io.github.daichim.jach.channel.copier;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@link Immutables} detects the types whose instances cannot be modified, which a channel can
+ * safely pass by reference with a {@link RefCopier} instead of deep copying them. A type is
+ * immutable if it is:
+ * <ul>
+ *     <li>a primitive, {@link String}, a boxed primitive, an enum or a final value type of the JDK
+ *     such as {@link UUID} or {@link Instant},</li>
+ *     <li>annotated with {@link Immutable}, or any other annotation named {@code Immutable} which
+ *     is retained at runtime,</li>
+ *     <li>a record (on JDK 16+) whose components are all of immutable types.</li>
+ * </ul>
+ * A non-final type is not considered immutable (unless annotated), since a message can be an
+ * instance of a mutable subclass. The result is computed once per type.
+ */
+@Slf4j
+public final class Immutables {
+
+    private static final Set<Class<?>> KNOWN = ImmutableSet.of(
+        String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class,
+        Long.class, Float.class, Double.class, UUID.class,
+        Instant.class, Duration.class, Period.class, LocalDate.class, LocalTime.class,
+        LocalDateTime.class, OffsetTime.class, OffsetDateTime.class, ZonedDateTime.class,
+        ZoneOffset.class, Year.class, YearMonth.class, MonthDay.class);
+
+    private static final Method IS_RECORD = lookup(Class.class, "isRecord");
+    private static final Method GET_RECORD_COMPONENTS = lookup(Class.class, "getRecordComponents");
+    private static final Method GET_TYPE =
+        GET_RECORD_COMPONENTS == null ? null
+            : lookup(GET_RECORD_COMPONENTS.getReturnType().getComponentType(), "getType");
+
+    private static final ClassValue<Boolean> CACHE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return check(type, new HashSet<>());
+        }
+    };
+
+    private Immutables() {
+    }
+
+    private static Method lookup(Class<?> clazz, String name) {
+        try {
+            return clazz.getMethod(name);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the instances of the given type cannot be modified once created.
+     *
+     * @param type The type to check.
+     *
+     * @return {@literal true} if the type is detected as immutable.
+     */
+    public static boolean isImmutable(Class<?> type) {
+        Preconditions.checkNotNull(type);
+        return CACHE.get(type);
+    }
+
+    private static boolean check(Class<?> type, Set<Class<?>> visiting) {
+        if (type.isPrimitive() || KNOWN.contains(type) || type.isEnum() || isAnnotated(type)) {
+            return true;
+        }
+        if (!isRecord(type)) {
+            return false;
+        }
+        // A record referring to itself (directly or not) is immutable if the rest of it is.
+        if (!visiting.add(type)) {
+            return true;
+        }
+        try {
+            for (Object component : (Object[]) GET_RECORD_COMPONENTS.invoke(type)) {
+                Class<?> componentType = (Class<?>) GET_TYPE.invoke(component);
+                if (!check(componentType, visiting)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            log.debug("Could not inspect the components of record {}", type.getName(), ex);
+            return false;
+        }
+    }
+
+    private static boolean isAnnotated(Class<?> type) {
+        for (Annotation annotation : type.getAnnotations()) {
+            if ("Immutable".equals(annotation.annotationType().getSimpleName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRecord(Class<?> type) {
+        if (IS_RECORD == null || !Modifier.isFinal(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_RECORD.invoke(type);
+        } catch (ReflectiveOperationException ex) {
+            return false;
+        }
+    }
+}
@@ -6,16 +6,22 @@ import com.esotericsoftware.kryo.kryo5.Serializer;
 import io.github.daichim.jach.exception.CopyException;
 import lombok.Getter;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * {@link KryoCopier} uses Kryo serializer to do a deep copy of the object. For more information
- * about Kryo, please check https://github.com/EsotericSoftware/kryo/blob/master/README.md. Kryo is
- * used as the default {@link Copier} method for JaCh.
+ * about Kryo, please check https://github.com/EsotericSoftware/kryo/blob/master/README.md.
+ * <p>
+ * A {@link Kryo} instance is not thread-safe, so the copies of a {@link KryoCopier} are serialized
+ * by a lock. Concurrent writers of a channel wait for each other, prefer a {@link
+ * PooledKryoCopier} unless a dedicated {@link Kryo} instance is needed.
  */
 public class KryoCopier<T> implements Copier<T> {
 
     @Getter
     private final Kryo kryo;
     private final Serializer<T> serializer;
+    private final ReentrantLock lock = new ReentrantLock();
 
     /**
      * Initializes a {@link KryoCopier} with default instance of Kryo and Serializer.
@@ -50,6 +56,7 @@ public class KryoCopier<T> implements Copier<T> {
     @Override
     public T copyOf(T message) throws CopyException {
         T copy;
+        lock.lock();
         try {
             if (serializer != null) {
                 copy = kryo.copy(message, serializer);
@@ -59,6 +66,8 @@ public class KryoCopier<T> implements Copier<T> {
             return copy;
         } catch (KryoException ex) {
             throw new CopyException("Error in deep copying object using Kryo", ex);
+        } finally {
+            lock.unlock();
         }
     }
 }
@@ -0,0 +1,130 @@
+package io.github.daichim.jach.channel.copier;
+
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.util.ObjectMap;
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.internal.SlotPool;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link KryoPool} is a thread-safe pool of {@link Kryo} instances, shared by the {@link
+ * PooledKryoCopier}s of many channels. A {@link Kryo} instance is not thread-safe, so every copy
+ * borrows an instance from the pool and returns it afterwards. Unlike thread-local instances, the
+ * number of instances is bounded by the number of concurrent copies rather than the number of
+ * threads, which matters with virtual threads.
+ * <p>
+ * The idle instances are kept in a {@link SlotPool}, so that a thread usually gets back the
+ * instance it used last, without taking a lock or allocating.
+ * <p>
+ * Classes are registered once for the whole pool: every instance created from then on registers
+ * them upfront, while an instance already in the pool registers the ones it misses the next time
+ * it is obtained. Every instance registers the classes in the same order, so a class gets the
+ * same registration ID on all the instances of the pool. Registering a class also creates its
+ * serializer right away on one instance, so that the first message of a channel does not pay for
+ * it.
+ * <p>
+ * Bytes serialized with one instance can therefore be read with any other instance of the same
+ * pool, which {@link io.github.daichim.jach.channel.OffHeapChannel} and the other serializing
+ * channels rely on. This only holds for the classes registered through {@link #register(Class)}:
+ * registering a class directly on a borrowed instance gives it an ID the other instances do not
+ * know, and IDs are never portable across pools.
+ */
+public class KryoPool {
+
+    // The key of the number of registered classes in the context of an instance.
+    private static final Object REGISTERED = new Object();
+
+    // Generous, since a thread that gets descheduled in the middle of a copy holds on to its
+    // instance, and an instance which does not fit back into the pool is thrown away.
+    private static final KryoPool SHARED =
+        new KryoPool(Math.max(64, 4 * Runtime.getRuntime().availableProcessors()));
+
+    private final SlotPool<Kryo> idle;
+    private final Set<Class<?>> registered;
+    private final List<Class<?>> registrations;
+
+    /**
+     * Creates a {@link KryoPool}.
+     *
+     * @param maximumCapacity The maximum number of idle {@link Kryo} instances kept in the pool,
+     *                        rounded up to a power of two. Instances returned to a full pool are
+     *                        discarded.
+     */
+    public KryoPool(int maximumCapacity) {
+        this.idle = new SlotPool<>(maximumCapacity);
+        this.registered = ConcurrentHashMap.newKeySet();
+        this.registrations = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Returns the {@link KryoPool} shared by all the channels that do not bring their own.
+     *
+     * @return The shared {@link KryoPool}.
+     */
+    public static KryoPool shared() {
+        return SHARED;
+    }
+
+    private Kryo newKryo() {
+        Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(false);
+        return kryo;
+    }
+
+    // Registers the classes an instance misses, in the order of the pool. The number of classes
+    // an instance has registered is kept in its context, which outlives the reset after a copy.
+    private Kryo update(Kryo kryo) {
+        int target = registrations.size();
+        // Kryo exposes its context as a raw ObjectMap.
+        @SuppressWarnings("unchecked")
+        ObjectMap<Object, Object> context = kryo.getContext();
+        Integer applied = (Integer) context.get(REGISTERED);
+        int from = applied == null ? 0 : applied;
+        if (from < target) {
+            for (int i = from; i < target; i++) {
+                kryo.register(registrations.get(i));
+            }
+            context.put(REGISTERED, target);
+        }
+        return kryo;
+    }
+
+    /**
+     * Registers a class with all the {@link Kryo} instances of the pool and creates its
+     * serializer. Registering the same class again is a no-op.
+     *
+     * @param clazz The class to register.
+     */
+    public void register(Class<?> clazz) {
+        Preconditions.checkNotNull(clazz);
+        if (!registered.add(clazz)) {
+            return;
+        }
+        registrations.add(clazz);
+        // Creates the serializer on the instance, while bringing it up to date.
+        free(obtain());
+    }
+
+    /**
+     * Borrows a {@link Kryo} instance, which has to be returned with {@link #free(Kryo)} once done.
+     *
+     * @return A {@link Kryo} instance for the exclusive use of the caller.
+     */
+    public Kryo obtain() {
+        Kryo kryo = idle.poll();
+        return update(kryo != null ? kryo : newKryo());
+    }
+
+    /**
+     * Returns a borrowed {@link Kryo} instance to the pool.
+     *
+     * @param kryo The {@link Kryo} instance obtained from this pool.
+     */
+    public void free(Kryo kryo) {
+        idle.offer(kryo);
+    }
+}
@@ -0,0 +1,290 @@
+package io.github.daichim.jach.channel.copier;
+
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.KryoException;
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.exception.CopyException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * {@link MethodHandleCopier} does a field by field deep copy of the message, without going
+ * through a serialization buffer. The first time a class is copied, the copy code of the class is
+ * put together from {@link MethodHandle}s: a getter and a setter for every field, with the copy of
+ * the field value in between. From then on, a copy is a chain of direct field accesses which the
+ * JIT can inline, with no reflection and no intermediate buffer involved.
+ * <p>
+ * The value of a field is:
+ * <ul>
+ *     <li>passed as is, if it is a primitive or of an immutable type (see {@link
+ *     Immutables#isImmutable(Class)}),</li>
+ *     <li>cloned, if it is an array of primitives or of an immutable type,</li>
+ *     <li>copied field by field, if its class has a nullary constructor and is not a JDK
+ *     class,</li>
+ *     <li>copied with a {@link Kryo} instance from the {@link KryoPool} otherwise, e.g. for
+ *     collections, interfaces and fields whose value is of a subclass of the declared type.</li>
+ * </ul>
+ * The last case also covers the classes that can refer to themselves through their fields, so
+ * cyclic object graphs are copied by Kryo. Unlike Kryo, an object which is referred to twice
+ * within the part of a message copied field by field is copied twice.
+ * <p>
+ * Messages of a class which cannot be copied field by field (e.g. it has no nullary constructor)
+ * are copied with Kryo altogether.
+ */
+@Slf4j
+public class MethodHandleCopier<T> implements Copier<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType FIELD_COPY =
+        MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType VALUE_COPY =
+        MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<Plan> PLANS = new ClassValue<Plan>() {
+        @Override
+        protected Plan computeValue(Class<?> type) {
+            return Plan.of(type, new ArrayDeque<>(), KryoPool.shared());
+        }
+    };
+
+    private final Class<T> clazz;
+    private final Plan plan;
+    private final KryoPool pool;
+
+    /**
+     * Initializes a {@link MethodHandleCopier}, which generates the copy code of the class
+     * upfront.
+     *
+     * @param clazz The type of the messages.
+     */
+    public MethodHandleCopier(Class<T> clazz) {
+        this.clazz = Preconditions.checkNotNull(clazz);
+        this.plan = PLANS.get(clazz);
+        this.pool = KryoPool.shared();
+        if (plan == Plan.UNSUPPORTED) {
+            pool.register(clazz);
+        }
+    }
+
+    /**
+     * Checks whether the messages of the given class are copied field by field, rather than by
+     * Kryo.
+     *
+     * @param clazz The type of the messages.
+     *
+     * @return {@literal true} if the messages of the class are copied field by field.
+     */
+    public static boolean isSupported(Class<?> clazz) {
+        return PLANS.get(clazz) != Plan.UNSUPPORTED;
+    }
+
+    /**
+     * @see Copier#copyOf(Object)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T copyOf(T message) throws CopyException {
+        if (message == null) {
+            return null;
+        }
+        Class<?> type = message.getClass();
+        Plan p = type == clazz ? plan : PLANS.get(type);
+        if (p == Plan.UNSUPPORTED) {
+            return (T) copyWithKryo(pool, message);
+        }
+        try {
+            return (T) p.copy(message);
+        } catch (CopyException ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new CopyException("Error in deep copying object field by field", ex);
+        }
+    }
+
+    private static Object copyWithKryo(KryoPool pool, Object value) {
+        if (value == null) {
+            return null;
+        }
+        Kryo kryo = pool.obtain();
+        try {
+            return kryo.copy(value);
+        } catch (KryoException ex) {
+            throw new CopyException("Error in deep copying object using Kryo", ex);
+        } finally {
+            pool.free(kryo);
+        }
+    }
+
+    private static Object copyNested(Plan plan, Class<?> type, KryoPool pool, Object value)
+        throws Throwable {
+        if (value == null) {
+            return null;
+        }
+        if (value.getClass() != type) {
+            return copyWithKryo(pool, value);
+        }
+        return plan.copy(value);
+    }
+
+    private static Object copyArray(Object array) {
+        if (array == null) {
+            return null;
+        } else if (array instanceof Object[]) {
+            return ((Object[]) array).clone();
+        } else if (array instanceof int[]) {
+            return ((int[]) array).clone();
+        } else if (array instanceof long[]) {
+            return ((long[]) array).clone();
+        } else if (array instanceof double[]) {
+            return ((double[]) array).clone();
+        } else if (array instanceof byte[]) {
+            return ((byte[]) array).clone();
+        } else if (array instanceof char[]) {
+            return ((char[]) array).clone();
+        } else if (array instanceof float[]) {
+            return ((float[]) array).clone();
+        } else if (array instanceof short[]) {
+            return ((short[]) array).clone();
+        } else {
+            return ((boolean[]) array).clone();
+        }
+    }
+
+    /**
+     * The copy code of a class: a nullary constructor and a handle per field, which copies the
+     * field from the source to the new object.
+     */
+    private static final class Plan {
+
+        static final Plan UNSUPPORTED = new Plan(null, null);
+
+        private static final MethodHandle COPY_NESTED;
+        private static final MethodHandle COPY_WITH_KRYO;
+        private static final MethodHandle COPY_ARRAY;
+
+        static {
+            try {
+                COPY_NESTED = LOOKUP.findStatic(MethodHandleCopier.class, "copyNested",
+                    MethodType.methodType(Object.class, Plan.class, Class.class, KryoPool.class,
+                        Object.class));
+                COPY_WITH_KRYO = LOOKUP.findStatic(MethodHandleCopier.class, "copyWithKryo",
+                    MethodType.methodType(Object.class, KryoPool.class, Object.class));
+                COPY_ARRAY = LOOKUP.findStatic(MethodHandleCopier.class, "copyArray", VALUE_COPY);
+            } catch (ReflectiveOperationException ex) {
+                throw new ExceptionInInitializerError(ex);
+            }
+        }
+
+        private final MethodHandle constructor;
+        private final MethodHandle[] fields;
+
+        private Plan(MethodHandle constructor, MethodHandle[] fields) {
+            this.constructor = constructor;
+            this.fields = fields;
+        }
+
+        Object copy(Object source) throws Throwable {
+            Object copy = (Object) constructor.invokeExact();
+            for (MethodHandle field : fields) {
+                field.invokeExact(source, copy);
+            }
+            return copy;
+        }
+
+        /**
+         * Puts together the copy code of the class, or returns {@link #UNSUPPORTED} if the class
+         * cannot be copied field by field. The classes on the path are the ones whose copy code
+         * is being put together, which are copied with Kryo when they show up again.
+         */
+        static Plan of(Class<?> type, Deque<Class<?>> path, KryoPool pool) {
+            if (!isCopyable(type) || path.contains(type)) {
+                return UNSUPPORTED;
+            }
+            path.push(type);
+            try {
+                Constructor<?> ctor = type.getDeclaredConstructor();
+                ctor.setAccessible(true);
+                MethodHandle constructor = LOOKUP.unreflectConstructor(ctor)
+                    .asType(MethodType.methodType(Object.class));
+                List<MethodHandle> fields = new ArrayList<>();
+                for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                    if (!isCopyable(c)) {
+                        return UNSUPPORTED;
+                    }
+                    for (Field field : c.getDeclaredFields()) {
+                        if (!Modifier.isStatic(field.getModifiers())) {
+                            fields.add(fieldCopy(field, path, pool));
+                        }
+                    }
+                }
+                return new Plan(constructor, fields.toArray(new MethodHandle[0]));
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                log.debug("Class {} cannot be copied field by field", type.getName(), ex);
+                return UNSUPPORTED;
+            } finally {
+                path.pop();
+            }
+        }
+
+        private static boolean isCopyable(Class<?> type) {
+            String name = type.getName();
+            return !type.isInterface() && !type.isArray() && !type.isPrimitive()
+                && !Modifier.isAbstract(type.getModifiers())
+                && !(type.isMemberClass() && !Modifier.isStatic(type.getModifiers()))
+                && !name.startsWith("java.") && !name.startsWith("javax.")
+                && !name.startsWith("jdk.") && !name.startsWith("sun.");
+        }
+
+        private static MethodHandle fieldCopy(Field field, Deque<Class<?>> path, KryoPool pool)
+            throws IllegalAccessException {
+            field.setAccessible(true);
+            Class<?> owner = field.getDeclaringClass();
+            Class<?> type = field.getType();
+            MethodHandle getter = LOOKUP.unreflectGetter(field);
+            MethodHandle setter = LOOKUP.unreflectSetter(field);
+
+            MethodHandle valueCopy = valueCopy(type, path, pool);
+            if (valueCopy != null) {
+                getter = MethodHandles.filterReturnValue(
+                    getter.asType(MethodType.methodType(Object.class, owner)), valueCopy)
+                    .asType(getter.type());
+            }
+            // (copy, source) -> copy.field = valueCopy(source.field), with the arguments swapped.
+            MethodHandle copy = MethodHandles.filterArguments(setter, 1, getter);
+            return MethodHandles.permuteArguments(copy,
+                MethodType.methodType(void.class, owner, owner), 1, 0).asType(FIELD_COPY);
+        }
+
+        /**
+         * Returns the handle which copies a value of the given type, or {@literal null} if the
+         * value is passed as is.
+         */
+        private static MethodHandle valueCopy(Class<?> type, Deque<Class<?>> path, KryoPool pool) {
+            if (type.isPrimitive() || Immutables.isImmutable(type)) {
+                return null;
+            }
+            if (type.isArray()) {
+                Class<?> component = type.getComponentType();
+                if (component.isPrimitive() || Immutables.isImmutable(component)) {
+                    return COPY_ARRAY;
+                }
+                return MethodHandles.insertArguments(COPY_WITH_KRYO, 0, pool);
+            }
+            Plan nested = of(type, path, pool);
+            if (nested == UNSUPPORTED) {
+                return MethodHandles.insertArguments(COPY_WITH_KRYO, 0, pool);
+            }
+            return MethodHandles.insertArguments(COPY_NESTED, 0, nested, type, pool);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.daichim.jach.channel.copier;
+
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.KryoException;
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.exception.CopyException;
+
+/**
+ * {@link PooledKryoCopier} does a deep copy of the object with a {@link Kryo} instance borrowed
+ * from a {@link KryoPool}, so that any number of writers can copy concurrently. It is cheap to
+ * create, since the {@link Kryo} instances and their class registrations are shared by all the
+ * copiers of the pool. This is the default {@link Copier} of JaCh.
+ */
+public class PooledKryoCopier<T> implements Copier<T> {
+
+    private final KryoPool pool;
+
+    /**
+     * Initializes a {@link PooledKryoCopier} on the {@link KryoPool#shared()} pool.
+     *
+     * @param clazz The type of the messages, which gets registered with the pool.
+     */
+    public PooledKryoCopier(Class<T> clazz) {
+        this(clazz, KryoPool.shared());
+    }
+
+    /**
+     * Initializes a {@link PooledKryoCopier} on the given {@link KryoPool}.
+     *
+     * @param clazz The type of the messages, which gets registered with the pool.
+     * @param pool  The {@link KryoPool} to borrow the {@link Kryo} instances from.
+     */
+    public PooledKryoCopier(Class<T> clazz, KryoPool pool) {
+        this.pool = Preconditions.checkNotNull(pool);
+        this.pool.register(clazz);
+    }
+
+    /**
+     * @see Copier#copyOf(Object)
+     */
+    @Override
+    public T copyOf(T message) throws CopyException {
+        Kryo kryo = pool.obtain();
+        try {
+            return kryo.copy(message);
+        } catch (KryoException ex) {
+            throw new CopyException("Error in deep copying object using Kryo", ex);
+        } finally {
+            pool.free(kryo);
+        }
+    }
+}
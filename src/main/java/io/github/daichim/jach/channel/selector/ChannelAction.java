@@ -1,7 +1,7 @@
 package io.github.daichim.jach.channel.selector;
 
+import com.google.common.base.Preconditions;
 import io.github.daichim.jach.channel.Channel;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 import java.util.function.Consumer;
@@ -9,10 +9,62 @@ import java.util.function.Consumer;
 /**
  * {@link ChannelAction} is a combination of a {@link Channel} and a {@link Consumer} that will be
  * executed on each message of the channel.
+ * <p>
+ * A {@link ChannelAction} with a message is a send case instead: it completes once the message is
+ * written to the channel, and the {@link Consumer} is executed on the message that was sent.
  */
 @Getter
-@AllArgsConstructor
 public class ChannelAction<T> {
     Channel<T> channel;
     Consumer<T> action;
+    // The message to write for a send case, null for a receive case.
+    T message;
+    // Only used by a selector with the WEIGHTED selection policy.
+    int weight;
+
+    public ChannelAction(Channel<T> channel, Consumer<T> action) {
+        this(channel, action, null);
+    }
+
+    public ChannelAction(Channel<T> channel, Consumer<T> action, T message) {
+        this(channel, action, message, 1);
+    }
+
+    /**
+     * Creates a {@link ChannelAction} with the given weight, for a {@link Selector} with the {@link
+     * SelectionPolicy#WEIGHTED} policy.
+     *
+     * @param channel The channel of the case.
+     * @param action  The action executed on the message.
+     * @param message The message to write for a send case, {@literal null} for a receive case.
+     * @param weight  The positive weight of the case.
+     */
+    public ChannelAction(Channel<T> channel, Consumer<T> action, T message, int weight) {
+        Preconditions.checkArgument(weight > 0, "Weight must be positive");
+        this.channel = channel;
+        this.action = action;
+        this.message = message;
+        this.weight = weight;
+    }
+
+    /**
+     * Returns {@literal true} if this is a send case, i.e. it writes its message to the channel.
+     *
+     * @return {@literal true} for a send case, {@literal false} for a receive case.
+     */
+    public boolean isSend() {
+        return message != null;
+    }
+
+    /**
+     * Returns a copy of this {@link ChannelAction} with the given weight, for a {@link Selector}
+     * with the {@link SelectionPolicy#WEIGHTED} policy. The default weight is 1.
+     *
+     * @param weight The positive weight of the case.
+     *
+     * @return A new {@link ChannelAction} with the given weight.
+     */
+    public ChannelAction<T> withWeight(int weight) {
+        return new ChannelAction<>(channel, action, message, weight);
+    }
 }
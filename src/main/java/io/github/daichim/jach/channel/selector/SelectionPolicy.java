@@ -0,0 +1,29 @@
+package io.github.daichim.jach.channel.selector;
+
+/**
+ * {@link SelectionPolicy} decides in which order a {@link Selector} polls its cases, i.e. which case
+ * completes when several of them are ready at the same time.
+ */
+public enum SelectionPolicy {
+
+    /**
+     * The cases are polled in a new pseudo-random order on every select, like in golang, so that
+     * every ready case has the same chance of being selected and a busy channel cannot starve the
+     * others. This is the default.
+     */
+    RANDOM,
+
+    /**
+     * The cases are polled in the order they were given to the {@link Selector}, so a ready case
+     * always wins over the ready cases after it. This is useful to always check a control channel
+     * (e.g. {@code done}) first, but a busy channel starves the channels after it.
+     */
+    PRIORITY,
+
+    /**
+     * Like {@link #RANDOM}, except that the first case to poll is picked with a probability
+     * proportional to the weight of the case (see {@link ChannelAction#withWeight(int)}). When all
+     * the cases are ready, each of them is selected in proportion to its weight.
+     */
+    WEIGHTED
+}
@@ -3,23 +3,17 @@ package io.github.daichim.jach.channel.selector;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import io.github.daichim.jach.channel.Action;
-import io.github.daichim.jach.channel.BufferedChannel;
 import io.github.daichim.jach.channel.Channel;
-import io.github.daichim.jach.channel.copier.RefCopier;
 import io.github.daichim.jach.exception.ClosedChannelException;
 import io.github.daichim.jach.exception.NoSuchChannelElementException;
-import io.github.daichim.jach.exception.TooManySelectorException;
-import io.github.daichim.jach.internal.AfterWriteAction;
+import io.github.daichim.jach.internal.FlightEvents;
+import io.github.daichim.jach.internal.SelectWaiter;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Queue;
-import java.util.Set;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Consumer;
 
 /**
@@ -54,6 +48,23 @@ import java.util.function.Consumer;
  * Two predefined {@link Consumer} instances are present in this class, BREAK_ACTION and
  * CONTINUE_ACTION. The objects can be used in the looping methods as a drop-in replacement for
  * break and continue respectively.
+ * <p>
+ * Besides receive cases, a {@link Selector} can have send cases (see {@link
+ * io.github.daichim.jach.JachChannels#selectCase(Channel, Object, Consumer)}), which complete once
+ * their message is written to the channel, like {@code case out <- v:} in golang. A send case
+ * writes the same message every time it is selected.
+ * <p>
+ * A select works like Go's {@code selectgo}: the channels are polled in the order given by the
+ * {@link SelectionPolicy} of the {@link Selector} (a pseudo-random order by default) and the first
+ * case that can complete, does. If none of them can, the selecting
+ * thread enqueues a waiter on every channel, polls them once more and parks until any of the
+ * channels signals it. A channel which gets closed is dropped from the {@link Selector} once all
+ * its messages have been taken (right away for a send case), and the {@link Selector} closes itself
+ * when no channel is left.
+ * <p>
+ * As a select only ever tries its cases, a send case on an {@link
+ * io.github.daichim.jach.channel.UnbufferedChannel} can only complete with a reader that waits in
+ * {@code read}, not with another {@link Selector}.
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 @Slf4j
@@ -71,29 +82,36 @@ public class Selector implements AutoCloseable {
      */
     public static final Consumer CONTINUE_ACTION = (x) -> {};
 
-    private static final int CHAN_SIZE = 2048;
-    private static final String CLOSE_CHAN_PREFIX = "__CLOSE__";
-    private static final String EMPTY = "";
-    private final Queue<String> backfillQueue;
-    private final Set<String> cleanupSet;
-    private Map<String, ChannelAction> channelActions;
-    private Channel<String> selectorChannel;
+    private static final ChannelAction[] NO_CASES = new ChannelAction[0];
+
+    private static final AtomicReferenceFieldUpdater<Selector, ChannelAction[]> CASES =
+        AtomicReferenceFieldUpdater.newUpdater(Selector.class, ChannelAction[].class, "cases");
+
+    // The poll order of the current select. A select does not run any action before it is done
+    // with the order, so a nested select on the same thread can reuse the array.
+    private static final ThreadLocal<int[]> ORDER = ThreadLocal.withInitial(() -> new int[8]);
+
+    private final SelectionPolicy policy;
+    // Replaced as a whole whenever a closed channel gets dropped.
+    private volatile ChannelAction[] cases;
 
     @Getter
     private volatile boolean active;
 
     @VisibleForTesting
     public Selector() {
-        this.backfillQueue = new LinkedBlockingQueue<>();
-        this.cleanupSet = Collections.synchronizedSet(new HashSet<String>());
-        this.channelActions = new HashMap<>();
-        this.selectorChannel =
-            new BufferedChannel<>(CHAN_SIZE, String.class, new RefCopier<>());
+        this(SelectionPolicy.RANDOM);
+    }
+
+    private Selector(SelectionPolicy policy) {
+        this.policy = policy;
+        this.cases = NO_CASES;
         this.active = true;
     }
 
     /**
-     * Creates a new {@link Selector} from the given set of {@link ChannelAction}s.
+     * Creates a new {@link Selector} from the given set of {@link ChannelAction}s, which selects
+     * among the ready cases at random ({@link SelectionPolicy#RANDOM}).
      *
      * @param actions The list of {@link ChannelAction}s that this {@link Selector} would select
      *                from.
@@ -101,98 +119,52 @@ public class Selector implements AutoCloseable {
      * @return A new {@link Selector} object.
      */
     public static Selector of(ChannelAction... actions)
-        throws TooManySelectorException, NullPointerException {
+        throws NullPointerException {
+        return of(SelectionPolicy.RANDOM, actions);
+    }
+
+    /**
+     * Creates a new {@link Selector} from the given set of {@link ChannelAction}s, which selects
+     * among the ready cases according to the given {@link SelectionPolicy}.
+     *
+     * @param policy  The {@link SelectionPolicy} that decides the order in which the cases are
+     *                polled.
+     * @param actions The list of {@link ChannelAction}s that this {@link Selector} would select
+     *                from.
+     *
+     * @return A new {@link Selector} object.
+     */
+    public static Selector of(SelectionPolicy policy, ChannelAction... actions)
+        throws NullPointerException {
 
-        Selector selector = new Selector();
+        Selector selector = new Selector(Preconditions.checkNotNull(policy));
         for (ChannelAction ca : actions) {
             Preconditions.checkNotNull(ca.getChannel());
             Preconditions.checkNotNull(ca.getAction());
             Preconditions.checkState(ca.getChannel().isOpen());
-            selector.channelActions.put(ca.getChannel().getId(), ca);
-            ca.getChannel().registerAfterWriteAction(selector.createAFW(ca));
         }
+        selector.cases = actions.clone();
         return selector;
     }
 
-    private AfterWriteAction createAFW(ChannelAction ca) {
-        return new AfterWriteAction() {
-
-            @Override
-            public void onWrite() {
-                String id = ca.getChannel().getId();
-                boolean success = selectorChannel.tryWrite(id);
-                if (!success) {
-                    selectorChannel.tryRead();
-                    success = selectorChannel.tryWrite(id);
-                    if (!success) {
-                        log.warn("Unable to write to selector queue. Selectors won't work");
-                    }
-                    log.warn("Messages getting dropped since no thread is reading selector");
-                }
-            }
-
-            @Override
-            public void close() {
-                String id = ca.getChannel().getId();
-                boolean success = selectorChannel.tryWrite(CLOSE_CHAN_PREFIX + id);
-                log.debug("Close message for channel {} written", id);
-                if (!success) {
-                    selectorChannel.tryRead();
-                    success = selectorChannel.tryWrite(CLOSE_CHAN_PREFIX + id);
-                    if (!success) {
-                        log.warn("Unable to write to selector queue. Selectors won't work");
-                    }
-                    log.warn("Messages getting dropped since no thread is reading selector");
-                }
-            }
-        };
-    }
-
-
     /**
      * Waits for a message to be recieved on any of the channels associated with the {@link
-     * ChannelAction}s of this {@link Selector} and execute the action corresponding to that
-     * channel.
+     * ChannelAction}s of this {@link Selector} (or for the message of a send case to be written)
+     * and execute the action corresponding to that channel. In case a channel turns out to be
+     * closed instead, it is removed from the {@link Selector} and the method returns without
+     * executing any action.
      *
-     * @throws IllegalStateException If there is an issue with the {@link Selector} (selector's
-     *                               internal channel is closed, or there is a null channel or
-     *                               action registered with the selector). Generally these scenarios
-     *                               should not occur.
+     * @throws IllegalStateException If the {@link Selector} is closed, or the thread is interrupted
+     *                               while waiting for a message.
      */
     public void select() throws IllegalStateException {
-        try {
-            if (!this.isActive()) {
-                throw new IllegalStateException("Selector is closed");
-            }
-            String chanId = this.selectorChannel.read();
-            if (chanId.startsWith(CLOSE_CHAN_PREFIX)) {
-                closeChannel(chanId.replace(CLOSE_CHAN_PREFIX, EMPTY));
-                return;
-            }
-
-            ChannelAction chan = this.channelActions.get(chanId);
-            Preconditions.checkNotNull(chan);
-            Preconditions.checkNotNull(chan.getChannel());
-            Preconditions.checkNotNull(chan.getAction());
-
-            Object msg = chan.getChannel().tryRead();
-            if (msg == null) {
-                // Some other thread has already read in the message. Let's go into select again.
-                this.select();
-            }
-            if (chan.getAction() == BREAK_ACTION) {
-                return;
-            } else if (chan.getAction() == CONTINUE_ACTION) {
-                this.select();
-            } else {
-                chan.getAction().accept(msg);
-            }
-        } catch (ClosedChannelException |
-            NoSuchChannelElementException |
-            NullPointerException ex) {
-
-            throw new IllegalStateException(ex);
+        if (!this.isActive()) {
+            throw new IllegalStateException("Selector is closed");
         }
+        Outcome outcome;
+        do {
+            outcome = selectOnce(true);
+        } while (outcome == Outcome.CONTINUE && this.isActive());
     }
 
     /**
@@ -200,7 +172,8 @@ public class Selector implements AutoCloseable {
      * and when a message is received on that channel. The loop breaks when all the channels are
      * closed or BREAK_ACTION is called on receiving message on any channel.
      *
-     * @throws IllegalStateException In case of an issue with the internal state.
+     * @throws IllegalStateException If the {@link Selector} is closed, or the thread is interrupted
+     *                               while waiting for a message.
      */
     public void untilDone() throws IllegalStateException {
 
@@ -209,32 +182,8 @@ public class Selector implements AutoCloseable {
         }
 
         while (this.isActive()) {
-            try {
-                String chanId = this.selectorChannel.read();
-                if (chanId.startsWith(CLOSE_CHAN_PREFIX)) {
-                    closeChannel(chanId.replace(CLOSE_CHAN_PREFIX, EMPTY));
-                    continue;
-                }
-                ChannelAction ca = this.channelActions.get(chanId);
-                Preconditions.checkNotNull(ca);
-                Preconditions.checkNotNull(ca.getChannel());
-                Preconditions.checkNotNull(ca.getAction());
-
-                Object msg = ca.getChannel().tryRead();
-                if (msg == null) {
-                    continue;
-                } else if (ca.getAction() == BREAK_ACTION) {
-                    this.close();
-                    break;
-                } else if (ca.getAction() == CONTINUE_ACTION) {
-                    continue;
-                } else {
-                    ca.getAction().accept(msg);
-                }
-            } catch (NullPointerException ex) {
-                throw new IllegalStateException(ex);
-            } catch (NoSuchChannelElementException | ClosedChannelException ex) {
-                log.warn("Unexpected channel exception - {}", ex.getMessage());
+            if (selectOnce(true) == Outcome.BREAK) {
+                this.close();
             }
         }
     }
@@ -248,7 +197,7 @@ public class Selector implements AutoCloseable {
      * @param defaultAction The default action to run when there is no message in any of the
      *                      channels associated with this selector.
      *
-     * @throws IllegalStateException If the internal state has issues.
+     * @throws IllegalStateException If the {@link Selector} is closed.
      */
     public void untilOrDefault(Action defaultAction) throws IllegalStateException {
 
@@ -257,47 +206,150 @@ public class Selector implements AutoCloseable {
         }
 
         while (this.isActive()) {
-            try {
-                String chanId = this.selectorChannel.tryRead();
-                if (chanId == null) {
-                    defaultAction.accept(null);
-                    continue;
+            Outcome outcome = selectOnce(false);
+            if (outcome == Outcome.NONE) {
+                defaultAction.accept(null);
+            } else if (outcome == Outcome.BREAK) {
+                this.close();
+            }
+        }
+    }
+
+    /**
+     * Completes the first case that can, i.e. takes a message from a receive case or writes the
+     * message of a send case, and runs its action. If blocking, waits for any of the cases to become
+     * ready, otherwise returns {@link Outcome#NONE} when none is.
+     */
+    private Outcome selectOnce(boolean block) {
+        ChannelAction[] cs = this.cases;
+        if (cs.length == 0) {
+            this.close();
+            return Outcome.CLOSED;
+        }
+        int[] order = pollOrder(cs);
+        SelectWaiter waiter = null;
+        Object event = null;
+        while (true) {
+            for (int k = 0; k < cs.length; k++) {
+                int i = order[k];
+                ChannelAction ca = cs[i];
+                Object msg;
+                try {
+                    if (ca.isSend()) {
+                        msg = ca.getChannel().tryWrite(ca.getMessage()) ? ca.getMessage() : null;
+                    } else {
+                        msg = ca.getChannel().tryRead();
+                    }
+                } catch (NoSuchChannelElementException | ClosedChannelException ex) {
+                    release(waiter, i);
+                    FlightEvents.INSTANCE.endSelect(event, ca.getChannel(), ca.isSend(), cs.length);
+                    removeCase(ca);
+                    return Outcome.CLOSED;
                 }
-                if (chanId.startsWith(CLOSE_CHAN_PREFIX)) {
-                    closeChannel(chanId.replace(CLOSE_CHAN_PREFIX, EMPTY));
-                    continue;
+                if (msg != null) {
+                    release(waiter, i);
+                    FlightEvents.INSTANCE.endSelect(event, ca.getChannel(), ca.isSend(), cs.length);
+                    return dispatch(ca, msg);
                 }
-                ChannelAction ca = this.channelActions.get(chanId);
-                Preconditions.checkNotNull(ca);
-                Preconditions.checkNotNull(ca.getChannel());
-                Preconditions.checkNotNull(ca.getAction());
-
-                Object msg = ca.getChannel().tryRead();
-                if (msg == null) {
-                    defaultAction.accept(null);
-                    continue;
-                } else if (ca.getAction() == BREAK_ACTION) {
-                    this.close();
-                    break;
-                } else if (ca.getAction() == CONTINUE_ACTION) {
-                    continue;
-                } else {
-                    ca.getAction().accept(msg);
+            }
+            if (!block) {
+                return Outcome.NONE;
+            }
+            if (waiter == null || !waiter.isWaiting()) {
+                // Enqueue on all the channels, then poll them once more before parking, so that a
+                // message written in between is not missed.
+                waiter = new SelectWaiter(cs.length);
+                if (event == null) {
+                    event = FlightEvents.INSTANCE.beginSelect();
+                }
+                for (int i = 0; i < cs.length; i++) {
+                    if (cs[i].isSend()) {
+                        cs[i].getChannel().enqueueWriteWaiter(waiter.forCase(i));
+                    } else {
+                        cs[i].getChannel().enqueueReadWaiter(waiter.forCase(i));
+                    }
                 }
-            } catch (NullPointerException ex) {
-                throw new IllegalStateException(ex);
-            } catch (NoSuchChannelElementException | ClosedChannelException ex) {
-                log.warn("Unexpected channel exception - {}", ex.getMessage());
+            } else if (waiter.await(false, 0L) < 0) {
+                throw new IllegalStateException("Interrupted while waiting on the selector");
             }
         }
     }
 
-    private void closeChannel(String channel) {
-        this.channelActions.remove(channel);
-        if (this.channelActions.isEmpty()) {
+    /**
+     * Returns the order in which the cases are polled, as indexes into {@code cs}. For the random
+     * policies, this is a Fisher-Yates shuffle with a thread-local PRNG, and the weighted policy
+     * picks the first case by weight before shuffling the rest.
+     */
+    private int[] pollOrder(ChannelAction[] cs) {
+        int n = cs.length;
+        int[] order = ORDER.get();
+        if (order.length < n) {
+            order = new int[n];
+            ORDER.set(order);
+        }
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        if (policy == SelectionPolicy.PRIORITY || n == 1) {
+            return order;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = 0;
+        if (policy == SelectionPolicy.WEIGHTED) {
+            long total = 0;
+            for (ChannelAction ca : cs) {
+                total += ca.getWeight();
+            }
+            long pick = random.nextLong(total);
+            int first = 0;
+            while ((pick -= cs[first].getWeight()) >= 0) {
+                first++;
+            }
+            order[0] = first;
+            order[first] = 0;
+            from = 1;
+        }
+        for (int i = n - 1; i > from; i--) {
+            int j = from + random.nextInt(i - from + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+
+    private static void release(SelectWaiter waiter, int completed) {
+        if (waiter != null) {
+            waiter.release(completed);
+        }
+    }
+
+    private static Outcome dispatch(ChannelAction ca, Object msg) {
+        if (ca.getAction() == BREAK_ACTION) {
+            return Outcome.BREAK;
+        } else if (ca.getAction() == CONTINUE_ACTION) {
+            return Outcome.CONTINUE;
+        }
+        ca.getAction().accept(msg);
+        return Outcome.ACTION;
+    }
+
+    private void removeCase(ChannelAction ca) {
+        ChannelAction[] cs;
+        ChannelAction[] remaining;
+        do {
+            cs = this.cases;
+            remaining = Arrays.stream(cs)
+                .filter(c -> c != ca)
+                .toArray(ChannelAction[]::new);
+            if (remaining.length == cs.length) {
+                return;
+            }
+        } while (!CASES.compareAndSet(this, cs, remaining));
+        if (remaining.length == 0) {
             close();
         }
-        log.debug("Channel removed: {}", channel);
+        log.debug("Channel removed: {}", ca.getChannel().getId());
     }
 
     /**
@@ -307,4 +359,11 @@ public class Selector implements AutoCloseable {
     public void close() {
         this.active = false;
     }
+
+    /**
+     * The result of a single select.
+     */
+    private enum Outcome {
+        ACTION, BREAK, CONTINUE, CLOSED, NONE
+    }
 }
@@ -8,7 +8,10 @@ import io.github.daichim.jach.channel.selector.Selector;
  * Channel} is used in too many
  * {@link Selector}s
  * and the system cannot sustain it.
+ *
+ * @deprecated No longer thrown, a {@link Channel} can be used in any number of {@link Selector}s.
  */
+@Deprecated
 public class TooManySelectorException extends RuntimeException {
 
     private static final long serialVersionUID = 3055385757957172482L;
@@ -11,4 +11,15 @@ public interface AfterWriteAction extends AutoCloseable {
 
     void onWrite();
 
+    /**
+     * Invoked once after a batch of {@code count} messages got written at once. By default, it
+     * calls {@link #onWrite()} once for the whole batch, so that a batch sends a single
+     * notification. An action which needs to account for every message must override it.
+     *
+     * @param count The number of messages written.
+     */
+    default void onWrite(int count) {
+        onWrite();
+    }
+
 }
@@ -0,0 +1,124 @@
+package io.github.daichim.jach.internal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * {@link AfterWriteActions} is the registry of the {@link AfterWriteAction}s of a channel. It is a
+ * copy-on-write array: registering or deregistering an action swaps in a new array with a CAS, so
+ * there is no limit on the number of actions and a write never takes a lock to notify them. When no
+ * action is registered, notifying is a single volatile read.
+ * <p>
+ * **NB:** This class is for internal use only.
+ */
+@Slf4j
+public class AfterWriteActions {
+
+    private static final AfterWriteAction[] NONE = new AfterWriteAction[0];
+
+    private static final AtomicReferenceFieldUpdater<AfterWriteActions, AfterWriteAction[]> ACTIONS =
+        AtomicReferenceFieldUpdater.newUpdater(
+            AfterWriteActions.class, AfterWriteAction[].class, "actions");
+
+    private volatile AfterWriteAction[] actions;
+
+    public AfterWriteActions() {
+        this.actions = NONE;
+    }
+
+    /**
+     * Registers an {@link AfterWriteAction}, which is invoked after every write from then on.
+     *
+     * @param afw The {@link AfterWriteAction} to register.
+     */
+    public void add(AfterWriteAction afw) {
+        AfterWriteAction[] prev;
+        AfterWriteAction[] next;
+        do {
+            prev = actions;
+            next = new AfterWriteAction[prev.length + 1];
+            System.arraycopy(prev, 0, next, 0, prev.length);
+            next[prev.length] = afw;
+        } while (!ACTIONS.compareAndSet(this, prev, next));
+    }
+
+    /**
+     * Deregisters an {@link AfterWriteAction}. A write which is already notifying the actions might
+     * still invoke it once.
+     *
+     * @param afw The {@link AfterWriteAction} to deregister.
+     *
+     * @return {@literal true} if the action was registered.
+     */
+    public boolean remove(AfterWriteAction afw) {
+        AfterWriteAction[] prev;
+        AfterWriteAction[] next;
+        do {
+            prev = actions;
+            int idx = indexOf(prev, afw);
+            if (idx < 0) {
+                return false;
+            }
+            next = (prev.length == 1) ? NONE : new AfterWriteAction[prev.length - 1];
+            System.arraycopy(prev, 0, next, 0, idx);
+            System.arraycopy(prev, idx + 1, next, idx, prev.length - idx - 1);
+        } while (!ACTIONS.compareAndSet(this, prev, next));
+        return true;
+    }
+
+    private static int indexOf(AfterWriteAction[] arr, AfterWriteAction afw) {
+        for (int i = 0; i < arr.length; i++) {
+            if (arr[i] == afw) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of registered actions.
+     *
+     * @return The number of registered actions.
+     */
+    public int size() {
+        return actions.length;
+    }
+
+    /**
+     * Invokes {@link AfterWriteAction#onWrite()} on all the registered actions.
+     */
+    public void onWrite() {
+        AfterWriteAction[] arr = actions;
+        for (int i = 0; i < arr.length; i++) {
+            arr[i].onWrite();
+        }
+    }
+
+    /**
+     * Invokes {@link AfterWriteAction#onWrite(int)} on all the registered actions, after a batch of
+     * {@code count} messages got written.
+     *
+     * @param count The number of messages written.
+     */
+    public void onWrite(int count) {
+        AfterWriteAction[] arr = actions;
+        for (int i = 0; i < arr.length; i++) {
+            arr[i].onWrite(count);
+        }
+    }
+
+    /**
+     * Deregisters and closes all the registered actions, when the channel gets closed. Errors in
+     * closing an action are logged and do not stop the others from being closed.
+     */
+    public void close() {
+        for (AfterWriteAction afw : ACTIONS.getAndSet(this, NONE)) {
+            try {
+                afw.close();
+            } catch (Exception e) {
+                log.warn("Error in closing AfterWriteAction", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.daichim.jach.internal;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link Blocking} parks the threads that block on a channel. A thread of a {@link ForkJoinPool}
+ * parks through a {@link ForkJoinPool.ManagedBlocker}, so that the pool can start or activate a
+ * spare thread while it is blocked and the routines left in its queues do not starve. Any other
+ * thread, including a virtual thread, is parked with {@link LockSupport} directly.
+ * <p>
+ * **NB:** This class is for internal use only.
+ */
+public final class Blocking {
+
+    private Blocking() {
+    }
+
+    /**
+     * A worker thread which wants to know when it blocks on a channel, e.g. to keep count of the
+     * blocked routines.
+     */
+    public interface Listener {
+
+        /**
+         * Called by the thread itself right before it parks.
+         */
+        void onBlock();
+
+        /**
+         * Called by the thread itself right after it got unparked.
+         */
+        void onUnblock();
+    }
+
+    /**
+     * Parks the current thread once, like {@link LockSupport#park(Object)} or {@link
+     * LockSupport#parkNanos(Object, long)}. As for those, the thread may return spuriously, so the
+     * caller has to re-check its condition in a loop.
+     *
+     * @param blocker The object responsible for the parking.
+     * @param timed   Whether the park is bounded by {@code nanos}.
+     * @param nanos   The maximum number of nanoseconds to park, ignored if not timed.
+     */
+    public static void park(Object blocker, boolean timed, long nanos) {
+        Thread thread = Thread.currentThread();
+        if (!(thread instanceof ForkJoinWorkerThread)) {
+            parkOnce(blocker, timed, nanos);
+            return;
+        }
+        Listener listener = (thread instanceof Listener) ? (Listener) thread : null;
+        if (listener != null) {
+            listener.onBlock();
+        }
+        try {
+            ForkJoinPool.managedBlock(new Park(blocker, timed, nanos));
+        } catch (InterruptedException ex) {
+            thread.interrupt();
+        } finally {
+            if (listener != null) {
+                listener.onUnblock();
+            }
+        }
+    }
+
+    private static void parkOnce(Object blocker, boolean timed, long nanos) {
+        if (timed) {
+            LockSupport.parkNanos(blocker, nanos);
+        } else {
+            LockSupport.park(blocker);
+        }
+    }
+
+    /**
+     * A {@link ForkJoinPool.ManagedBlocker} which parks once. The owner re-checks its own
+     * condition after every park, the pool only needs to know that the thread is about to block.
+     */
+    private static final class Park implements ForkJoinPool.ManagedBlocker {
+
+        private final Object blocker;
+        private final boolean timed;
+        private final long nanos;
+        private boolean parked;
+
+        Park(Object blocker, boolean timed, long nanos) {
+            this.blocker = blocker;
+            this.timed = timed;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public boolean block() {
+            parkOnce(blocker, timed, nanos);
+            parked = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return parked;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package io.github.daichim.jach.internal;
 
-import io.github.daichim.jach.channel.BufferedChannel;
+import io.github.daichim.jach.channel.Channel;
 import io.github.daichim.jach.exception.ClosedChannelException;
 import io.github.daichim.jach.exception.NoSuchChannelElementException;
 
@@ -9,16 +9,16 @@ import java.util.NoSuchElementException;
 import java.util.function.Consumer;
 
 /**
- * An {@link Iterator} for {@link BufferedChannel}. It is a blocking iterator, where if there is no
+ * An {@link Iterator} for a {@link Channel}. It is a blocking iterator, where if there is no
  * message on the channel, the iterator will block until a new message is read in that thread or the
  * channel is closed.
  */
 public class ChannelIterator<T> implements Iterator<T> {
 
-    private final BufferedChannel<T> parentChannel;
+    private final Channel<T> parentChannel;
     private volatile boolean done;
 
-    public ChannelIterator(BufferedChannel<T> parentChannel) {
+    public ChannelIterator(Channel<T> parentChannel) {
         this.parentChannel = parentChannel;
         this.done = false;
     }
@@ -31,7 +31,7 @@ public class ChannelIterator<T> implements Iterator<T> {
      *     otherwise.
      */
     @Override
-    synchronized public boolean hasNext() {
+    public boolean hasNext() {
         return !this.done || parentChannel.canRead();
     }
 
@@ -90,7 +90,7 @@ public class ChannelIterator<T> implements Iterator<T> {
     /**
      * Mark the iterator as done (i.e., the underlying channel has been closed).
      */
-    synchronized public void markDone() {
+    public void markDone() {
         this.done = true;
     }
 }
@@ -0,0 +1,323 @@
+package io.github.daichim.jach.internal;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link DualQueue} is a lock-free, zero capacity exchange between writers and readers. It is the
+ * dual queue of Scherer, Lea and Scott, which also backs the fair mode of {@link
+ * java.util.concurrent.SynchronousQueue}: the queue only ever holds waiting threads of one kind,
+ * either writers with their message (data nodes) or readers waiting for a message (request nodes).
+ * A thread which finds a waiting thread of the other kind at the head of the queue completes the
+ * exchange with a single CAS on that node, otherwise it appends its own node and waits to be
+ * matched. Waiting threads spin for a short while before they park, in case their counterpart is
+ * just about to arrive.
+ * <p>
+ * Once the queue is closed, all the waiting threads are cancelled, writers and readers alike, and
+ * no thread gets enqueued any more. A writer which was still waiting at the closure does not hand
+ * its message over to a reader; only the exchanges completed before the closure succeed.
+ * <p>
+ * **NB:** This class is for internal use only.
+ *
+ * @param <E> The type of the elements exchanged through the {@link DualQueue}.
+ */
+public class DualQueue<E> {
+
+    private static final int NCPUS = Runtime.getRuntime().availableProcessors();
+    // Spinning only helps if the counterpart can run in parallel.
+    private static final int MAX_TIMED_SPINS = NCPUS < 2 ? 0 : 32;
+    private static final int MAX_UNTIMED_SPINS = MAX_TIMED_SPINS * 16;
+    // Parking for less than this is more expensive than spinning.
+    private static final long SPIN_FOR_TIMEOUT_THRESHOLD = 1000L;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<DualQueue, Node> HEAD =
+        AtomicReferenceFieldUpdater.newUpdater(DualQueue.class, Node.class, "head");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<DualQueue, Node> TAIL =
+        AtomicReferenceFieldUpdater.newUpdater(DualQueue.class, Node.class, "tail");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<DualQueue, Node> CLEAN_ME =
+        AtomicReferenceFieldUpdater.newUpdater(DualQueue.class, Node.class, "cleanMe");
+
+    private final Runnable onWriterEnqueued;
+    private final Runnable onReaderEnqueued;
+    private volatile Node head;
+    private volatile Node tail;
+    // The predecessor of a cancelled tail node, which could not be unlinked when it got cancelled.
+    private volatile Node cleanMe;
+    private volatile boolean closed;
+
+    /**
+     * @param onWriterEnqueued Invoked by a writer right after it got enqueued to wait for a
+     *                         reader, i.e. when a message becomes available to readers which do
+     *                         not wait on the queue itself.
+     * @param onReaderEnqueued Invoked by a reader right after it got enqueued to wait for a
+     *                         writer, i.e. when writers which do not wait on the queue itself can
+     *                         hand a message over.
+     */
+    public DualQueue(Runnable onWriterEnqueued, Runnable onReaderEnqueued) {
+        this.onWriterEnqueued = onWriterEnqueued;
+        this.onReaderEnqueued = onReaderEnqueued;
+        Node h = new Node(null, false);
+        this.head = h;
+        this.tail = h;
+    }
+
+    /**
+     * Hands the element over to a reader, or takes an element from a writer if {@code e} is
+     * {@literal null}.
+     *
+     * @param e     The element to hand over, or {@literal null} to take an element.
+     * @param timed Whether the wait is bounded by {@code nanos}.
+     * @param nanos The maximum time to wait, if timed. A non-positive value only completes the
+     *              exchange with an already waiting counterpart.
+     *
+     * @return The element taken (or {@code e} if it got handed over), or {@literal null} if the
+     *     exchange did not happen because of a timeout, an interrupt or the closure of the queue.
+     *     The interrupt status of the thread is left untouched.
+     */
+    @SuppressWarnings("unchecked")
+    public E transfer(E e, boolean timed, long nanos) {
+        Node s = null;
+        boolean isData = (e != null);
+
+        for (; ; ) {
+            Node t = tail;
+            Node h = head;
+            if (h == t || t.isData == isData) {
+                // Empty or same mode, so wait for a counterpart.
+                Node tn = t.next;
+                if (t != tail) {
+                    continue;
+                }
+                if (tn != null) {
+                    advanceTail(t, tn);
+                    continue;
+                }
+                if ((timed && nanos <= 0L) || closed) {
+                    return null;
+                }
+                if (s == null) {
+                    s = new Node(e, isData);
+                }
+                if (!t.casNext(null, s)) {
+                    continue;
+                }
+                advanceTail(t, s);
+                // Re-check after enqueueing, so that a close in between is not missed.
+                if (closed) {
+                    s.tryCancel(e);
+                } else if (isData && onWriterEnqueued != null) {
+                    onWriterEnqueued.run();
+                } else if (!isData && onReaderEnqueued != null) {
+                    onReaderEnqueued.run();
+                }
+
+                Object x = awaitFulfill(s, e, timed, nanos);
+                if (x == s) {
+                    clean(t, s);
+                    return null;
+                }
+                if (!s.isOffList()) {
+                    advanceHead(t, s);
+                    if (x != null) {
+                        s.item = s;
+                    }
+                    s.waiter = null;
+                }
+                return (x != null) ? (E) x : e;
+
+            } else {
+                // Complementary mode, so match the oldest waiter.
+                Node m = h.next;
+                if (t != tail || m == null || h != head) {
+                    continue;
+                }
+                Object x = m.item;
+                if (isData == (x != null) || x == m || !m.casItem(x, e)) {
+                    // Already matched or cancelled, dequeue it and retry.
+                    advanceHead(h, m);
+                    continue;
+                }
+                advanceHead(h, m);
+                LockSupport.unpark(m.waiter);
+                return (x != null) ? (E) x : e;
+            }
+        }
+    }
+
+    /**
+     * Returns {@literal true} if a reader is currently waiting for an element. This is only a
+     * snapshot, the reader might be matched or cancelled right after.
+     *
+     * @return {@literal true} if a reader is waiting for an element.
+     */
+    public boolean hasWaitingReader() {
+        Node m = head.next;
+        return m != null && !m.isData && m.item == null;
+    }
+
+    /**
+     * Closes the queue. All the waiting threads return {@literal null} from {@link
+     * #transfer(Object, boolean, long)} and no thread waits on the queue any more.
+     */
+    public void close() {
+        this.closed = true;
+        restart:
+        for (; ; ) {
+            for (Node p = head; p != null; ) {
+                Node next = p.next;
+                if (next == p) {
+                    // p got dequeued while walking, start over from the new head.
+                    continue restart;
+                }
+                if (p != head) {
+                    Object x = p.item;
+                    if (x != p && p.isData == (x != null) && p.casItem(x, p)) {
+                        LockSupport.unpark(p.waiter);
+                    }
+                }
+                p = next;
+            }
+            return;
+        }
+    }
+
+    private Object awaitFulfill(Node s, E e, boolean timed, long nanos) {
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        Thread w = Thread.currentThread();
+        int spins = (head.next == s) ? (timed ? MAX_TIMED_SPINS : MAX_UNTIMED_SPINS) : 0;
+        for (; ; ) {
+            if (w.isInterrupted()) {
+                s.tryCancel(e);
+            }
+            Object x = s.item;
+            if (x != e) {
+                return x;
+            }
+            if (timed) {
+                nanos = deadline - System.nanoTime();
+                if (nanos <= 0L) {
+                    s.tryCancel(e);
+                    continue;
+                }
+            }
+            if (spins > 0) {
+                --spins;
+            } else if (s.waiter == null) {
+                s.waiter = w;
+            } else if (!timed) {
+                Blocking.park(this, false, 0L);
+            } else if (nanos > SPIN_FOR_TIMEOUT_THRESHOLD) {
+                Blocking.park(this, true, nanos);
+            }
+        }
+    }
+
+    /**
+     * Unlinks the cancelled node {@code s} whose predecessor was {@code pred}. The last node of the
+     * queue cannot be unlinked right away, since new nodes get appended to it. Its predecessor is
+     * remembered instead and the node is unlinked by a later clean up.
+     */
+    private void clean(Node pred, Node s) {
+        s.waiter = null;
+        while (pred.next == s) {
+            Node h = head;
+            Node hn = h.next;
+            if (hn != null && hn.isCancelled()) {
+                advanceHead(h, hn);
+                continue;
+            }
+            Node t = tail;
+            if (t == h) {
+                return;
+            }
+            Node tn = t.next;
+            if (t != tail) {
+                continue;
+            }
+            if (tn != null) {
+                advanceTail(t, tn);
+                continue;
+            }
+            if (s != t) {
+                Node sn = s.next;
+                if (sn == s || pred.casNext(s, sn)) {
+                    return;
+                }
+            }
+            Node dp = cleanMe;
+            if (dp != null) {
+                // Unlink the previously saved node first.
+                Node d = dp.next;
+                Node dn;
+                if (d == null || d == dp || !d.isCancelled()
+                    || (d != t && (dn = d.next) != null && dn != d && dp.casNext(d, dn))) {
+                    CLEAN_ME.compareAndSet(this, dp, null);
+                }
+                if (dp == pred) {
+                    return;
+                }
+            } else if (CLEAN_ME.compareAndSet(this, null, pred)) {
+                return;
+            }
+        }
+    }
+
+    private void advanceHead(Node h, Node nh) {
+        if (h == head && HEAD.compareAndSet(this, h, nh)) {
+            // Self link, to mark the old head as off the list.
+            h.next = h;
+        }
+    }
+
+    private void advanceTail(Node t, Node nt) {
+        if (tail == t) {
+            TAIL.compareAndSet(this, t, nt);
+        }
+    }
+
+    /**
+     * A waiting writer (data node) or reader (request node). The item of a node is CASed exactly
+     * once: to {@literal null} (data) or the element (request) by the matching thread, or to the
+     * node itself when the node is cancelled.
+     */
+    private static final class Node {
+
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+        private static final AtomicReferenceFieldUpdater<Node, Object> ITEM =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "item");
+
+        final boolean isData;
+        volatile Node next;
+        volatile Object item;
+        volatile Thread waiter;
+
+        Node(Object item, boolean isData) {
+            this.item = item;
+            this.isData = isData;
+        }
+
+        boolean casNext(Node cmp, Node val) {
+            return next == cmp && NEXT.compareAndSet(this, cmp, val);
+        }
+
+        boolean casItem(Object cmp, Object val) {
+            return item == cmp && ITEM.compareAndSet(this, cmp, val);
+        }
+
+        void tryCancel(Object cmp) {
+            ITEM.compareAndSet(this, cmp, this);
+        }
+
+        boolean isCancelled() {
+            return item == this;
+        }
+
+        boolean isOffList() {
+            return next == this;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package io.github.daichim.jach.internal;
+
+import io.github.daichim.jach.channel.Channel;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link FlightEvents} emits the Java Flight Recorder events of JaCh on JDK 11+, while JaCh is
+ * still built for Java 8. This class does nothing: the events are emitted by a subclass which is
+ * compiled for Java 11 when JaCh is built on JDK 11+ (the {@code jfr} profile), and which is
+ * looked up by reflection once, like {@link VirtualThreads} looks up the virtual threads. On older
+ * runtimes, on a build without it, or with the {@code jach.jfr} system property set to {@literal
+ * false}, {@link #INSTANCE} is this no-op implementation.
+ * <p>
+ * The timed events are begun with a {@code begin...()} method, which returns {@literal null}
+ * unless a recording has the event enabled, and ended with the matching {@code end...()}, which
+ * commits the event if it lasted longer than the threshold of the recording. They are only begun
+ * on the paths which block or copy, so that the cost of the events in steady state is a call
+ * which returns {@literal null}.
+ * <p>
+ * **NB:** This class is for internal use only.
+ */
+@Slf4j
+public class FlightEvents {
+
+    /**
+     * Whether the JFR events are emitted when the runtime supports them. Enabled unless the {@code
+     * jach.jfr} system property is set to {@literal false}.
+     */
+    public static final boolean ENABLED =
+        Boolean.parseBoolean(System.getProperty("jach.jfr", "true"));
+
+    /**
+     * The {@link FlightEvents} which emits the events, or does nothing if they are not supported.
+     */
+    public static final FlightEvents INSTANCE = lookup();
+
+    private static final String IMPLEMENTATION = "io.github.daichim.jach.internal.jfr.JfrEvents";
+
+    protected FlightEvents() {
+    }
+
+    private static FlightEvents lookup() {
+        if (!ENABLED) {
+            return new FlightEvents();
+        }
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (FlightEvents) Class.forName(IMPLEMENTATION).getConstructor().newInstance();
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return new FlightEvents();
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            log.debug("Flight Recorder events are not available", ex);
+            return new FlightEvents();
+        }
+    }
+
+    /**
+     * Checks whether the JFR events are emitted.
+     *
+     * @return {@literal true} if the JFR events are emitted.
+     */
+    public static boolean isAvailable() {
+        return INSTANCE.getClass() != FlightEvents.class;
+    }
+
+    /**
+     * Begins the event of a read or write which blocks.
+     *
+     * @return The event, or {@literal null} if it is not recorded.
+     */
+    public Object beginBlocked() {
+        return null;
+    }
+
+    /**
+     * Ends the event of a read or write which blocked, whether it completed or not.
+     *
+     * @param event   The event returned by {@link #beginBlocked()}.
+     * @param channel The channel which was read or written.
+     * @param write   {@literal true} for a write, {@literal false} for a read.
+     */
+    public void endBlocked(Object event, Channel<?> channel, boolean write) {
+    }
+
+    /**
+     * Begins the event of the copy of a message by the {@link
+     * io.github.daichim.jach.channel.copier.Copier} of a channel.
+     *
+     * @return The event, or {@literal null} if it is not recorded.
+     */
+    public Object beginCopy() {
+        return null;
+    }
+
+    /**
+     * Ends the event of the copy of a message.
+     *
+     * @param event   The event returned by {@link #beginCopy()}.
+     * @param channel The channel which copied the message.
+     */
+    public void endCopy(Object event, Channel<?> channel) {
+    }
+
+    /**
+     * Begins the event of a {@link io.github.daichim.jach.channel.selector.Selector} which waits
+     * for one of its cases.
+     *
+     * @return The event, or {@literal null} if it is not recorded.
+     */
+    public Object beginSelect() {
+        return null;
+    }
+
+    /**
+     * Ends the event of a {@link io.github.daichim.jach.channel.selector.Selector} which waited,
+     * once it is woken up by one of its cases.
+     *
+     * @param event   The event returned by {@link #beginSelect()}.
+     * @param channel The channel of the case which woke the selector up.
+     * @param send    {@literal true} if the case is a send case.
+     * @param cases   The number of cases of the selector.
+     */
+    public void endSelect(Object event, Channel<?> channel, boolean send, int cases) {
+    }
+
+    /**
+     * Emits the event of a timer or a ticker which fired.
+     *
+     * @param channel       The channel of the timer.
+     * @param periodic      {@literal true} for a ticker, {@literal false} for a timer.
+     * @param latenessNanos How late the timer fired, in nanoseconds.
+     */
+    public void timerFired(Channel<?> channel, boolean periodic, long latenessNanos) {
+    }
+
+    /**
+     * Emits the event of a channel which got closed.
+     *
+     * @param channel The channel.
+     */
+    public void channelClosed(Channel<?> channel) {
+    }
+}
@@ -0,0 +1,287 @@
+package io.github.daichim.jach.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * {@link MappedMemory} gives atomic and ordered access to the memory of a {@link
+ * MappedByteBuffer}, which is shared by the processes that map the same file. Java 8 has no
+ * public API for a CAS or an ordered store on a buffer, so this class goes through {@code
+ * sun.misc.Unsafe} on the address of the mapping. {@code Unsafe} is looked up once by reflection,
+ * and its methods are bound to {@link MethodHandle}s in constants, which the JIT inlines like
+ * direct calls, so that JaCh does not depend on it at compile time. It is not available on
+ * runtimes without {@code Unsafe}.
+ * <p>
+ * The offsets are relative to the start of the mapping, and are only checked against its size.
+ * The atomic accesses need offsets aligned to the size of the value.
+ * <p>
+ * **NB:** This class is for internal use only.
+ */
+@Slf4j
+public final class MappedMemory {
+
+    private static final Object UNSAFE = lookupUnsafe();
+
+    private static final MethodHandle GET_LONG =
+        unsafeMethod("getLong", long.class, Object.class, long.class);
+    private static final MethodHandle GET_LONG_VOLATILE =
+        unsafeMethod("getLongVolatile", long.class, Object.class, long.class);
+    private static final MethodHandle PUT_ORDERED_LONG =
+        unsafeMethod("putOrderedLong", void.class, Object.class, long.class, long.class);
+    private static final MethodHandle COMPARE_AND_SWAP_LONG = unsafeMethod("compareAndSwapLong",
+        boolean.class, Object.class, long.class, long.class, long.class);
+    private static final MethodHandle GET_INT_VOLATILE =
+        unsafeMethod("getIntVolatile", int.class, Object.class, long.class);
+    private static final MethodHandle PUT_INT_VOLATILE =
+        unsafeMethod("putIntVolatile", void.class, Object.class, long.class, int.class);
+    private static final MethodHandle GET_INT = unsafeMethod("getInt", int.class, long.class);
+    private static final MethodHandle PUT_INT =
+        unsafeMethod("putInt", void.class, long.class, int.class);
+    private static final MethodHandle COPY_MEMORY = unsafeMethod("copyMemory", void.class,
+        Object.class, long.class, Object.class, long.class, long.class);
+
+    private static final long ADDRESS_OFFSET = lookupAddressOffset();
+    private static final long BYTE_ARRAY_OFFSET = lookupByteArrayOffset();
+
+    // Referenced so that the mapping is not released while it is in use.
+    private final MappedByteBuffer buffer;
+    private final long address;
+    private final long size;
+
+    /**
+     * Wraps the whole of a direct, mapped buffer.
+     *
+     * @param buffer The mapped buffer.
+     *
+     * @throws UnsupportedOperationException If the runtime does not support {@link MappedMemory}.
+     */
+    public MappedMemory(MappedByteBuffer buffer) {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("Shared memory is not supported on "
+                + System.getProperty("java.version"));
+        }
+        this.buffer = Preconditions.checkNotNull(buffer);
+        try {
+            this.address = (long) GET_LONG.invokeExact((Object) buffer, ADDRESS_OFFSET);
+        } catch (Throwable ex) {
+            throw rethrow(ex);
+        }
+        this.size = buffer.capacity();
+    }
+
+    private static Object lookupUnsafe() {
+        try {
+            Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+            log.debug("Unsafe is not available", ex);
+            return null;
+        }
+    }
+
+    private static MethodHandle unsafeMethod(String name, Class<?> returnType,
+                                             Class<?>... parameterTypes) {
+        if (UNSAFE == null) {
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup()
+                .findVirtual(UNSAFE.getClass(), name,
+                    MethodType.methodType(returnType, parameterTypes))
+                .bindTo(UNSAFE);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            log.debug("Unsafe.{} is not available", name, ex);
+            return null;
+        }
+    }
+
+    private static long lookupAddressOffset() {
+        if (UNSAFE == null) {
+            return -1L;
+        }
+        try {
+            Field address = Buffer.class.getDeclaredField("address");
+            return (long) UNSAFE.getClass().getMethod("objectFieldOffset", Field.class)
+                .invoke(UNSAFE, address);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            log.debug("The address of a buffer is not available", ex);
+            return -1L;
+        }
+    }
+
+    private static long lookupByteArrayOffset() {
+        if (UNSAFE == null) {
+            return 0L;
+        }
+        try {
+            return (int) UNSAFE.getClass().getMethod("arrayBaseOffset", Class.class)
+                .invoke(UNSAFE, byte[].class);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            log.debug("The offset of a byte array is not available", ex);
+            return 0L;
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable ex) {
+        Throwables.throwIfUnchecked(ex);
+        return new IllegalStateException(ex);
+    }
+
+    /**
+     * Checks whether the runtime supports {@link MappedMemory}.
+     *
+     * @return {@literal true} if the runtime supports {@link MappedMemory}.
+     */
+    public static boolean isAvailable() {
+        return ADDRESS_OFFSET >= 0 && GET_LONG != null && GET_LONG_VOLATILE != null
+            && PUT_ORDERED_LONG != null && COMPARE_AND_SWAP_LONG != null
+            && GET_INT_VOLATILE != null && PUT_INT_VOLATILE != null && GET_INT != null
+            && PUT_INT != null && COPY_MEMORY != null;
+    }
+
+    private long at(long offset, int length) {
+        if (offset < 0 || offset > size - length) {
+            throw new IndexOutOfBoundsException(
+                String.format("%d bytes at %d out of %d", length, offset, size));
+        }
+        return address + offset;
+    }
+
+    /**
+     * Loads the value with acquire semantics.
+     */
+    public long getLongVolatile(long offset) {
+        long at = at(offset, Long.BYTES);
+        try {
+            return (long) GET_LONG_VOLATILE.invokeExact((Object) null, at);
+        } catch (Throwable ex) {
+            throw rethrow(ex);
+        }
+    }
+
+    /**
+     * Stores the value with release semantics: the stores before it are visible to whoever sees
+     * the value.
+     */
+    public void putLongOrdered(long offset, long value) {
+        long at = at(offset, Long.BYTES);
+        try {
+            PUT_ORDERED_LONG.invokeExact((Object) null, at, value);
+        } catch (Throwable ex) {
+            throw rethrow(ex);
+        }
+    }
+
+    /**
+     * Atomically sets the value, if it is the expected one.
+     *
+     * @return {@literal true} if the value was set.
+     */
+    public boolean compareAndSetLong(long offset, long expected, long value) {
+        long at = at(offset, Long.BYTES);
+        try {
+            return (boolean) COMPARE_AND_SWAP_LONG.invokeExact((Object) null, at, expected, value);
+        } catch (Throwable ex) {
+            throw rethrow(ex);
+        }
+    }
+
+    /**
+     * Loads the value with acquire semantics.
+     */
+    public int getIntVolatile(long offset) {
+        long at = at(offset, Integer.BYTES);
+        try {
+            return (int) GET_INT_VOLATILE.invokeExact((Object) null, at);
+        } catch (Throwable ex) {
+            throw rethrow(ex);
+        }
+    }
+
+    /**
+     * Stores the value with volatile semantics.
+     */
+    public void putIntVolatile(long offset, int value) {
+        long at = at(offset, Integer.BYTES);
+        try {
+            PUT_INT_VOLATILE.invokeExact((Object) null, at, value);
+        } catch (Throwable ex) {
+            throw rethrow(ex);
+        }
+    }
+
+    /**
+     * Loads the value, with no ordering guarantee.
+     */
+    public int getInt(long offset) {
+        long at = at(offset, Integer.BYTES);
+        try {
+            return (int) GET_INT.invokeExact(at);
+        } catch (Throwable ex) {
+            throw rethrow(ex);
+        }
+    }
+
+    /**
+     * Stores the value, with no ordering guarantee.
+     */
+    public void putInt(long offset, int value) {
+        long at = at(offset, Integer.BYTES);
+        try {
+            PUT_INT.invokeExact(at, value);
+        } catch (Throwable ex) {
+            throw rethrow(ex);
+        }
+    }
+
+    /**
+     * Copies {@code bytes[0, length)} to the memory at the offset.
+     */
+    public void copyFrom(byte[] bytes, int length, long offset) {
+        Preconditions.checkPositionIndex(length, bytes.length);
+        long at = at(offset, length);
+        try {
+            COPY_MEMORY.invokeExact((Object) bytes, BYTE_ARRAY_OFFSET, (Object) null, at,
+                (long) length);
+        } catch (Throwable ex) {
+            throw rethrow(ex);
+        }
+    }
+
+    /**
+     * Copies the memory at the offset to {@code bytes[0, length)}.
+     */
+    public void copyTo(long offset, byte[] bytes, int length) {
+        Preconditions.checkPositionIndex(length, bytes.length);
+        long at = at(offset, length);
+        try {
+            COPY_MEMORY.invokeExact((Object) null, at, (Object) bytes, BYTE_ARRAY_OFFSET,
+                (long) length);
+        } catch (Throwable ex) {
+            throw rethrow(ex);
+        }
+    }
+
+    /**
+     * Forces the changes to the memory to the file.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * The size of the mapping in bytes.
+     */
+    public long size() {
+        return size;
+    }
+}
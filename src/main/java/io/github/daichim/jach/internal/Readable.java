@@ -1,5 +1,10 @@
 package io.github.daichim.jach.internal;
 
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -55,4 +60,89 @@ public interface Readable<T> extends AutoCloseable {
      */
     boolean canRead();
 
+    /**
+     * Removes up to {@code max} of the messages that are available in the source right now and adds
+     * them to the given collection, in order. This method never blocks.
+     * <p>
+     * The default implementation calls {@link #tryRead()} for every message. Implementations
+     * override it to remove the whole batch at once.
+     *
+     * @param collection The collection to add the messages to.
+     * @param max        The maximum number of messages to remove.
+     *
+     * @return The number of messages added to the collection, {@literal 0} if the source is empty.
+     *
+     * @throws NoSuchElementException If the source declared that no more elements will be
+     *                                available.
+     */
+    default int drainTo(Collection<? super T> collection, int max) throws NoSuchElementException {
+        Preconditions.checkNotNull(collection);
+        int n = 0;
+        try {
+            T msg;
+            while (n < max && (msg = tryRead()) != null) {
+                collection.add(msg);
+                n++;
+            }
+        } catch (NoSuchElementException ex) {
+            if (n == 0) {
+                throw ex;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Reads a batch of at least {@code min} and at most {@code max} messages. The read blocks until
+     * {@code min} messages have been read, or the timeout period is over. Once {@code min}
+     * messages are read, any further messages that are available right away are added to the
+     * batch, up to {@code max}.
+     * <p>
+     * If the timeout is over (or the source declares that no more elements will be available)
+     * after some, but fewer than {@code min} messages were read, the messages read so far are
+     * returned.
+     *
+     * @param min     The minimum number of messages to wait for, at least 1.
+     * @param max     The maximum number of messages to read, at least {@code min}.
+     * @param timeout The timeout value after which the read stops waiting for more messages.
+     * @param unit    The unit corresponding to the timeout value.
+     *
+     * @return The messages read, in order.
+     *
+     * @throws io.github.daichim.jach.exception.TimeoutException If no message was available
+     *                                                           within the timeout window.
+     * @throws NoSuchElementException                             If the source declared that no
+     *                                                           more elements will be available
+     *                                                           before any message was read.
+     */
+    default List<T> readBatch(int min, int max, long timeout, TimeUnit unit)
+        throws NoSuchElementException {
+        Preconditions.checkArgument(min > 0 && min <= max, "Expected 0 < min <= max");
+        long deadline = System.nanoTime()
+            + (unit == null ? TimeUnit.MILLISECONDS : unit).toNanos(timeout);
+        List<T> batch = new ArrayList<>(min);
+        while (batch.size() < min) {
+            long remaining = Math.max(deadline - System.nanoTime(), 0L);
+            try {
+                batch.add(read((int) Math.min(remaining, Integer.MAX_VALUE),
+                    TimeUnit.NANOSECONDS));
+            } catch (TimeoutException | io.github.daichim.jach.exception.TimeoutException ex) {
+                if (remaining > Integer.MAX_VALUE) {
+                    continue;
+                }
+                if (batch.isEmpty()) {
+                    throw new io.github.daichim.jach.exception.TimeoutException();
+                }
+                return batch;
+            } catch (NoSuchElementException ex) {
+                if (batch.isEmpty()) {
+                    throw ex;
+                }
+                return batch;
+            }
+        }
+        drainTo(batch, max - batch.size());
+        return batch;
+    }
+
 }
@@ -0,0 +1,171 @@
+package io.github.daichim.jach.internal;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * {@link SelectWaiter} parks a thread which waits on several {@link WaitQueue}s at once, one per
+ * case of a {@link io.github.daichim.jach.channel.selector.Selector}. This is the equivalent of
+ * the sudogs of Go's {@code selectgo}: every case gets its own {@link Waiter} node, since a node can
+ * only be linked into a single queue, but all the nodes share a single state. The first queue to
+ * signal one of the nodes selects that case, and all the other nodes are dead from that point on.
+ * <p>
+ * As for a plain {@link Waiter}, the owner has to re-check all the cases after enqueueing the nodes
+ * and before it parks. If it completes through a case other than the signalled one, the signal has
+ * to be passed on using {@link #release(int)}, so that no other waiter misses it.
+ * <p>
+ * **NB:** This class is for internal use only.
+ */
+public class SelectWaiter {
+
+    private static final int UNSELECTED = -1;
+    private static final int ABANDONED = -2;
+
+    private static final AtomicIntegerFieldUpdater<SelectWaiter> SELECTED =
+        AtomicIntegerFieldUpdater.newUpdater(SelectWaiter.class, "selected");
+
+    private final Thread thread;
+    private final Case[] cases;
+    // The index of the signalled case, or UNSELECTED while waiting and ABANDONED once cancelled.
+    // Named apart from the states of Waiter, which the case nodes inherit.
+    private volatile int selected;
+    // Only accessed by the owner.
+    private boolean retired;
+
+    /**
+     * @param cases The number of cases the owner waits on.
+     */
+    public SelectWaiter(int cases) {
+        this.thread = Thread.currentThread();
+        this.cases = new Case[cases];
+        this.selected = UNSELECTED;
+    }
+
+    /**
+     * Returns the {@link Waiter} node to enqueue for the given case.
+     *
+     * @param index The index of the case.
+     *
+     * @return The {@link Waiter} node of the case.
+     */
+    public Waiter forCase(int index) {
+        Case c = cases[index];
+        if (c == null) {
+            c = new Case(index);
+            cases[index] = c;
+        }
+        return c;
+    }
+
+    /**
+     * Checks whether the waiter still waits for a signal.
+     *
+     * @return {@literal true} if no case has been signalled and the waiter was not cancelled.
+     */
+    public boolean isWaiting() {
+        return selected == UNSELECTED;
+    }
+
+    /**
+     * Parks the current thread until one of the cases is signalled. In case the deadline passes or
+     * the thread gets interrupted first, the waiter is cancelled.
+     *
+     * @param timed    Whether the wait is bounded by the deadline.
+     * @param deadline The deadline in terms of {@link System#nanoTime()}, ignored if not timed.
+     *
+     * @return The index of the signalled case, or {@literal -1} if the wait timed out or the thread
+     *     was interrupted. The interrupt status of the thread is left untouched.
+     */
+    public int await(boolean timed, long deadline) {
+        while (selected == UNSELECTED) {
+            if (thread.isInterrupted()) {
+                return cancel();
+            }
+            if (timed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    return cancel();
+                }
+                Blocking.park(this, true, remaining);
+            } else {
+                Blocking.park(this, false, 0L);
+            }
+        }
+        retire();
+        return selected;
+    }
+
+    /**
+     * Cancels the waiter, unless a case has already been signalled.
+     *
+     * @return {@literal -1} if the waiter got cancelled, otherwise the index of the case that was
+     *     signalled, in which case the caller owns the wake-up and has to act on it.
+     */
+    public int cancel() {
+        SELECTED.compareAndSet(this, UNSELECTED, ABANDONED);
+        retire();
+        int s = selected;
+        return s >= 0 ? s : -1;
+    }
+
+    /**
+     * Stops waiting after the owner completed through the case {@code completed}. A signal which
+     * was received for any other case is passed on to the next waiter of that case's queue.
+     *
+     * @param completed The index of the case the owner completed through, or {@literal -1} if it
+     *                  completed in some other way.
+     */
+    public void release(int completed) {
+        int s = cancel();
+        if (s >= 0 && s != completed) {
+            cases[s].queue.signal();
+        }
+    }
+
+    /**
+     * Lets the queues know that the nodes which are still linked are dead, so that they get purged.
+     */
+    private void retire() {
+        if (retired) {
+            return;
+        }
+        retired = true;
+        for (Case c : cases) {
+            if (c != null && c.linked) {
+                c.queue.onCancel();
+            }
+        }
+    }
+
+    /**
+     * The node of a single case. It is waiting as long as its {@link SelectWaiter} is, and claiming
+     * it selects the case.
+     */
+    private final class Case extends Waiter {
+
+        private final int index;
+
+        Case(int index) {
+            this.index = index;
+        }
+
+        @Override
+        protected boolean isWaiting() {
+            return selected == UNSELECTED;
+        }
+
+        @Override
+        protected boolean claim() {
+            return SELECTED.compareAndSet(SelectWaiter.this, UNSELECTED, index);
+        }
+
+        @Override
+        public boolean cancel() {
+            return SelectWaiter.this.cancel() < 0;
+        }
+
+        @Override
+        public boolean await(boolean timed, long deadline) {
+            return SelectWaiter.this.await(timed, deadline) == index;
+        }
+    }
+}
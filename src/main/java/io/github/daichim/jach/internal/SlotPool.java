@@ -0,0 +1,74 @@
+package io.github.daichim.jach.internal;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link SlotPool} is a bounded, lock-free pool of reusable objects, kept in an array of slots. A
+ * thread first tries the slot picked by its id and then the others, so that it usually gets back
+ * the object it used last, without taking a lock or allocating. Objects returned to a full pool
+ * are dropped.
+ * <p>
+ * **NB:** This class is for internal use only.
+ *
+ * @param <E> The type of the pooled objects.
+ */
+public class SlotPool<E> {
+
+    private final AtomicReferenceArray<E> idle;
+    private final int mask;
+
+    /**
+     * Creates a {@link SlotPool}.
+     *
+     * @param maximumCapacity The maximum number of idle objects kept in the pool, rounded up to a
+     *                        power of two.
+     */
+    public SlotPool(int maximumCapacity) {
+        Preconditions.checkArgument(maximumCapacity > 0, "Capacity must be positive");
+        int slots = Integer.highestOneBit(maximumCapacity - 1) << 1;
+        this.idle = new AtomicReferenceArray<>(Math.max(slots, 1));
+        this.mask = idle.length() - 1;
+    }
+
+    /**
+     * Takes an idle object out of the pool.
+     *
+     * @return An idle object for the exclusive use of the caller, or {@literal null} if the pool
+     *     is empty.
+     */
+    public E poll() {
+        int home = home();
+        for (int i = 0; i <= mask; i++) {
+            int slot = (home + i) & mask;
+            E e = idle.get(slot);
+            if (e != null && idle.compareAndSet(slot, e, null)) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an object to the pool.
+     *
+     * @param e The object, which the caller must not use anymore.
+     *
+     * @return {@literal true} if the object was pooled, {@literal false} if the pool is full.
+     */
+    public boolean offer(E e) {
+        int home = home();
+        for (int i = 0; i <= mask; i++) {
+            int slot = (home + i) & mask;
+            if (idle.get(slot) == null && idle.compareAndSet(slot, null, e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int home() {
+        return (int) Thread.currentThread().getId() & mask;
+    }
+}
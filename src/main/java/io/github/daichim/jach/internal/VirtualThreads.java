@@ -0,0 +1,71 @@
+package io.github.daichim.jach.internal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link VirtualThreads} gives access to the virtual threads of JDK 21+ while JaCh is still built
+ * for Java 8. The executor which starts a new virtual thread per task is looked up by reflection
+ * once, and is not available on older runtimes (or on JDK 19 and 20 without the preview features
+ * enabled).
+ * <p>
+ * All the blocking in JaCh parks with {@link java.util.concurrent.locks.LockSupport} and never
+ * inside a {@code synchronized} block, so a routine blocked on a channel unmounts its virtual
+ * thread instead of pinning the carrier thread.
+ * <p>
+ * **NB:** This class is for internal use only.
+ */
+@Slf4j
+public final class VirtualThreads {
+
+    /**
+     * Whether {@link io.github.daichim.jach.JachChannels} runs the routines on virtual threads
+     * when they are available. Enabled unless the {@code jach.virtualThreads} system property is
+     * set to {@literal false}.
+     */
+    public static final boolean ENABLED =
+        Boolean.parseBoolean(System.getProperty("jach.virtualThreads", "true"));
+
+    private static final ExecutorService EXECUTOR = lookupExecutor();
+
+    private VirtualThreads() {
+    }
+
+    private static ExecutorService lookupExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            log.debug("Virtual threads are not available", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the runtime supports virtual threads.
+     *
+     * @return {@literal true} if the runtime supports virtual threads.
+     */
+    public static boolean isAvailable() {
+        return EXECUTOR != null;
+    }
+
+    /**
+     * Returns the shared {@link ExecutorService} that runs every task on a new virtual thread.
+     *
+     * @return The virtual thread per task {@link ExecutorService}.
+     *
+     * @throws UnsupportedOperationException If the runtime does not support virtual threads.
+     */
+    public static ExecutorService executor() throws UnsupportedOperationException {
+        if (EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads need JDK 21 or newer");
+        }
+        return EXECUTOR;
+    }
+}
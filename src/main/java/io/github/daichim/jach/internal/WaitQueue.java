@@ -0,0 +1,210 @@
+package io.github.daichim.jach.internal;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link WaitQueue} is a lock-free, intrusive list of {@link Waiter}s that are parked until some
+ * condition (e.g. "the channel has a message" or "the channel has free space") becomes true.
+ * <p>
+ * Waiters push themselves onto the list with a single CAS and then re-check their condition before
+ * parking, so a signal can never be lost between the check and the park. Signals are processed by
+ * one thread at a time: a thread that cannot take over the processing leaves its signal behind as a
+ * pending count, which the current processor picks up before it leaves. Signals wake the oldest
+ * waiters first, and waiters which got cancelled (timed out, interrupted or completed in some other
+ * way) are unlinked lazily while processing.
+ * <p>
+ * Signalling an empty queue is a single volatile read.
+ * <p>
+ * **NB:** This class is for internal use only.
+ */
+public class WaitQueue {
+
+    private static final int SIGNAL_ALL = 1 << 30;
+    private static final int PURGE_THRESHOLD = 32;
+
+    private final AtomicReference<Waiter> head;
+    private final AtomicInteger pendingSignals;
+    private final AtomicInteger cancelledWaiters;
+    private final AtomicBoolean processing;
+
+    public WaitQueue() {
+        this.head = new AtomicReference<>();
+        this.pendingSignals = new AtomicInteger();
+        this.cancelledWaiters = new AtomicInteger();
+        this.processing = new AtomicBoolean();
+    }
+
+    /**
+     * Enqueues the waiter. The caller has to re-check its condition after enqueueing and cancel the
+     * waiter in case the condition already holds, before it parks using {@link
+     * Waiter#await(boolean, long)}.
+     *
+     * @param waiter The {@link Waiter} to enqueue.
+     */
+    public void enqueue(Waiter waiter) {
+        waiter.queue = this;
+        waiter.linked = true;
+        Waiter h;
+        do {
+            h = head.get();
+            waiter.next = h;
+        } while (!head.compareAndSet(h, waiter));
+    }
+
+    /**
+     * Returns {@literal true} if there are no waiters in the queue.
+     *
+     * @return {@literal true} if there are no waiters in the queue.
+     */
+    public boolean isEmpty() {
+        return head.get() == null;
+    }
+
+    /**
+     * Wakes up the oldest waiter in the queue, if there is any.
+     */
+    public void signal() {
+        if (head.get() != null) {
+            pendingSignals.incrementAndGet();
+            process();
+        }
+    }
+
+    /**
+     * Wakes up to {@code count} of the oldest waiters in the queue, e.g. after a batch of messages
+     * got written at once.
+     *
+     * @param count The number of waiters to wake up.
+     */
+    public void signal(int count) {
+        if (count > 0 && head.get() != null) {
+            int prev;
+            int next;
+            do {
+                prev = pendingSignals.get();
+                next = (int) Math.min((long) prev + count, SIGNAL_ALL);
+            } while (!pendingSignals.compareAndSet(prev, next));
+            process();
+        }
+    }
+
+    /**
+     * Wakes up all the waiters in the queue.
+     */
+    public void signalAll() {
+        if (head.get() != null) {
+            pendingSignals.set(SIGNAL_ALL);
+            process();
+        }
+    }
+
+    void onCancel() {
+        if (cancelledWaiters.incrementAndGet() >= PURGE_THRESHOLD) {
+            process();
+        }
+    }
+
+    private void process() {
+        while (processing.compareAndSet(false, true)) {
+            try {
+                int signals = pendingSignals.getAndSet(0);
+                if (signals > 0) {
+                    wakeOldest(signals);
+                } else {
+                    purge();
+                }
+            } finally {
+                processing.set(false);
+            }
+            if (pendingSignals.get() == 0 && cancelledWaiters.get() < PURGE_THRESHOLD) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Wakes up to {@code signals} of the oldest live waiters, unlinking any dead waiter that is
+     * found on the way.
+     */
+    private void wakeOldest(int signals) {
+        while (signals > 0) {
+            int live = purge();
+            if (live == 0) {
+                return;
+            }
+            int skip = Math.max(live - signals, 0);
+            Waiter prev = null;
+            Waiter curr = head.get();
+            while (curr != null) {
+                if (!curr.isWaiting()) {
+                    Waiter dead = curr;
+                    curr = unlink(prev, curr);
+                    dead.linked = false;
+                } else if (skip > 0 || signals == 0) {
+                    skip--;
+                    prev = curr;
+                    curr = curr.next;
+                } else {
+                    Waiter woken = curr;
+                    curr = unlink(prev, curr);
+                    boolean claimed = woken.claim();
+                    woken.linked = false;
+                    if (claimed) {
+                        signals--;
+                        woken.unpark();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Unlinks all the dead waiters from the queue.
+     *
+     * @return The number of live waiters that remain in the queue.
+     */
+    private int purge() {
+        cancelledWaiters.set(0);
+        int live = 0;
+        Waiter prev = null;
+        Waiter curr = head.get();
+        while (curr != null) {
+            if (curr.isWaiting()) {
+                live++;
+                prev = curr;
+                curr = curr.next;
+            } else {
+                Waiter dead = curr;
+                curr = unlink(prev, curr);
+                dead.linked = false;
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Unlinks {@code curr} whose predecessor is {@code prev} ({@literal null} if {@code curr} was
+     * the head when it was read) and returns the successor of {@code curr}. Only the processing
+     * thread modifies the links of enqueued waiters, while the head can concurrently move due to
+     * new waiters being pushed.
+     */
+    private Waiter unlink(Waiter prev, Waiter curr) {
+        Waiter next = curr.next;
+        if (prev == null) {
+            if (!head.compareAndSet(curr, next)) {
+                // New waiters got pushed in front of curr, find its current predecessor.
+                Waiter p = head.get();
+                while (p.next != curr) {
+                    p = p.next;
+                }
+                p.next = next;
+            }
+        } else {
+            prev.next = next;
+        }
+        curr.next = null;
+        return next;
+    }
+}
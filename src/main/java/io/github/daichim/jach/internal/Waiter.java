@@ -0,0 +1,126 @@
+package io.github.daichim.jach.internal;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link Waiter} represents a thread that is parked on a {@link WaitQueue}, waiting for a {@link
+ * io.github.daichim.jach.channel.Channel} to become readable or writable. A waiter is intrusive,
+ * i.e. it is itself the node of the {@link WaitQueue} it is enqueued in, so enqueueing it does not
+ * allocate.
+ * <p>
+ * A waiter is either waiting, signalled (claimed by a {@link WaitQueue} for a wake-up) or
+ * cancelled (the owner stopped waiting because of a timeout, an interrupt or because it found
+ * another way to complete its operation). Signalling and cancelling race on the same state, so
+ * exactly one of them wins.
+ * <p>
+ * **NB:** This class is for internal use only.
+ */
+public class Waiter {
+
+    static final int WAITING = 0;
+    static final int SIGNALLED = 1;
+    static final int CANCELLED = 2;
+
+    private static final AtomicIntegerFieldUpdater<Waiter> STATE =
+        AtomicIntegerFieldUpdater.newUpdater(Waiter.class, "state");
+
+    private static final ThreadLocal<Waiter> CURRENT = new ThreadLocal<>();
+
+    final Thread thread;
+    private volatile int state;
+
+    // Link to the next (older) waiter in the WaitQueue. Written by the enqueuer before it publishes
+    // the waiter and afterwards only by the thread processing the queue.
+    Waiter next;
+    WaitQueue queue;
+    volatile boolean linked;
+
+    public Waiter() {
+        this.thread = Thread.currentThread();
+    }
+
+    /**
+     * Returns a {@link Waiter} for the current thread that is ready to be enqueued. The waiter of
+     * a thread is reused across operations once the {@link WaitQueue} has unlinked it, so that a
+     * blocking operation does not allocate in the steady state.
+     *
+     * @return A {@link Waiter} for the current thread in waiting state.
+     */
+    public static Waiter current() {
+        Waiter waiter = CURRENT.get();
+        if (waiter == null || waiter.linked) {
+            waiter = new Waiter();
+            CURRENT.set(waiter);
+        }
+        waiter.state = WAITING;
+        return waiter;
+    }
+
+    /**
+     * Parks the current thread until this waiter is signalled. In case the deadline passes or the
+     * thread gets interrupted first, the waiter is cancelled.
+     *
+     * @param timed    Whether the wait is bounded by the deadline.
+     * @param deadline The deadline in terms of {@link System#nanoTime()}, ignored if not timed.
+     *
+     * @return {@literal true} if the waiter was signalled, {@literal false} if it timed out or the
+     *     thread was interrupted. The interrupt status of the thread is left untouched.
+     */
+    public boolean await(boolean timed, long deadline) {
+        while (state == WAITING) {
+            if (thread.isInterrupted()) {
+                return !cancel();
+            }
+            if (timed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    return !cancel();
+                }
+                Blocking.park(this, true, remaining);
+            } else {
+                Blocking.park(this, false, 0L);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cancels the waiter, unless it has already been signalled.
+     *
+     * @return {@literal true} if the waiter got cancelled, {@literal false} if it had already been
+     *     signalled, in which case the caller owns the wake-up and has to act on it.
+     */
+    public boolean cancel() {
+        if (STATE.compareAndSet(this, WAITING, CANCELLED)) {
+            WaitQueue q = this.queue;
+            if (q != null && linked) {
+                q.onCancel();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the waiter still waits for a signal.
+     *
+     * @return {@literal true} if the waiter is neither signalled nor cancelled.
+     */
+    protected boolean isWaiting() {
+        return state == WAITING;
+    }
+
+    /**
+     * Claims this waiter for a wake-up.
+     *
+     * @return {@literal true} if the waiter was claimed and has to be unparked.
+     */
+    protected boolean claim() {
+        return STATE.compareAndSet(this, WAITING, SIGNALLED);
+    }
+
+    void unpark() {
+        LockSupport.unpark(thread);
+    }
+}
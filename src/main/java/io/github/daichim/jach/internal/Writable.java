@@ -1,6 +1,8 @@
 package io.github.daichim.jach.internal;
 
+import com.google.common.base.Preconditions;
 
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -54,5 +56,44 @@ public interface Writable<T> extends AutoCloseable {
      */
     boolean canWrite();
 
+    /**
+     * Writes all the given messages to the destination, in order. If the destination does not have
+     * space for all of them, the write blocks until all the messages are written.
+     * <p>
+     * The default implementation calls {@link #write(Object)} for every message. Implementations
+     * override it to write as many messages as there is space for at once.
+     *
+     * @param messages The non-null messages to write to the destination.
+     *
+     * @throws IllegalStateException If the destination has been closed by some other thread.
+     */
+    default void writeAll(Collection<? extends T> messages) throws IllegalStateException {
+        Preconditions.checkNotNull(messages);
+        for (T message : messages) {
+            write(message);
+        }
+    }
+
+    /**
+     * Tries to write the given messages to the destination, in order, as many as there is free
+     * space for right now. This method never blocks.
+     * <p>
+     * The default implementation calls {@link #tryWrite(Object)} until it fails.
+     *
+     * @param messages The non-null messages to write to the destination.
+     *
+     * @return The number of messages written, which are the first ones in iteration order.
+     */
+    default int tryWriteAll(Collection<? extends T> messages) {
+        Preconditions.checkNotNull(messages);
+        int n = 0;
+        for (T message : messages) {
+            if (!tryWrite(message)) {
+                break;
+            }
+            n++;
+        }
+        return n;
+    }
 
 }
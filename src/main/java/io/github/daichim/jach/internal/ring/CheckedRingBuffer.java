@@ -0,0 +1,74 @@
+package io.github.daichim.jach.internal.ring;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link CheckedRingBuffer} wraps a single producer and/or single consumer {@link RingBuffer} and
+ * fails with an {@link IllegalStateException} as soon as a second thread uses a single side while
+ * another thread is still using it. It is only used in debug mode, see {@link RingBuffers}.
+ * <p>
+ * **NB:** This class is for internal use only.
+ *
+ * @param <E> The type of the elements held in the {@link RingBuffer}.
+ */
+class CheckedRingBuffer<E> implements RingBuffer<E> {
+
+    private final RingBuffer<E> delegate;
+    private final AtomicReference<Thread> producer;
+    private final AtomicReference<Thread> consumer;
+
+    CheckedRingBuffer(RingBuffer<E> delegate, boolean singleProducer, boolean singleConsumer) {
+        this.delegate = delegate;
+        this.producer = singleProducer ? new AtomicReference<>() : null;
+        this.consumer = singleConsumer ? new AtomicReference<>() : null;
+    }
+
+    @Override
+    public boolean offer(E element) {
+        enter(producer, "producer");
+        try {
+            return delegate.offer(element);
+        } finally {
+            exit(producer);
+        }
+    }
+
+    @Override
+    public E poll() {
+        enter(consumer, "consumer");
+        try {
+            return delegate.poll();
+        } finally {
+            exit(consumer);
+        }
+    }
+
+    private static void enter(AtomicReference<Thread> owner, String side) {
+        if (owner != null && !owner.compareAndSet(null, Thread.currentThread())) {
+            throw new IllegalStateException(String.format(
+                "Single %s channel used concurrently by %s and %s", side,
+                owner.get(), Thread.currentThread()));
+        }
+    }
+
+    private static void exit(AtomicReference<Thread> owner) {
+        if (owner != null) {
+            owner.set(null);
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
+    @Override
+    public int capacity() {
+        return delegate.capacity();
+    }
+}
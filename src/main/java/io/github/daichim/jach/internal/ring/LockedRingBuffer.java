@@ -0,0 +1,146 @@
+package io.github.daichim.jach.internal.ring;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link LockedRingBuffer} is a bounded ring buffer guarded by a single lock, like an {@link
+ * java.util.concurrent.ArrayBlockingQueue} without the blocking operations. Unlike the lock-free
+ * buffers, it can insert or remove a whole batch of elements while taking the lock only once.
+ * <p>
+ * Releasing the lock is a volatile write, so an element offered (or a slot freed) is always visible
+ * to a thread that is about to park after finding the buffer empty (or full).
+ * <p>
+ * **NB:** This class is for internal use only.
+ *
+ * @param <E> The type of the elements held in the {@link LockedRingBuffer}.
+ */
+public class LockedRingBuffer<E> implements RingBuffer<E> {
+
+    private final Object[] items;
+    private final ReentrantLock lock;
+    private int takeIndex;
+    private int putIndex;
+    private int count;
+
+    public LockedRingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive");
+        this.items = new Object[capacity];
+        this.lock = new ReentrantLock();
+    }
+
+    @Override
+    public boolean offer(E element) {
+        Preconditions.checkNotNull(element);
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            if (count == items.length) {
+                return false;
+            }
+            enqueue(element);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts the elements {@code elements[from, to)} in order, as many as there is free space for.
+     *
+     * @param elements The array holding the non-null elements to insert.
+     * @param from     The index of the first element to insert.
+     * @param to       The index after the last element to insert.
+     *
+     * @return The number of elements inserted, starting from {@code elements[from]}.
+     */
+    public int offerAll(Object[] elements, int from, int to) {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            int n = Math.min(to - from, items.length - count);
+            for (int i = 0; i < n; i++) {
+                enqueue(elements[from + i]);
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return (count == 0) ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes up to {@code max} elements from the head of the buffer and adds them to the given
+     * collection, in order. A non-positive {@code max} removes nothing.
+     *
+     * @param c   The collection to add the elements to.
+     * @param max The maximum number of elements to remove.
+     *
+     * @return The number of elements removed.
+     */
+    public int drainTo(Collection<? super E> c, int max) {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            int n = Math.max(0, Math.min(max, count));
+            for (int i = 0; i < n; i++) {
+                c.add(dequeue());
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(Object element) {
+        items[putIndex] = element;
+        if (++putIndex == items.length) {
+            putIndex = 0;
+        }
+        count++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E dequeue() {
+        E element = (E) items[takeIndex];
+        items[takeIndex] = null;
+        if (++takeIndex == items.length) {
+            takeIndex = 0;
+        }
+        count--;
+        return element;
+    }
+
+    @Override
+    public int size() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public int capacity() {
+        return items.length;
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.daichim.jach.internal.ring;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link MpmcRingBuffer} is a lock-free, bounded, multi-producer multi-consumer ring buffer. It is
+ * based on Dmitry Vyukov's bounded MPMC queue: every slot carries a sequence number, which tells a
+ * producer whether the slot is free for the lap it is on and a consumer whether the slot has been
+ * filled for its lap. Producers and consumers only contend on their own index through a CAS, and
+ * never on a lock.
+ * <p>
+ * The sequence of a slot is published with a volatile write, so that a published element is
+ * always visible to a thread that is about to park after finding the buffer empty.
+ * <p>
+ * **NB:** This class is for internal use only.
+ *
+ * @param <E> The type of the elements held in the {@link MpmcRingBuffer}.
+ */
+public class MpmcRingBuffer<E> extends PaddedIndexes implements RingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+
+    public MpmcRingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive");
+        this.capacity = capacity;
+        this.mask = Integer.bitCount(capacity) == 1 ? capacity - 1 : -1;
+        this.buffer = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.lazySet(i, i);
+        }
+    }
+
+    private int index(long position) {
+        return mask >= 0 ? (int) (position & mask) : (int) (position % capacity);
+    }
+
+    @Override
+    public boolean offer(E element) {
+        Preconditions.checkNotNull(element);
+        long position = producerIndex;
+        for (; ; ) {
+            int idx = index(position);
+            long diff = sequences.get(idx) - position;
+            if (diff == 0) {
+                if (PRODUCER_INDEX.compareAndSet(this, position, position + 1)) {
+                    buffer[idx] = element;
+                    sequences.set(idx, position + 1);
+                    return true;
+                }
+                position = producerIndex;
+            } else if (diff < 0) {
+                // The slot still holds the element of the previous lap, so the buffer is full.
+                return false;
+            } else {
+                position = producerIndex;
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = consumerIndex;
+        for (; ; ) {
+            int idx = index(position);
+            long diff = sequences.get(idx) - (position + 1);
+            if (diff == 0) {
+                if (CONSUMER_INDEX.compareAndSet(this, position, position + 1)) {
+                    E element = (E) buffer[idx];
+                    buffer[idx] = null;
+                    sequences.set(idx, position + capacity);
+                    return element;
+                }
+                position = consumerIndex;
+            } else if (diff < 0) {
+                // The slot has not been filled for this lap yet, so the buffer is empty.
+                return null;
+            } else {
+                position = consumerIndex;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size(capacity);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.daichim.jach.internal.ring;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link MpscRingBuffer} is a lock-free, bounded, multi-producer single-consumer ring buffer.
+ * Producers claim a slot with a CAS on the producer index and then publish the element into the
+ * slot, while the single consumer takes the element out of the slot and advances the consumer
+ * index with a plain volatile store. A {@literal null} slot behind the producer index means that a
+ * producer claimed it but has not published its element yet, in which case the consumer waits for
+ * that producer instead of reporting the buffer as empty.
+ * <p>
+ * Producers share a cached copy of the consumer index, so they only read the consumer index when
+ * the cached copy says the buffer is full.
+ * <p>
+ * **NB:** This class is for internal use only.
+ *
+ * @param <E> The type of the elements held in the {@link MpscRingBuffer}.
+ */
+public class MpscRingBuffer<E> extends PaddedIndexes implements RingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    // Shared between the producers, a stale value only costs an extra read of the consumer index.
+    private volatile long producerLimit;
+
+    public MpscRingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive");
+        this.capacity = capacity;
+        this.mask = Integer.bitCount(capacity) == 1 ? capacity - 1 : -1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.producerLimit = capacity;
+    }
+
+    private int index(long position) {
+        return mask >= 0 ? (int) (position & mask) : (int) (position % capacity);
+    }
+
+    @Override
+    public boolean offer(E element) {
+        Preconditions.checkNotNull(element);
+        long limit = producerLimit;
+        long position;
+        do {
+            position = producerIndex;
+            if (position >= limit) {
+                limit = consumerIndex + capacity;
+                if (position >= limit) {
+                    return false;
+                }
+                producerLimit = limit;
+            }
+        } while (!PRODUCER_INDEX.compareAndSet(this, position, position + 1));
+        buffer.set(index(position), element);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long position = consumerIndex;
+        int idx = index(position);
+        E element = buffer.get(idx);
+        if (element == null) {
+            if (position == producerIndex) {
+                return null;
+            }
+            // A producer has claimed the slot, but not yet published its element.
+            do {
+                Thread.yield();
+                element = buffer.get(idx);
+            } while (element == null);
+        }
+        buffer.lazySet(idx, null);
+        consumerIndex = position + 1;
+        return element;
+    }
+
+    @Override
+    public int size() {
+        return size(capacity);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+}
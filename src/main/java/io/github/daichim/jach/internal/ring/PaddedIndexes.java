@@ -0,0 +1,60 @@
+package io.github.daichim.jach.internal.ring;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * The producer and consumer indexes of a ring buffer, each on its own cache line so that the
+ * producers and the consumers do not invalidate each others lines (false sharing). HotSpot lays out
+ * the fields of a super class before the fields of its sub class, which is what the padding classes
+ * rely on.
+ * <p>
+ * Each side also gets a cached copy of the other side's index on its own cache line. Single
+ * producer or single consumer buffers use it to only read the other side's index when the cached
+ * copy says the buffer is full (or empty).
+ */
+abstract class ProducerIndexPad {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15;
+}
+
+abstract class ProducerIndex extends ProducerIndexPad {
+    static final AtomicLongFieldUpdater<ProducerIndex> PRODUCER_INDEX =
+        AtomicLongFieldUpdater.newUpdater(ProducerIndex.class, "producerIndex");
+
+    volatile long producerIndex;
+    long cachedConsumerIndex;
+}
+
+abstract class ConsumerIndexPad extends ProducerIndex {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+    long p30, p31, p32, p33, p34, p35;
+}
+
+abstract class ConsumerIndex extends ConsumerIndexPad {
+    static final AtomicLongFieldUpdater<ConsumerIndex> CONSUMER_INDEX =
+        AtomicLongFieldUpdater.newUpdater(ConsumerIndex.class, "consumerIndex");
+
+    volatile long consumerIndex;
+    long cachedProducerIndex;
+}
+
+abstract class PaddedIndexes extends ConsumerIndex {
+    long p40, p41, p42, p43, p44, p45, p46, p47;
+    long p50, p51, p52, p53, p54, p55, p56;
+
+    /**
+     * Returns the number of elements between the consumer and the producer index, bounded to
+     * [0, capacity].
+     */
+    int size(int capacity) {
+        // Read the consumer index first, so that the difference is never negative unless the
+        // indexes move in between.
+        long consumer = consumerIndex;
+        long producer = producerIndex;
+        long size = producer - consumer;
+        if (size < 0) {
+            return 0;
+        }
+        return (int) Math.min(size, capacity);
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.daichim.jach.internal.ring;
+
+/**
+ * {@link RingBuffer} is a bounded, non-blocking FIFO queue which backs the ring based channels.
+ * Blocking and wake-ups are layered on top of it by the channel.
+ * <p>
+ * **NB:** This interface is for internal use only.
+ *
+ * @param <E> The type of the elements held in the {@link RingBuffer}.
+ */
+public interface RingBuffer<E> {
+
+    /**
+     * Inserts the element at the tail of the buffer if there is free space.
+     *
+     * @param element The non-null element to insert.
+     *
+     * @return {@literal true} if the element got inserted, {@literal false} if the buffer is full.
+     */
+    boolean offer(E element);
+
+    /**
+     * Removes the element at the head of the buffer, if there is any.
+     *
+     * @return The element at the head of the buffer or {@literal null} if the buffer is empty.
+     */
+    E poll();
+
+    /**
+     * Returns the number of elements in the buffer. The value is only an estimate while the buffer
+     * is concurrently modified, but it is always between 0 and the capacity.
+     *
+     * @return The number of elements in the buffer.
+     */
+    int size();
+
+    /**
+     * Returns {@literal true} if the buffer has no elements.
+     *
+     * @return {@literal true} if the buffer has no elements.
+     */
+    boolean isEmpty();
+
+    /**
+     * The maximum number of elements the buffer can hold.
+     *
+     * @return The capacity of the buffer.
+     */
+    int capacity();
+}
@@ -0,0 +1,47 @@
+package io.github.daichim.jach.internal.ring;
+
+/**
+ * Factory for the {@link RingBuffer} implementations.
+ * <p>
+ * **NB:** This class is for internal use only.
+ */
+public final class RingBuffers {
+
+    /**
+     * Whether the single producer and single consumer buffers check for concurrent use. Enabled by
+     * setting the {@code jach.debug} system property to {@literal true}.
+     */
+    public static final boolean DEBUG = Boolean.getBoolean("jach.debug");
+
+    private RingBuffers() {
+    }
+
+    /**
+     * Creates the {@link RingBuffer} with the least synchronization for the given number of
+     * producers and consumers. In debug mode, a single producer or single consumer buffer is
+     * wrapped so that concurrent use of its single side fails with an {@link
+     * IllegalStateException}.
+     *
+     * @param capacity       The capacity of the buffer.
+     * @param singleProducer Whether at most one thread offers at a time.
+     * @param singleConsumer Whether at most one thread polls at a time.
+     * @param <E>            The type of the elements held in the buffer.
+     *
+     * @return A new {@link RingBuffer} of the given capacity.
+     */
+    public static <E> RingBuffer<E> create(int capacity, boolean singleProducer,
+                                           boolean singleConsumer) {
+        RingBuffer<E> ringBuffer;
+        if (singleProducer && singleConsumer) {
+            ringBuffer = new SpscRingBuffer<>(capacity);
+        } else if (singleConsumer) {
+            ringBuffer = new MpscRingBuffer<>(capacity);
+        } else if (singleProducer) {
+            ringBuffer = new SpmcRingBuffer<>(capacity);
+        } else {
+            return new MpmcRingBuffer<>(capacity);
+        }
+        return DEBUG ? new CheckedRingBuffer<>(ringBuffer, singleProducer, singleConsumer)
+            : ringBuffer;
+    }
+}
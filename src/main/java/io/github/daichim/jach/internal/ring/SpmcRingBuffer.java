@@ -0,0 +1,94 @@
+package io.github.daichim.jach.internal.ring;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link SpmcRingBuffer} is a lock-free, bounded, single-producer multi-consumer ring buffer. The
+ * single producer publishes an element into a free slot and advances the producer index with a
+ * plain volatile store, while consumers claim a slot with a CAS on the consumer index and then free
+ * it by clearing it. A non-null slot in front of the consumer index means that a consumer claimed
+ * it but has not taken its element out yet, in which case the producer waits for that consumer
+ * instead of reporting the buffer as full.
+ * <p>
+ * Consumers share a cached copy of the producer index, so they only read the producer index when
+ * the cached copy says the buffer is empty.
+ * <p>
+ * **NB:** This class is for internal use only.
+ *
+ * @param <E> The type of the elements held in the {@link SpmcRingBuffer}.
+ */
+public class SpmcRingBuffer<E> extends PaddedIndexes implements RingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    // Shared between the consumers, a stale value only costs an extra read of the producer index.
+    private volatile long consumerLimit;
+
+    public SpmcRingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive");
+        this.capacity = capacity;
+        this.mask = Integer.bitCount(capacity) == 1 ? capacity - 1 : -1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+    }
+
+    private int index(long position) {
+        return mask >= 0 ? (int) (position & mask) : (int) (position % capacity);
+    }
+
+    @Override
+    public boolean offer(E element) {
+        Preconditions.checkNotNull(element);
+        long position = producerIndex;
+        int idx = index(position);
+        if (buffer.get(idx) != null) {
+            if (position - consumerIndex >= capacity) {
+                return false;
+            }
+            // A consumer has claimed the slot, but not yet taken its element out.
+            do {
+                Thread.yield();
+            } while (buffer.get(idx) != null);
+        }
+        buffer.lazySet(idx, element);
+        producerIndex = position + 1;
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long limit = consumerLimit;
+        long position;
+        do {
+            position = consumerIndex;
+            if (position >= limit) {
+                limit = producerIndex;
+                if (position >= limit) {
+                    return null;
+                }
+                consumerLimit = limit;
+            }
+        } while (!CONSUMER_INDEX.compareAndSet(this, position, position + 1));
+        int idx = index(position);
+        E element = buffer.get(idx);
+        buffer.set(idx, null);
+        return element;
+    }
+
+    @Override
+    public int size() {
+        return size(capacity);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+}
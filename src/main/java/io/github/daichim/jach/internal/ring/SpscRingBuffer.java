@@ -0,0 +1,84 @@
+package io.github.daichim.jach.internal.ring;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * {@link SpscRingBuffer} is a wait-free, bounded, single-producer single-consumer ring buffer. The
+ * producer owns the producer index and the consumer owns the consumer index, so neither of them
+ * ever needs a CAS: an index is advanced with a volatile store by its only writer. Each side keeps
+ * a cached copy of the other side's index and only reads the shared index when the cached copy says
+ * the buffer is full (or empty), so in the steady state the two sides rarely touch each other's
+ * cache lines.
+ * <p>
+ * The indexes are published with a volatile (rather than an ordered) store, so that a published
+ * element or a freed slot is always visible to a thread that is about to park after finding the
+ * buffer empty or full.
+ * <p>
+ * **NB:** This class is for internal use only.
+ *
+ * @param <E> The type of the elements held in the {@link SpscRingBuffer}.
+ */
+public class SpscRingBuffer<E> extends PaddedIndexes implements RingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final Object[] buffer;
+
+    public SpscRingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive");
+        this.capacity = capacity;
+        this.mask = Integer.bitCount(capacity) == 1 ? capacity - 1 : -1;
+        this.buffer = new Object[capacity];
+    }
+
+    private int index(long position) {
+        return mask >= 0 ? (int) (position & mask) : (int) (position % capacity);
+    }
+
+    @Override
+    public boolean offer(E element) {
+        Preconditions.checkNotNull(element);
+        long position = producerIndex;
+        if (position - cachedConsumerIndex >= capacity) {
+            cachedConsumerIndex = consumerIndex;
+            if (position - cachedConsumerIndex >= capacity) {
+                return false;
+            }
+        }
+        buffer[index(position)] = element;
+        producerIndex = position + 1;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = consumerIndex;
+        if (position >= cachedProducerIndex) {
+            cachedProducerIndex = producerIndex;
+            if (position >= cachedProducerIndex) {
+                return null;
+            }
+        }
+        int idx = index(position);
+        E element = (E) buffer[idx];
+        buffer[idx] = null;
+        consumerIndex = position + 1;
+        return element;
+    }
+
+    @Override
+    public int size() {
+        return size(capacity);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+}
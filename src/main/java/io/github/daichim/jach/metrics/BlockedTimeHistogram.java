@@ -0,0 +1,111 @@
+package io.github.daichim.jach.metrics;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link BlockedTimeHistogram} records durations in nanoseconds in buckets of powers of two, i.e.
+ * a duration of {@code d} nanoseconds goes into the bucket of {@code 2^(k-1) <= d < 2^k}. Every
+ * bucket is a {@link LongAdder}, so that concurrent recordings do not contend, and a recording
+ * neither locks nor allocates. The percentiles are only as precise as the buckets: they are the
+ * upper bound of the bucket they fall in, at most twice the actual value.
+ */
+public class BlockedTimeHistogram {
+
+    private static final int BUCKETS = Long.SIZE;
+
+    private final LongAdder[] buckets;
+    private final LongAdder total;
+    private final LongAccumulator max;
+
+    public BlockedTimeHistogram() {
+        this.buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.total = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0L);
+    }
+
+    /**
+     * Records a duration. Negative durations, which a clock that is not monotonic could give,
+     * are recorded as 0.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(value)].increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * The number of durations recorded.
+     *
+     * @return The number of durations recorded.
+     */
+    public long getCount() {
+        long count = 0L;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * The sum of the durations recorded.
+     *
+     * @return The sum of the durations recorded, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return total.sum();
+    }
+
+    /**
+     * The longest duration recorded.
+     *
+     * @return The longest duration recorded in nanoseconds, or 0 if none was recorded.
+     */
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Estimates the given percentile of the durations recorded, as the upper bound of the bucket
+     * it falls in. The recordings which happen while the buckets are summed may or may not be
+     * counted.
+     *
+     * @param percentile The percentile, between 0 (exclusive) and 100 (inclusive).
+     *
+     * @return The estimated percentile in nanoseconds, or 0 if no duration was recorded.
+     */
+    public long getPercentileNanos(double percentile) {
+        Preconditions.checkArgument(percentile > 0.0 && percentile <= 100.0,
+            "Expected 0 < percentile <= 100");
+        long[] counts = new long[BUCKETS];
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0L) {
+            return 0L;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.daichim.jach.metrics;
+
+/**
+ * {@link ChannelMetrics} is the SPI through which an {@link
+ * io.github.daichim.jach.channel.InstrumentedChannel} reports what happens on the channel it
+ * wraps. {@link ChannelStats} keeps the numbers in striped counters and exports them over JMX;
+ * another implementation can pass them on to the metrics library of the application instead.
+ * <p>
+ * The methods are called on the threads that write and read the channel, right on their hot path,
+ * so an implementation must be thread-safe, must not block and should not allocate.
+ */
+public interface ChannelMetrics {
+
+    /**
+     * Called after messages are written to the channel.
+     *
+     * @param count The number of messages written, at least 1.
+     */
+    void onWrite(int count);
+
+    /**
+     * Called after messages are read from the channel.
+     *
+     * @param count The number of messages read, at least 1.
+     */
+    void onRead(int count);
+
+    /**
+     * Called when a non-blocking write fails because the channel is full.
+     */
+    void onTryWriteFailure();
+
+    /**
+     * Called when a timed write or read times out.
+     */
+    void onTimeout();
+
+    /**
+     * Called after a writer that had to wait for space in the channel is done waiting, whether
+     * the write completed or not.
+     *
+     * @param nanos The time the writer waited, in nanoseconds.
+     */
+    void onWriterBlocked(long nanos);
+
+    /**
+     * Called after a reader that had to wait for a message is done waiting, whether the read
+     * completed or not.
+     *
+     * @param nanos The time the reader waited, in nanoseconds.
+     */
+    void onReaderBlocked(long nanos);
+
+    /**
+     * Called once the channel is closed, e.g. to release the resources of the metrics.
+     */
+    default void onClose() {
+        // Nothing to release by default.
+    }
+}
@@ -0,0 +1,224 @@
+package io.github.daichim.jach.metrics;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ChannelStats} is the default {@link ChannelMetrics}, which counts with {@link LongAdder}s
+ * and records the blocked times in {@link BlockedTimeHistogram}s, so that the threads of a busy
+ * channel do not contend on the counters. The numbers can be read from the getters, or over JMX
+ * once the stats are registered with {@link #register()}, as an MBean named {@code
+ * io.github.daichim.jach:type=Channel,name=<name>}. The MBean is unregistered when the channel is
+ * closed.
+ */
+@Slf4j
+public class ChannelStats implements ChannelMetrics, ChannelStatsMBean {
+
+    /**
+     * The JMX domain of the channel MBeans.
+     */
+    public static final String DOMAIN = "io.github.daichim.jach";
+
+    private final String name;
+    private final LongAdder writes;
+    private final LongAdder reads;
+    private final LongAdder tryWriteFailures;
+    private final LongAdder timeouts;
+    private final BlockedTimeHistogram writerBlocked;
+    private final BlockedTimeHistogram readerBlocked;
+    private volatile ObjectName objectName;
+
+    /**
+     * Creates the stats of a channel, without registering them over JMX.
+     *
+     * @param name The name of the channel, which the MBean is named after.
+     */
+    public ChannelStats(String name) {
+        this.name = Preconditions.checkNotNull(name);
+        this.writes = new LongAdder();
+        this.reads = new LongAdder();
+        this.tryWriteFailures = new LongAdder();
+        this.timeouts = new LongAdder();
+        this.writerBlocked = new BlockedTimeHistogram();
+        this.readerBlocked = new BlockedTimeHistogram();
+    }
+
+    /**
+     * Returns the name of the MBean of the channel with the given name.
+     *
+     * @param name The name of the channel.
+     *
+     * @return The name of the MBean of the channel.
+     */
+    public static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(DOMAIN + ":type=Channel,name=" + ObjectName.quote(name));
+        } catch (JMException ex) {
+            throw new IllegalArgumentException("Invalid channel name: " + name, ex);
+        }
+    }
+
+    /**
+     * Registers the stats as an MBean in the platform {@link MBeanServer}.
+     *
+     * @return These stats.
+     *
+     * @throws IllegalArgumentException If another channel is registered with the same name.
+     * @throws IllegalStateException    If the MBean cannot be registered.
+     */
+    public ChannelStats register() throws IllegalArgumentException, IllegalStateException {
+        ObjectName on = objectName(name);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+        } catch (InstanceAlreadyExistsException ex) {
+            throw new IllegalArgumentException("A channel is already registered as " + name, ex);
+        } catch (JMException ex) {
+            throw new IllegalStateException("Cannot register the MBean of channel " + name, ex);
+        }
+        this.objectName = on;
+        return this;
+    }
+
+    /**
+     * Unregisters the MBean of the channel, if the stats were registered.
+     */
+    @Override
+    public void onClose() {
+        ObjectName on = this.objectName;
+        if (on == null) {
+            return;
+        }
+        this.objectName = null;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(on);
+        } catch (InstanceNotFoundException ex) {
+            // Already unregistered.
+        } catch (JMException ex) {
+            log.warn("Cannot unregister the MBean of channel {}", name, ex);
+        }
+    }
+
+    @Override
+    public void onWrite(int count) {
+        writes.add(count);
+    }
+
+    @Override
+    public void onRead(int count) {
+        reads.add(count);
+    }
+
+    @Override
+    public void onTryWriteFailure() {
+        tryWriteFailures.increment();
+    }
+
+    @Override
+    public void onTimeout() {
+        timeouts.increment();
+    }
+
+    @Override
+    public void onWriterBlocked(long nanos) {
+        writerBlocked.record(nanos);
+    }
+
+    @Override
+    public void onReaderBlocked(long nanos) {
+        readerBlocked.record(nanos);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    @Override
+    public long getReads() {
+        return reads.sum();
+    }
+
+    /**
+     * The number of messages written and not read yet. The reads are summed before the writes,
+     * so that a message which is written and read while the counters are summed is not counted
+     * as read only, and the depth is never negative.
+     */
+    @Override
+    public long getDepth() {
+        long read = reads.sum();
+        return Math.max(writes.sum() - read, 0L);
+    }
+
+    @Override
+    public long getTryWriteFailures() {
+        return tryWriteFailures.sum();
+    }
+
+    @Override
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public long getWriterBlockedCount() {
+        return writerBlocked.getCount();
+    }
+
+    @Override
+    public long getWriterBlockedNanos() {
+        return writerBlocked.getTotalNanos();
+    }
+
+    @Override
+    public long getWriterBlockedMaxNanos() {
+        return writerBlocked.getMaxNanos();
+    }
+
+    @Override
+    public long getWriterBlockedP50Nanos() {
+        return writerBlocked.getPercentileNanos(50.0);
+    }
+
+    @Override
+    public long getWriterBlockedP99Nanos() {
+        return writerBlocked.getPercentileNanos(99.0);
+    }
+
+    @Override
+    public long getReaderBlockedCount() {
+        return readerBlocked.getCount();
+    }
+
+    @Override
+    public long getReaderBlockedNanos() {
+        return readerBlocked.getTotalNanos();
+    }
+
+    @Override
+    public long getReaderBlockedMaxNanos() {
+        return readerBlocked.getMaxNanos();
+    }
+
+    @Override
+    public long getReaderBlockedP50Nanos() {
+        return readerBlocked.getPercentileNanos(50.0);
+    }
+
+    @Override
+    public long getReaderBlockedP99Nanos() {
+        return readerBlocked.getPercentileNanos(99.0);
+    }
+}
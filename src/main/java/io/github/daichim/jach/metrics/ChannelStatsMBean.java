@@ -0,0 +1,89 @@
+package io.github.daichim.jach.metrics;
+
+/**
+ * {@link ChannelStatsMBean} is the JMX interface of {@link ChannelStats}. All the counts are since
+ * the channel was instrumented, and all the durations are in nanoseconds.
+ */
+public interface ChannelStatsMBean {
+
+    /**
+     * The name the channel is registered with.
+     */
+    String getName();
+
+    /**
+     * The number of messages written.
+     */
+    long getWrites();
+
+    /**
+     * The number of messages read.
+     */
+    long getReads();
+
+    /**
+     * The number of messages in the channel, i.e. the messages written and not read yet.
+     */
+    long getDepth();
+
+    /**
+     * The number of non-blocking writes which failed because the channel was full.
+     */
+    long getTryWriteFailures();
+
+    /**
+     * The number of timed writes and reads which timed out.
+     */
+    long getTimeouts();
+
+    /**
+     * The number of times a writer waited for space in the channel.
+     */
+    long getWriterBlockedCount();
+
+    /**
+     * The total time the writers waited for space in the channel.
+     */
+    long getWriterBlockedNanos();
+
+    /**
+     * The longest time a writer waited for space in the channel.
+     */
+    long getWriterBlockedMaxNanos();
+
+    /**
+     * The median time a writer waited for space in the channel (see {@link
+     * BlockedTimeHistogram#getPercentileNanos(double)} for the precision).
+     */
+    long getWriterBlockedP50Nanos();
+
+    /**
+     * The 99th percentile of the time a writer waited for space in the channel.
+     */
+    long getWriterBlockedP99Nanos();
+
+    /**
+     * The number of times a reader waited for a message.
+     */
+    long getReaderBlockedCount();
+
+    /**
+     * The total time the readers waited for a message.
+     */
+    long getReaderBlockedNanos();
+
+    /**
+     * The longest time a reader waited for a message.
+     */
+    long getReaderBlockedMaxNanos();
+
+    /**
+     * The median time a reader waited for a message.
+     */
+    long getReaderBlockedP50Nanos();
+
+    /**
+     * The 99th percentile of the time a reader waited for a message.
+     */
+    long getReaderBlockedP99Nanos();
+}
@@ -0,0 +1,210 @@
+package io.github.daichim.jach.routines;
+
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.internal.Blocking;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link JachScheduler} runs routines on a dedicated {@link ForkJoinPool}. Whenever a routine
+ * blocks on a channel, its thread tells the pool through a {@link ForkJoinPool.ManagedBlocker},
+ * so that the pool compensates with a spare thread and the queued routines keep running. This
+ * makes it safe to have many more blocked routines than the parallelism of the scheduler on
+ * runtimes without virtual threads.
+ * <p>
+ * An exception thrown by a routine is passed to the {@link Thread.UncaughtExceptionHandler} of the
+ * scheduler, which logs it by default, and the thread goes on running other routines.
+ */
+@Slf4j
+public class JachScheduler extends AbstractExecutorService {
+
+    /**
+     * The default prefix of the names of the scheduler's threads.
+     */
+    public static final String DEFAULT_NAME = "jach-routine";
+
+    private static final AtomicInteger SCHEDULERS = new AtomicInteger(0);
+
+    private final ForkJoinPool pool;
+    private final String name;
+    private final Thread.UncaughtExceptionHandler exceptionHandler;
+    private final AtomicInteger threads;
+    private final AtomicInteger active;
+    private final AtomicInteger blocked;
+    private final LongAdder failed;
+
+    /**
+     * Creates a {@link JachScheduler} with a parallelism equal to the number of available
+     * processors, which logs the exceptions thrown by the routines.
+     */
+    public JachScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a {@link JachScheduler} with the given parallelism, which logs the exceptions thrown
+     * by the routines.
+     *
+     * @param parallelism The number of threads running routines at the same time, not counting
+     *                    the spare threads that replace blocked ones.
+     */
+    public JachScheduler(int parallelism) {
+        this(parallelism, DEFAULT_NAME + "-" + SCHEDULERS.incrementAndGet(),
+            (thread, ex) -> log.error("Exception in routine on {}", thread.getName(), ex));
+    }
+
+    /**
+     * Creates a {@link JachScheduler}.
+     *
+     * @param parallelism      The number of threads running routines at the same time, not
+     *                         counting the spare threads that replace blocked ones.
+     * @param name             The prefix of the names of the scheduler's threads.
+     * @param exceptionHandler The handler for the exceptions thrown by the routines.
+     */
+    public JachScheduler(int parallelism, String name,
+                         Thread.UncaughtExceptionHandler exceptionHandler) {
+        Preconditions.checkArgument(parallelism > 0, "Parallelism must be positive");
+        this.name = Preconditions.checkNotNull(name);
+        this.exceptionHandler = Preconditions.checkNotNull(exceptionHandler);
+        this.threads = new AtomicInteger(0);
+        this.active = new AtomicInteger(0);
+        this.blocked = new AtomicInteger(0);
+        this.failed = new LongAdder();
+        this.pool = new ForkJoinPool(parallelism, Worker::new, null, true);
+    }
+
+    @Override
+    public void execute(Runnable routine) {
+        Preconditions.checkNotNull(routine);
+        pool.execute(() -> run(routine));
+    }
+
+    private void run(Runnable routine) {
+        active.incrementAndGet();
+        try {
+            routine.run();
+        } catch (Throwable th) {
+            failed.increment();
+            try {
+                exceptionHandler.uncaughtException(Thread.currentThread(), th);
+            } catch (Throwable handlerEx) {
+                log.error("Exception in the exception handler of {}", name, handlerEx);
+            }
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of routines which are currently running, including the blocked ones.
+     *
+     * @return The number of running routines.
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * Returns the number of routines which are currently blocked on a channel.
+     *
+     * @return The number of blocked routines.
+     */
+    public int getBlockedCount() {
+        return blocked.get();
+    }
+
+    /**
+     * Returns an estimate of the number of routines which are submitted but did not start yet.
+     *
+     * @return The number of queued routines.
+     */
+    public long getQueuedCount() {
+        return pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount();
+    }
+
+    /**
+     * Returns the number of routines which terminated with an exception.
+     *
+     * @return The number of failed routines.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns the number of threads of the scheduler, including the spare threads.
+     *
+     * @return The number of threads.
+     */
+    public int getPoolSize() {
+        return pool.getPoolSize();
+    }
+
+    /**
+     * Returns the parallelism of the scheduler.
+     *
+     * @return The parallelism.
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return pool.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return pool.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return pool.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * The thread of a {@link JachScheduler}, which keeps count of the blocked routines.
+     */
+    private final class Worker extends ForkJoinWorkerThread implements Blocking.Listener {
+
+        Worker(ForkJoinPool pool) {
+            super(pool);
+        }
+
+        @Override
+        protected void onStart() {
+            super.onStart();
+            // Named here, since some JDKs name the thread after it was constructed.
+            setName(name + "-" + threads.incrementAndGet());
+        }
+
+        @Override
+        public void onBlock() {
+            blocked.incrementAndGet();
+        }
+
+        @Override
+        public void onUnblock() {
+            blocked.decrementAndGet();
+        }
+    }
+}
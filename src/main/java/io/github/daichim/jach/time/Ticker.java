@@ -1,18 +1,23 @@
 package io.github.daichim.jach.time;
 
-import io.github.daichim.jach.JachChannels;
 import io.github.daichim.jach.channel.Channel;
 import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.internal.FlightEvents;
 
 import java.time.Instant;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * {@link Ticker} sends the current time on its {@link Channel} at a fixed rate. Like a Go ticker,
+ * it never waits for a slow reader: the channel holds a single pending tick, and the ticks which
+ * come while it is still unread are dropped and counted in {@link #getDroppedTicks()}. This keeps
+ * the threads of the {@link ScheduledExecutorService} free for the other timers.
+ */
 public class Ticker {
 
-
-
     /**
      * The {@link Channel} of the {@link Ticker} on which an event is sent once every tick.
      */
@@ -23,17 +28,24 @@ public class Ticker {
     private volatile boolean open;
     private Future<?> tickerFuture;
     private ScheduledExecutorService executor;
+    private final TimeChannel channel;
+    private final AtomicLong droppedTicks;
+    // When the next tick is due, to report how late the ticks fire.
+    private volatile long nextTick;
 
     public Ticker(long duration, TimeUnit unit, ScheduledExecutorService executor) {
         this.duration = duration;
         this.unit = unit;
-        this.C = JachChannels.make(Instant.class);
+        // Like Go's time channels, a single event is buffered so that sending it never waits.
+        this.channel = new TimeChannel();
+        this.C = channel;
+        this.droppedTicks = new AtomicLong(0);
         this.open = true;
         this.executor = executor;
 
+        this.nextTick = System.nanoTime() + unit.toNanos(duration);
         this.tickerFuture =
-            executor.scheduleAtFixedRate(() -> this.C.write(Instant.now()),
-                duration, duration, unit);
+            executor.scheduleAtFixedRate(this::tick, duration, duration, unit);
     }
 
     /**
@@ -64,8 +76,27 @@ public class Ticker {
         this.tickerFuture.cancel(false);
         this.duration = duration;
         this.unit = unit;
-        this.tickerFuture = executor.scheduleAtFixedRate(() -> this.C.write(Instant.now()),
-            duration, duration, unit);
+        this.nextTick = System.nanoTime() + unit.toNanos(duration);
+        this.tickerFuture = executor.scheduleAtFixedRate(this::tick, duration, duration, unit);
+    }
+
+    private void tick() {
+        long due = nextTick;
+        nextTick = due + unit.toNanos(duration);
+        // The event is emitted before the tick is sent, so that it happens before the tick is read.
+        FlightEvents.INSTANCE.timerFired(channel, true, System.nanoTime() - due);
+        if (!channel.offer(Instant.now()) && open) {
+            droppedTicks.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of ticks which were dropped because the previous tick was still unread.
+     *
+     * @return The number of dropped ticks.
+     */
+    public long getDroppedTicks() {
+        return droppedTicks.get();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,380 @@
+package io.github.daichim.jach.time;
+
+import com.google.common.base.Preconditions;
+import io.github.daichim.jach.channel.Channel;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import io.github.daichim.jach.exception.TimeoutException;
+import io.github.daichim.jach.internal.AfterWriteAction;
+import io.github.daichim.jach.internal.AfterWriteActions;
+import io.github.daichim.jach.internal.ChannelIterator;
+import io.github.daichim.jach.internal.WaitQueue;
+import io.github.daichim.jach.internal.Waiter;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * {@link TimeChannel} is the {@link Channel} of a {@link Timer} or a {@link Ticker}. It behaves
+ * like a {@link io.github.daichim.jach.channel.BufferedChannel} of capacity 1, but is made to be
+ * created by the hundred thousand for timeouts: the event is held in a single slot and passed by
+ * reference, since an {@link Instant} is immutable, and the wait queues, the id, the iterator and
+ * the {@link AfterWriteActions} are only created once they are needed. A timer which fires and is
+ * read (or is closed before firing) without a selector only allocates the channel itself.
+ */
+final class TimeChannel implements Channel<Instant> {
+
+    private static final AtomicReferenceFieldUpdater<TimeChannel, Instant> SLOT =
+        AtomicReferenceFieldUpdater.newUpdater(TimeChannel.class, Instant.class, "slot");
+    private static final AtomicReferenceFieldUpdater<TimeChannel, WaitQueue> READERS =
+        AtomicReferenceFieldUpdater.newUpdater(TimeChannel.class, WaitQueue.class, "readers");
+    private static final AtomicReferenceFieldUpdater<TimeChannel, WaitQueue> WRITERS =
+        AtomicReferenceFieldUpdater.newUpdater(TimeChannel.class, WaitQueue.class, "writers");
+    private static final AtomicReferenceFieldUpdater<TimeChannel, String> ID =
+        AtomicReferenceFieldUpdater.newUpdater(TimeChannel.class, String.class, "channelId");
+    private static final AtomicReferenceFieldUpdater<TimeChannel, AfterWriteActions> AFWS =
+        AtomicReferenceFieldUpdater.newUpdater(TimeChannel.class, AfterWriteActions.class,
+            "afterWriteActions");
+    private static final AtomicReferenceFieldUpdater<TimeChannel, ChannelIterator> ITERATOR =
+        AtomicReferenceFieldUpdater.newUpdater(TimeChannel.class, ChannelIterator.class,
+            "iterator");
+
+    private volatile Instant slot;
+    private volatile boolean open;
+    // Created lazily. A thread which finds a queue missing after its own update of the slot (or
+    // the closure) does not need to signal it: a waiter always re-checks after enqueueing.
+    private volatile WaitQueue readers;
+    private volatile WaitQueue writers;
+    private volatile String channelId;
+    private volatile AfterWriteActions afterWriteActions;
+    private volatile ChannelIterator<Instant> iterator;
+
+    TimeChannel() {
+        this.open = true;
+    }
+
+    /**
+     * Writes the event to the channel. If the previous event has not been read yet, the thread is
+     * parked until it is.
+     *
+     * @throws ClosedChannelException In case the channel has already been closed, or got closed
+     *                                before write could succeed.
+     * @throws IllegalStateException  In case the thread is interrupted while waiting for space.
+     * @throws NullPointerException   If the event is {@literal null}.
+     */
+    @Override
+    public void write(Instant message) throws ClosedChannelException, IllegalStateException {
+        blockedWrite(message, false, 0L);
+    }
+
+    @Override
+    public void write(Instant message, int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        blockedWrite(message, true, System.nanoTime() + nanos);
+    }
+
+    @Override
+    public boolean tryWrite(Instant message) throws ClosedChannelException {
+        Preconditions.checkNotNull(message);
+        if (!open) {
+            throw new ClosedChannelException("Channel is already closed for writing");
+        }
+        if (SLOT.compareAndSet(this, null, message)) {
+            afterWrite();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sends an event without ever blocking, like the scheduler thread of a Go timer does. The
+     * event is dropped if the previous one has not been read yet, so a slow reader gets the oldest
+     * pending event rather than a backlog.
+     *
+     * @param event The event to send.
+     *
+     * @return {@literal true} if the event was written, {@literal false} if the slot was full or
+     *     the channel closed.
+     */
+    boolean offer(Instant event) {
+        if (open && SLOT.compareAndSet(this, null, event)) {
+            afterWrite();
+            return true;
+        }
+        return false;
+    }
+
+    private void blockedWrite(Instant message, boolean timed, long deadline)
+        throws TimeoutException {
+        Preconditions.checkNotNull(message);
+        if (!open) {
+            throw new ClosedChannelException("Channel is already closed for writing");
+        }
+        while (true) {
+            if (SLOT.compareAndSet(this, null, message)) {
+                afterWrite();
+                return;
+            }
+            Waiter waiter = Waiter.current();
+            WaitQueue writers = writers();
+            writers.enqueue(waiter);
+            // Re-check after enqueueing, so that a read or close in between is not missed.
+            if (!open) {
+                waiter.cancel();
+                throw new ClosedChannelException("Channel got closed before write could complete");
+            }
+            if (SLOT.compareAndSet(this, null, message)) {
+                if (!waiter.cancel()) {
+                    writers.signal();
+                }
+                afterWrite();
+                return;
+            }
+            if (!waiter.await(timed, deadline)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Interrupted while writing to the channel");
+                }
+                if (SLOT.compareAndSet(this, null, message)) {
+                    afterWrite();
+                    return;
+                }
+                throw new TimeoutException();
+            }
+            if (!open) {
+                throw new ClosedChannelException("Channel got closed before write could complete");
+            }
+        }
+    }
+
+    private void afterWrite() {
+        signal(readers);
+        AfterWriteActions afws = afterWriteActions;
+        if (afws != null) {
+            afws.onWrite();
+        }
+    }
+
+    @Override
+    public boolean canWrite() {
+        return isOpen();
+    }
+
+    @Override
+    public Instant read() throws NoSuchChannelElementException, IllegalStateException {
+        return blockedRead(false, 0L);
+    }
+
+    @Override
+    public Instant read(int timeout, TimeUnit unit) throws TimeoutException {
+        long nanos = (unit == null ? MILLISECONDS : unit).toNanos(timeout);
+        return blockedRead(true, System.nanoTime() + nanos);
+    }
+
+    @Override
+    public Instant tryRead() {
+        Instant msg = poll();
+        if (msg != null) {
+            return msg;
+        }
+        if (!open && slot == null) {
+            throw new NoSuchChannelElementException();
+        }
+        return null;
+    }
+
+    private Instant blockedRead(boolean timed, long deadline)
+        throws NoSuchChannelElementException, IllegalStateException {
+        while (true) {
+            Instant msg = poll();
+            if (msg != null) {
+                return msg;
+            }
+            if (!open && slot == null) {
+                throw new NoSuchChannelElementException();
+            }
+            Waiter waiter = Waiter.current();
+            WaitQueue readers = readers();
+            readers.enqueue(waiter);
+            // Re-check after enqueueing, so that a write or close in between is not missed.
+            msg = poll();
+            if (msg != null || !open) {
+                if (!waiter.cancel()) {
+                    readers.signal();
+                }
+                if (msg != null) {
+                    return msg;
+                }
+                continue;
+            }
+            if (!waiter.await(timed, deadline)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Interrupted while reading from the channel");
+                }
+                msg = poll();
+                if (msg != null) {
+                    return msg;
+                }
+                throw new TimeoutException();
+            }
+        }
+    }
+
+    private Instant poll() {
+        while (true) {
+            Instant msg = slot;
+            if (msg == null) {
+                return null;
+            }
+            if (SLOT.compareAndSet(this, msg, null)) {
+                signal(writers);
+                return msg;
+            }
+        }
+    }
+
+    @Override
+    public boolean canRead() {
+        return isOpen() || slot != null;
+    }
+
+    /**
+     * Closes this channel. The threads parked in {@link #read()} or {@link #write(Instant)} are
+     * woken up. Readers can still read an event that is left in the channel.
+     */
+    @Override
+    public void close() {
+        this.open = false;
+        signalAll(readers);
+        signalAll(writers);
+
+        AfterWriteActions afws = afterWriteActions;
+        if (afws != null) {
+            afws.close();
+        }
+        ChannelIterator<Instant> it = iterator;
+        if (it != null) {
+            it.markDone();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Returns a unique id for this {@link Channel}, which is generated on the first call.
+     *
+     * @return A unique id for this {@link Channel}.
+     */
+    @Override
+    public String getId() {
+        String id = channelId;
+        if (id == null) {
+            ID.compareAndSet(this, null, UUID.randomUUID().toString());
+            id = channelId;
+        }
+        return id;
+    }
+
+    @Override
+    public Class<Instant> getDataType() {
+        return Instant.class;
+    }
+
+    @Override
+    public void registerAfterWriteAction(AfterWriteAction afw) {
+        AfterWriteActions afws = afterWriteActions;
+        if (afws == null) {
+            AFWS.compareAndSet(this, null, new AfterWriteActions());
+            afws = afterWriteActions;
+        }
+        afws.add(afw);
+    }
+
+    @Override
+    public void deregisterAfterWriteAction(AfterWriteAction afw) {
+        AfterWriteActions afws = afterWriteActions;
+        if (afws != null) {
+            afws.remove(afw);
+        }
+    }
+
+    @Override
+    public void enqueueReadWaiter(Waiter waiter) {
+        readers().enqueue(waiter);
+    }
+
+    @Override
+    public void enqueueWriteWaiter(Waiter waiter) {
+        writers().enqueue(waiter);
+    }
+
+    private WaitQueue readers() {
+        WaitQueue q = readers;
+        if (q == null) {
+            READERS.compareAndSet(this, null, new WaitQueue());
+            q = readers;
+        }
+        return q;
+    }
+
+    private WaitQueue writers() {
+        WaitQueue q = writers;
+        if (q == null) {
+            WRITERS.compareAndSet(this, null, new WaitQueue());
+            q = writers;
+        }
+        return q;
+    }
+
+    private static void signal(WaitQueue q) {
+        if (q != null) {
+            q.signal();
+        }
+    }
+
+    private static void signalAll(WaitQueue q) {
+        if (q != null) {
+            q.signalAll();
+        }
+    }
+
+    @Override
+    public Iterator<Instant> iterator() {
+        ChannelIterator<Instant> it = iterator;
+        if (it == null) {
+            ITERATOR.compareAndSet(this, null, new ChannelIterator<>(this));
+            it = iterator;
+            // A close in between might have missed the new iterator.
+            if (!open) {
+                it.markDone();
+            }
+        }
+        return it;
+    }
+
+    /**
+     * Perform an action over the events as received in the current thread from the channel, until
+     * the channel is closed.
+     *
+     * @param action The action to perform for each event received on this thread.
+     */
+    @Override
+    public void forEach(Consumer<? super Instant> action) {
+        try {
+            while (this.isOpen() || this.slot != null) {
+                Instant msg = this.read();
+                action.accept(msg);
+            }
+        } catch (NoSuchChannelElementException | ClosedChannelException ex) {
+            // Done iterating. Do nothing
+        }
+    }
+}
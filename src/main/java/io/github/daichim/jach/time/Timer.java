@@ -1,9 +1,9 @@
 package io.github.daichim.jach.time;
 
-import io.github.daichim.jach.JachChannels;
 import io.github.daichim.jach.channel.Action;
 import io.github.daichim.jach.channel.Channel;
 import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.internal.FlightEvents;
 
 import java.time.Instant;
 import java.util.concurrent.Future;
@@ -27,17 +27,21 @@ public class Timer {
     private volatile boolean open;
     private Future<?> timerFuture;
     private ScheduledExecutorService executor;
+    private final TimeChannel channel;
 
     public Timer(long duration, TimeUnit unit, ScheduledExecutorService executor) {
         this.duration = duration;
         this.unit = unit;
-        this.C = JachChannels.make(Instant.class);
+        // Like Go's time channels, a single event is buffered so that sending it never waits.
+        this.channel = new TimeChannel();
+        this.C = channel;
         this.open = true;
         this.executor = executor;
 
+        long due = System.nanoTime() + unit.toNanos(duration);
         this.timerFuture =
             executor.schedule(() -> {
-                this.C.write(Instant.now());
+                fire(due);
                 this.close();
             }, duration, unit);
     }
@@ -68,6 +72,13 @@ public class Timer {
         this.timerFuture.cancel(false);
         this.duration = duration;
         this.unit = unit;
-        this.timerFuture = executor.schedule(() -> this.C.write(Instant.now()), duration, unit);
+        long due = System.nanoTime() + unit.toNanos(duration);
+        this.timerFuture = executor.schedule(() -> fire(due), duration, unit);
+    }
+
+    // The event is emitted before the tick is sent, so that it happens before the tick is read.
+    private void fire(long due) {
+        FlightEvents.INSTANCE.timerFired(channel, false, System.nanoTime() - due);
+        this.channel.offer(Instant.now());
     }
 }
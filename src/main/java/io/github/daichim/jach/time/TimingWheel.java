@@ -0,0 +1,487 @@
+package io.github.daichim.jach.time;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link TimingWheel} is a {@link ScheduledExecutorService} backed by a hashed hierarchical timing
+ * wheel, for a large number of short lived timers like request deadlines. Scheduling and
+ * cancelling a task are O(1), unlike a {@link java.util.concurrent.ScheduledThreadPoolExecutor}
+ * whose heap costs O(log n) and keeps cancelled tasks around until they expire. It can be used in
+ * place of the default executor of {@link io.github.daichim.jach.JachTime}, see {@link
+ * io.github.daichim.jach.JachTime#useTimingWheel(long, TimeUnit)}.
+ * <p>
+ * Time advances in ticks of a fixed resolution. The first level of the wheel has one bucket per
+ * tick, and every further level has buckets spanning a whole turn of the level below it, so a
+ * handful of levels cover any delay. A task in an upper level is moved down (cascaded) once the
+ * time reaches its bucket, and it finally expires on the first tick at or after its deadline.
+ * Tasks never run early, but they may run up to one tick late.
+ * <p>
+ * A single thread owns the wheel. Other threads hand tasks and cancellations over through
+ * lock-free queues, which the wheel thread drains on every tick. The expired tasks run on the
+ * wheel thread too, so they have to be short and must not block, or they delay every other timer
+ * of the wheel.
+ * <p>
+ * Like a {@link java.util.concurrent.ScheduledThreadPoolExecutor}, shutting the wheel down with
+ * {@link #shutdown()} cancels the periodic tasks but still runs the delayed ones once they expire,
+ * and the wheel terminates after the last of them. {@link #shutdownNow()} cancels all the tasks
+ * that have not expired yet.
+ */
+@Slf4j
+public class TimingWheel extends AbstractExecutorService implements ScheduledExecutorService {
+
+    /**
+     * The default number of buckets in each level of the wheel.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final AtomicInteger WHEELS = new AtomicInteger(0);
+
+    private final long tickNanos;
+    private final int bits;
+    private final int mask;
+    private final long startNanos;
+    private final Queue<WheelTask<?>> pending;
+    private final Queue<WheelTask<?>> cancelled;
+    private final CountDownLatch terminated;
+    private final Thread worker;
+    private volatile boolean shutdown;
+    private volatile boolean stopped;
+
+    // Owned by the worker thread. The bucket heads of each level, allocated when first needed.
+    private final WheelTask<?>[][] levels;
+    private long currentTick;
+    private int linked;
+    private boolean draining;
+
+    /**
+     * Creates a {@link TimingWheel} with a resolution of one millisecond.
+     */
+    public TimingWheel() {
+        this(1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a {@link TimingWheel} with the given resolution and {@link #DEFAULT_WHEEL_SIZE}
+     * buckets per level.
+     *
+     * @param tick The duration of a tick.
+     * @param unit The unit corresponding to the tick duration.
+     */
+    public TimingWheel(long tick, TimeUnit unit) {
+        this(tick, unit, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Creates a {@link TimingWheel}.
+     *
+     * @param tick      The duration of a tick.
+     * @param unit      The unit corresponding to the tick duration.
+     * @param wheelSize The number of buckets per level, a power of two.
+     */
+    public TimingWheel(long tick, TimeUnit unit, int wheelSize) {
+        Preconditions.checkArgument(unit.toNanos(tick) > 0, "Tick must be positive");
+        Preconditions.checkArgument(wheelSize > 1 && Integer.bitCount(wheelSize) == 1,
+            "Wheel size must be a power of two");
+        this.tickNanos = unit.toNanos(tick);
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.levels = new WheelTask<?>[(Long.SIZE + bits - 1) / bits][];
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.cancelled = new ConcurrentLinkedQueue<>();
+        this.terminated = new CountDownLatch(1);
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, "jach-timing-wheel-" + WHEELS.incrementAndGet());
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        Preconditions.checkNotNull(command);
+        return submitTask(new WheelTask<Void>(command, null, deadline(delay, unit), 0L));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        Preconditions.checkNotNull(callable);
+        return submitTask(new WheelTask<>(callable, deadline(delay, unit)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay,
+                                                  long period, TimeUnit unit) {
+        Preconditions.checkNotNull(command);
+        Preconditions.checkArgument(period > 0, "Period must be positive");
+        return submitTask(new WheelTask<Void>(command, null, deadline(initialDelay, unit),
+            unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay,
+                                                     long delay, TimeUnit unit) {
+        Preconditions.checkNotNull(command);
+        Preconditions.checkArgument(delay > 0, "Delay must be positive");
+        return submitTask(new WheelTask<Void>(command, null, deadline(initialDelay, unit),
+            -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        schedule(command, 0L, TimeUnit.NANOSECONDS);
+    }
+
+    private static long deadline(long delay, TimeUnit unit) {
+        return System.nanoTime() + unit.toNanos(Math.max(delay, 0L));
+    }
+
+    private <V> WheelTask<V> submitTask(WheelTask<V> task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("TimingWheel has been shut down");
+        }
+        pending.add(task);
+        // The worker might have drained the queue for the last time in between.
+        if (shutdown && pending.remove(task)) {
+            throw new RejectedExecutionException("TimingWheel has been shut down");
+        }
+        return task;
+    }
+
+    /**
+     * Shuts the wheel down. The periodic tasks are cancelled, while the delayed tasks still run
+     * once they expire. No new task is accepted.
+     */
+    @Override
+    public void shutdown() {
+        this.shutdown = true;
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Shuts the wheel down and cancels the tasks that have not expired yet. The cancelled tasks
+     * are not returned, the returned list is always empty.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        this.stopped = true;
+        shutdown();
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    private void run() {
+        try {
+            while (!stopped) {
+                long target = awaitTick();
+                unlinkCancelled();
+                transferPending();
+                if (shutdown && !draining) {
+                    draining = true;
+                    cancelPeriodic();
+                }
+                while (currentTick < target) {
+                    advance(++currentTick);
+                }
+                if (draining && linked == 0 && pending.isEmpty()) {
+                    break;
+                }
+            }
+        } catch (Throwable th) {
+            log.error("TimingWheel stopped unexpectedly", th);
+            this.stopped = true;
+            this.shutdown = true;
+        } finally {
+            cancelAll();
+            terminated.countDown();
+        }
+    }
+
+    /**
+     * Waits until the next tick is due, or the wheel is shut down or stopped.
+     *
+     * @return The tick the time has reached.
+     */
+    private long awaitTick() {
+        long deadline = startNanos + (currentTick + 1) * tickNanos;
+        for (; ; ) {
+            long now = System.nanoTime();
+            if (now - deadline >= 0L || stopped || (shutdown && !draining)) {
+                return (now - startNanos) / tickNanos;
+            }
+            LockSupport.parkNanos(this, deadline - now);
+        }
+    }
+
+    private void transferPending() {
+        WheelTask<?> task;
+        while ((task = pending.poll()) != null) {
+            if (shutdown && task.isPeriodic()) {
+                task.cancel(false);
+            } else if (!task.isCancelled()) {
+                add(task);
+            }
+        }
+    }
+
+    private void unlinkCancelled() {
+        WheelTask<?> task;
+        while ((task = cancelled.poll()) != null) {
+            if (task.level >= 0) {
+                unlink(task);
+            }
+        }
+    }
+
+    /**
+     * Puts the task into the lowest level that covers its deadline, or runs it if it is due.
+     */
+    private void add(WheelTask<?> task) {
+        long deadlineTick = deadlineTick(task.deadline);
+        if (deadlineTick <= currentTick) {
+            expire(task);
+            return;
+        }
+        int level = 0;
+        int shift = 0;
+        // The top level takes whatever is left. Its buckets might get cascaded too early, which
+        // only puts the tasks back in the same level.
+        while (level < levels.length - 1
+            && (deadlineTick >>> shift) - (currentTick >>> shift) > mask) {
+            level++;
+            shift += bits;
+        }
+        link(task, level, (int) ((deadlineTick >>> shift) & mask));
+    }
+
+    private long deadlineTick(long deadline) {
+        long elapsed = deadline - startNanos;
+        return (elapsed <= 0L) ? 0L : (elapsed + tickNanos - 1) / tickNanos;
+    }
+
+    private void advance(long tick) {
+        for (int level = levels.length - 1; level > 0; level--) {
+            int shift = level * bits;
+            if (levels[level] != null && (tick & ((1L << shift) - 1)) == 0) {
+                for (WheelTask<?> task = detach(level, (int) ((tick >>> shift) & mask));
+                     task != null; ) {
+                    WheelTask<?> next = task.next;
+                    task.next = null;
+                    add(task);
+                    task = next;
+                }
+            }
+        }
+        if (levels[0] != null) {
+            for (WheelTask<?> task = detach(0, (int) (tick & mask)); task != null; ) {
+                WheelTask<?> next = task.next;
+                task.next = null;
+                expire(task);
+                task = next;
+            }
+        }
+    }
+
+    private void expire(WheelTask<?> task) {
+        if (task.isCancelled()) {
+            return;
+        }
+        try {
+            if (!task.isPeriodic()) {
+                task.run();
+            } else if (task.runAndReset()) {
+                if (shutdown) {
+                    task.cancel(false);
+                    return;
+                }
+                task.deadline = (task.period > 0)
+                    ? task.deadline + task.period
+                    : System.nanoTime() - task.period;
+                add(task);
+            }
+        } catch (Throwable th) {
+            log.warn("Error in running timer task", th);
+        }
+    }
+
+    private void link(WheelTask<?> task, int level, int slot) {
+        WheelTask<?>[] buckets = levels[level];
+        if (buckets == null) {
+            buckets = new WheelTask<?>[mask + 1];
+            levels[level] = buckets;
+        }
+        WheelTask<?> head = buckets[slot];
+        task.level = level;
+        task.slot = slot;
+        task.prev = null;
+        task.next = head;
+        if (head != null) {
+            head.prev = task;
+        }
+        buckets[slot] = task;
+        linked++;
+    }
+
+    private void unlink(WheelTask<?> task) {
+        if (task.prev != null) {
+            task.prev.next = task.next;
+        } else {
+            levels[task.level][task.slot] = task.next;
+        }
+        if (task.next != null) {
+            task.next.prev = task.prev;
+        }
+        task.prev = null;
+        task.next = null;
+        task.level = -1;
+        linked--;
+    }
+
+    /**
+     * Removes all the tasks of a bucket.
+     *
+     * @return The first task of the bucket, the others are linked through {@code next}.
+     */
+    private WheelTask<?> detach(int level, int slot) {
+        WheelTask<?> head = levels[level][slot];
+        levels[level][slot] = null;
+        for (WheelTask<?> task = head; task != null; task = task.next) {
+            task.prev = null;
+            task.level = -1;
+            linked--;
+        }
+        return head;
+    }
+
+    private void cancelPeriodic() {
+        for (WheelTask<?>[] buckets : levels) {
+            if (buckets == null) {
+                continue;
+            }
+            for (int slot = 0; slot < buckets.length; slot++) {
+                for (WheelTask<?> task = buckets[slot]; task != null; ) {
+                    WheelTask<?> next = task.next;
+                    if (task.isPeriodic()) {
+                        unlink(task);
+                        task.cancel(false);
+                    }
+                    task = next;
+                }
+            }
+        }
+    }
+
+    private void cancelAll() {
+        WheelTask<?> task;
+        while ((task = pending.poll()) != null) {
+            task.cancel(false);
+        }
+        for (WheelTask<?>[] buckets : levels) {
+            if (buckets == null) {
+                continue;
+            }
+            for (int slot = 0; slot < buckets.length; slot++) {
+                for (task = buckets[slot]; task != null; task = task.next) {
+                    task.level = -1;
+                    task.cancel(false);
+                }
+                buckets[slot] = null;
+            }
+        }
+        linked = 0;
+        cancelled.clear();
+    }
+
+    /**
+     * A task of the wheel. It is linked into at most one bucket at a time, so that it can be
+     * unlinked in O(1) once cancelled.
+     */
+    private final class WheelTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+        // Positive for a fixed rate, negative for a fixed delay and zero for a one-shot task.
+        private final long period;
+        // In terms of System.nanoTime(). Only updated by the worker thread between two runs.
+        private volatile long deadline;
+
+        // Owned by the worker thread.
+        private WheelTask<?> prev;
+        private WheelTask<?> next;
+        private int level = -1;
+        private int slot;
+
+        WheelTask(Runnable runnable, V result, long deadline, long period) {
+            super(runnable, result);
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        WheelTask(Callable<V> callable, long deadline) {
+            super(callable);
+            this.deadline = deadline;
+            this.period = 0L;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return period != 0L;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS),
+                other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancel = super.cancel(mayInterruptIfRunning);
+            if (cancel && !stopped) {
+                cancelled.add(this);
+            }
+            return cancel;
+        }
+
+        @Override
+        protected boolean runAndReset() {
+            return super.runAndReset();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.daichim.jach.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A read or a write which blocked on a channel for longer than the threshold.
+ */
+@Name("jach.ChannelBlocked")
+@Label("Channel Blocked")
+@Category({"JaCh", "Channel"})
+@Description("A read or write which blocked on a channel")
+@StackTrace
+@Threshold("10 ms")
+final class ChannelBlockedEvent extends ChannelEvent {
+
+    @Label("Write")
+    @Description("Whether a writer or a reader blocked")
+    boolean write;
+}
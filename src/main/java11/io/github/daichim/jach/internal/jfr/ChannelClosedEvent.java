@@ -0,0 +1,18 @@
+package io.github.daichim.jach.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A channel which got closed.
+ */
+@Name("jach.ChannelClosed")
+@Label("Channel Closed")
+@Category({"JaCh", "Channel"})
+@Description("A channel which got closed")
+@StackTrace
+final class ChannelClosedEvent extends ChannelEvent {
+}
@@ -0,0 +1,20 @@
+package io.github.daichim.jach.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A copy of a message by the copier of a channel which took longer than the threshold.
+ */
+@Name("jach.ChannelCopy")
+@Label("Channel Copy")
+@Category({"JaCh", "Channel"})
+@Description("A copy of a message by the copier of a channel")
+@StackTrace(false)
+@Threshold("1 ms")
+final class ChannelCopyEvent extends ChannelEvent {
+}
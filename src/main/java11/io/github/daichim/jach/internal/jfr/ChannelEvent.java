@@ -0,0 +1,22 @@
+package io.github.daichim.jach.internal.jfr;
+
+import io.github.daichim.jach.channel.Channel;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * The fields which all the events of JaCh carry: the channel they happened on.
+ */
+abstract class ChannelEvent extends Event {
+
+    @Label("Channel Id")
+    String channelId;
+
+    @Label("Data Type")
+    Class<?> dataType;
+
+    void setChannel(Channel<?> channel) {
+        this.channelId = channel.getId();
+        this.dataType = channel.getDataType();
+    }
+}
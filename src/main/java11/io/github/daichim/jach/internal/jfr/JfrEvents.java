@@ -0,0 +1,145 @@
+package io.github.daichim.jach.internal.jfr;
+
+import io.github.daichim.jach.channel.Channel;
+import io.github.daichim.jach.internal.FlightEvents;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * {@link JfrEvents} emits the events of JaCh to the Java Flight Recorder. It is compiled for Java
+ * 11 and only loaded by {@link FlightEvents#INSTANCE} on runtimes which have {@code jdk.jfr}.
+ * <p>
+ * No event is created before the Flight Recorder runs, nor registered up front, since loading an
+ * event class instruments it and registering one starts the recorder, which takes a few hundred ms:
+ * the recorder registers the events itself once a recording starts it. A timed event is only
+ * created if a recording has it enabled, and committed if it lasted longer than its threshold, so
+ * neither costs anything when no recording runs but the check of {@link
+ * FlightRecorder#isInitialized()}, and then of {@link jdk.jfr.Event#isEnabled()}, which the JIT
+ * compiles down to a field read once it eliminates the allocation of the event.
+ */
+public final class JfrEvents extends FlightEvents {
+
+    public JfrEvents() {
+        // The events are only registered up front if the Flight Recorder runs already.
+        if (FlightRecorder.isInitialized()) {
+            register();
+        }
+    }
+
+    private static void register() {
+        FlightRecorder.register(ChannelBlockedEvent.class);
+        FlightRecorder.register(ChannelCopyEvent.class);
+        FlightRecorder.register(SelectorWakeupEvent.class);
+        FlightRecorder.register(TimerFiredEvent.class);
+        FlightRecorder.register(ChannelClosedEvent.class);
+    }
+
+    @Override
+    public Object beginBlocked() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        ChannelBlockedEvent event = new ChannelBlockedEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endBlocked(Object begun, Channel<?> channel, boolean write) {
+        if (begun == null) {
+            return;
+        }
+        ChannelBlockedEvent event = (ChannelBlockedEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.setChannel(channel);
+            event.write = write;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginCopy() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        ChannelCopyEvent event = new ChannelCopyEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endCopy(Object begun, Channel<?> channel) {
+        if (begun == null) {
+            return;
+        }
+        ChannelCopyEvent event = (ChannelCopyEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.setChannel(channel);
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginSelect() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        SelectorWakeupEvent event = new SelectorWakeupEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endSelect(Object begun, Channel<?> channel, boolean send, int cases) {
+        if (begun == null) {
+            return;
+        }
+        SelectorWakeupEvent event = (SelectorWakeupEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.setChannel(channel);
+            event.send = send;
+            event.cases = cases;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void timerFired(Channel<?> channel, boolean periodic, long latenessNanos) {
+        if (!FlightRecorder.isInitialized()) {
+            return;
+        }
+        TimerFiredEvent event = new TimerFiredEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.lateness = latenessNanos;
+        if (event.shouldCommit()) {
+            event.setChannel(channel);
+            event.periodic = periodic;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void channelClosed(Channel<?> channel) {
+        if (!FlightRecorder.isInitialized()) {
+            return;
+        }
+        ChannelClosedEvent event = new ChannelClosedEvent();
+        if (event.isEnabled()) {
+            event.setChannel(channel);
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.daichim.jach.internal.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.MetadataDefinition;
+import jdk.jfr.Name;
+import jdk.jfr.SettingControl;
+import jdk.jfr.Timespan;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LatenessSetting} is the {@code lateness} setting of {@link TimerFiredEvent}, a timespan
+ * like the {@code threshold} setting (e.g. {@code "5 ms"}), below which a late timer is not
+ * recorded. When several recordings run, the lowest of their thresholds applies.
+ */
+@MetadataDefinition
+@Name("jach.LatenessThreshold")
+@Label("Lateness Threshold")
+@Description("The lateness below which a timer is not recorded")
+@Timespan
+public final class LatenessSetting extends SettingControl {
+
+    static final String DEFAULT = "1 ms";
+
+    private String value = DEFAULT;
+    private volatile long nanos = parse(DEFAULT);
+
+    public LatenessSetting() {
+    }
+
+    @Override
+    public String combine(Set<String> values) {
+        String lowest = null;
+        long lowestNanos = Long.MAX_VALUE;
+        for (String candidate : values) {
+            long candidateNanos = parse(candidate);
+            if (lowest == null || candidateNanos < lowestNanos) {
+                lowest = candidate;
+                lowestNanos = candidateNanos;
+            }
+        }
+        return lowest == null ? DEFAULT : lowest;
+    }
+
+    @Override
+    public void setValue(String value) {
+        this.nanos = parse(value);
+        this.value = value;
+    }
+
+    @Override
+    public String getValue() {
+        return value;
+    }
+
+    long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Parses a timespan of the form {@code "<amount> <unit>"}, with a unit in {@code ns}, {@code
+     * us}, {@code ms}, {@code s}, {@code m}, {@code h} or {@code d}, or {@code "0"}. An invalid
+     * timespan disables the threshold rather than failing the recording.
+     */
+    static long parse(String timespan) {
+        String s = timespan == null ? "" : timespan.trim().toLowerCase(Locale.ROOT);
+        int i = 0;
+        while (i < s.length() && Character.isDigit(s.charAt(i))) {
+            i++;
+        }
+        if (i == 0) {
+            return 0L;
+        }
+        long amount;
+        try {
+            amount = Long.parseLong(s.substring(0, i));
+        } catch (NumberFormatException ex) {
+            return 0L;
+        }
+        switch (s.substring(i).trim()) {
+            case "":
+            case "ns":
+                return amount;
+            case "us":
+                return TimeUnit.MICROSECONDS.toNanos(amount);
+            case "ms":
+                return TimeUnit.MILLISECONDS.toNanos(amount);
+            case "s":
+                return TimeUnit.SECONDS.toNanos(amount);
+            case "m":
+                return TimeUnit.MINUTES.toNanos(amount);
+            case "h":
+                return TimeUnit.HOURS.toNanos(amount);
+            case "d":
+                return TimeUnit.DAYS.toNanos(amount);
+            default:
+                return 0L;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.daichim.jach.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A selector which waited for one of its cases for longer than the threshold, and was woken up
+ * by the case on the channel of the event.
+ */
+@Name("jach.SelectorWakeup")
+@Label("Selector Wakeup")
+@Category({"JaCh", "Selector"})
+@Description("A selector which waited for one of its cases")
+@StackTrace(false)
+@Threshold("10 ms")
+final class SelectorWakeupEvent extends ChannelEvent {
+
+    @Label("Send")
+    @Description("Whether the selector was woken up by a send case or a receive case")
+    boolean send;
+
+    @Label("Cases")
+    @Description("The number of cases of the selector")
+    int cases;
+}
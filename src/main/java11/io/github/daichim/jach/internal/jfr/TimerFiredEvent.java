@@ -0,0 +1,38 @@
+package io.github.daichim.jach.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A timer or a ticker which fired later than it was due, by more than the {@code lateness}
+ * setting. The event has no duration of its own, so the threshold is on the lateness instead of
+ * the usual {@code threshold} setting.
+ */
+@Name("jach.TimerFired")
+@Label("Timer Fired")
+@Category({"JaCh", "Timer"})
+@Description("A timer or ticker which fired late")
+@StackTrace(false)
+final class TimerFiredEvent extends ChannelEvent {
+
+    @Label("Periodic")
+    @Description("Whether a ticker or a timer fired")
+    boolean periodic;
+
+    @Label("Lateness")
+    @Description("How late the timer fired")
+    @Timespan(Timespan.NANOSECONDS)
+    long lateness;
+
+    @Name("lateness")
+    @Label("Lateness Threshold")
+    @SettingDefinition
+    boolean lateness(LatenessSetting setting) {
+        return lateness >= setting.getNanos();
+    }
+}
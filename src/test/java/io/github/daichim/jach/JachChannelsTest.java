@@ -0,0 +1,45 @@
+package io.github.daichim.jach;
+
+import io.github.daichim.jach.channel.UnbufferedChannel;
+import io.github.daichim.jach.internal.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+public class JachChannelsTest {
+
+    private static final int GOROUTINES = 1_000_000;
+
+    @Test(description = "Virtual threads are used exactly when the runtime supports them")
+    public void useVirtualThreadsTest() {
+        Assert.assertEquals(JachChannels.useVirtualThreads(), VirtualThreads.isAvailable());
+    }
+
+    @Test(timeOut = 120_000,
+        description = "A million routines block on a channel without exhausting the executor")
+    public void millionGoroutinesTest() throws Exception {
+        if (!JachChannels.useVirtualThreads()) {
+            throw new SkipException("Virtual threads need JDK 21 or newer");
+        }
+        final int pairs = GOROUTINES / 2;
+        UnbufferedChannel<Integer> channel = JachChannels.makeInt();
+        CountDownLatch done = new CountDownLatch(pairs);
+        LongAdder sum = new LongAdder();
+        for (int i = 0; i < pairs; i++) {
+            JachChannels.go(channel::write, i);
+            JachChannels.go(() -> {
+                sum.add(channel.read());
+                done.countDown();
+            });
+        }
+        Assert.assertTrue(done.await(100, TimeUnit.SECONDS));
+        Assert.assertEquals(sum.sum(), (long) pairs * (pairs - 1) / 2);
+        channel.close();
+    }
+}
@@ -14,7 +14,11 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.sql.Ref;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -25,6 +29,8 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Slf4j
 public class BufferedChannelTest {
@@ -210,6 +216,15 @@ public class BufferedChannelTest {
         testChannel.write(42);
     }
 
+    @Test(groups = "channel_write", description = "Blocking writes store the copy of the message")
+    public void writeStoresCopyTest() throws Exception {
+        testChannel = new BufferedChannel<>(CAPACITY, Integer.class, msg -> msg + 1);
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING, TIMEOUT, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(testChannel.read().intValue(), LIFE_UNIVERSE_AND_EVERYTHING + 1);
+        Assert.assertEquals(testChannel.read().intValue(), LIFE_UNIVERSE_AND_EVERYTHING + 1);
+    }
+
     @Test(groups = "channel_write")
     public void canWriteTest() {
         Assert.assertTrue(testChannel.canWrite());
@@ -512,6 +527,21 @@ public class BufferedChannelTest {
         log.debug("All 10 write threads were interrupted");
     }
 
+    @Test(groups = "channel_close",
+        description = "Close channel - woken up threads keep their interrupt status")
+    public void closeChannelDoesNotInterruptTest() throws Exception {
+        Future<Boolean> fut = threadPool.submit(() -> {
+            try {
+                testChannel.read();
+            } catch (NoSuchChannelElementException ignored) {
+            }
+            return Thread.currentThread().isInterrupted();
+        });
+        TimeUnit.MILLISECONDS.sleep(100);
+        testChannel.close();
+        Assert.assertFalse(fut.get(1, TimeUnit.SECONDS));
+    }
+
     @Test(groups = "channel_close", description = "Check channel is closed")
     public void isChannelClosedTest() throws Exception {
         testChannel.close();
@@ -536,6 +566,36 @@ public class BufferedChannelTest {
         Assert.assertTrue(afwCloseCalled.get());
     }
 
+    @Test(groups = "channel_write",
+        description = "Any number of AfterWriteActions can be registered and deregistered")
+    public void manyAfterWriteActionsTest() throws Exception {
+        final int actions = 200;
+        AtomicInteger afwCount = new AtomicInteger(0);
+        List<AfterWriteAction> registered = new ArrayList<>();
+        for (int i = 0; i < actions; i++) {
+            AfterWriteAction action = new AfterWriteAction() {
+                @Override
+                public void onWrite() {
+                    afwCount.incrementAndGet();
+                }
+
+                @Override
+                public void close() {}
+            };
+            testChannel.registerAfterWriteAction(action);
+            registered.add(action);
+        }
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+        Assert.assertEquals(afwCount.get(), actions);
+
+        for (int i = 0; i < actions; i += 2) {
+            testChannel.deregisterAfterWriteAction(registered.get(i));
+        }
+        afwCount.set(0);
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+        Assert.assertEquals(afwCount.get(), actions / 2);
+    }
+
     @Test(groups = "channel_cap", description = "Check channel capacity")
     public void channelCapacityTest() throws Exception {
         int cap = testChannel.getCapacity();
@@ -583,6 +643,174 @@ public class BufferedChannelTest {
         Assert.assertEquals(actionCtr.get(), 25);
     }
 
+    // ------- UT's for batch operations --------- //
+    @Test(groups = "channel_batch", timeOut = 5000,
+        description = "writeAll blocks until all the messages are written")
+    public void writeAllTest() throws Exception {
+        List<Integer> messages = IntStream.range(0, 2 * CAPACITY).boxed()
+            .collect(Collectors.toList());
+        Future<?> fut = threadPool.submit(() -> testChannel.writeAll(messages));
+        TimeUnit.MILLISECONDS.sleep(SLEEP_INTERVAL);
+        Assert.assertFalse(fut.isDone());
+        Assert.assertEquals(testChannel.getAvailable(), 0);
+
+        List<Integer> received = new ArrayList<>();
+        while (received.size() < messages.size()) {
+            received.add(testChannel.read());
+        }
+        fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(received, messages);
+    }
+
+    @Test(groups = "channel_batch",
+        description = "tryWriteAll writes as many messages as there is space for")
+    public void tryWriteAllTest() {
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+        int written = testChannel.tryWriteAll(Arrays.asList(1, 2, 3, 4, 5, 6));
+        Assert.assertEquals(written, CAPACITY - 1);
+        Assert.assertEquals(testChannel.tryWriteAll(Collections.singletonList(7)), 0);
+        Assert.assertEquals(testChannel.read().intValue(), LIFE_UNIVERSE_AND_EVERYTHING);
+        for (int i = 1; i < CAPACITY; i++) {
+            Assert.assertEquals(testChannel.read().intValue(), i);
+        }
+    }
+
+    @Test(groups = "channel_batch",
+        description = "A batch notifies the AfterWriteActions once with the batch size")
+    public void batchAfterWriteActionTest() {
+        List<Integer> counts = new ArrayList<>();
+        testChannel.registerAfterWriteAction(new AfterWriteAction() {
+            @Override
+            public void onWrite() {
+                counts.add(1);
+            }
+
+            @Override
+            public void onWrite(int count) {
+                counts.add(count);
+            }
+
+            @Override
+            public void close() {}
+        });
+        testChannel.tryWriteAll(Arrays.asList(1, 2, 3));
+        testChannel.write(4);
+        Assert.assertEquals(counts, Arrays.asList(3, 1));
+    }
+
+    @Test(groups = "channel_batch",
+        description = "By default, a batch invokes onWrite() once rather than once per message")
+    public void batchDefaultAfterWriteActionTest() {
+        AtomicInteger afwCount = new AtomicInteger(0);
+        testChannel.registerAfterWriteAction(new AfterWriteAction() {
+            @Override
+            public void onWrite() {
+                afwCount.incrementAndGet();
+            }
+
+            @Override
+            public void close() {}
+        });
+        testChannel.tryWriteAll(Arrays.asList(1, 2, 3));
+        Assert.assertEquals(afwCount.get(), 1);
+    }
+
+    @Test(groups = "channel_batch", timeOut = 5000,
+        description = "drainTo removes the available messages and unblocks the writers")
+    public void drainToTest() throws Exception {
+        Future<?> fut = threadPool.submit(() -> {
+            for (int i = 0; i < CAPACITY + 2; i++) {
+                testChannel.write(i);
+            }
+        });
+        TimeUnit.MILLISECONDS.sleep(SLEEP_INTERVAL);
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(testChannel.drainTo(drained, 3), 3);
+        Assert.assertEquals(drained, Arrays.asList(0, 1, 2));
+        fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(testChannel.drainTo(drained, 100), CAPACITY - 1);
+        Assert.assertEquals(testChannel.drainTo(drained, 100), 0);
+        Assert.assertEquals(drained.size(), CAPACITY + 2);
+        testChannel.write(CAPACITY + 2);
+        Assert.assertEquals(testChannel.drainTo(drained, -1), 0);
+        Assert.assertEquals(drained.size(), CAPACITY + 2);
+        Assert.assertEquals(testChannel.drainTo(drained, 1), 1);
+        testChannel.close();
+        Assert.assertThrows(NoSuchChannelElementException.class,
+            () -> testChannel.drainTo(drained, 100));
+    }
+
+    @Test(groups = "channel_batch", timeOut = 5000,
+        description = "readBatch waits for the minimum number of messages")
+    public void readBatchTest() throws Exception {
+        Future<List<Integer>> fut = threadPool.submit(
+            () -> testChannel.readBatch(3, CAPACITY, 5, TimeUnit.SECONDS));
+        testChannel.write(1);
+        testChannel.write(2);
+        TimeUnit.MILLISECONDS.sleep(SLEEP_INTERVAL);
+        Assert.assertFalse(fut.isDone());
+        testChannel.write(3);
+        Assert.assertEquals(fut.get(TIMEOUT, TimeUnit.MILLISECONDS), Arrays.asList(1, 2, 3));
+
+        testChannel.tryWriteAll(Arrays.asList(4, 5, 6, 7));
+        Assert.assertEquals(testChannel.readBatch(1, 3, TIMEOUT, TimeUnit.MILLISECONDS),
+            Arrays.asList(4, 5, 6));
+    }
+
+    @Test(groups = "channel_batch",
+        description = "readBatch returns the messages read so far on timeout")
+    public void readBatchTimeoutTest() {
+        testChannel.write(1);
+        Assert.assertEquals(testChannel.readBatch(2, CAPACITY, TIMEOUT, TimeUnit.MILLISECONDS),
+            Collections.singletonList(1));
+        Assert.assertThrows(io.github.daichim.jach.exception.TimeoutException.class,
+            () -> testChannel.readBatch(1, CAPACITY, TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(groups = "channel_copy", description = "Only the messages read are copied on read")
+    public void copyOnReadTest() {
+        AtomicInteger copies = new AtomicInteger();
+        try (BufferedChannel<Integer> channel = new BufferedChannel<>(CAPACITY, Integer.class,
+            msg -> {
+                copies.incrementAndGet();
+                return msg;
+            }, CopyMode.ON_READ)) {
+            for (int i = 0; i < CAPACITY; i++) {
+                channel.write(i);
+            }
+            Assert.assertEquals(copies.get(), 0);
+            Assert.assertEquals(channel.read(), Integer.valueOf(0));
+            Assert.assertEquals(channel.tryRead(), Integer.valueOf(1));
+            Assert.assertEquals(copies.get(), 2);
+            List<Integer> drained = new ArrayList<>();
+            Assert.assertEquals(channel.drainTo(drained, 1), 1);
+            Assert.assertEquals(copies.get(), 3);
+            Assert.assertEquals(channel.readBatch(1, CAPACITY, TIMEOUT, TimeUnit.MILLISECONDS),
+                Arrays.asList(3, 4));
+            Assert.assertEquals(copies.get(), CAPACITY);
+        }
+    }
+
+    @Test(groups = "channel_copy", description = "tryWrite does not copy into a full channel")
+    public void tryWriteFullNoCopyTest() {
+        AtomicInteger copies = new AtomicInteger();
+        try (BufferedChannel<Integer> channel = new BufferedChannel<>(CAPACITY, Integer.class,
+            msg -> {
+                copies.incrementAndGet();
+                return msg;
+            }, CopyMode.ON_WRITE)) {
+            for (int i = 0; i < CAPACITY; i++) {
+                Assert.assertTrue(channel.tryWrite(i));
+            }
+            Assert.assertEquals(copies.get(), CAPACITY);
+            Assert.assertFalse(channel.tryWrite(CAPACITY));
+            Assert.assertEquals(copies.get(), CAPACITY);
+            channel.read();
+            Assert.assertTrue(channel.tryWrite(CAPACITY));
+            Assert.assertEquals(copies.get(), CAPACITY + 1);
+        }
+    }
+
     @Test(expectedExceptions = UnsupportedOperationException.class)
     public void spliteratorTest() {
         testChannel.spliterator();
@@ -0,0 +1,49 @@
+package io.github.daichim.jach.channel;
+
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.PrimitiveIterator;
+import java.util.concurrent.TimeUnit;
+
+public class DoubleChannelTest {
+
+    private static final int CAPACITY = 4;
+
+    @Test(description = "Values are read in the order they are written")
+    public void writeReadTest() {
+        DoubleChannel channel = new DoubleChannel(CAPACITY);
+        for (int i = 0; i < 3 * CAPACITY; i++) {
+            channel.writeDouble(i);
+            Assert.assertEquals(channel.readDouble(), (double) i);
+        }
+        Assert.assertTrue(channel.tryWriteDouble(1));
+        Assert.assertEquals(channel.read(), Double.valueOf(1));
+        Assert.assertThrows(io.github.daichim.jach.exception.TimeoutException.class,
+            () -> channel.readDouble(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(description = "Batches are written and read in order")
+    public void batchTest() {
+        DoubleChannel channel = new DoubleChannel(CAPACITY);
+        double[] values = {1, 2, 3, 4, 5};
+        Assert.assertEquals(channel.tryWriteAll(values, 0, values.length), CAPACITY);
+        double[] read = new double[CAPACITY];
+        Assert.assertEquals(channel.drainTo(read, 0, read.length), CAPACITY);
+        Assert.assertEquals(read, new double[]{1, 2, 3, 4});
+    }
+
+    @Test(description = "The iterator stops once the channel is closed and drained")
+    public void iteratorTest() {
+        DoubleChannel channel = new DoubleChannel(CAPACITY);
+        channel.writeDouble(1);
+        channel.writeDouble(2);
+        channel.close();
+        PrimitiveIterator.OfDouble it = channel.iterator();
+        Assert.assertEquals(it.nextDouble(), (double) 1);
+        Assert.assertEquals(it.nextDouble(), (double) 2);
+        Assert.assertFalse(it.hasNext());
+        Assert.assertThrows(NoSuchChannelElementException.class, it::nextDouble);
+    }
+}
@@ -0,0 +1,168 @@
+package io.github.daichim.jach.channel;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.daichim.jach.JachChannels;
+import io.github.daichim.jach.channel.copier.RefCopier;
+import io.github.daichim.jach.channel.selector.Selector;
+import io.github.daichim.jach.metrics.ChannelStats;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.daichim.jach.JachChannels.selectCase;
+import static io.github.daichim.jach.JachChannels.selector;
+
+public class InstrumentedChannelTest {
+
+    private static final int CAPACITY = 5;
+    private static final int TIMEOUT = 200;
+
+    private ExecutorService threadPool;
+    private InstrumentedChannel<Integer> testChannel;
+    private ChannelStats stats;
+
+    @BeforeClass
+    public void setupClass() {
+        threadPool = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("test-thread-%d").build());
+    }
+
+    @BeforeMethod
+    public void initializeChannel() {
+        BufferedChannel<Integer> channel =
+            new BufferedChannel<>(CAPACITY, Integer.class, new RefCopier<>());
+        this.testChannel = JachChannels.instrument(channel, "test-" + channel.getId());
+        this.stats = (ChannelStats) testChannel.getMetrics();
+    }
+
+    @Test(description = "Writes, reads, failed writes and depth are counted")
+    public void countTest() {
+        for (int i = 0; i < CAPACITY - 1; i++) {
+            testChannel.write(i);
+        }
+        Assert.assertTrue(testChannel.tryWrite(CAPACITY));
+        Assert.assertFalse(testChannel.tryWrite(CAPACITY));
+        Assert.assertEquals(stats.getWrites(), CAPACITY);
+        Assert.assertEquals(stats.getTryWriteFailures(), 1);
+        Assert.assertEquals(stats.getDepth(), CAPACITY);
+
+        Assert.assertEquals(testChannel.read().intValue(), 0);
+        Assert.assertEquals(testChannel.tryRead().intValue(), 1);
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(testChannel.drainTo(drained, 2), 2);
+        Assert.assertEquals(stats.getReads(), 4);
+        Assert.assertEquals(stats.getDepth(), 1);
+        Assert.assertEquals(stats.getWriterBlockedCount(), 0);
+        Assert.assertEquals(stats.getReaderBlockedCount(), 0);
+    }
+
+    @Test(description = "Batches are counted message by message")
+    public void batchTest() throws Exception {
+        testChannel.writeAll(Arrays.asList(1, 2, 3));
+        Assert.assertEquals(testChannel.tryWriteAll(Arrays.asList(4, 5, 6)), 2);
+        Assert.assertEquals(stats.getWrites(), CAPACITY);
+        Assert.assertEquals(stats.getTryWriteFailures(), 1);
+
+        Future<?> fut = threadPool.submit(() -> testChannel.writeAll(Arrays.asList(6, 7)));
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        Assert.assertEquals(testChannel.readBatch(1, 3, TIMEOUT, TimeUnit.MILLISECONDS),
+            Arrays.asList(1, 2, 3));
+        fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(stats.getWrites(), CAPACITY + 2);
+        Assert.assertEquals(stats.getReads(), 3);
+        Assert.assertEquals(stats.getWriterBlockedCount(), 1);
+    }
+
+    @Test(description = "The time blocked writers and readers wait is recorded")
+    public void blockedTimeTest() throws Exception {
+        Future<Integer> reader = threadPool.submit(() -> testChannel.read());
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        testChannel.write(42);
+        Assert.assertEquals(reader.get(TIMEOUT, TimeUnit.MILLISECONDS).intValue(), 42);
+        Assert.assertEquals(stats.getReaderBlockedCount(), 1);
+        Assert.assertTrue(stats.getReaderBlockedNanos()
+            >= TimeUnit.MILLISECONDS.toNanos(TIMEOUT / 2));
+        Assert.assertTrue(stats.getReaderBlockedP99Nanos() >= stats.getReaderBlockedP50Nanos());
+        Assert.assertTrue(stats.getReaderBlockedP50Nanos() <= stats.getReaderBlockedMaxNanos());
+
+        for (int i = 0; i < CAPACITY; i++) {
+            testChannel.write(i);
+        }
+        Future<?> writer = threadPool.submit(() -> testChannel.write(CAPACITY));
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        testChannel.read();
+        writer.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(stats.getWriterBlockedCount(), 1);
+        Assert.assertTrue(stats.getWriterBlockedMaxNanos()
+            >= TimeUnit.MILLISECONDS.toNanos(TIMEOUT / 2));
+        Assert.assertEquals(stats.getDepth(), CAPACITY);
+    }
+
+    @Test(description = "Timed out writes and reads are counted")
+    public void timeoutTest() {
+        Assert.assertThrows(io.github.daichim.jach.exception.TimeoutException.class,
+            () -> testChannel.read(10, TimeUnit.MILLISECONDS));
+        for (int i = 0; i < CAPACITY; i++) {
+            testChannel.write(i, 10, TimeUnit.MILLISECONDS);
+        }
+        Assert.assertThrows(io.github.daichim.jach.exception.TimeoutException.class,
+            () -> testChannel.write(CAPACITY, 10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(stats.getTimeouts(), 2);
+        Assert.assertEquals(stats.getReaderBlockedCount(), 1);
+        Assert.assertEquals(stats.getWriterBlockedCount(), 1);
+    }
+
+    @Test(timeOut = 5000, description = "A selector reads through the instrumented channel")
+    public void selectorTest() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        Selector sel = selector(selectCase(testChannel, received::set));
+        Future<?> fut = threadPool.submit(() -> {
+            TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+            testChannel.write(42);
+            return null;
+        });
+        sel.select();
+        fut.get();
+        Assert.assertEquals(received.get(), 42);
+        Assert.assertEquals(stats.getReads(), 1);
+    }
+
+    @Test(description = "The stats are registered over JMX until the channel is closed")
+    public void jmxTest() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = ChannelStats.objectName(stats.getName());
+        testChannel.write(1);
+        Assert.assertEquals(server.getAttribute(name, "Writes"), 1L);
+        Assert.assertEquals(server.getAttribute(name, "Depth"), 1L);
+        Assert.assertThrows(IllegalArgumentException.class,
+            () -> JachChannels.instrument(JachChannels.makeInt(1), stats.getName()));
+
+        testChannel.close();
+        Assert.assertFalse(server.isRegistered(name));
+    }
+
+    @AfterMethod
+    public void closeChannel() {
+        testChannel.close();
+    }
+
+    @AfterClass
+    public void teardownClass() {
+        threadPool.shutdownNow();
+    }
+}
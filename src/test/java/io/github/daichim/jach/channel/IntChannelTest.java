@@ -0,0 +1,215 @@
+package io.github.daichim.jach.channel;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.daichim.jach.channel.selector.Selector;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.daichim.jach.JachChannels.selectCase;
+import static io.github.daichim.jach.JachChannels.selector;
+
+@Slf4j
+public class IntChannelTest {
+
+    private static final int CAPACITY = 5;
+    private static final int TIMEOUT = 200;
+
+    private ExecutorService threadPool;
+    private IntChannel testChannel;
+
+    @BeforeClass
+    public void setupClass() {
+        threadPool = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("test-thread-%d").build());
+    }
+
+    @BeforeMethod
+    public void initializeChannel() {
+        testChannel = new IntChannel(CAPACITY);
+    }
+
+    @Test(description = "Values are read in the order they are written")
+    public void writeReadTest() {
+        for (int i = 0; i < CAPACITY; i++) {
+            testChannel.writeInt(i);
+        }
+        Assert.assertFalse(testChannel.tryWriteInt(CAPACITY));
+        Assert.assertEquals(testChannel.getAvailable(), 0);
+        for (int i = 0; i < CAPACITY; i++) {
+            Assert.assertEquals(testChannel.readInt(), i);
+        }
+        Assert.assertNull(testChannel.tryRead());
+        Assert.assertEquals(testChannel.getAvailable(), CAPACITY);
+    }
+
+    @Test(description = "The ring buffer wraps around")
+    public void wrapAroundTest() {
+        for (int round = 0; round < 3 * CAPACITY; round++) {
+            testChannel.writeInt(round);
+            testChannel.writeInt(-round);
+            Assert.assertEquals(testChannel.readInt(), round);
+            Assert.assertEquals(testChannel.readInt(), -round);
+        }
+    }
+
+    @Test(timeOut = 5000, description = "A writer to a full channel parks until a value is read")
+    public void blockedWriteTest() throws Exception {
+        for (int i = 0; i < CAPACITY; i++) {
+            testChannel.writeInt(i);
+        }
+        Future<?> fut = threadPool.submit(() -> testChannel.writeInt(CAPACITY));
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        Assert.assertFalse(fut.isDone());
+        Assert.assertEquals(testChannel.readInt(), 0);
+        fut.get();
+        Assert.assertEquals(testChannel.getAvailable(), 0);
+    }
+
+    @Test(timeOut = 5000, description = "A reader of an empty channel parks until a write")
+    public void blockedReadTest() throws Exception {
+        Future<Integer> fut = threadPool.submit(() -> testChannel.readInt());
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        Assert.assertFalse(fut.isDone());
+        testChannel.writeInt(42);
+        Assert.assertEquals(fut.get(), Integer.valueOf(42));
+    }
+
+    @Test(expectedExceptions = io.github.daichim.jach.exception.TimeoutException.class,
+        description = "Read times out on an empty channel")
+    public void readTimeoutTest() {
+        testChannel.readInt(TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(expectedExceptions = io.github.daichim.jach.exception.TimeoutException.class,
+        description = "Write times out on a full channel")
+    public void writeTimeoutTest() {
+        for (int i = 0; i <= CAPACITY; i++) {
+            testChannel.writeInt(i, TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test(timeOut = 5000, description = "Close wakes up the readers, which drain the channel")
+    public void closeTest() throws Exception {
+        Future<Integer> reader = threadPool.submit(() -> testChannel.readInt());
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        testChannel.close();
+        try {
+            reader.get();
+            Assert.fail("Reader was not woken up");
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof NoSuchChannelElementException);
+        }
+        Assert.assertThrows(ClosedChannelException.class, () -> testChannel.writeInt(1));
+        Assert.assertThrows(NoSuchChannelElementException.class, () -> testChannel.tryRead());
+    }
+
+    @Test(description = "Values written before the close can still be read")
+    public void readAfterCloseTest() {
+        testChannel.writeInt(7);
+        testChannel.close();
+        Assert.assertTrue(testChannel.canRead());
+        Assert.assertEquals(testChannel.readInt(), 7);
+        Assert.assertFalse(testChannel.canRead());
+        Assert.assertThrows(NoSuchChannelElementException.class, () -> testChannel.readInt());
+    }
+
+    @Test(timeOut = 5000, description = "Batches are written and read in order")
+    public void batchTest() throws Exception {
+        int[] values = {1, 2, 3, 4, 5, 6, 7};
+        Assert.assertEquals(testChannel.tryWriteAll(values, 0, values.length), CAPACITY);
+        int[] read = new int[values.length];
+        Assert.assertEquals(testChannel.drainTo(read, 0, 2), 2);
+        Assert.assertEquals(testChannel.read(read, 2, read.length), CAPACITY - 2);
+        Assert.assertEquals(testChannel.drainTo(read, 0, 1), 0);
+        Assert.assertEquals(Arrays.copyOf(read, CAPACITY), Arrays.copyOf(values, CAPACITY));
+
+        Future<?> fut = threadPool.submit(() -> testChannel.writeAll(values, 0, values.length));
+        int n = 0;
+        while (n < values.length) {
+            n += testChannel.read(read, n, read.length);
+        }
+        fut.get();
+        Assert.assertEquals(read, values);
+    }
+
+    @Test(timeOut = 5000, description = "The iterator and forEachInt stop at the close")
+    public void iteratorTest() throws Exception {
+        Future<?> fut = threadPool.submit(() -> {
+            for (int i = 0; i < 100; i++) {
+                testChannel.writeInt(i);
+            }
+            testChannel.close();
+        });
+        PrimitiveIterator.OfInt it = testChannel.iterator();
+        Assert.assertEquals(it.nextInt(), 0);
+        AtomicInteger sum = new AtomicInteger();
+        testChannel.forEachInt(sum::addAndGet);
+        fut.get();
+        Assert.assertEquals(sum.get(), 99 * 100 / 2);
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test(timeOut = 5000, description = "Concurrent writers and readers pass every value once")
+    public void concurrentTest() throws Exception {
+        final int writers = 4;
+        final int count = 10_000;
+        List<Future<?>> futs = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            futs.add(threadPool.submit(() -> {
+                for (int i = 1; i <= count; i++) {
+                    testChannel.writeInt(i);
+                }
+            }));
+        }
+        long sum = 0;
+        for (int i = 0; i < writers * count; i++) {
+            sum += testChannel.readInt();
+        }
+        for (Future<?> fut : futs) {
+            fut.get();
+        }
+        Assert.assertEquals(sum, (long) writers * count * (count + 1) / 2);
+    }
+
+    @Test(timeOut = 5000, description = "A selector is woken up by a write")
+    public void selectorTest() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        Selector sel = selector(selectCase(testChannel, received::set));
+        Future<?> fut = threadPool.submit(() -> {
+            TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+            testChannel.writeInt(42);
+            return null;
+        });
+        sel.select();
+        fut.get();
+        Assert.assertEquals(received.get(), 42);
+    }
+
+    @AfterMethod
+    public void closeChannel() {
+        testChannel.close();
+    }
+
+    @AfterClass
+    public void cleanupClass() {
+        threadPool.shutdownNow();
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.daichim.jach.channel;
+
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.PrimitiveIterator;
+import java.util.concurrent.TimeUnit;
+
+public class LongChannelTest {
+
+    private static final int CAPACITY = 4;
+
+    @Test(description = "Values are read in the order they are written")
+    public void writeReadTest() {
+        LongChannel channel = new LongChannel(CAPACITY);
+        for (int i = 0; i < 3 * CAPACITY; i++) {
+            channel.writeLong(i);
+            Assert.assertEquals(channel.readLong(), (long) i);
+        }
+        Assert.assertTrue(channel.tryWriteLong(1));
+        Assert.assertEquals(channel.read(), Long.valueOf(1));
+        Assert.assertThrows(io.github.daichim.jach.exception.TimeoutException.class,
+            () -> channel.readLong(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(description = "Batches are written and read in order")
+    public void batchTest() {
+        LongChannel channel = new LongChannel(CAPACITY);
+        long[] values = {1, 2, 3, 4, 5};
+        Assert.assertEquals(channel.tryWriteAll(values, 0, values.length), CAPACITY);
+        long[] read = new long[CAPACITY];
+        Assert.assertEquals(channel.drainTo(read, 0, read.length), CAPACITY);
+        Assert.assertEquals(read, new long[]{1, 2, 3, 4});
+    }
+
+    @Test(description = "The iterator stops once the channel is closed and drained")
+    public void iteratorTest() {
+        LongChannel channel = new LongChannel(CAPACITY);
+        channel.writeLong(1);
+        channel.writeLong(2);
+        channel.close();
+        PrimitiveIterator.OfLong it = channel.iterator();
+        Assert.assertEquals(it.nextLong(), (long) 1);
+        Assert.assertEquals(it.nextLong(), (long) 2);
+        Assert.assertFalse(it.hasNext());
+        Assert.assertThrows(NoSuchChannelElementException.class, it::nextLong);
+    }
+}
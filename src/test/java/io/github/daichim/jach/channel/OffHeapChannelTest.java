@@ -0,0 +1,188 @@
+package io.github.daichim.jach.channel;
+
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.daichim.jach.channel.selector.Selector;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.github.daichim.jach.JachChannels.selectCase;
+import static io.github.daichim.jach.JachChannels.selector;
+
+public class OffHeapChannelTest {
+
+    private static final int CAPACITY = 5;
+    private static final int BYTE_CAPACITY = 1024;
+    private static final int TIMEOUT = 200;
+
+    private ExecutorService threadPool;
+    private OffHeapChannel<Payload> testChannel;
+
+    @BeforeClass
+    public void setupClass() {
+        threadPool = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("test-thread-%d").build());
+    }
+
+    @BeforeMethod
+    public void initializeChannel() {
+        testChannel = new OffHeapChannel<>(CAPACITY, BYTE_CAPACITY, Payload.class);
+    }
+
+    @Test(description = "Messages are read in the order they are written, as copies")
+    public void writeReadTest() {
+        List<Payload> written = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            Payload payload = new Payload("message-" + i, new int[]{i, i + 1});
+            written.add(payload);
+            testChannel.write(payload);
+        }
+        Assert.assertFalse(testChannel.tryWrite(new Payload("extra", new int[0])));
+        Assert.assertEquals(testChannel.size(), CAPACITY);
+        for (Payload payload : written) {
+            Payload read = testChannel.read();
+            Assert.assertEquals(read, payload);
+            Assert.assertFalse(read == payload);
+        }
+        Assert.assertNull(testChannel.tryRead());
+        Assert.assertEquals(testChannel.getUsedBytes(), 0);
+    }
+
+    @Test(description = "Records wrap around the end of the ring and the bytes are reused")
+    public void wrapAroundTest() {
+        // Each record takes a few hundred bytes, so the ring wraps every few messages.
+        for (int i = 0; i < 100; i++) {
+            int[] values = new int[40 + i % 7];
+            Arrays.fill(values, i);
+            Payload payload = new Payload("wrap-" + i, values);
+            testChannel.write(payload);
+            if (i % 2 == 1) {
+                testChannel.write(payload);
+                Assert.assertEquals(testChannel.read(), payload);
+            }
+            Assert.assertEquals(testChannel.read(), payload);
+        }
+        Assert.assertEquals(testChannel.size(), 0);
+        Assert.assertEquals(testChannel.getUsedBytes(), 0);
+    }
+
+    @Test(description = "A writer is blocked until enough bytes are freed")
+    public void blockOnBytesTest() throws Exception {
+        Payload large = new Payload(Strings.repeat("x", 400), new int[0]);
+        testChannel.write(large);
+        testChannel.write(large);
+        Assert.assertFalse(testChannel.tryWrite(large));
+        Future<?> fut = threadPool.submit(() -> testChannel.write(large));
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        Assert.assertFalse(fut.isDone());
+        Assert.assertEquals(testChannel.read(), large);
+        fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(testChannel.size(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+        description = "A message larger than the ring is rejected")
+    public void tooLargeTest() {
+        testChannel.write(new Payload(Strings.repeat("x", BYTE_CAPACITY), new int[0]));
+    }
+
+    @Test(timeOut = 5000, description = "Many writers and readers exchange all the messages")
+    public void concurrentTest() throws Exception {
+        int writers = 4;
+        int count = 1000;
+        List<Future<?>> futs = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int id = w;
+            futs.add(threadPool.submit(() -> {
+                for (int i = 0; i < count; i++) {
+                    testChannel.write(new Payload("w" + id, new int[i % 50]));
+                }
+            }));
+        }
+        int total = 0;
+        for (int i = 0; i < writers * count; i++) {
+            total += testChannel.read().getValues().length;
+        }
+        for (Future<?> fut : futs) {
+            fut.get();
+        }
+        Assert.assertEquals(total, writers * count / 50 * (49 * 50 / 2));
+    }
+
+    @Test(description = "Readers drain the channel after close, writers fail")
+    public void closeTest() throws Exception {
+        Payload payload = new Payload("last", new int[]{1});
+        testChannel.write(payload);
+        testChannel.close();
+        Assert.assertThrows(ClosedChannelException.class, () -> testChannel.write(payload));
+        Assert.assertTrue(testChannel.canRead());
+        Assert.assertEquals(testChannel.read(), payload);
+        Assert.assertFalse(testChannel.canRead());
+        Assert.assertThrows(NoSuchChannelElementException.class, () -> testChannel.read());
+    }
+
+    @Test(description = "A blocked reader is woken up by close")
+    public void closeWakesReaderTest() throws Exception {
+        Future<Payload> fut = threadPool.submit(() -> testChannel.read());
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        testChannel.close();
+        try {
+            fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+            Assert.fail("The read should have failed");
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof NoSuchChannelElementException);
+        }
+    }
+
+    @Test(timeOut = 5000, description = "A selector is woken up by a write")
+    public void selectorTest() throws Exception {
+        AtomicReference<Payload> received = new AtomicReference<>();
+        Selector sel = selector(selectCase(testChannel, received::set));
+        Payload payload = new Payload("selected", new int[]{42});
+        Future<?> fut = threadPool.submit(() -> {
+            TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+            testChannel.write(payload);
+            return null;
+        });
+        sel.select();
+        fut.get();
+        Assert.assertEquals(received.get(), payload);
+    }
+
+    @AfterMethod
+    public void closeChannel() {
+        testChannel.close();
+    }
+
+    @AfterClass
+    public void teardownClass() {
+        threadPool.shutdownNow();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Payload {
+        private String name;
+        private int[] values;
+    }
+}
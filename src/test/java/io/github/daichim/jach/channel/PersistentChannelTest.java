@@ -0,0 +1,185 @@
+package io.github.daichim.jach.channel;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.daichim.jach.channel.OffHeapChannelTest.Payload;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class PersistentChannelTest {
+
+    private static final int CAPACITY = 100;
+    private static final int SEGMENT_SIZE = 256;
+    private static final int TIMEOUT = 200;
+
+    private ExecutorService threadPool;
+    private Path directory;
+    private PersistentChannel<Payload> testChannel;
+
+    @BeforeClass
+    public void setupClass() {
+        threadPool = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("test-thread-%d").build());
+    }
+
+    @BeforeMethod
+    public void initializeChannel() throws IOException {
+        directory = Files.createTempDirectory("jach-persistent");
+        testChannel = open();
+    }
+
+    private PersistentChannel<Payload> open() {
+        return new PersistentChannel<>(directory, Payload.class, CAPACITY, SEGMENT_SIZE, 1);
+    }
+
+    private static Payload payload(int i) {
+        return new Payload("message-" + i, new int[]{i, i * 2});
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    @Test(description = "Messages are read in the order they are written, up to the capacity")
+    public void writeReadTest() {
+        for (int i = 0; i < CAPACITY; i++) {
+            testChannel.write(payload(i));
+        }
+        Assert.assertFalse(testChannel.tryWrite(payload(CAPACITY)));
+        Assert.assertEquals(testChannel.size(), CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            Assert.assertEquals(testChannel.read(), payload(i));
+        }
+        Assert.assertNull(testChannel.tryRead());
+    }
+
+    @Test(description = "A reopened channel recovers the unread messages, and appends after them")
+    public void reopenTest() {
+        for (int i = 0; i < 30; i++) {
+            testChannel.write(payload(i));
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(testChannel.read(), payload(i));
+        }
+        testChannel.close();
+
+        testChannel = open();
+        Assert.assertEquals(testChannel.size(), 20);
+        for (int i = 30; i < 40; i++) {
+            testChannel.write(payload(i));
+        }
+        testChannel.close();
+
+        testChannel = open();
+        Assert.assertEquals(testChannel.size(), 30);
+        for (int i = 10; i < 40; i++) {
+            Assert.assertEquals(testChannel.read(), payload(i));
+        }
+        Assert.assertNull(testChannel.tryRead());
+    }
+
+    @Test(description = "Segments are rolled over, and deleted once they are read through")
+    public void segmentTest() throws IOException {
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                testChannel.write(payload(round * 50 + i));
+            }
+            Assert.assertTrue(segmentFiles() > 1);
+            for (int i = 0; i < 50; i++) {
+                Assert.assertEquals(testChannel.read(), payload(round * 50 + i));
+            }
+        }
+        Assert.assertEquals(segmentFiles(), 1);
+        testChannel.close();
+        testChannel = open();
+        Assert.assertEquals(testChannel.size(), 0);
+    }
+
+    @Test(description = "A torn first record is not mistaken for messages after recovery")
+    public void tornRecordTest() throws IOException {
+        testChannel.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(f -> f.getFileName().toString().startsWith("segment-"))
+                .findFirst().get();
+        }
+        // The body of a record whose length was never written, which looks like short records.
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ByteBuffer body = ByteBuffer.allocate(SEGMENT_SIZE - Integer.BYTES);
+            while (body.hasRemaining()) {
+                body.putInt(Integer.BYTES);
+            }
+            body.flip();
+            file.write(body, Integer.BYTES);
+        }
+
+        testChannel = open();
+        Assert.assertEquals(testChannel.size(), 0);
+        testChannel.write(payload(1));
+        testChannel.close();
+
+        testChannel = open();
+        Assert.assertEquals(testChannel.size(), 1);
+        Assert.assertEquals(testChannel.read(), payload(1));
+        Assert.assertNull(testChannel.tryRead());
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class,
+        description = "A directory is used by a single channel at a time")
+    public void lockTest() {
+        open();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+        description = "A message larger than a segment is rejected")
+    public void tooLargeTest() {
+        testChannel.write(new Payload("huge", new int[SEGMENT_SIZE]));
+    }
+
+    @Test(description = "A blocked reader gets the next write, and the closed channel drains")
+    public void blockingReadTest() throws Exception {
+        Future<Payload> fut = threadPool.submit(() -> testChannel.read());
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        Assert.assertFalse(fut.isDone());
+        testChannel.write(payload(1));
+        Assert.assertEquals(fut.get(TIMEOUT, TimeUnit.MILLISECONDS), payload(1));
+
+        testChannel.write(payload(2));
+        testChannel.close();
+        Assert.assertTrue(testChannel.canRead());
+        Assert.assertEquals(testChannel.read(), payload(2));
+        Assert.assertThrows(NoSuchChannelElementException.class, () -> testChannel.read());
+    }
+
+    @AfterMethod
+    public void closeChannel() throws IOException {
+        testChannel.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    @AfterClass
+    public void teardownClass() {
+        threadPool.shutdownNow();
+    }
+}
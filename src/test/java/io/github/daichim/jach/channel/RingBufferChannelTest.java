@@ -0,0 +1,283 @@
+package io.github.daichim.jach.channel;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.daichim.jach.channel.copier.RefCopier;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import io.github.daichim.jach.internal.AfterWriteAction;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class RingBufferChannelTest {
+
+    public static final int CAPACITY = 5;
+    public static final int LIFE_UNIVERSE_AND_EVERYTHING = 42;
+    private static final int TIMEOUT = 200;
+
+    private ExecutorService threadPool;
+
+    private RingBufferChannel<Integer> testChannel;
+
+    @BeforeClass
+    public void setupClass() {
+        threadPool = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("test-thread-%d").build());
+    }
+
+    @BeforeMethod
+    public void initializeChannel() {
+        this.testChannel = new RingBufferChannel<>(CAPACITY, Integer.class, new RefCopier<>());
+    }
+
+    @Test(groups = "channel_write", description = "Blocks writing to channel due to buffer full, "
+        + "but then unblocked due to a subsequent read")
+    public void writeTestBlocksAndUnblocks() throws Exception {
+        Future<?> fut = threadPool.submit(() -> {
+            for (int i = 0; i < CAPACITY + 1; i++) {
+                testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+            }
+        });
+        try {
+            fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ignored) {
+        }
+        Assert.assertFalse(fut.isDone());
+        Assert.assertEquals(testChannel.getAvailable(), 0);
+
+        int msg = testChannel.read();
+        Assert.assertEquals(msg, LIFE_UNIVERSE_AND_EVERYTHING);
+        fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(fut.isDone());
+    }
+
+    @Test(groups = "channel_write",
+        expectedExceptions = io.github.daichim.jach.exception.TimeoutException.class,
+        description = "Times out writing data to channel")
+    public void writeTestTimesOut() {
+        for (int i = 0; i < CAPACITY; i++) {
+            testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING, 100, TimeUnit.MILLISECONDS);
+        }
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING, 100, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(groups = "channel_write", description = "Try writing, succeed and then fails")
+    public void tryWriteFails() {
+        for (int i = 0; i < CAPACITY + 5; i++) {
+            boolean res = testChannel.tryWrite(LIFE_UNIVERSE_AND_EVERYTHING);
+            Assert.assertEquals(res, i < CAPACITY);
+        }
+    }
+
+    @Test(groups = "channel_write", description = "AfterWriteAction is invoked on every write")
+    public void afterWriteActionTest() {
+        AtomicInteger afwCount = new AtomicInteger(0);
+        testChannel.registerAfterWriteAction(new AfterWriteAction() {
+            @Override
+            public void onWrite() {
+                afwCount.incrementAndGet();
+            }
+
+            @Override
+            public void close() {}
+        });
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+        testChannel.tryWrite(LIFE_UNIVERSE_AND_EVERYTHING);
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING, 100, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(afwCount.get(), 3);
+    }
+
+    @Test(groups = "channel_read", description = "Blocks while reading a channel because of no "
+        + "data, then unblocks due to a write")
+    public void readTestBlocksThenUnblocks() throws Exception {
+        Future<Integer> fut = threadPool.submit(() -> testChannel.read());
+        try {
+            fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ignored) {
+        }
+        Assert.assertFalse(fut.isDone());
+
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+        Assert.assertEquals(fut.get(TIMEOUT, TimeUnit.MILLISECONDS).intValue(),
+            LIFE_UNIVERSE_AND_EVERYTHING);
+    }
+
+    @Test(groups = "channel_read", description = "Read times out",
+        expectedExceptions = io.github.daichim.jach.exception.TimeoutException.class)
+    public void readTestTimeout() {
+        testChannel.read(100, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(groups = "channel_read", description = "Try read returns null on empty channel")
+    public void tryReadTest() {
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+        Assert.assertEquals(testChannel.tryRead().intValue(), LIFE_UNIVERSE_AND_EVERYTHING);
+        Assert.assertNull(testChannel.tryRead());
+    }
+
+    @Test(groups = "channel_batch", description = "Batch operations fall back to single ones")
+    public void batchTest() {
+        Assert.assertEquals(testChannel.tryWriteAll(Arrays.asList(1, 2, 3, 4, 5, 6)), CAPACITY);
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(testChannel.drainTo(drained, 2), 2);
+        Assert.assertEquals(drained, Arrays.asList(1, 2));
+        Assert.assertEquals(testChannel.readBatch(1, 10, TIMEOUT, null), Arrays.asList(3, 4, 5));
+        testChannel.writeAll(Arrays.asList(6, 7));
+        testChannel.close();
+        Assert.assertEquals(testChannel.readBatch(3, 10, TIMEOUT, TimeUnit.MILLISECONDS),
+            Arrays.asList(6, 7));
+    }
+
+    @Test(groups = "channel_close", description = "Close channel - check readers are woken up")
+    public void closeChannelWakesReadersTest() throws Exception {
+        List<Future<?>> futs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futs.add(threadPool.submit(() -> testChannel.read()));
+        }
+        TimeUnit.MILLISECONDS.sleep(100);
+        testChannel.close();
+
+        for (Future<?> fut : futs) {
+            try {
+                fut.get(1, TimeUnit.SECONDS);
+                Assert.fail("Reader was not woken up by close");
+            } catch (ExecutionException ex) {
+                Assert.assertTrue(ex.getCause() instanceof NoSuchChannelElementException);
+            }
+        }
+    }
+
+    @Test(groups = "channel_close", description = "Close channel - check writers are woken up")
+    public void closeChannelWakesWritersTest() throws Exception {
+        for (int i = 0; i < CAPACITY; i++) {
+            testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+        }
+        List<Future<?>> futs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futs.add(threadPool.submit(() -> testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING)));
+        }
+        TimeUnit.MILLISECONDS.sleep(100);
+        testChannel.close();
+
+        for (Future<?> fut : futs) {
+            try {
+                fut.get(1, TimeUnit.SECONDS);
+                Assert.fail("Writer was not woken up by close");
+            } catch (ExecutionException ex) {
+                Assert.assertTrue(ex.getCause() instanceof ClosedChannelException);
+            }
+        }
+    }
+
+    @Test(groups = "channel_close", expectedExceptions = ClosedChannelException.class,
+        description = "Write to a closed channel")
+    public void writeToClosedChannel() {
+        testChannel.close();
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+    }
+
+    @Test(groups = "channel_close", description = "Messages can be read after close")
+    public void readAfterCloseTest() {
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+        testChannel.close();
+        Assert.assertTrue(testChannel.canRead());
+        Assert.assertEquals(testChannel.read().intValue(), LIFE_UNIVERSE_AND_EVERYTHING);
+        Assert.assertFalse(testChannel.canRead());
+    }
+
+    @Test(groups = "channel_iterate", timeOut = 10_000,
+        description = "Multiple writers and readers receive every message exactly once")
+    public void mpmcTest() throws Exception {
+        final int writers = 4;
+        final int perWriter = 10_000;
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        List<Future<?>> writerFuts = new ArrayList<>();
+        List<Future<?>> readerFuts = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            final int base = w * perWriter;
+            writerFuts.add(threadPool.submit(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    testChannel.write(base + i);
+                }
+            }));
+            readerFuts.add(threadPool.submit(() -> testChannel.forEach(
+                msg -> Assert.assertTrue(seen.add(msg)))));
+        }
+        for (Future<?> fut : writerFuts) {
+            fut.get();
+        }
+        testChannel.close();
+        for (Future<?> fut : readerFuts) {
+            fut.get();
+        }
+        Assert.assertEquals(seen.size(), writers * perWriter);
+    }
+
+    @DataProvider(name = "cardinalities")
+    public Object[][] cardinalities() {
+        return new Object[][]{{Cardinality.SPSC}, {Cardinality.MPSC}, {Cardinality.SPMC}};
+    }
+
+    @Test(groups = "channel_iterate", timeOut = 10_000, dataProvider = "cardinalities",
+        description = "Specialized channels deliver every message exactly once to the declared "
+            + "number of writers and readers")
+    public void cardinalityTest(Cardinality cardinality) throws Exception {
+        final int writers = cardinality.isSingleProducer() ? 1 : 3;
+        final int readers = cardinality.isSingleConsumer() ? 1 : 3;
+        final int perWriter = 10_000;
+        RingBufferChannel<Integer> channel =
+            new RingBufferChannel<>(CAPACITY, Integer.class, new RefCopier<>(), cardinality);
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        List<Future<?>> writerFuts = new ArrayList<>();
+        List<Future<?>> readerFuts = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            final int base = w * perWriter;
+            writerFuts.add(threadPool.submit(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    channel.write(base + i);
+                }
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            readerFuts.add(threadPool.submit(() -> channel.forEach(
+                msg -> Assert.assertTrue(seen.add(msg)))));
+        }
+        for (Future<?> fut : writerFuts) {
+            fut.get();
+        }
+        channel.close();
+        for (Future<?> fut : readerFuts) {
+            fut.get();
+        }
+        Assert.assertEquals(seen.size(), writers * perWriter);
+    }
+
+    @AfterMethod
+    public void closeChannel() {
+        testChannel.close();
+    }
+
+    @AfterClass
+    public void cleanupClass() {
+        threadPool.shutdownNow();
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.daichim.jach.channel;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.daichim.jach.channel.OffHeapChannelTest.Payload;
+import io.github.daichim.jach.channel.selector.Selector;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.github.daichim.jach.JachChannels.selectCase;
+import static io.github.daichim.jach.JachChannels.selector;
+
+public class SharedMemoryChannelTest {
+
+    private static final int CAPACITY = 16;
+    private static final int MAX_MESSAGE_LENGTH = 128;
+    private static final int TIMEOUT = 200;
+
+    private ExecutorService threadPool;
+    private Path path;
+    // Two channels on the same file stand for two processes.
+    private SharedMemoryChannel<Payload> writer;
+    private SharedMemoryChannel<Payload> reader;
+
+    @BeforeClass
+    public void setupClass() {
+        threadPool = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("test-thread-%d").build());
+    }
+
+    @BeforeMethod
+    public void initializeChannel() throws IOException {
+        path = Files.createTempFile("jach-shared", ".shm");
+        writer = open(path);
+        reader = open(path);
+    }
+
+    private static SharedMemoryChannel<Payload> open(Path path) {
+        return new SharedMemoryChannel<>(path, Payload.class, CAPACITY, MAX_MESSAGE_LENGTH);
+    }
+
+    private static Payload payload(String name, int i) {
+        return new Payload(name, new int[]{i});
+    }
+
+    @Test(description = "Messages written through one mapping are read through another one")
+    public void writeReadTest() {
+        for (int i = 0; i < CAPACITY; i++) {
+            writer.write(payload("w", i));
+        }
+        Assert.assertFalse(writer.tryWrite(payload("w", CAPACITY)));
+        Assert.assertEquals(reader.size(), CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            Assert.assertEquals(reader.read(), payload("w", i));
+        }
+        Assert.assertNull(reader.tryRead());
+        Assert.assertThrows(io.github.daichim.jach.exception.TimeoutException.class,
+            () -> reader.read(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(description = "A single process reads from the channel")
+    public void singleReaderTest() {
+        writer.write(payload("w", 1));
+        writer.write(payload("w", 2));
+        Assert.assertEquals(reader.read(), payload("w", 1));
+        Assert.assertThrows(IllegalStateException.class, () -> writer.tryRead());
+        Assert.assertEquals(reader.read(), payload("w", 2));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+        description = "A file is opened with the capacity it was created with")
+    public void mismatchTest() {
+        new SharedMemoryChannel<>(path, Payload.class, 2 * CAPACITY, MAX_MESSAGE_LENGTH);
+    }
+
+    @Test(description = "Closing the channel in one process closes it for all of them")
+    public void closeTest() {
+        writer.write(payload("w", 1));
+        reader.close();
+        Assert.assertFalse(writer.isOpen());
+        Assert.assertThrows(ClosedChannelException.class, () -> writer.write(payload("w", 2)));
+        Assert.assertEquals(reader.read(), payload("w", 1));
+        Assert.assertThrows(NoSuchChannelElementException.class, () -> reader.read());
+    }
+
+    @Test(timeOut = 5000, description = "A selector is woken up by a write from another process")
+    public void selectorTest() throws Exception {
+        AtomicReference<Payload> received = new AtomicReference<>();
+        Selector sel = selector(selectCase(reader, received::set));
+        Future<?> fut = threadPool.submit(() -> {
+            TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+            writer.write(payload("w", 42));
+            return null;
+        });
+        sel.select();
+        fut.get();
+        Assert.assertEquals(received.get(), payload("w", 42));
+    }
+
+    @Test(timeOut = 60000, description = "Two forked JVMs write to the channel read by this one")
+    public void forkedWritersTest() throws Exception {
+        int count = 2000;
+        List<Process> processes = new ArrayList<>();
+        for (String name : new String[]{"a", "b"}) {
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                Writer.class.getName(), path.toString(), name, String.valueOf(count))
+                .redirectErrorStream(true)
+                .redirectOutput(new File(path + "." + name + ".log"))
+                .start());
+        }
+        int[] next = new int[2];
+        for (int i = 0; i < 2 * count; i++) {
+            Payload payload = reader.read(30, TimeUnit.SECONDS);
+            int writerIndex = payload.getName().equals("a") ? 0 : 1;
+            Assert.assertEquals(payload.getValues()[0], next[writerIndex]++);
+        }
+        for (Process process : processes) {
+            Assert.assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+            Assert.assertEquals(process.exitValue(), 0);
+        }
+        Assert.assertEquals(next, new int[]{count, count});
+    }
+
+    @AfterMethod
+    public void closeChannel() throws IOException {
+        writer.close();
+        reader.close();
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(Paths.get(path + ".a.log"));
+        Files.deleteIfExists(Paths.get(path + ".b.log"));
+    }
+
+    @AfterClass
+    public void teardownClass() {
+        threadPool.shutdownNow();
+    }
+
+    /**
+     * Writes the given number of messages to the channel in the given file, from a forked JVM.
+     */
+    public static final class Writer {
+
+        public static void main(String[] args) {
+            SharedMemoryChannel<Payload> channel = open(Paths.get(args[0]));
+            int count = Integer.parseInt(args[2]);
+            for (int i = 0; i < count; i++) {
+                channel.write(payload(args[1], i));
+            }
+        }
+    }
+}
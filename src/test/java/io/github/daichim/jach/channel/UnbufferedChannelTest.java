@@ -0,0 +1,203 @@
+package io.github.daichim.jach.channel;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.daichim.jach.channel.copier.RefCopier;
+import io.github.daichim.jach.channel.selector.Selector;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.daichim.jach.JachChannels.selectCase;
+import static io.github.daichim.jach.JachChannels.selector;
+
+@Slf4j
+public class UnbufferedChannelTest {
+
+    public static final int LIFE_UNIVERSE_AND_EVERYTHING = 42;
+    private static final int TIMEOUT = 200;
+
+    private ExecutorService threadPool;
+
+    private UnbufferedChannel<Integer> testChannel;
+
+    @BeforeClass
+    public void setupClass() {
+        threadPool = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("test-thread-%d").build());
+    }
+
+    @BeforeMethod
+    public void initializeChannel() {
+        this.testChannel = new UnbufferedChannel<>(Integer.class, new RefCopier<>());
+    }
+
+    @Test(groups = "channel_write", description = "Write blocks until a reader takes the message")
+    public void writeTestBlocksUntilRead() throws Exception {
+        Future<?> fut = threadPool.submit(() -> testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING));
+        try {
+            fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+            Assert.fail("Write completed without a reader");
+        } catch (TimeoutException ignored) {
+        }
+        Assert.assertEquals(testChannel.read().intValue(), LIFE_UNIVERSE_AND_EVERYTHING);
+        fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(groups = "channel_write",
+        expectedExceptions = io.github.daichim.jach.exception.TimeoutException.class,
+        description = "Write times out without a reader")
+    public void writeTestTimesOut() {
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING, TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(groups = "channel_write", timeOut = 5000,
+        description = "Try write only succeeds with a waiting reader")
+    public void tryWriteTest() throws Exception {
+        Assert.assertFalse(testChannel.tryWrite(LIFE_UNIVERSE_AND_EVERYTHING));
+        Future<Integer> fut = threadPool.submit(() -> testChannel.read());
+        while (!testChannel.tryWrite(LIFE_UNIVERSE_AND_EVERYTHING)) {
+            Thread.yield();
+        }
+        Assert.assertEquals(fut.get().intValue(), LIFE_UNIVERSE_AND_EVERYTHING);
+    }
+
+    @Test(groups = "channel_read", description = "Read blocks until a writer hands a message over")
+    public void readTestBlocksThenUnblocks() throws Exception {
+        Future<Integer> fut = threadPool.submit(() -> testChannel.read());
+        try {
+            fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+            Assert.fail("Read completed without a writer");
+        } catch (TimeoutException ignored) {
+        }
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+        Assert.assertEquals(fut.get(TIMEOUT, TimeUnit.MILLISECONDS).intValue(),
+            LIFE_UNIVERSE_AND_EVERYTHING);
+    }
+
+    @Test(groups = "channel_read",
+        expectedExceptions = io.github.daichim.jach.exception.TimeoutException.class,
+        description = "Read times out without a writer")
+    public void readTestTimeout() {
+        testChannel.read(TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(groups = "channel_read", timeOut = 5000,
+        description = "Try read only succeeds with a waiting writer")
+    public void tryReadTest() throws Exception {
+        Assert.assertNull(testChannel.tryRead());
+        Future<?> fut = threadPool.submit(() -> testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING));
+        Integer msg;
+        while ((msg = testChannel.tryRead()) == null) {
+            Thread.yield();
+        }
+        Assert.assertEquals(msg.intValue(), LIFE_UNIVERSE_AND_EVERYTHING);
+        fut.get();
+    }
+
+    @Test(groups = "channel_read", description = "Timed out reads do not match later writes")
+    public void cancelledReadersAreSkippedTest() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Assert.assertThrows(io.github.daichim.jach.exception.TimeoutException.class,
+                () -> testChannel.read(10, TimeUnit.MILLISECONDS));
+        }
+        Assert.assertFalse(testChannel.tryWrite(LIFE_UNIVERSE_AND_EVERYTHING));
+        Future<Integer> fut = threadPool.submit(() -> testChannel.read());
+        testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING);
+        Assert.assertEquals(fut.get(TIMEOUT, TimeUnit.MILLISECONDS).intValue(),
+            LIFE_UNIVERSE_AND_EVERYTHING);
+    }
+
+    @Test(groups = "channel_close", description = "Close channel - check readers are woken up")
+    public void closeChannelWakesReadersTest() throws Exception {
+        Future<Integer> fut = threadPool.submit(() -> testChannel.read());
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        testChannel.close();
+        try {
+            fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+            Assert.fail("Reader was not woken up");
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof NoSuchChannelElementException);
+        }
+    }
+
+    @Test(groups = "channel_close", description = "Close channel - check writers are woken up")
+    public void closeChannelWakesWritersTest() throws Exception {
+        Future<?> fut = threadPool.submit(() -> testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING));
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        testChannel.close();
+        try {
+            fut.get(TIMEOUT, TimeUnit.MILLISECONDS);
+            Assert.fail("Writer was not woken up");
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof ClosedChannelException);
+        }
+        Assert.assertThrows(NoSuchChannelElementException.class, () -> testChannel.tryRead());
+    }
+
+    @Test(groups = "channel_select", timeOut = 5000,
+        description = "A selector reads the message of a waiting writer")
+    public void selectorTest() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        Selector sel = selector(selectCase(testChannel, received::set));
+        Future<?> fut = threadPool.submit(() -> testChannel.write(LIFE_UNIVERSE_AND_EVERYTHING));
+        sel.select();
+        fut.get();
+        Assert.assertEquals(received.get(), LIFE_UNIVERSE_AND_EVERYTHING);
+    }
+
+    @Test(groups = "channel_iterate", timeOut = 10_000,
+        description = "Multiple writers and readers hand over every message exactly once")
+    public void mpmcTest() throws Exception {
+        final int writers = 4;
+        final int perWriter = 5_000;
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        List<Future<?>> writerFuts = new ArrayList<>();
+        List<Future<?>> readerFuts = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            final int base = w * perWriter;
+            writerFuts.add(threadPool.submit(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    testChannel.write(base + i);
+                }
+            }));
+            readerFuts.add(threadPool.submit(() -> testChannel.forEach(
+                msg -> Assert.assertTrue(seen.add(msg)))));
+        }
+        for (Future<?> fut : writerFuts) {
+            fut.get();
+        }
+        testChannel.close();
+        for (Future<?> fut : readerFuts) {
+            fut.get();
+        }
+        Assert.assertEquals(seen.size(), writers * perWriter);
+    }
+
+    @AfterMethod
+    public void closeChannel() {
+        testChannel.close();
+    }
+
+    @AfterClass
+    public void cleanupClass() {
+        threadPool.shutdownNow();
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.daichim.jach.channel.copier;
+
+import io.github.daichim.jach.channel.Cardinality;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+public class ImmutablesTest {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Immutable {
+    }
+
+    @io.github.daichim.jach.channel.copier.Immutable
+    static class AnnotatedPojo {
+    }
+
+    @Immutable
+    static class ForeignAnnotatedPojo {
+    }
+
+    @Test
+    public void knownTypesTest() {
+        Assert.assertTrue(Immutables.isImmutable(String.class));
+        Assert.assertTrue(Immutables.isImmutable(Integer.class));
+        Assert.assertTrue(Immutables.isImmutable(int.class));
+        Assert.assertTrue(Immutables.isImmutable(UUID.class));
+        Assert.assertTrue(Immutables.isImmutable(Instant.class));
+        Assert.assertTrue(Immutables.isImmutable(Cardinality.class));
+        Assert.assertFalse(Immutables.isImmutable(TestPojo.class));
+        Assert.assertFalse(Immutables.isImmutable(Date.class));
+        Assert.assertFalse(Immutables.isImmutable(Number.class));
+        Assert.assertFalse(Immutables.isImmutable(String[].class));
+    }
+
+    @Test
+    public void annotatedTypesTest() {
+        Assert.assertTrue(Immutables.isImmutable(AnnotatedPojo.class));
+        Assert.assertTrue(Immutables.isImmutable(ForeignAnnotatedPojo.class));
+    }
+
+    @Test
+    public void forTypeTest() {
+        Assert.assertTrue(Copier.forType(String.class) instanceof RefCopier);
+        Assert.assertTrue(Copier.forType(AnnotatedPojo.class) instanceof RefCopier);
+        Assert.assertTrue(Copier.forType(TestPojo.class) instanceof PooledKryoCopier);
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.daichim.jach.channel.copier;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MethodHandleCopierTest {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Envelope {
+        private long id;
+        private int[] values;
+        private String[] tags;
+        private TestPojo pojo;
+        private List<TestPojo> pojos;
+    }
+
+    @Getter
+    @Setter
+    static class Node {
+        private String value;
+        private Node next;
+    }
+
+    static class Tags extends ArrayList<String> {
+    }
+
+    @Test
+    public void copyOfTest() throws Exception {
+        TestPojo pojo = new TestPojo("Hello", 42);
+        TestPojo pojoCopy = new MethodHandleCopier<>(TestPojo.class).copyOf(pojo);
+        Assert.assertFalse(pojoCopy == pojo);
+        Assert.assertEquals(pojoCopy, pojo);
+        Assert.assertTrue(MethodHandleCopier.isSupported(TestPojo.class));
+    }
+
+    @Test
+    public void nestedCopyTest() throws Exception {
+        Envelope envelope = new Envelope(7L, new int[]{1, 2, 3}, new String[]{"a", "b"},
+            new TestPojo("Hello", 42), new ArrayList<>(Arrays.asList(new TestPojo("World", 1))));
+        Envelope copy = new MethodHandleCopier<>(Envelope.class).copyOf(envelope);
+        Assert.assertEquals(copy, envelope);
+        Assert.assertFalse(copy.getValues() == envelope.getValues());
+        Assert.assertFalse(copy.getTags() == envelope.getTags());
+        Assert.assertFalse(copy.getPojo() == envelope.getPojo());
+        Assert.assertFalse(copy.getPojos() == envelope.getPojos());
+        Assert.assertFalse(copy.getPojos().get(0) == envelope.getPojos().get(0));
+
+        envelope.getValues()[0] = 100;
+        envelope.getPojo().setIntData(100);
+        Assert.assertEquals(copy.getValues()[0], 1);
+        Assert.assertEquals(copy.getPojo().getIntData(), Integer.valueOf(42));
+    }
+
+    @Test
+    public void nullFieldsTest() throws Exception {
+        Envelope copy = new MethodHandleCopier<>(Envelope.class).copyOf(new Envelope());
+        Assert.assertEquals(copy, new Envelope());
+        Assert.assertNull(new MethodHandleCopier<>(Envelope.class).copyOf(null));
+    }
+
+    @Test(timeOut = 5000)
+    public void cyclicCopyTest() throws Exception {
+        Node node = new Node();
+        node.setValue("loop");
+        node.setNext(node);
+        Node copy = new MethodHandleCopier<>(Node.class).copyOf(node);
+        Assert.assertFalse(copy == node);
+        Assert.assertEquals(copy.getValue(), "loop");
+        Assert.assertFalse(copy.getNext() == node);
+        Assert.assertSame(copy.getNext().getNext(), copy.getNext());
+    }
+
+    @Test
+    public void kryoFallbackTest() throws Exception {
+        Tags tags = new Tags();
+        tags.add("Hello");
+        Assert.assertFalse(MethodHandleCopier.isSupported(Tags.class));
+        Tags copy = new MethodHandleCopier<>(Tags.class).copyOf(tags);
+        Assert.assertFalse(copy == tags);
+        Assert.assertEquals(copy, tags);
+    }
+}
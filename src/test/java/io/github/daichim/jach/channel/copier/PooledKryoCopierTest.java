@@ -0,0 +1,89 @@
+package io.github.daichim.jach.channel.copier;
+
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class PooledKryoCopierTest {
+
+    @Test
+    public void copyOfTest() throws Exception {
+        TestPojo pojo = new TestPojo("Hello", 42);
+        TestPojo pojoCopy = new PooledKryoCopier<>(TestPojo.class).copyOf(pojo);
+        Assert.assertFalse(pojo == pojoCopy);
+        Assert.assertEquals(pojo, pojoCopy);
+        Assert.assertEquals(new PooledKryoCopier<>(String.class).copyOf("Hello"), "Hello");
+    }
+
+    @Test(timeOut = 10_000)
+    public void concurrentCopyTest() throws Exception {
+        final int threads = 16;
+        final int copies = 10_000;
+        PooledKryoCopier<TestPojo> copier = new PooledKryoCopier<>(TestPojo.class);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futs = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                futs.add(executor.submit(() -> {
+                    for (int i = 0; i < copies; i++) {
+                        TestPojo pojo = new TestPojo("thread-" + thread, i);
+                        Assert.assertEquals(copier.copyOf(pojo), pojo);
+                    }
+                }));
+            }
+            for (Future<?> fut : futs) {
+                fut.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void registrationTest() throws Exception {
+        KryoPool pool = new KryoPool(2);
+        pool.register(TestPojo.class);
+        pool.register(TestPojo.class);
+        Kryo first = pool.obtain();
+        Kryo second = pool.obtain();
+        try {
+            // The first one was warmed up by the registration, the second one is created with it.
+            Assert.assertNotNull(first.getClassResolver().getRegistration(TestPojo.class));
+            Assert.assertNotNull(second.getClassResolver().getRegistration(TestPojo.class));
+        } finally {
+            pool.free(first);
+            pool.free(second);
+        }
+    }
+
+    @Test
+    public void staleInstanceRegistrationTest() throws Exception {
+        KryoPool pool = new KryoPool(2);
+        Kryo first = pool.obtain();
+        Kryo second = pool.obtain();
+        pool.free(first);
+        pool.free(second);
+        // Both instances are idle while the classes get registered.
+        pool.register(TestPojo.class);
+        pool.register(ArrayList.class);
+        first = pool.obtain();
+        second = pool.obtain();
+        try {
+            for (Class<?> clazz : new Class<?>[]{TestPojo.class, ArrayList.class}) {
+                Assert.assertNotNull(first.getClassResolver().getRegistration(clazz));
+                Assert.assertEquals(second.getClassResolver().getRegistration(clazz).getId(),
+                    first.getClassResolver().getRegistration(clazz).getId());
+            }
+        } finally {
+            pool.free(first);
+            pool.free(second);
+        }
+    }
+}
@@ -66,6 +66,10 @@ public class SelectorTest {
         );
         threadPool.submit(() -> {
             for (int i = 0; i < 10; i++) {
+                // Channels are polled in order, so only write once the previous message is taken.
+                while (counter.get() < i) {
+                    Thread.yield();
+                }
                 if (i % 2 == 0) {
                     chans[0].write("Hello");
                 } else {
@@ -85,11 +89,11 @@ public class SelectorTest {
         Assert.assertFalse(sel.isActive());
     }
 
-    @Test(timeOut = 4000, enabled = false)
+    @Test(timeOut = 4000)
     public void multiThreadSelectTest() throws Exception {
         Channel[] chans = createChannels();
         AtomicInteger counter = new AtomicInteger(0);
-        Selector sel = selector(
+        Selector sel = selector(SelectionPolicy.PRIORITY,
             selectCase(chans[0], s -> {
                 log.debug("Channel1 read in {}", s);
                 Assert.assertEquals(s, "Hello");
@@ -140,9 +144,9 @@ public class SelectorTest {
     @Test(timeOut = 10_000)
     public void selectorOverflowTest() throws Exception {
         Channel<String> bigChannel = new BufferedChannel<>(10*1024, String.class, new RefCopier<>());
-        Channel<Object> exitChannel = new UnbufferedChannel<>(Object.class, new RefCopier<>());
+        Channel<Object> exitChannel = new BufferedChannel<>(1, Object.class, new RefCopier<>());
         AtomicInteger counter = new AtomicInteger(0);
-        Selector sel = selector(
+        Selector sel = selector(SelectionPolicy.PRIORITY,
             selectCase(bigChannel, s -> {
                 // log.debug("Channel1 read in {}", s);
                 Assert.assertEquals(s, "Hello");
@@ -158,14 +162,147 @@ public class SelectorTest {
         });
         fut.get();
         sel.untilDone();
-        Assert.assertEquals(counter.get(), 2047);
+        Assert.assertEquals(counter.get(), 2100);
+    }
+
+    @Test(timeOut = 10_000)
+    public void selectorAndReaderShareChannelTest() throws Exception {
+        Channel<Integer> chan = new BufferedChannel<>(1, Integer.class, new RefCopier<>());
+        Channel<Integer> idle = new BufferedChannel<>(1, Integer.class, new RefCopier<>());
+        AtomicInteger counter = new AtomicInteger(0);
+        Selector sel = selector(
+            selectCase(idle, i -> Assert.fail("Nothing is written to this channel")),
+            selectCase(chan, i -> counter.incrementAndGet())
+        );
+        Future<?> selFut = threadPool.submit(sel::untilDone);
+        Future<?> readFut = threadPool.submit(() -> chan.forEach(i -> counter.incrementAndGet()));
+        for (int i = 0; i < 10_000; i++) {
+            chan.write(i);
+        }
+        chan.close();
+        idle.close();
+        readFut.get();
+        selFut.get();
+        Assert.assertEquals(counter.get(), 10_000);
+        Assert.assertFalse(sel.isActive());
+    }
+
+    @Test(timeOut = 10_000)
+    public void sendCaseTest() throws Exception {
+        Channel<Integer> out = new BufferedChannel<>(2, Integer.class, new RefCopier<>());
+        Channel<Object> done = new UnbufferedChannel<>(Object.class, new RefCopier<>());
+        AtomicInteger sent = new AtomicInteger(0);
+        Selector sel = selector(
+            selectCase(out, 42, i -> sent.incrementAndGet()),
+            selectCase(done, Selector.BREAK_ACTION)
+        );
+        Future<?> fut = threadPool.submit(sel::untilDone);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(out.read().intValue(), 42);
+        }
+        done.write(new Object());
+        fut.get();
+        Assert.assertFalse(sel.isActive());
+        // The selector blocks on the full channel, so it can only be two messages ahead.
+        Assert.assertTrue(sent.get() >= 100 && sent.get() <= 102, "Sent " + sent.get());
+    }
+
+    @Test(timeOut = 10_000)
+    public void sendCaseToUnbufferedChannelTest() throws Exception {
+        Channel<Integer> out = new UnbufferedChannel<>(Integer.class, new RefCopier<>());
+        Channel<Integer> in = new BufferedChannel<>(1, Integer.class, new RefCopier<>());
+        AtomicInteger received = new AtomicInteger(0);
+        Selector sel = selector(
+            selectCase(in, received::set),
+            selectCase(out, 42, Selector.BREAK_ACTION)
+        );
+        Future<Integer> fut = threadPool.submit(() -> out.read());
+        sel.untilDone();
+        Assert.assertEquals(fut.get().intValue(), 42);
+        Assert.assertEquals(received.get(), 0);
+    }
+
+    @Test
+    public void sendCaseClosedChannelTest() {
+        Channel<Integer> out = new BufferedChannel<>(1, Integer.class, new RefCopier<>());
+        Selector sel = selector(selectCase(out, 42, i -> {}));
+        out.close();
+        sel.select();
+        Assert.assertFalse(sel.isActive());
+    }
+
+    @Test
+    public void randomSelectionTest() {
+        Channel<Integer> hot = new BufferedChannel<>(1000, Integer.class, new RefCopier<>());
+        Channel<Integer> cold = new BufferedChannel<>(1000, Integer.class, new RefCopier<>());
+        AtomicInteger hotCount = new AtomicInteger(0);
+        AtomicInteger coldCount = new AtomicInteger(0);
+        for (int i = 0; i < 1000; i++) {
+            hot.write(i);
+            cold.write(i);
+        }
+        Selector sel = selector(
+            selectCase(hot, i -> hotCount.incrementAndGet()),
+            selectCase(cold, i -> coldCount.incrementAndGet())
+        );
+        for (int i = 0; i < 1000; i++) {
+            sel.select();
+        }
+        // Both channels are always ready, so each should get about half of the selects.
+        Assert.assertTrue(hotCount.get() > 400 && coldCount.get() > 400,
+            "hot: " + hotCount.get() + ", cold: " + coldCount.get());
+    }
+
+    @Test
+    public void prioritySelectionTest() {
+        Channel<Integer> data = new BufferedChannel<>(10, Integer.class, new RefCopier<>());
+        Channel<Integer> done = new BufferedChannel<>(1, Integer.class, new RefCopier<>());
+        AtomicInteger counter = new AtomicInteger(0);
+        for (int i = 0; i < 10; i++) {
+            data.write(i);
+        }
+        done.write(0);
+        Selector sel = selector(SelectionPolicy.PRIORITY,
+            selectCase(done, Selector.BREAK_ACTION),
+            selectCase(data, i -> counter.incrementAndGet())
+        );
+        sel.untilDone();
+        Assert.assertEquals(counter.get(), 0);
+        Assert.assertEquals(data.tryRead().intValue(), 0);
+    }
+
+    @Test
+    public void weightedSelectionTest() {
+        Channel<Integer> heavy = new BufferedChannel<>(2000, Integer.class, new RefCopier<>());
+        Channel<Integer> light = new BufferedChannel<>(2000, Integer.class, new RefCopier<>());
+        AtomicInteger heavyCount = new AtomicInteger(0);
+        for (int i = 0; i < 2000; i++) {
+            heavy.write(i);
+            light.write(i);
+        }
+        Selector sel = selector(SelectionPolicy.WEIGHTED,
+            selectCase(heavy, i -> heavyCount.incrementAndGet()).withWeight(3),
+            selectCase(light, i -> {})
+        );
+        for (int i = 0; i < 2000; i++) {
+            sel.select();
+        }
+        // 3:1 weights, so the heavy channel should get about 1500 of the 2000 selects.
+        Assert.assertTrue(heavyCount.get() > 1350 && heavyCount.get() < 1650,
+            "heavy: " + heavyCount.get());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void nonPositiveWeightTest() {
+        Channel<Integer> chan = new BufferedChannel<>(1, Integer.class, new RefCopier<>());
+        new ChannelAction<>(chan, i -> {}, null, 0);
     }
 
     @Test
     public void untilDoneTest() {
         Channel[] chans = createChannels();
         AtomicInteger counter = new AtomicInteger(0);
-        Selector sel = selector(
+        Selector sel = selector(SelectionPolicy.PRIORITY,
             selectCase(chans[0], s -> {
                 log.debug("Channel1 read in {}", s);
                 Assert.assertEquals(s, "Universe");
@@ -236,7 +373,7 @@ public class SelectorTest {
         Channel[] chans = createChannels();
         AtomicInteger counter = new AtomicInteger(0);
         AtomicInteger defaultCalled = new AtomicInteger(0);
-        Selector sel = selector(
+        Selector sel = selector(SelectionPolicy.PRIORITY,
             selectCase(chans[0], s -> {
                 log.debug("Channel1 read in {}", s);
                 Assert.assertEquals(s, "Universe");
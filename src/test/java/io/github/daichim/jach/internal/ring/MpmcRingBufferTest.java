@@ -0,0 +1,83 @@
+package io.github.daichim.jach.internal.ring;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MpmcRingBufferTest {
+
+    @Test(description = "Offer until full and poll until empty, in FIFO order")
+    public void offerPollTest() {
+        MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(5);
+        Assert.assertTrue(ring.isEmpty());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(ring.offer(i));
+        }
+        Assert.assertFalse(ring.offer(5));
+        Assert.assertEquals(ring.size(), 5);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(ring.poll(), Integer.valueOf(i));
+        }
+        Assert.assertNull(ring.poll());
+        Assert.assertTrue(ring.isEmpty());
+    }
+
+    @Test(description = "Wrap around the buffer multiple times")
+    public void wrapAroundTest() {
+        MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(4);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(ring.offer(i));
+            Assert.assertTrue(ring.offer(i + 1000));
+            Assert.assertEquals(ring.poll(), Integer.valueOf(i));
+            Assert.assertEquals(ring.poll(), Integer.valueOf(i + 1000));
+        }
+        Assert.assertEquals(ring.capacity(), 4);
+        Assert.assertEquals(ring.size(), 0);
+    }
+
+    @Test(timeOut = 10_000, description = "Every element is polled exactly once under contention")
+    public void concurrentOfferPollTest() throws Exception {
+        final int threads = 4;
+        final int perThread = 10_000;
+        MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(16);
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        AtomicInteger polled = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int base = t * perThread;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+            futures.add(pool.submit(() -> {
+                while (polled.get() < threads * perThread) {
+                    Integer val = ring.poll();
+                    if (val != null) {
+                        Assert.assertTrue(seen.add(val));
+                        polled.incrementAndGet();
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (Future<?> fut : futures) {
+            fut.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdownNow();
+        Assert.assertEquals(seen.size(), threads * perThread);
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.daichim.jach.internal.ring;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RingBuffersTest {
+
+    @DataProvider(name = "cardinalities")
+    public Object[][] cardinalities() {
+        return new Object[][]{
+            {true, true},
+            {false, true},
+            {true, false},
+            {false, false}
+        };
+    }
+
+    @Test(dataProvider = "cardinalities",
+        description = "Offer until full and poll until empty, in FIFO order")
+    public void offerPollTest(boolean singleProducer, boolean singleConsumer) {
+        RingBuffer<Integer> ring = RingBuffers.create(5, singleProducer, singleConsumer);
+        Assert.assertTrue(ring.isEmpty());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(ring.offer(i));
+        }
+        Assert.assertFalse(ring.offer(5));
+        Assert.assertEquals(ring.size(), 5);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(ring.poll(), Integer.valueOf(i));
+        }
+        Assert.assertNull(ring.poll());
+        Assert.assertTrue(ring.isEmpty());
+    }
+
+    @Test(dataProvider = "cardinalities", description = "Wrap around the buffer multiple times")
+    public void wrapAroundTest(boolean singleProducer, boolean singleConsumer) {
+        RingBuffer<Integer> ring = RingBuffers.create(4, singleProducer, singleConsumer);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(ring.offer(i));
+            Assert.assertTrue(ring.offer(i + 1000));
+            Assert.assertEquals(ring.poll(), Integer.valueOf(i));
+            Assert.assertEquals(ring.poll(), Integer.valueOf(i + 1000));
+        }
+        Assert.assertEquals(ring.capacity(), 4);
+        Assert.assertEquals(ring.size(), 0);
+    }
+
+    @Test(dataProvider = "cardinalities", timeOut = 10_000,
+        description = "Every element is polled exactly once with the declared threads")
+    public void concurrentOfferPollTest(boolean singleProducer, boolean singleConsumer)
+        throws Exception {
+        final int producers = singleProducer ? 1 : 3;
+        final int consumers = singleConsumer ? 1 : 3;
+        final int perProducer = 10_000;
+        RingBuffer<Integer> ring = RingBuffers.create(16, singleProducer, singleConsumer);
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        AtomicInteger polled = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(producers + consumers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < producers; t++) {
+            final int base = t * perProducer;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (int t = 0; t < consumers; t++) {
+            futures.add(pool.submit(() -> {
+                while (polled.get() < producers * perProducer) {
+                    Integer val = ring.poll();
+                    if (val != null) {
+                        Assert.assertTrue(seen.add(val));
+                        polled.incrementAndGet();
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (Future<?> fut : futures) {
+            fut.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdownNow();
+        Assert.assertEquals(seen.size(), producers * perProducer);
+    }
+
+    @Test(timeOut = 5_000, description = "Concurrent use of a single side fails in debug mode")
+    public void checkedRingBufferTest() throws Exception {
+        CountDownLatch inOffer = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RingBuffer<Integer> blocking = new SpscRingBuffer<Integer>(4) {
+            @Override
+            public boolean offer(Integer element) {
+                inOffer.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.offer(element);
+            }
+        };
+        RingBuffer<Integer> ring = new CheckedRingBuffer<>(blocking, true, true);
+        Thread producer = new Thread(() -> ring.offer(1));
+        producer.start();
+        inOffer.await();
+
+        Assert.assertThrows(IllegalStateException.class, () -> ring.offer(2));
+        release.countDown();
+        producer.join();
+
+        // Handing the producer side over to another thread is fine.
+        Assert.assertTrue(ring.offer(3));
+        Assert.assertEquals(ring.poll(), Integer.valueOf(1));
+        Assert.assertEquals(ring.poll(), Integer.valueOf(3));
+    }
+}
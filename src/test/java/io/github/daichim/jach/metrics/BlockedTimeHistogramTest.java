@@ -0,0 +1,46 @@
+package io.github.daichim.jach.metrics;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BlockedTimeHistogramTest {
+
+    @Test(description = "An empty histogram reports zeros")
+    public void emptyTest() {
+        BlockedTimeHistogram histogram = new BlockedTimeHistogram();
+        Assert.assertEquals(histogram.getCount(), 0L);
+        Assert.assertEquals(histogram.getMaxNanos(), 0L);
+        Assert.assertEquals(histogram.getPercentileNanos(99.0), 0L);
+    }
+
+    @Test(description = "Percentiles are the upper bounds of the power of two buckets")
+    public void percentileTest() {
+        BlockedTimeHistogram histogram = new BlockedTimeHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100L);
+        }
+        histogram.record(1_000_000L);
+        Assert.assertEquals(histogram.getCount(), 100L);
+        Assert.assertEquals(histogram.getTotalNanos(), 99 * 100L + 1_000_000L);
+        Assert.assertEquals(histogram.getMaxNanos(), 1_000_000L);
+        Assert.assertEquals(histogram.getPercentileNanos(50.0), 127L);
+        Assert.assertEquals(histogram.getPercentileNanos(99.0), 127L);
+        Assert.assertEquals(histogram.getPercentileNanos(100.0), 1_000_000L);
+    }
+
+    @Test(description = "Negative and extreme durations fall in the first and last buckets")
+    public void boundsTest() {
+        BlockedTimeHistogram histogram = new BlockedTimeHistogram();
+        histogram.record(-5L);
+        Assert.assertEquals(histogram.getPercentileNanos(100.0), 0L);
+        histogram.record(Long.MAX_VALUE);
+        Assert.assertEquals(histogram.getPercentileNanos(100.0), Long.MAX_VALUE);
+        Assert.assertEquals(histogram.getCount(), 2L);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+        description = "A percentile is in (0, 100]")
+    public void invalidPercentileTest() {
+        new BlockedTimeHistogram().getPercentileNanos(0.0);
+    }
+}
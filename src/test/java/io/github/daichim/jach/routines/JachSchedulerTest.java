@@ -0,0 +1,106 @@
+package io.github.daichim.jach.routines;
+
+import io.github.daichim.jach.JachChannels;
+import io.github.daichim.jach.channel.UnbufferedChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+public class JachSchedulerTest {
+
+    private static final int TIMEOUT = 5000;
+
+    private JachScheduler scheduler;
+
+    @AfterMethod
+    public void shutdownScheduler() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test(timeOut = TIMEOUT,
+        description = "Routines blocked on a channel do not starve the queued routines")
+    public void blockedRoutinesDoNotStarveTest() throws Exception {
+        final int readers = 50;
+        scheduler = new JachScheduler(2);
+        UnbufferedChannel<Integer> channel = JachChannels.makeInt();
+        CountDownLatch done = new CountDownLatch(readers);
+        for (int i = 0; i < readers; i++) {
+            scheduler.execute(() -> {
+                channel.read();
+                done.countDown();
+            });
+        }
+        scheduler.execute(() -> {
+            for (int i = 0; i < readers; i++) {
+                channel.write(i);
+            }
+        });
+        Assert.assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(scheduler.getPoolSize() > scheduler.getParallelism());
+    }
+
+    @Test(timeOut = TIMEOUT, description = "Exceptions of the routines reach the handler")
+    public void exceptionHandlerTest() throws Exception {
+        AtomicReference<Throwable> caught = new AtomicReference<>();
+        CountDownLatch handled = new CountDownLatch(1);
+        scheduler = new JachScheduler(1, "handler-test", (thread, ex) -> {
+            caught.set(ex);
+            handled.countDown();
+        });
+        scheduler.execute(() -> {
+            throw new IllegalStateException("routine failed");
+        });
+        Assert.assertTrue(handled.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(caught.get() instanceof IllegalStateException);
+        Assert.assertEquals(scheduler.getFailedCount(), 1L);
+
+        CountDownLatch ran = new CountDownLatch(1);
+        scheduler.execute(ran::countDown);
+        Assert.assertTrue(ran.await(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(timeOut = TIMEOUT, description = "Threads are named after the scheduler")
+    public void threadNameTest() throws Exception {
+        AtomicReference<String> threadName = new AtomicReference<>();
+        CountDownLatch ran = new CountDownLatch(1);
+        scheduler = new JachScheduler(1, "name-test", (thread, ex) -> {});
+        scheduler.execute(() -> {
+            threadName.set(Thread.currentThread().getName());
+            ran.countDown();
+        });
+        Assert.assertTrue(ran.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(threadName.get().startsWith("name-test-"), threadName.get());
+    }
+
+    @Test(timeOut = TIMEOUT, description = "Active and blocked routines are counted")
+    public void metricsTest() throws Exception {
+        scheduler = new JachScheduler(1);
+        UnbufferedChannel<Integer> channel = JachChannels.makeInt();
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.execute(() -> {
+            channel.read();
+            done.countDown();
+        });
+        while (scheduler.getBlockedCount() == 0) {
+            Thread.yield();
+        }
+        Assert.assertEquals(scheduler.getActiveCount(), 1);
+        Assert.assertEquals(scheduler.getBlockedCount(), 1);
+
+        channel.write(42);
+        Assert.assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        while (scheduler.getActiveCount() > 0) {
+            Thread.yield();
+        }
+        Assert.assertEquals(scheduler.getBlockedCount(), 0);
+        Assert.assertEquals(scheduler.getQueuedCount(), 0L);
+    }
+}
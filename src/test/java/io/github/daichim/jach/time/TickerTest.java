@@ -8,12 +8,12 @@ import org.testng.annotations.Test;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.IntSummaryStatistics;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.github.daichim.jach.JachChannels.makeStr;
 import static io.github.daichim.jach.JachChannels.selectCase;
@@ -29,86 +29,140 @@ public class TickerTest {
         ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
         final int tickInterval = 100;
         Ticker ticker = new Ticker(tickInterval, TimeUnit.MILLISECONDS, executor);
-        TickCounter ctr = new TickCounter();
+        TickCounter ctr = new TickCounter(tickInterval);
         Channel<String> exitCh = makeStr();
-        IntSummaryStatistics stats = new IntSummaryStatistics();
         Selector selector = selector(
             selectCase(ticker.C, instant -> {
-                long duration = ctr.tick();
-                stats.accept((int) duration);
+                long duration = ctr.tick(instant);
                 log.debug("Duration: {} millis", duration);
+                // A late reader gets the buffered tick and then the next one, but the ticks still
+                // carry the times they were sent at, a whole number of intervals apart.
                 Assert.assertTrue(duration >= tickInterval - 10);
             }),
             selectCase(exitCh, Selector.BREAK_ACTION));
         executor.schedule(() -> exitCh.write("EXIT"), 2, TimeUnit.SECONDS);
         selector.untilDone();
+        ticker.stop();
 
-        log.debug("Statistics: {}", stats);
-        Assert.assertEquals((int) Math.round(stats.getAverage()), tickInterval);
+        log.debug("Ticks: {}, skipped: {}", ctr.count.get(), ctr.skipped);
+        Assert.assertTrue(ctr.count.get() > 2);
+        // The ticks missing between the ones read were dropped by the ticker, not delayed.
+        Assert.assertTrue(ticker.getDroppedTicks() >= ctr.skipped);
+        Assert.assertEquals(Math.round(ctr.averageInterval()), tickInterval);
+        executor.shutdownNow();
     }
 
     @Test(timeOut = 3000)
-    public void stopTickerTest() {
+    public void stopTickerTest() throws Exception {
         ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
         final int tickInterval = 100;
         AtomicBoolean stopped = new AtomicBoolean(false);
         Ticker ticker = new Ticker(tickInterval, TimeUnit.MILLISECONDS, executor);
-        TickCounter ctr = new TickCounter();
+        TickCounter ctr = new TickCounter(tickInterval);
         Selector selector = selector(
             selectCase(ticker.C, instant -> {
-                long duration = ctr.tick();
+                long duration = ctr.tick(instant);
                 log.debug("Duration: {} millis", duration);
                 Assert.assertTrue(duration >= tickInterval - 10);
             }));
         executor.schedule(() -> {
-            ticker.stop();
+            // Set before stopping, as stopping the ticker returns the selector right away.
             stopped.set(true);
+            ticker.stop();
         }, 2, TimeUnit.SECONDS);
         selector.untilDone();
         Assert.assertTrue(stopped.get());
+
+        // A stopped ticker neither sends nor drops ticks.
+        long dropped = ticker.getDroppedTicks();
+        TimeUnit.MILLISECONDS.sleep(2 * tickInterval);
+        Assert.assertEquals(ticker.getDroppedTicks(), dropped);
+        executor.shutdownNow();
     }
 
     @Test(timeOut = 3000)
     public void resetTickerTest() {
         ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
         AtomicInteger tickInterval = new AtomicInteger(100);
-        AtomicBoolean reset = new AtomicBoolean(false);
+        AtomicReference<Instant> resetAt = new AtomicReference<>();
         Ticker ticker = new Ticker(tickInterval.get(), TimeUnit.MILLISECONDS, executor);
-        TickCounter ctr = new TickCounter();
+        TickCounter ctr = new TickCounter(tickInterval.get());
         Selector selector = selector(
             selectCase(ticker.C, instant -> {
-                if (reset.get()) {
-                    reset.compareAndSet(true, false);
-                    ctr.tick();
+                Instant prevTick = ctr.prevTick;
+                long duration = ctr.tick(instant);
+                Instant reset = resetAt.get();
+                if (reset != null && (prevTick == null || prevTick.isBefore(reset))) {
+                    // The interval spans the reset, or the tick was sent before it.
                     return;
                 }
-                long duration = ctr.tick();
                 log.debug("Duration: {} millis", duration);
                 Assert.assertTrue(duration >= tickInterval.get() - 10);
             }));
         executor.schedule(() -> {
+            tickInterval.set(50);
+            resetAt.set(Instant.now());
             ticker.reset(50, TimeUnit.MILLISECONDS);
-            tickInterval.compareAndSet(100, 50);
-            reset.compareAndSet(false, true);
         }, 1, TimeUnit.SECONDS);
         executor.schedule(ticker::stop, 2, TimeUnit.SECONDS);
         selector.untilDone();
     }
 
+    @Test(timeOut = 3000)
+    public void slowConsumerTickerTest() throws Exception {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        Ticker ticker = new Ticker(10, TimeUnit.MILLISECONDS, executor);
+        Timer timer = new Timer(300, TimeUnit.MILLISECONDS, executor);
+        Instant start = Instant.now();
+        // Nobody reads the ticks, still the timer on the same thread fires in time.
+        Instant fired = timer.C.read();
+        Assert.assertTrue(Duration.between(start, fired).toMillis() < 1000);
+        Assert.assertTrue(ticker.getDroppedTicks() > 0);
+
+        Instant pending = ticker.C.read();
+        Assert.assertTrue(pending.isBefore(fired));
+        ticker.stop();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Measures the intervals between the times carried by the ticks, rather than the times they
+     * are read at, which depend on how late the reader is. An interval of several periods means
+     * that the ticks in between were dropped. The first tick is discarded.
+     */
     private class TickCounter {
+        final long tickInterval;
+        Instant firstTick;
         Instant prevTick;
+        long periods;
+        long skipped;
         AtomicInteger count;
 
-        public TickCounter() {
-            this.prevTick = Instant.now();
+        public TickCounter(long tickInterval) {
+            this.tickInterval = tickInterval;
             this.count = new AtomicInteger(0);
         }
 
-        public long tick() {
-            Duration dur = Duration.between(prevTick, Instant.now());
-            this.prevTick = Instant.now();
-            count.incrementAndGet();
-            return dur.toMillis();
+        public long tick(Instant tick) {
+            long duration = Long.MAX_VALUE;
+            if (count.getAndIncrement() == 0) {
+                // The first tick runs late while the classes load, so it only starts the count.
+                return duration;
+            }
+            if (prevTick == null) {
+                this.firstTick = tick;
+            } else {
+                duration = Duration.between(prevTick, tick).toMillis();
+                long n = Math.max(1, Math.round((double) duration / tickInterval));
+                this.periods += n;
+                this.skipped += n - 1;
+            }
+            this.prevTick = tick;
+            return duration;
+        }
+
+        public double averageInterval() {
+            return (double) Duration.between(firstTick, prevTick).toMillis() / periods;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package io.github.daichim.jach.time;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.daichim.jach.channel.selector.Selector;
+import io.github.daichim.jach.exception.ClosedChannelException;
+import io.github.daichim.jach.exception.NoSuchChannelElementException;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.github.daichim.jach.JachChannels.selectCase;
+import static io.github.daichim.jach.JachChannels.selector;
+
+@Slf4j
+public class TimeChannelTest {
+
+    private static final int TIMEOUT = 200;
+
+    private ExecutorService threadPool;
+    private TimeChannel channel;
+
+    @BeforeClass
+    public void setupClass() {
+        threadPool = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("test-thread-%d").build());
+    }
+
+    @BeforeMethod
+    public void initializeChannel() {
+        channel = new TimeChannel();
+    }
+
+    @Test(description = "The single slot holds one event, passed by reference")
+    public void singleSlotTest() {
+        Instant now = Instant.now();
+        Assert.assertTrue(channel.tryWrite(now));
+        Assert.assertFalse(channel.tryWrite(Instant.now()));
+        Assert.assertSame(channel.tryRead(), now);
+        Assert.assertNull(channel.tryRead());
+    }
+
+    @Test(timeOut = 5000, description = "A blocked reader gets the next event")
+    public void blockedReadTest() throws Exception {
+        Future<Instant> fut = threadPool.submit(() -> channel.read());
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        Instant now = Instant.now();
+        channel.write(now);
+        Assert.assertSame(fut.get(), now);
+    }
+
+    @Test(timeOut = 5000, description = "A blocked writer completes once the event is read")
+    public void blockedWriteTest() throws Exception {
+        channel.write(Instant.now());
+        Instant next = Instant.now();
+        Future<?> fut = threadPool.submit(() -> channel.write(next));
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        Assert.assertFalse(fut.isDone());
+        channel.read();
+        fut.get();
+        Assert.assertSame(channel.read(), next);
+    }
+
+    @Test(expectedExceptions = io.github.daichim.jach.exception.TimeoutException.class,
+        description = "Read times out without an event")
+    public void readTimeoutTest() {
+        channel.read(TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(timeOut = 5000, description = "Close wakes up the readers and writers")
+    public void closeTest() throws Exception {
+        Future<Instant> reader = threadPool.submit(() -> channel.read());
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        channel.close();
+        try {
+            reader.get();
+            Assert.fail("Reader was not woken up");
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof NoSuchChannelElementException);
+        }
+        Assert.assertThrows(ClosedChannelException.class, () -> channel.write(Instant.now()));
+        Assert.assertFalse(channel.iterator().hasNext());
+    }
+
+    @Test(description = "An event written before the close can still be read")
+    public void readAfterCloseTest() {
+        Instant now = Instant.now();
+        channel.write(now);
+        channel.close();
+        Assert.assertTrue(channel.canRead());
+        Assert.assertSame(channel.read(), now);
+        Assert.assertThrows(NoSuchChannelElementException.class, () -> channel.tryRead());
+    }
+
+    @Test(description = "The id is created lazily, but only once")
+    public void idTest() {
+        String id = channel.getId();
+        Assert.assertNotNull(id);
+        Assert.assertEquals(channel.getId(), id);
+        Assert.assertNotEquals(new TimeChannel().getId(), id);
+    }
+
+    @Test(timeOut = 5000, description = "A selector is woken up by the event")
+    public void selectorTest() throws Exception {
+        AtomicReference<Instant> received = new AtomicReference<>();
+        Selector sel = selector(selectCase(channel, received::set));
+        Instant now = Instant.now();
+        Future<?> fut = threadPool.submit(() -> {
+            TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+            channel.write(now);
+            return null;
+        });
+        sel.select();
+        fut.get();
+        Assert.assertSame(received.get(), now);
+    }
+
+    @AfterClass
+    public void cleanupClass() {
+        threadPool.shutdownNow();
+    }
+}
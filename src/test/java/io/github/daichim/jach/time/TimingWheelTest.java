@@ -0,0 +1,139 @@
+package io.github.daichim.jach.time;
+
+import io.github.daichim.jach.JachTime;
+import io.github.daichim.jach.channel.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class TimingWheelTest {
+
+    private TimingWheel wheel;
+
+    @AfterMethod
+    public void shutdownWheel() throws Exception {
+        if (wheel != null) {
+            wheel.shutdownNow();
+            Assert.assertTrue(wheel.awaitTermination(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test(timeOut = 2000, description = "A task never runs before its delay")
+    public void scheduleTest() throws Exception {
+        wheel = new TimingWheel();
+        long start = System.nanoTime();
+        ScheduledFuture<Long> fut =
+            wheel.schedule(() -> System.nanoTime() - start, 200, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(fut.get()) >= 200);
+    }
+
+    @Test(timeOut = 2000, description = "A cancelled task does not run")
+    public void cancelTest() throws Exception {
+        wheel = new TimingWheel();
+        AtomicInteger runs = new AtomicInteger(0);
+        ScheduledFuture<?> fut = wheel.schedule(runs::incrementAndGet, 100, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(fut.cancel(false));
+        CountDownLatch later = new CountDownLatch(1);
+        wheel.schedule(later::countDown, 200, TimeUnit.MILLISECONDS);
+        later.await();
+        Assert.assertEquals(runs.get(), 0);
+        Assert.assertTrue(fut.isCancelled());
+    }
+
+    @Test(timeOut = 10_000, description = "Tasks spread over several levels all run in time")
+    public void cascadeTest() throws Exception {
+        final int tasks = 10_000;
+        // A small wheel, so that the delays span four levels.
+        wheel = new TimingWheel(1, TimeUnit.MILLISECONDS, 8);
+        CountDownLatch done = new CountDownLatch(tasks);
+        AtomicInteger early = new AtomicInteger(0);
+        for (int i = 0; i < tasks; i++) {
+            long delay = ThreadLocalRandom.current().nextLong(2000);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+            ScheduledFuture<?> fut = wheel.schedule(() -> {
+                if (System.nanoTime() < deadline) {
+                    early.incrementAndGet();
+                }
+                done.countDown();
+            }, delay, TimeUnit.MILLISECONDS);
+            if (i % 10 == 0) {
+                fut.cancel(false);
+                done.countDown();
+            }
+        }
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(early.get(), 0);
+    }
+
+    @Test(timeOut = 2000, description = "A fixed rate task runs until it is cancelled")
+    public void fixedRateTest() throws Exception {
+        wheel = new TimingWheel();
+        CountDownLatch ticks = new CountDownLatch(5);
+        Instant start = Instant.now();
+        ScheduledFuture<?> fut =
+            wheel.scheduleAtFixedRate(ticks::countDown, 50, 50, TimeUnit.MILLISECONDS);
+        ticks.await();
+        fut.cancel(false);
+        Assert.assertTrue(Duration.between(start, Instant.now()).toMillis() >= 250);
+    }
+
+    @Test(timeOut = 2000,
+        description = "Shutdown runs the delayed tasks and cancels the periodic ones")
+    public void shutdownTest() throws Exception {
+        wheel = new TimingWheel();
+        ScheduledFuture<String> delayed =
+            wheel.schedule(() -> "done", 200, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> periodic =
+            wheel.scheduleAtFixedRate(() -> {}, 50, 50, TimeUnit.MILLISECONDS);
+        wheel.shutdown();
+        Assert.assertThrows(RejectedExecutionException.class,
+            () -> wheel.schedule(() -> {}, 1, TimeUnit.MILLISECONDS));
+        Assert.assertFalse(wheel.isTerminated());
+        Assert.assertEquals(delayed.get(), "done");
+        Assert.assertTrue(periodic.isCancelled());
+        Assert.assertTrue(wheel.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test(timeOut = 2000, description = "ShutdownNow cancels the tasks that have not expired")
+    public void shutdownNowTest() throws Exception {
+        wheel = new TimingWheel();
+        ScheduledFuture<String> delayed =
+            wheel.schedule(() -> "done", 200, TimeUnit.MILLISECONDS);
+        wheel.shutdownNow();
+        Assert.assertTrue(wheel.awaitTermination(1, TimeUnit.SECONDS));
+        Assert.assertTrue(delayed.isCancelled());
+    }
+
+    @Test(timeOut = 2000,
+        description = "A timer still fires after JachTime switched over to another wheel")
+    public void switchWheelTest() {
+        JachTime.useTimingWheel(1, TimeUnit.MILLISECONDS);
+        Channel<Instant> after = JachTime.after(200, TimeUnit.MILLISECONDS);
+        JachTime.useTimingWheel(1, TimeUnit.MILLISECONDS);
+        Assert.assertNotNull(after.read());
+        Assert.assertNotNull(JachTime.after(10, TimeUnit.MILLISECONDS).read());
+    }
+
+    @Test(timeOut = 2000, description = "Timers driven by the wheel fire and can be reset")
+    public void timerTest() {
+        wheel = new TimingWheel();
+        Timer timer = new Timer(500, TimeUnit.MILLISECONDS, wheel);
+        Instant start = Instant.now();
+        wheel.schedule(() -> timer.reset(300, TimeUnit.MILLISECONDS),
+            100, TimeUnit.MILLISECONDS);
+        Instant tick = timer.C.read();
+        long millis = Duration.between(start, tick).toMillis();
+        Assert.assertTrue(millis >= 400 && millis < 500, "Fired after " + millis);
+    }
+}
@@ -0,0 +1,196 @@
+package io.github.daichim.jach.internal.jfr;
+
+import io.github.daichim.jach.JachChannels;
+import io.github.daichim.jach.JachTime;
+import io.github.daichim.jach.channel.BufferedChannel;
+import io.github.daichim.jach.channel.Channel;
+import io.github.daichim.jach.channel.selector.Selector;
+import io.github.daichim.jach.internal.FlightEvents;
+import io.github.daichim.jach.time.Timer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static io.github.daichim.jach.JachChannels.selectCase;
+import static io.github.daichim.jach.JachChannels.selector;
+
+public class JfrEventsTest {
+
+    private static final int TIMEOUT = 200;
+
+    private ExecutorService threadPool;
+    private Recording recording;
+
+    @BeforeClass
+    public void setupClass() {
+        threadPool = Executors.newCachedThreadPool();
+    }
+
+    @BeforeMethod
+    public void startRecording() {
+        recording = new Recording();
+    }
+
+    private List<RecordedEvent> stop(String eventName) throws IOException {
+        recording.stop();
+        Path dump = Files.createTempFile("jach", ".jfr");
+        try {
+            recording.dump(dump);
+            return RecordingFile.readAllEvents(dump).stream()
+                .filter(e -> e.getEventType().getName().equals(eventName))
+                .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static void assertChannel(RecordedEvent event, Channel<?> channel) {
+        Assert.assertEquals(event.getString("channelId"), channel.getId());
+        Assert.assertEquals(event.getClass("dataType").getName(), channel.getDataType().getName());
+    }
+
+    @Test(description = "The events are emitted on this runtime")
+    public void availableTest() {
+        Assert.assertTrue(FlightEvents.isAvailable());
+        Assert.assertTrue(FlightEvents.INSTANCE instanceof JfrEvents);
+        Assert.assertNull(FlightEvents.INSTANCE.beginBlocked(),
+            "An event is begun without a recording");
+    }
+
+    @Test(description = "A read which blocks longer than the threshold is recorded")
+    public void blockedTest() throws Exception {
+        recording.enable("jach.ChannelBlocked").withThreshold(Duration.ofMillis(TIMEOUT / 4));
+        recording.start();
+        BufferedChannel<String> channel = JachChannels.makeStr(1);
+        channel.write("fast");
+        channel.read();
+        Future<String> reader = threadPool.submit(() -> channel.read());
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+        channel.write("slow");
+        Assert.assertEquals(reader.get(), "slow");
+
+        List<RecordedEvent> events = stop("jach.ChannelBlocked");
+        Assert.assertEquals(events.size(), 1);
+        assertChannel(events.get(0), channel);
+        Assert.assertFalse(events.get(0).getBoolean("write"));
+        Assert.assertTrue(events.get(0).getDuration().toMillis() >= TIMEOUT / 2);
+    }
+
+    @Test(description = "The copies of the messages are recorded")
+    public void copyTest() throws Exception {
+        recording.enable("jach.ChannelCopy").withThreshold(Duration.ZERO);
+        recording.start();
+        BufferedChannel<int[]> channel = JachChannels.make(int[].class, 1);
+        channel.write(new int[]{42});
+        channel.read();
+
+        List<RecordedEvent> events = stop("jach.ChannelCopy");
+        Assert.assertEquals(events.size(), 1);
+        assertChannel(events.get(0), channel);
+    }
+
+    @Test(timeOut = 5000, description = "A selector woken up by a case is recorded")
+    public void selectorTest() throws Exception {
+        recording.enable("jach.SelectorWakeup").withThreshold(Duration.ZERO);
+        recording.start();
+        BufferedChannel<String> channel = JachChannels.makeStr(1);
+        Selector sel = selector(selectCase(channel, msg -> { }));
+        Future<?> fut = threadPool.submit(() -> {
+            TimeUnit.MILLISECONDS.sleep(TIMEOUT);
+            channel.write("wake up");
+            return null;
+        });
+        sel.select();
+        fut.get();
+
+        List<RecordedEvent> events = stop("jach.SelectorWakeup");
+        Assert.assertEquals(events.size(), 1);
+        assertChannel(events.get(0), channel);
+        Assert.assertFalse(events.get(0).getBoolean("send"));
+        Assert.assertEquals(events.get(0).getInt("cases"), 1);
+    }
+
+    @Test(description = "A timer which fires later than the lateness setting is recorded")
+    public void timerTest() throws Exception {
+        recording.enable("jach.TimerFired").with("lateness", "0 ns");
+        recording.start();
+        Timer timer = JachTime.timer(10, TimeUnit.MILLISECONDS);
+        Instant fired = timer.C.read(TIMEOUT, TimeUnit.MILLISECONDS);
+        Assert.assertNotNull(fired);
+
+        List<RecordedEvent> events = stop("jach.TimerFired");
+        Assert.assertEquals(events.size(), 1);
+        assertChannel(events.get(0), timer.C);
+        Assert.assertFalse(events.get(0).getBoolean("periodic"));
+        Assert.assertTrue(events.get(0).getLong("lateness") >= 0L);
+    }
+
+    @Test(description = "A timer which fires in time is not recorded")
+    public void timerInTimeTest() throws Exception {
+        recording.enable("jach.TimerFired").with("lateness", "1 h");
+        recording.start();
+        Timer timer = JachTime.timer(10, TimeUnit.MILLISECONDS);
+        timer.C.read(TIMEOUT, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(stop("jach.TimerFired").isEmpty());
+    }
+
+    @Test(description = "Closing a channel is recorded once")
+    public void closedTest() throws Exception {
+        recording.enable("jach.ChannelClosed");
+        recording.start();
+        BufferedChannel<String> channel = JachChannels.makeStr(1);
+        channel.close();
+        channel.close();
+
+        List<RecordedEvent> events = stop("jach.ChannelClosed");
+        Assert.assertEquals(events.size(), 1);
+        assertChannel(events.get(0), channel);
+    }
+
+    @Test(description = "The lateness setting is parsed like a threshold")
+    public void latenessSettingTest() {
+        Assert.assertEquals(LatenessSetting.parse("0"), 0L);
+        Assert.assertEquals(LatenessSetting.parse("250 us"), 250_000L);
+        Assert.assertEquals(LatenessSetting.parse("5 ms"), 5_000_000L);
+        Assert.assertEquals(LatenessSetting.parse("2 s"), 2_000_000_000L);
+        Assert.assertEquals(LatenessSetting.parse("forever"), 0L);
+
+        LatenessSetting setting = new LatenessSetting();
+        Assert.assertEquals(setting.combine(Collections.emptySet()),
+            LatenessSetting.DEFAULT);
+        Assert.assertEquals(setting.combine(new HashSet<>(
+            Arrays.asList("1 s", "20 ms"))), "20 ms");
+    }
+
+    @AfterMethod
+    public void closeRecording() {
+        recording.close();
+    }
+
+    @AfterClass
+    public void teardownClass() {
+        threadPool.shutdownNow();
+    }
+}